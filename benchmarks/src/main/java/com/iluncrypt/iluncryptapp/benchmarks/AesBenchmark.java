@@ -0,0 +1,77 @@
+package com.iluncrypt.iluncryptapp.benchmarks;
+
+import com.iluncrypt.iluncryptapp.models.SymmetricKeyConfig;
+import com.iluncrypt.iluncryptapp.models.algorithms.symmetrickey.AESManager;
+import com.iluncrypt.iluncryptapp.models.enums.symmetrickey.AuthenticationMethod;
+import com.iluncrypt.iluncryptapp.models.enums.symmetrickey.GCMTagSize;
+import com.iluncrypt.iluncryptapp.models.enums.symmetrickey.KeySize;
+import com.iluncrypt.iluncryptapp.models.enums.symmetrickey.PaddingScheme;
+import com.iluncrypt.iluncryptapp.models.enums.symmetrickey.SymmetricKeyAlgorithm;
+import com.iluncrypt.iluncryptapp.models.enums.symmetrickey.SymmetricKeyMode;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.crypto.SecretKey;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * AESManager over 1 KB to 100 MB of data, for 128 and 256-bit keys in CBC (with HMAC), CTR and GCM.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class AesBenchmark {
+
+    @Param({"1024", "1048576", "104857600"})
+    public int size;
+
+    @Param({"AES_128", "AES_256"})
+    public KeySize keySize;
+
+    @Param({"CBC", "CTR", "GCM"})
+    public SymmetricKeyMode mode;
+
+    private SymmetricKeyConfig config;
+    private SecretKey key;
+    private byte[] iv;
+    private byte[] data;
+    private byte[] encrypted;
+
+    @Setup
+    public void setup() throws Exception {
+        boolean gcm = mode == SymmetricKeyMode.GCM;
+        config = new SymmetricKeyConfig(SymmetricKeyAlgorithm.AES, mode, keySize,
+                mode == SymmetricKeyMode.CBC ? AuthenticationMethod.HMAC_SHA256 : AuthenticationMethod.NONE,
+                gcm ? GCMTagSize.TAG_128 : null,
+                mode == SymmetricKeyMode.CBC ? PaddingScheme.PKCS5 : PaddingScheme.NO_PADDING,
+                false, true, true, false);
+        key = AESManager.generateKey(config);
+        iv = AESManager.generateIV(config);
+        data = BenchmarkData.bytes(size);
+        encrypted = AESManager.encrypt(data, key, iv, config);
+    }
+
+    @Benchmark
+    public byte[] encrypt(ByteCounter counter) throws Exception {
+        counter.bytes += size;
+        return AESManager.encrypt(data, key, iv, config);
+    }
+
+    @Benchmark
+    public byte[] decrypt(ByteCounter counter) throws Exception {
+        counter.bytes += size;
+        return AESManager.decrypt(encrypted, key, config);
+    }
+}
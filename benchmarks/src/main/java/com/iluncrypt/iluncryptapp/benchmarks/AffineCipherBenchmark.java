@@ -0,0 +1,67 @@
+package com.iluncrypt.iluncryptapp.benchmarks;
+
+import com.iluncrypt.iluncryptapp.models.Alphabet;
+import com.iluncrypt.iluncryptapp.models.algorithms.classic.AffineCipher;
+import com.iluncrypt.iluncryptapp.models.enums.CaseHandling;
+import com.iluncrypt.iluncryptapp.models.enums.UnknownCharHandling;
+import com.iluncrypt.iluncryptapp.models.enums.WhitespaceHandling;
+import com.iluncrypt.iluncryptapp.models.keys.AffineKey;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * AffineCipher over texts of 1 KB to 100 MB and alphabets of 26, 95 and 10000 symbols.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class AffineCipherBenchmark {
+
+    @Param({"1024", "1048576", "104857600"})
+    public int size;
+
+    @Param({"26", "95", "10000"})
+    public int alphabetSize;
+
+    private AffineCipher cipher;
+    private AffineKey key;
+    private String plaintext;
+    private String ciphertext;
+
+    @Setup
+    public void setup() {
+        Alphabet alphabet = BenchmarkData.alphabet(alphabetSize);
+        cipher = new AffineCipher(alphabet, alphabet,
+                CaseHandling.STRICT, UnknownCharHandling.IGNORE, WhitespaceHandling.PRESERVE);
+        // 7 is coprime with every benchmarked alphabet size.
+        key = new AffineKey(7, 3, Alphabet.generateZAlphabet(alphabetSize));
+        plaintext = BenchmarkData.text(alphabet, size);
+        ciphertext = cipher.encrypt(plaintext, key);
+    }
+
+    @Benchmark
+    public String encrypt(ByteCounter counter) {
+        counter.bytes += size;
+        return cipher.encrypt(plaintext, key);
+    }
+
+    @Benchmark
+    public String decrypt(ByteCounter counter) {
+        counter.bytes += size;
+        return cipher.decrypt(ciphertext, key);
+    }
+}
@@ -0,0 +1,97 @@
+package com.iluncrypt.iluncryptapp.benchmarks;
+
+import com.iluncrypt.iluncryptapp.models.Alphabet;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Symbol lookups on alphabets of growing size: one op looks up every char of a 4 KB text, of which
+ * about one in nine is a space outside the alphabet. Alphabets are either contiguous (A–Z, printable
+ * ASCII, CJK ideographs) or scattered over the non-ASCII part of the BMP, which sends the smaller ones
+ * to the hash table instead of the dense table. The {@code *List} methods are the lookups of the
+ * original implementation, a linear search of the {@code List<Character>}, as a baseline.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AlphabetBenchmark {
+    private static final int TEXT_LENGTH = 4096;
+
+    @Param({"26", "95", "10000"})
+    public int alphabetSize;
+
+    @Param({"contiguous", "scattered"})
+    public String layout;
+
+    private Alphabet alphabet;
+    private List<Character> characters;
+    private char[] text;
+
+    @Setup
+    public void setup() {
+        alphabet = layout.equals("scattered")
+                ? BenchmarkData.scatteredAlphabet(alphabetSize)
+                : BenchmarkData.alphabet(alphabetSize);
+        characters = alphabet.getCharacters();
+        text = BenchmarkData.text(alphabet, TEXT_LENGTH).toCharArray();
+    }
+
+    @Benchmark
+    public int getIndex(ByteCounter counter) {
+        int sum = 0;
+        for (char c : text) {
+            sum += alphabet.getIndex(c);
+        }
+        counter.bytes += text.length;
+        return sum;
+    }
+
+    @Benchmark
+    public int isValidChar(ByteCounter counter) {
+        int valid = 0;
+        for (char c : text) {
+            if (alphabet.isValidChar(c)) {
+                valid++;
+            }
+        }
+        counter.bytes += text.length;
+        return valid;
+    }
+
+    @Benchmark
+    public int getIndexList(ByteCounter counter) {
+        int sum = 0;
+        for (char c : text) {
+            sum += characters.indexOf(c);
+        }
+        counter.bytes += text.length;
+        return sum;
+    }
+
+    @Benchmark
+    public int isValidCharList(ByteCounter counter) {
+        int valid = 0;
+        for (char c : text) {
+            if (characters.contains(c)) {
+                valid++;
+            }
+        }
+        counter.bytes += text.length;
+        return valid;
+    }
+}
@@ -0,0 +1,118 @@
+package com.iluncrypt.iluncryptapp.benchmarks;
+
+import com.iluncrypt.iluncryptapp.models.Alphabet;
+import com.iluncrypt.iluncryptapp.models.enums.AlphabetPreset;
+
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Deterministic inputs shared by the benchmarks, so that results are comparable between runs and releases.
+ */
+final class BenchmarkData {
+    // Fixed seed: every run encrypts exactly the same data.
+    private static final long SEED = 0x1A2B3C4DL;
+    // Average length of the runs of symbols separated by a space.
+    private static final int WORD_LENGTH = 8;
+
+    private BenchmarkData() {
+    }
+
+    /**
+     * Builds an alphabet of the given size without whitespace: A–Z for 26, printable ASCII from '!'
+     * for sizes up to 95 and consecutive CJK ideographs for larger ones.
+     */
+    static Alphabet alphabet(int size) {
+        if (size == 26) {
+            return AlphabetPreset.getAlphabetByName(AlphabetPreset.A_Z.getName());
+        }
+        char first = size <= 95 ? '!' : '一';
+        List<Character> characters = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            characters.add((char) (first + i));
+        }
+        return new Alphabet("Z" + size, "Benchmark alphabet of " + size + " symbols", characters);
+    }
+
+    /**
+     * Builds an alphabet of the given size of non-ASCII chars spread evenly from U+00A1 up to the
+     * surrogates, skipping whitespace. Up to a few hundred symbols they are too far apart for the dense
+     * table of {@link Alphabet}, which then looks them up in its open-addressing hash table.
+     */
+    static Alphabet scatteredAlphabet(int size) {
+        int first = 0xA1;
+        int step = (Character.MIN_SURROGATE - first) / size;
+        List<Character> characters = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            char c = (char) (first + i * step);
+            while (Character.isWhitespace(c)) {
+                c++;
+            }
+            characters.add(c);
+        }
+        return new Alphabet("S" + size, "Scattered benchmark alphabet of " + size + " symbols", characters);
+    }
+
+    /**
+     * Generates a text of {@code length} chars made of random symbols of the alphabet, with a
+     * space every {@value #WORD_LENGTH} symbols on average.
+     */
+    static String text(Alphabet alphabet, int length) {
+        SplittableRandom random = new SplittableRandom(SEED);
+        char[] symbols = alphabet.toCharArray();
+        char[] text = new char[length];
+        for (int i = 0; i < length; i++) {
+            text[i] = random.nextInt(WORD_LENGTH + 1) == 0 ? ' ' : symbols[random.nextInt(symbols.length)];
+        }
+        return new String(text);
+    }
+
+    /**
+     * Generates {@code length} random bytes.
+     */
+    static byte[] bytes(int length) {
+        byte[] data = new byte[length];
+        new SplittableRandom(SEED).nextBytes(data);
+        return data;
+    }
+
+    /**
+     * Generates an image of random pixels of the given {@link BufferedImage} type.
+     */
+    static BufferedImage image(int width, int height, int type) {
+        BufferedImage image = new BufferedImage(width, height, type);
+        SplittableRandom random = new SplittableRandom(SEED);
+        int[] row = new int[width];
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                row[x] = random.nextInt();
+            }
+            image.setRGB(0, y, width, 1, row, 0, width);
+        }
+        return image;
+    }
+
+    /**
+     * Generates a random permutation of 1..n in the "(1, 2, 3, ...)" format of PermutationKey.
+     */
+    static String permutation(int n) {
+        SplittableRandom random = new SplittableRandom(SEED);
+        int[] values = new int[n];
+        for (int i = 0; i < n; i++) {
+            values[i] = i + 1;
+        }
+        for (int i = n - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int swap = values[i];
+            values[i] = values[j];
+            values[j] = swap;
+        }
+        StringBuilder sb = new StringBuilder("(");
+        for (int i = 0; i < n; i++) {
+            sb.append(i == 0 ? "" : ", ").append(values[i]);
+        }
+        return sb.append(')').toString();
+    }
+}
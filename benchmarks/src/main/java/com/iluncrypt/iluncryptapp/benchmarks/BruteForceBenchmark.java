@@ -0,0 +1,63 @@
+package com.iluncrypt.iluncryptapp.benchmarks;
+
+import com.iluncrypt.iluncryptapp.models.Alphabet;
+import com.iluncrypt.iluncryptapp.models.algorithms.classic.AffineCipher;
+import com.iluncrypt.iluncryptapp.models.attacks.BruteForceAttacker;
+import com.iluncrypt.iluncryptapp.models.enums.CaseHandling;
+import com.iluncrypt.iluncryptapp.models.enums.UnknownCharHandling;
+import com.iluncrypt.iluncryptapp.models.enums.WhitespaceHandling;
+import com.iluncrypt.iluncryptapp.models.keys.AffineKey;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * BruteForceAttacker over ciphertexts of 1 KB and 64 KB. An op is a whole attack, so bytes/s counts
+ * the ciphertext once per attack, not once per tried key.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class BruteForceBenchmark {
+
+    @Param({"1024", "65536"})
+    public int size;
+
+    private final BruteForceAttacker attacker = new BruteForceAttacker();
+    private Alphabet alphabet;
+    private String ciphertext;
+
+    @Setup
+    public void setup() {
+        alphabet = BenchmarkData.alphabet(26);
+        AffineCipher cipher = new AffineCipher(alphabet, alphabet,
+                CaseHandling.IGNORE, UnknownCharHandling.REMOVE, WhitespaceHandling.PRESERVE);
+        ciphertext = cipher.encrypt(BenchmarkData.text(alphabet, size), new AffineKey(7, 3, Alphabet.generateZAlphabet(26)));
+    }
+
+    @Benchmark
+    public List<BruteForceAttacker.Candidate> attackShift(ByteCounter counter) {
+        counter.bytes += size;
+        return attacker.attackShift(ciphertext, alphabet, BruteForceAttacker.Language.ENGLISH);
+    }
+
+    @Benchmark
+    public List<BruteForceAttacker.Candidate> attackAffine(ByteCounter counter) {
+        counter.bytes += size;
+        return attacker.attackAffine(ciphertext, alphabet, alphabet, BruteForceAttacker.Language.ENGLISH);
+    }
+}
@@ -0,0 +1,25 @@
+package com.iluncrypt.iluncryptapp.benchmarks;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Secondary result counting the input processed by a benchmark. In throughput mode JMH reports it
+ * per second next to ops/s, as {@code <benchmark>:bytes}.
+ * <p>
+ * Benchmarks over text count chars, one per symbol; benchmarks over binary data count bytes.
+ * </p>
+ */
+@State(Scope.Thread)
+@AuxCounters(AuxCounters.Type.OPERATIONS)
+public class ByteCounter {
+    public long bytes;
+
+    @Setup(Level.Iteration)
+    public void reset() {
+        bytes = 0;
+    }
+}
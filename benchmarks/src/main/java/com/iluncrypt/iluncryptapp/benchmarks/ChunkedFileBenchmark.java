@@ -0,0 +1,122 @@
+package com.iluncrypt.iluncryptapp.benchmarks;
+
+import com.iluncrypt.iluncryptapp.models.SymmetricKeyConfig;
+import com.iluncrypt.iluncryptapp.models.algorithms.symmetrickey.AESManager;
+import com.iluncrypt.iluncryptapp.models.enums.symmetrickey.AuthenticationMethod;
+import com.iluncrypt.iluncryptapp.models.enums.symmetrickey.GCMTagSize;
+import com.iluncrypt.iluncryptapp.models.enums.symmetrickey.KeySize;
+import com.iluncrypt.iluncryptapp.models.enums.symmetrickey.PaddingScheme;
+import com.iluncrypt.iluncryptapp.models.enums.symmetrickey.SymmetricKeyAlgorithm;
+import com.iluncrypt.iluncryptapp.models.enums.symmetrickey.SymmetricKeyMode;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.crypto.SecretKey;
+import java.io.File;
+import java.nio.file.Files;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Streamed (ILUNCR1) against chunked (ILUNCR2) .ilun files with AES-GCM and AES-CBC + HMAC: whole-file
+ * encryption and decryption, and decryption of a random 4 KB range, which only the chunked format can do
+ * without decrypting the whole file. The numbers include the file system. Chunks reach the cipher in
+ * few, large calls, which take longer to be compiled, hence the longer warmup.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 6, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ChunkedFileBenchmark {
+    private static final int RANGE = 4096;
+
+    @Param({"1048576", "104857600"})
+    public int size;
+
+    @Param({"CBC", "GCM"})
+    public SymmetricKeyMode mode;
+
+    private SymmetricKeyConfig config;
+    private SecretKey key;
+    private File directory;
+    private File plaintext;
+    private File streamed;
+    private File chunked;
+    private File output;
+    private Random random;
+
+    @Setup
+    public void setup() throws Exception {
+        boolean gcm = mode == SymmetricKeyMode.GCM;
+        config = new SymmetricKeyConfig(SymmetricKeyAlgorithm.AES, mode, KeySize.AES_128,
+                gcm ? AuthenticationMethod.NONE : AuthenticationMethod.HMAC_SHA256,
+                gcm ? GCMTagSize.TAG_128 : null,
+                gcm ? PaddingScheme.NO_PADDING : PaddingScheme.PKCS5,
+                false, true, true, false);
+        key = AESManager.generateKey(config);
+        directory = Files.createTempDirectory("ilun-chunked-bench").toFile();
+        plaintext = new File(directory, "plain.bin");
+        streamed = new File(directory, "streamed.ilun");
+        chunked = new File(directory, "chunked.ilun");
+        output = new File(directory, "output.bin");
+        Files.write(plaintext.toPath(), BenchmarkData.bytes(size));
+        AESManager.encryptFile(plaintext, streamed, key, null, config);
+        AESManager.encryptFileChunked(plaintext, chunked, key, null, config);
+        random = new Random(42);
+    }
+
+    @TearDown
+    public void tearDown() {
+        for (File file : new File[]{plaintext, streamed, chunked, output}) {
+            file.delete();
+        }
+        directory.delete();
+    }
+
+    @Benchmark
+    public File encryptStreamed(ByteCounter counter) throws Exception {
+        counter.bytes += size;
+        AESManager.encryptFile(plaintext, output, key, null, config);
+        return output;
+    }
+
+    @Benchmark
+    public File encryptChunked(ByteCounter counter) throws Exception {
+        counter.bytes += size;
+        AESManager.encryptFileChunked(plaintext, output, key, null, config);
+        return output;
+    }
+
+    @Benchmark
+    public File decryptStreamed(ByteCounter counter) throws Exception {
+        counter.bytes += size;
+        AESManager.decryptFile(streamed, output, key, config);
+        return output;
+    }
+
+    @Benchmark
+    public File decryptChunked(ByteCounter counter) throws Exception {
+        counter.bytes += size;
+        AESManager.decryptFile(chunked, output, key, config);
+        return output;
+    }
+
+    @Benchmark
+    public byte[] decryptRangeChunked(ByteCounter counter) throws Exception {
+        counter.bytes += RANGE;
+        long offset = (long) (random.nextDouble() * (size - RANGE));
+        return AESManager.decryptFileRange(chunked, offset, RANGE, key, config);
+    }
+}
@@ -0,0 +1,144 @@
+package com.iluncrypt.iluncryptapp.benchmarks;
+
+import com.iluncrypt.iluncryptapp.models.SymmetricKeyConfig;
+import com.iluncrypt.iluncryptapp.models.algorithms.symmetrickey.AESManager;
+import com.iluncrypt.iluncryptapp.models.enums.symmetrickey.AuthenticationMethod;
+import com.iluncrypt.iluncryptapp.models.enums.symmetrickey.GCMTagSize;
+import com.iluncrypt.iluncryptapp.models.enums.symmetrickey.KeySize;
+import com.iluncrypt.iluncryptapp.models.enums.symmetrickey.PaddingScheme;
+import com.iluncrypt.iluncryptapp.models.enums.symmetrickey.SymmetricKeyAlgorithm;
+import com.iluncrypt.iluncryptapp.models.enums.symmetrickey.SymmetricKeyMode;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.crypto.Cipher;
+import javax.crypto.Mac;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.IvParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-message latency of AESManager for short messages, against the previous implementation that
+ * looked up a new Cipher and Mac on every call ({@code *Uncached}). Encryption cycles through a set of
+ * IVs, as callers sending many messages under one key must do with GCM.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CipherPlanBenchmark {
+    private static final int IV_COUNT = 1024;
+
+    @Param({"16", "256", "4096"})
+    public int size;
+
+    @Param({"CBC", "GCM"})
+    public SymmetricKeyMode mode;
+
+    private SymmetricKeyConfig config;
+    private SecretKey key;
+    private byte[][] ivs;
+    private int next;
+    private byte[] data;
+    private byte[] encrypted;
+
+    @Setup
+    public void setup() throws Exception {
+        boolean gcm = mode == SymmetricKeyMode.GCM;
+        config = new SymmetricKeyConfig(SymmetricKeyAlgorithm.AES, mode, KeySize.AES_128,
+                gcm ? AuthenticationMethod.NONE : AuthenticationMethod.HMAC_SHA256,
+                gcm ? GCMTagSize.TAG_128 : null,
+                gcm ? PaddingScheme.NO_PADDING : PaddingScheme.PKCS5,
+                false, true, true, false);
+        key = AESManager.generateKey(config);
+        ivs = new byte[IV_COUNT][];
+        for (int i = 0; i < IV_COUNT; i++) {
+            ivs[i] = AESManager.generateIV(config);
+        }
+        data = BenchmarkData.bytes(size);
+        encrypted = AESManager.encrypt(data, key, ivs[0], config);
+    }
+
+    @Benchmark
+    public byte[] encrypt() throws Exception {
+        return AESManager.encrypt(data, key, nextIV(), config);
+    }
+
+    @Benchmark
+    public byte[] decrypt() throws Exception {
+        return AESManager.decrypt(encrypted, key, config);
+    }
+
+    @Benchmark
+    public byte[] encryptUncached() throws Exception {
+        byte[] iv = nextIV();
+        Cipher cipher = Cipher.getInstance(config.getTransformation());
+        init(cipher, Cipher.ENCRYPT_MODE, iv);
+        byte[] cipherText = cipher.doFinal(data);
+        byte[] hmac = hmac(cipherText);
+
+        ByteBuffer buffer = ByteBuffer.allocate(iv.length + cipherText.length + (hmac != null ? hmac.length : 0));
+        buffer.put(iv).put(cipherText);
+        if (hmac != null) {
+            buffer.put(hmac);
+        }
+        return buffer.array();
+    }
+
+    @Benchmark
+    public byte[] decryptUncached() throws Exception {
+        int hmacSize = config.getAuthenticationMethod().getHMACSize() / 8;
+        ByteBuffer buffer = ByteBuffer.wrap(encrypted);
+        byte[] receivedIV = new byte[ivs[0].length];
+        buffer.get(receivedIV);
+        byte[] cipherText = new byte[buffer.remaining() - hmacSize];
+        buffer.get(cipherText);
+        byte[] receivedHMAC = new byte[hmacSize];
+        buffer.get(receivedHMAC);
+
+        byte[] hmac = hmac(cipherText);
+        if (hmac != null && !java.security.MessageDigest.isEqual(hmac, receivedHMAC)) {
+            throw new SecurityException("Authentication failed: HMAC verification failed.");
+        }
+        Cipher cipher = Cipher.getInstance(config.getTransformation());
+        init(cipher, Cipher.DECRYPT_MODE, receivedIV);
+        return cipher.doFinal(cipherText);
+    }
+
+    private byte[] nextIV() {
+        next = (next + 1) % IV_COUNT;
+        return ivs[next];
+    }
+
+    private void init(Cipher cipher, int opmode, byte[] iv) throws Exception {
+        if (mode == SymmetricKeyMode.GCM) {
+            cipher.init(opmode, key, new GCMParameterSpec(config.getGCMTagSize().getSize(), iv));
+        } else {
+            cipher.init(opmode, key, new IvParameterSpec(iv));
+        }
+    }
+
+    private byte[] hmac(byte[] cipherText) throws Exception {
+        String algorithm = config.getAuthenticationMethod().getHMACAlgorithm();
+        if (algorithm == null) {
+            return null;
+        }
+        Mac mac = Mac.getInstance(algorithm);
+        mac.init(new SecretKeySpec(key.getEncoded(), algorithm));
+        return mac.doFinal(cipherText);
+    }
+}
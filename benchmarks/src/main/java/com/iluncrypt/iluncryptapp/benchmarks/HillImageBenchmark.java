@@ -0,0 +1,65 @@
+package com.iluncrypt.iluncryptapp.benchmarks;
+
+import com.iluncrypt.iluncryptapp.models.algorithms.classic.HillImageCipher;
+import com.iluncrypt.iluncryptapp.models.keys.HillKey;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.awt.image.BufferedImage;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hill encryption of images with HillImageCipher, for several key sizes. Bytes are counted as 3 per
+ * pixel, the samples of the TYPE_3BYTE_BGR images multiplied by the key. The number of threads is the
+ * parallelism of the common pool, set with
+ * {@code -jvmArgsAppend -Djava.util.concurrent.ForkJoinPool.common.parallelism=N}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class HillImageBenchmark {
+
+    @Param({"1", "16"})
+    public int megapixels;
+
+    @Param({"2", "3", "8", "16"})
+    public int keySize;
+
+    private HillKey key;
+    private BufferedImage image;
+    private BufferedImage encrypted;
+
+    @Setup
+    public void setup() {
+        key = HillImageCipher.generateKey(keySize, new Random(keySize));
+        // Square images of 1024 x 1024 pixels per megapixel
+        int side = (int) Math.round(1024 * Math.sqrt(megapixels));
+        image = BenchmarkData.image(side, side, BufferedImage.TYPE_3BYTE_BGR);
+        encrypted = HillImageCipher.encrypt(image, key);
+    }
+
+    @Benchmark
+    public BufferedImage encrypt(ByteCounter counter) {
+        counter.bytes += 3L * image.getWidth() * image.getHeight();
+        return HillImageCipher.encrypt(image, key);
+    }
+
+    @Benchmark
+    public BufferedImage decrypt(ByteCounter counter) {
+        counter.bytes += 3L * image.getWidth() * image.getHeight();
+        return HillImageCipher.decrypt(encrypted, key);
+    }
+}
@@ -0,0 +1,76 @@
+package com.iluncrypt.iluncryptapp.benchmarks;
+
+import com.iluncrypt.iluncryptapp.utils.filemanager.IlunFileData;
+import com.iluncrypt.iluncryptapp.utils.filemanager.IlunFileManager;
+import com.iluncrypt.iluncryptapp.utils.filemanager.IlunFileMetadata;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.security.MessageDigest;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * IlunFileManager writing and reading .ilun files of 1 KB to 100 MB in a temporary directory.
+ * The numbers include the file system, so they are only comparable on the same machine.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class IlunFileBenchmark {
+
+    @Param({"1024", "1048576", "104857600"})
+    public int size;
+
+    private File directory;
+    private File writeTarget;
+    private File readSource;
+    private byte[] data;
+    private IlunFileMetadata metadata;
+
+    @Setup
+    public void setup() throws Exception {
+        directory = Files.createTempDirectory("ilun-bench").toFile();
+        writeTarget = new File(directory, "write.ilun");
+        readSource = new File(directory, "read.ilun");
+        data = BenchmarkData.bytes(size);
+        byte[] checksum = MessageDigest.getInstance("SHA-256").digest(data);
+        metadata = new IlunFileMetadata("AES", "txt", size, checksum, true);
+        IlunFileManager.writeIlunFile(readSource, data, metadata);
+    }
+
+    @TearDown
+    public void tearDown() {
+        writeTarget.delete();
+        readSource.delete();
+        directory.delete();
+    }
+
+    @Benchmark
+    public File write(ByteCounter counter) throws IOException {
+        counter.bytes += size;
+        IlunFileManager.writeIlunFile(writeTarget, data, metadata);
+        return writeTarget;
+    }
+
+    @Benchmark
+    public IlunFileData read(ByteCounter counter) throws IOException {
+        counter.bytes += size;
+        return IlunFileManager.readIlunFile(readSource);
+    }
+}
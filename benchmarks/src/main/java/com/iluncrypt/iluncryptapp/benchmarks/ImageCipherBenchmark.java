@@ -0,0 +1,71 @@
+package com.iluncrypt.iluncryptapp.benchmarks;
+
+import com.iluncrypt.iluncryptapp.models.algorithms.symmetrickey.AESManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.crypto.SecretKey;
+import javax.crypto.spec.SecretKeySpec;
+import java.awt.image.BufferedImage;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * AES-CTR image encryption of AESManager, whose large images are split into row bands encrypted in
+ * parallel, from 1 to 64 megapixels. Bytes are counted as 4 per pixel, the size of the stream going
+ * through the cipher. The scaling is measured by running it with different numbers of threads, set with
+ * {@code -jvmArgsAppend -Djava.util.concurrent.ForkJoinPool.common.parallelism=N}; with N=1 every image
+ * is encrypted by a single cipher.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class ImageCipherBenchmark {
+
+    @Param({"1", "4", "16", "64"})
+    public int megapixels;
+
+    @Param({"TYPE_INT_ARGB", "TYPE_3BYTE_BGR"})
+    public String type;
+
+    private SecretKey key;
+    private byte[] iv;
+    private BufferedImage image;
+    private BufferedImage encrypted;
+
+    @Setup
+    public void setup() throws Exception {
+        byte[] data = BenchmarkData.bytes(32);
+        key = new SecretKeySpec(data, 0, 16, "AES");
+        iv = Arrays.copyOfRange(data, 16, 32);
+        // Square images of 1024 x 1024 pixels per megapixel
+        int side = (int) Math.round(1024 * Math.sqrt(megapixels));
+        int imageType = BufferedImage.class.getField(type).getInt(null);
+        image = BenchmarkData.image(side, side, imageType);
+        encrypted = AESManager.encryptImage(image, key, iv);
+    }
+
+    @Benchmark
+    public BufferedImage encrypt(ByteCounter counter) throws Exception {
+        counter.bytes += 4L * image.getWidth() * image.getHeight();
+        return AESManager.encryptImage(image, key, iv);
+    }
+
+    @Benchmark
+    public BufferedImage decrypt(ByteCounter counter) throws Exception {
+        counter.bytes += 4L * image.getWidth() * image.getHeight();
+        return AESManager.decryptImage(encrypted, key, iv);
+    }
+}
@@ -0,0 +1,61 @@
+package com.iluncrypt.iluncryptapp.benchmarks;
+
+import com.iluncrypt.iluncryptapp.models.Alphabet;
+import com.iluncrypt.iluncryptapp.models.attacks.NGramFitness;
+import com.iluncrypt.iluncryptapp.models.enums.Language;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * NGramFitness over texts of 1 KB to 16 MB: scoring an int[] of symbols, the path of the attacks that
+ * decrypt into arrays, and scoring the text itself. Bytes/s counts one byte per symbol.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class NGramFitnessBenchmark {
+
+    @Param({"1024", "1048576", "16777216"})
+    public int size;
+
+    @Param({"2", "4"})
+    public int n;
+
+    private NGramFitness fitness;
+    private String text;
+    private int[] symbols;
+
+    @Setup
+    public void setup() {
+        fitness = NGramFitness.of(Language.ENGLISH, n);
+        Alphabet alphabet = BenchmarkData.alphabet(26);
+        text = BenchmarkData.text(alphabet, size);
+        symbols = NGramFitness.toSymbols(text);
+    }
+
+    @Benchmark
+    public double scoreSymbols(ByteCounter counter) {
+        counter.bytes += symbols.length;
+        return fitness.score(symbols);
+    }
+
+    @Benchmark
+    public double scoreText(ByteCounter counter) {
+        counter.bytes += size;
+        return fitness.score(text);
+    }
+}
@@ -0,0 +1,100 @@
+package com.iluncrypt.iluncryptapp.benchmarks;
+
+import com.iluncrypt.iluncryptapp.models.SymmetricKeyConfig;
+import com.iluncrypt.iluncryptapp.models.algorithms.symmetrickey.AESManager;
+import com.iluncrypt.iluncryptapp.models.enums.symmetrickey.AuthenticationMethod;
+import com.iluncrypt.iluncryptapp.models.enums.symmetrickey.KeySize;
+import com.iluncrypt.iluncryptapp.models.enums.symmetrickey.PaddingScheme;
+import com.iluncrypt.iluncryptapp.models.enums.symmetrickey.SymmetricKeyAlgorithm;
+import com.iluncrypt.iluncryptapp.models.enums.symmetrickey.SymmetricKeyMode;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.crypto.Cipher;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.IvParameterSpec;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * AESManager on the modes it splits between threads (CTR, ECB, and CBC decryption), against a single
+ * {@link Cipher#doFinal} ({@code *Single}). Without HMAC, so that only the cipher is measured. The number
+ * of threads is the parallelism of the common pool, set with
+ * {@code -jvmArgsAppend -Djava.util.concurrent.ForkJoinPool.common.parallelism=N}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class ParallelCipherBenchmark {
+
+    @Param({"1048576", "104857600"})
+    public int size;
+
+    @Param({"CTR", "ECB", "CBC"})
+    public SymmetricKeyMode mode;
+
+    private SymmetricKeyConfig config;
+    private SecretKey key;
+    private byte[] iv;
+    private byte[] data;
+    private byte[] encrypted;
+    private byte[] cipherText;
+
+    @Setup
+    public void setup() throws Exception {
+        config = new SymmetricKeyConfig(SymmetricKeyAlgorithm.AES, mode, KeySize.AES_128,
+                AuthenticationMethod.NONE, null,
+                mode == SymmetricKeyMode.CTR ? PaddingScheme.NO_PADDING : PaddingScheme.PKCS5,
+                false, true, true, false);
+        key = AESManager.generateKey(config);
+        iv = mode.requiresIV() ? AESManager.generateIV(config) : null;
+        data = BenchmarkData.bytes(size);
+        encrypted = AESManager.encrypt(data, key, iv, config);
+        cipherText = single(Cipher.ENCRYPT_MODE, data);
+    }
+
+    @Benchmark
+    public byte[] encrypt(ByteCounter counter) throws Exception {
+        counter.bytes += size;
+        return AESManager.encrypt(data, key, iv, config);
+    }
+
+    @Benchmark
+    public byte[] decrypt(ByteCounter counter) throws Exception {
+        counter.bytes += size;
+        return AESManager.decrypt(encrypted, key, config);
+    }
+
+    @Benchmark
+    public byte[] encryptSingle(ByteCounter counter) throws Exception {
+        counter.bytes += size;
+        return single(Cipher.ENCRYPT_MODE, data);
+    }
+
+    @Benchmark
+    public byte[] decryptSingle(ByteCounter counter) throws Exception {
+        counter.bytes += size;
+        return single(Cipher.DECRYPT_MODE, cipherText);
+    }
+
+    private byte[] single(int opmode, byte[] input) throws Exception {
+        Cipher cipher = Cipher.getInstance(config.getTransformation());
+        if (iv != null) {
+            cipher.init(opmode, key, new IvParameterSpec(iv));
+        } else {
+            cipher.init(opmode, key);
+        }
+        return cipher.doFinal(input);
+    }
+}
@@ -0,0 +1,69 @@
+package com.iluncrypt.iluncryptapp.benchmarks;
+
+import com.iluncrypt.iluncryptapp.models.Alphabet;
+import com.iluncrypt.iluncryptapp.models.algorithms.classic.PermutationCipher;
+import com.iluncrypt.iluncryptapp.models.enums.CaseHandling;
+import com.iluncrypt.iluncryptapp.models.enums.UnknownCharHandling;
+import com.iluncrypt.iluncryptapp.models.enums.WhitespaceHandling;
+import com.iluncrypt.iluncryptapp.models.keys.PermutationKey;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * PermutationCipher over texts of 1 KB to 100 MB with blocks of 4, 16 and 64 symbols.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class PermutationCipherBenchmark {
+
+    @Param({"1024", "1048576", "104857600"})
+    public int size;
+
+    @Param({"26", "95"})
+    public int alphabetSize;
+
+    @Param({"4", "16", "64"})
+    public int keySize;
+
+    private PermutationCipher cipher;
+    private PermutationKey key;
+    private String plaintext;
+    private String ciphertext;
+
+    @Setup
+    public void setup() {
+        Alphabet alphabet = BenchmarkData.alphabet(alphabetSize);
+        cipher = new PermutationCipher(alphabet, alphabet,
+                CaseHandling.STRICT, UnknownCharHandling.REMOVE, WhitespaceHandling.REMOVE);
+        key = new PermutationKey(BenchmarkData.permutation(keySize), alphabet);
+        plaintext = BenchmarkData.text(alphabet, size);
+        ciphertext = cipher.encrypt(plaintext, key);
+    }
+
+    @Benchmark
+    public String encrypt(ByteCounter counter) {
+        counter.bytes += size;
+        return cipher.encrypt(plaintext, key);
+    }
+
+    @Benchmark
+    public String decrypt(ByteCounter counter) {
+        counter.bytes += ciphertext.length();
+        return cipher.decrypt(ciphertext, key);
+    }
+}
@@ -0,0 +1,89 @@
+package com.iluncrypt.iluncryptapp.benchmarks;
+
+import com.iluncrypt.iluncryptapp.models.algorithms.symmetrickey.SDESCryptosystem;
+import com.iluncrypt.iluncryptapp.models.algorithms.symmetrickey.SDESKey;
+import com.iluncrypt.iluncryptapp.models.attacks.SDESKeySearch;
+import com.iluncrypt.iluncryptapp.models.enums.Language;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * SDESCryptosystem over 1 KB to 100 MB of data, given in its letter form (two letters A–P per byte)
+ * and as raw bytes, and the exhaustive key search over the same data.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class SdesBenchmark {
+    private static final String KEY = "1010000010";
+
+    @Param({"1024", "1048576", "104857600"})
+    public int size;
+
+    private SDESCryptosystem sdes;
+    private SDESKey compiledKey;
+    private byte[] data;
+    private byte[] encryptedData;
+    private String plaintext;
+    private String ciphertext;
+
+    @Setup
+    public void setup() {
+        sdes = new SDESCryptosystem();
+        compiledKey = SDESKey.fromBinary(KEY);
+        data = BenchmarkData.bytes(size);
+        encryptedData = sdes.encrypt(data, compiledKey);
+        char[] letters = new char[2 * size];
+        for (int i = 0; i < size; i++) {
+            letters[2 * i] = (char) ('A' + ((data[i] >> 4) & 0x0F));
+            letters[2 * i + 1] = (char) ('A' + (data[i] & 0x0F));
+        }
+        plaintext = new String(letters);
+        ciphertext = sdes.encrypt(plaintext, KEY);
+    }
+
+    @Benchmark
+    public String encrypt(ByteCounter counter) {
+        counter.bytes += size;
+        return sdes.encrypt(plaintext, KEY);
+    }
+
+    @Benchmark
+    public String decrypt(ByteCounter counter) {
+        counter.bytes += size;
+        return sdes.decrypt(ciphertext, KEY);
+    }
+
+    @Benchmark
+    public byte[] encryptBytes(ByteCounter counter) {
+        counter.bytes += size;
+        return sdes.encrypt(data, compiledKey);
+    }
+
+    @Benchmark
+    public List<SDESKeySearch.KeyCandidate> knownPlaintextSearch(ByteCounter counter) {
+        counter.bytes += size;
+        return SDESKeySearch.knownPlaintextAttack(encryptedData, data);
+    }
+
+    @Benchmark
+    public List<SDESKeySearch.KeyCandidate> ciphertextOnlySearch(ByteCounter counter) {
+        counter.bytes += size;
+        return SDESKeySearch.ciphertextOnlyAttack(encryptedData, Language.ENGLISH);
+    }
+}
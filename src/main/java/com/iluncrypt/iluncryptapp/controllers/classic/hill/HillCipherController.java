@@ -3,7 +3,14 @@ package com.iluncrypt.iluncryptapp.controllers.classic.hill;
 import com.iluncrypt.iluncryptapp.controllers.CipherController;
 import com.iluncrypt.iluncryptapp.controllers.IlunCryptController;
 import com.iluncrypt.iluncryptapp.controllers.classic.ClassicCiphersDialogController;
+import com.iluncrypt.iluncryptapp.models.Alphabet;
 import com.iluncrypt.iluncryptapp.models.CryptosystemConfig;
+import com.iluncrypt.iluncryptapp.models.algorithms.classic.HillCipher;
+import com.iluncrypt.iluncryptapp.models.enums.AlphabetPreset;
+import com.iluncrypt.iluncryptapp.models.enums.CaseHandling;
+import com.iluncrypt.iluncryptapp.models.enums.UnknownCharHandling;
+import com.iluncrypt.iluncryptapp.models.enums.WhitespaceHandling;
+import com.iluncrypt.iluncryptapp.models.keys.HillKey;
 import com.iluncrypt.iluncryptapp.utils.DialogHelper;
 import io.github.palexdev.materialfx.controls.MFXButton;
 import io.github.palexdev.materialfx.controls.MFXTextField;
@@ -31,10 +38,11 @@ import java.util.ResourceBundle;
  */
 public class HillCipherController implements CipherController, Initializable {
 
-    private static final int ALPHABET_SIZE = 26;
-    private static final int MODULO = 26;
+    private static final Alphabet ALPHABET = AlphabetPreset.getAlphabetByName("A-Z");
+    private static final int ALPHABET_SIZE = ALPHABET.size();
     private final DialogHelper infoDialog;
     private final DialogHelper changeMethodDialog;
+    private final HillCipher hillCipher;
 
     // Stores the last entered values when switching methods
     private String lastPlainText = "";
@@ -68,6 +76,9 @@ public class HillCipherController implements CipherController, Initializable {
     public HillCipherController(Stage stage) {
         this.infoDialog = new DialogHelper(stage);
         this.changeMethodDialog = new DialogHelper(stage);
+        // Letters only, as in the classic Hill cipher: everything else is dropped
+        this.hillCipher = new HillCipher(ALPHABET, ALPHABET,
+                CaseHandling.IGNORE, UnknownCharHandling.REMOVE, WhitespaceHandling.REMOVE);
     }
 
     /**
@@ -238,7 +249,7 @@ public class HillCipherController implements CipherController, Initializable {
 
     @FXML
     private void cipherText() {
-        String plainText = cleanInput(textAreaPlainText.getText());
+        String plainText = textAreaPlainText.getText();
         String keyStr = textFieldKey.getText();
 
         if (keyStr.isEmpty()) {
@@ -246,26 +257,11 @@ public class HillCipherController implements CipherController, Initializable {
             keyStr = textFieldKey.getText();
         }
 
-        int[][] keyMatrix = parseMatrix(keyStr);
-        textAreaCipherText.setText(hillEncrypt(plainText, keyMatrix));
-    }
-
-    private int[][] createKeyMatrix(String Dmatrix) {
-        String[] Nmatrix = Dmatrix.split(" ");
-        int numberOfElements = Nmatrix.length;
-        int MatrixSize = (int) Math.sqrt(numberOfElements);
-        if (MatrixSize * MatrixSize != numberOfElements) {
-            throw new IllegalArgumentException("El número de elementos no forma un cuadrado perfecto.");
-        }
-        int[][] Matrix = new int[MatrixSize][MatrixSize];
-        int index = 0;
-        for (int i = 0; i < MatrixSize; i++) {
-            for (int j = 0; j < MatrixSize; j++) {
-                Matrix[i][j] = Integer.parseInt(Nmatrix[index]);
-                index++;
-            }
+        try {
+            textAreaCipherText.setText(hillCipher.encrypt(plainText, new HillKey(keyStr, ALPHABET)));
+        } catch (IllegalArgumentException e) {
+            infoDialog.showInfoDialog("Error", e.getMessage());
         }
-        return Matrix;
     }
 
 /*********** END ENCRIPTION,  *************/
@@ -292,7 +288,7 @@ public class HillCipherController implements CipherController, Initializable {
 
     @FXML
     private void decipherText() {
-        String cipherText = cleanInput(textAreaCipherText.getText());
+        String cipherText = textAreaCipherText.getText();
         String keyStr = textFieldKey.getText();
 
         if (keyStr.isEmpty()) {
@@ -300,100 +296,31 @@ public class HillCipherController implements CipherController, Initializable {
             return;
         }
 
-        int[][] keyMatrix = parseMatrix(keyStr);
-        int[][] inverseKey = invertMatrixMod26(keyMatrix);
-        if (inverseKey == null) {
-            infoDialog.showInfoDialog("Error", "Key matrix is not invertible in Z26.");
-            return;
+        try {
+            textAreaPlainText.setText(hillCipher.decrypt(cipherText, new HillKey(keyStr, ALPHABET)));
+        } catch (IllegalArgumentException e) {
+            infoDialog.showInfoDialog("Error", e.getMessage());
         }
-
-        textAreaPlainText.setText(hillEncrypt(cipherText, inverseKey));
     }
 
     @FXML
     private void generateRandomKey() {
         Random rand = new Random();
-        int[][] matrix;
-        do {
-            matrix = new int[][]{
-                    {rand.nextInt(26), rand.nextInt(26)},
-                    {rand.nextInt(26), rand.nextInt(26)}
-            };
-        } while (invertMatrixMod26(matrix) == null);
-
-        textFieldKey.setText(formatMatrix(matrix));
-    }
-
-    private String hillEncrypt(String text, int[][] keyMatrix) {
-        StringBuilder cipherText = new StringBuilder();
-        int size = keyMatrix.length;
-
-        while (text.length() % size != 0) {
-            text += (char) ('A' + new Random().nextInt(26));
-        }
-
-        for (int i = 0; i < text.length(); i += size) {
-            int[] vector = new int[size];
-            for (int j = 0; j < size; j++) {
-                vector[j] = text.charAt(i + j) - 'A';
+        HillKey key = null;
+        while (key == null) {
+            int[][] matrix = new int[2][2];
+            for (int[] row : matrix) {
+                for (int j = 0; j < row.length; j++) {
+                    row[j] = rand.nextInt(ALPHABET_SIZE);
+                }
             }
-
-            int[] encryptedVector = multiplyMatrixByVector(keyMatrix, vector);
-            for (int value : encryptedVector) {
-                cipherText.append((char) (value + 'A'));
+            try {
+                key = new HillKey(matrix, ALPHABET);
+            } catch (IllegalArgumentException e) {
+                // Not invertible modulo 26, try another one
             }
         }
-        return cipherText.toString();
-    }
 
-    private int[] multiplyMatrixByVector(int[][] matrix, int[] vector) {
-        int[] result = new int[matrix.length];
-        for (int i = 0; i < matrix.length; i++) {
-            result[i] = 0;
-            for (int j = 0; j < matrix[i].length; j++) {
-                result[i] += matrix[i][j] * vector[j];
-            }
-            result[i] = (result[i] % MODULO + MODULO) % MODULO;
-        }
-        return result;
+        textFieldKey.setText(key.toString());
     }
-
-    private int[][] invertMatrixMod26(int[][] matrix) {
-        int det = (matrix[0][0] * matrix[1][1] - matrix[0][1] * matrix[1][0]) % MODULO;
-        det = (det + MODULO) % MODULO;
-
-        int invDet = modInverse(det, MODULO);
-        if (invDet == -1) return null;
-
-        return new int[][]{
-                {(matrix[1][1] * invDet) % MODULO, (-matrix[0][1] * invDet) % MODULO},
-                {(-matrix[1][0] * invDet) % MODULO, (matrix[0][0] * invDet) % MODULO}
-        };
-    }
-
-    private int modInverse(int a, int m) {
-        for (int x = 1; x < m; x++) {
-            if ((a * x) % m == 1) return x;
-        }
-        return -1;
-    }
-
-    private String cleanInput(String input) {
-        return input.toUpperCase().replaceAll("[^A-Z]", "");
-    }
-
-    private int[][] parseMatrix(String input) {
-        input = input.replaceAll("\\[|\\]", "").trim();
-        String[] values = input.split(",\s*");
-        return new int[][]{
-                {Integer.parseInt(values[0]), Integer.parseInt(values[1])},
-                {Integer.parseInt(values[2]), Integer.parseInt(values[3])}
-        };
-    }
-
-    private String formatMatrix(int[][] matrix) {
-        return String.format("[[%d, %d], [%d, %d]]", matrix[0][0], matrix[0][1], matrix[1][0], matrix[1][1]);
-    }
-
-
 }
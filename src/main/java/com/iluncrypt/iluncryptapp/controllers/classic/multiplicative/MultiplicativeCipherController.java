@@ -3,7 +3,14 @@ package com.iluncrypt.iluncryptapp.controllers.classic.multiplicative;
 import com.iluncrypt.iluncryptapp.controllers.CipherController;
 import com.iluncrypt.iluncryptapp.controllers.IlunCryptController;
 import com.iluncrypt.iluncryptapp.controllers.classic.ClassicCiphersDialogController;
+import com.iluncrypt.iluncryptapp.models.Alphabet;
 import com.iluncrypt.iluncryptapp.models.CryptosystemConfig;
+import com.iluncrypt.iluncryptapp.models.algorithms.classic.MultiplicativeCipher;
+import com.iluncrypt.iluncryptapp.models.enums.AlphabetPreset;
+import com.iluncrypt.iluncryptapp.models.enums.CaseHandling;
+import com.iluncrypt.iluncryptapp.models.enums.UnknownCharHandling;
+import com.iluncrypt.iluncryptapp.models.enums.WhitespaceHandling;
+import com.iluncrypt.iluncryptapp.models.keys.AffineKey;
 import com.iluncrypt.iluncryptapp.utils.DialogHelper;
 import io.github.palexdev.materialfx.controls.MFXButton;
 import io.github.palexdev.materialfx.controls.MFXTextField;
@@ -30,10 +37,13 @@ import java.util.ResourceBundle;
  */
 public class MultiplicativeCipherController implements CipherController, Initializable {
 
-    private static final int ALPHABET_SIZE = 26;
+    private static final Alphabet ALPHABET = AlphabetPreset.getAlphabetByName("A-Z");
+    private static final int ALPHABET_SIZE = ALPHABET.size();
+    private static final Alphabet KEY_ALPHABET = Alphabet.generateZAlphabet(ALPHABET_SIZE);
 
     private final DialogHelper infoDialog;
     private final DialogHelper changeMethodDialog;
+    private final MultiplicativeCipher multiplicativeCipher;
 
     // Stores the last entered values when switching methods
     private String lastPlainText = "";
@@ -64,6 +74,8 @@ public class MultiplicativeCipherController implements CipherController, Initial
     public MultiplicativeCipherController(Stage stage) {
         this.infoDialog = new DialogHelper(stage);
         this.changeMethodDialog = new DialogHelper(stage);
+        this.multiplicativeCipher = new MultiplicativeCipher(ALPHABET, ALPHABET,
+                CaseHandling.PRESERVE, UnknownCharHandling.IGNORE, WhitespaceHandling.PRESERVE);
     }
 
     /**
@@ -235,8 +247,12 @@ public class MultiplicativeCipherController implements CipherController, Initial
     private void cipherText() {
         String plainText = textAreaPlainText.getText();
         if (!plainText.isEmpty()) {
-            int key = parseInt(textFieldKey.getText(), 1);
-            textAreaCipherText.setText(multiplicativeEncrypt(plainText, key));
+            try {
+                AffineKey key = new AffineKey(parseInt(textFieldKey.getText(), 1), 0, KEY_ALPHABET);
+                textAreaCipherText.setText(multiplicativeCipher.encrypt(plainText, key));
+            } catch (IllegalArgumentException e) {
+                infoDialog.showInfoDialog("Error", e.getMessage());
+            }
         }
     }
 
@@ -244,49 +260,13 @@ public class MultiplicativeCipherController implements CipherController, Initial
     private void decipherText() {
         String cipherText = textAreaCipherText.getText();
         if (!cipherText.isEmpty()) {
-            int key = parseInt(textFieldKey.getText(), 1);
-            textAreaPlainText.setText(multiplicativeDecrypt(cipherText, key));
-        }
-    }
-
-    private String multiplicativeEncrypt(String text, int key) {
-        StringBuilder result = new StringBuilder();
-        for (char c : text.toCharArray()) {
-            if (Character.isLetter(c)) {
-                char base = Character.isLowerCase(c) ? 'a' : 'A';
-                result.append((char) ((key * (c - base) % ALPHABET_SIZE) + base));
-            } else {
-                result.append(c);
-            }
-        }
-        return result.toString();
-    }
-
-    private String multiplicativeDecrypt(String text, int key) {
-        int inverseKey = multiplicativeInverse(key, ALPHABET_SIZE);
-        if (inverseKey == -1) {
-            return "Error: No multiplicative inverse exists.";
-        }
-        StringBuilder result = new StringBuilder();
-        for (char c : text.toCharArray()) {
-            if (Character.isLetter(c)) {
-                char base = Character.isLowerCase(c) ? 'a' : 'A';
-                result.append((char) ((inverseKey * (c - base) % ALPHABET_SIZE + ALPHABET_SIZE) % ALPHABET_SIZE + base));
-            } else {
-                result.append(c);
-            }
-        }
-        return result.toString();
-    }
-
-    private int multiplicativeInverse(int a, int m) {
-        a = a % m;
-        for (int x = 1; x < m; x++) {
-            if ((a * x) % m == 1) {
-                return x;
+            try {
+                AffineKey key = new AffineKey(parseInt(textFieldKey.getText(), 1), 0, KEY_ALPHABET);
+                textAreaPlainText.setText(multiplicativeCipher.decrypt(cipherText, key));
+            } catch (IllegalArgumentException e) {
+                infoDialog.showInfoDialog("Error", e.getMessage());
             }
         }
-        return -1;
     }
 
     /** Increment/Decrement Controls **/
@@ -3,16 +3,27 @@ package com.iluncrypt.iluncryptapp.controllers.classic.substitution;
 import com.iluncrypt.iluncryptapp.controllers.CipherController;
 import com.iluncrypt.iluncryptapp.controllers.IlunCryptController;
 import com.iluncrypt.iluncryptapp.controllers.classic.ClassicCiphersDialogController;
+import com.iluncrypt.iluncryptapp.models.Alphabet;
 import com.iluncrypt.iluncryptapp.models.CryptosystemConfig;
+import com.iluncrypt.iluncryptapp.models.algorithms.classic.SubstitutionCipher;
+import com.iluncrypt.iluncryptapp.models.attacks.SubstitutionAttack;
+import com.iluncrypt.iluncryptapp.models.enums.CaseHandling;
+import com.iluncrypt.iluncryptapp.models.enums.Language;
+import com.iluncrypt.iluncryptapp.models.enums.UnknownCharHandling;
+import com.iluncrypt.iluncryptapp.models.enums.WhitespaceHandling;
+import com.iluncrypt.iluncryptapp.models.keys.SubstitutionKey;
 import com.iluncrypt.iluncryptapp.utils.DialogHelper;
+import com.iluncrypt.iluncryptapp.utils.LanguageManager;
 import io.github.palexdev.materialfx.controls.MFXButton;
 import io.github.palexdev.materialfx.controls.MFXTextField;
 import io.github.palexdev.mfxresources.fonts.MFXFontIcon;
+import javafx.concurrent.Task;
 import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
 import javafx.fxml.Initializable;
 import javafx.geometry.Pos;
 import javafx.scene.control.Alert;
+import javafx.scene.control.ButtonType;
 import javafx.scene.control.TextArea;
 import javafx.scene.layout.GridPane;
 import javafx.scene.layout.Priority;
@@ -23,6 +34,7 @@ import java.net.URL;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Optional;
 import java.util.ResourceBundle;
 
 /**
@@ -239,17 +251,52 @@ public class SubstitutionCipherController implements CipherController, Initializ
     private void showCryptanalysisDialog() {
         if (textAreaCipherText.getText().isEmpty()) {
             showAlert("Cryptanalysis Error", "No Cipher Text Found", "Please enter cipher text to perform cryptanalysis.");
-        } else {
-            showAlert("Perform Cryptanalysis", "Confirm Cryptanalysis", "Proceed with cryptanalysis on the cipher text?");
+        } else if (showAlert("Perform Cryptanalysis", "Confirm Cryptanalysis", "Proceed with cryptanalysis on the cipher text?")
+                .filter(ButtonType.OK::equals).isPresent()) {
+            breakCipherText();
         }
     }
 
-    private void showAlert(String title, String header, String content) {
+    /**
+     * Recovers the key of the cipher text with a quadgram hill-climbing attack in the interface language,
+     * assuming both alphabets are A-Z, and fills in the key fields and the plaintext. The attack runs for up
+     * to two seconds, so it runs on a background thread and the fields are filled in once it succeeds.
+     */
+    private void breakCipherText() {
+        String cipherText = textAreaCipherText.getText();
+        Alphabet alphabet = letterAlphabet();
+        Language language = Language.fromCode(LanguageManager.getInstance().getCurrentLocale().getLanguage());
+        Task<List<SubstitutionAttack.Solution>> attack = new Task<>() {
+            @Override
+            protected List<SubstitutionAttack.Solution> call() {
+                return SubstitutionAttack.attack(cipherText, alphabet, alphabet, language);
+            }
+        };
+        attack.setOnSucceeded(e -> {
+            List<SubstitutionAttack.Solution> solutions = attack.getValue();
+            if (solutions.isEmpty()) {
+                infoDialog.showInfoDialog("Cryptanalysis", "The cipher text has no letters to analyze.");
+                return;
+            }
+            SubstitutionAttack.Solution best = solutions.get(0);
+            textFieldPlainAlphabet.setText(ALPHABET);
+            textFieldCipherAlphabet.setText(best.getKey());
+            textAreaPlainText.setText(substitutionDecrypt(cipherText));
+        });
+        attack.setOnFailed(e -> infoDialog.showInfoDialog("Error",
+                "Cryptanalysis failed: " + attack.getException().getMessage()));
+
+        Thread thread = new Thread(attack, "substitution-attack");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private Optional<ButtonType> showAlert(String title, String header, String content) {
         Alert alert = new Alert(Alert.AlertType.CONFIRMATION);
         alert.setTitle(title);
         alert.setHeaderText(header);
         alert.setContentText(content);
-        alert.showAndWait();
+        return alert.showAndWait();
     }
 
     /** Encryption and Decryption **/
@@ -283,38 +330,52 @@ public class SubstitutionCipherController implements CipherController, Initializ
 
 
     private String substitutionEncrypt(String plainText) {
-        plainText = cleanInput(plainText);
-        String plainAlphabet = textFieldPlainAlphabet.getText();
-        String cipherAlphabet = textFieldCipherAlphabet.getText();
-
-        StringBuilder cipherText = new StringBuilder();
-
-        for (char c : plainText.toCharArray()) {
-            int index = plainAlphabet.indexOf(c);
-            cipherText.append(cipherAlphabet.charAt(index));
+        try {
+            Alphabet alphabet = plainAlphabet();
+            return newCipher(alphabet).encrypt(plainText, new SubstitutionKey(textFieldCipherAlphabet.getText(), alphabet));
+        } catch (IllegalArgumentException e) {
+            infoDialog.showInfoDialog("Error", e.getMessage());
+            return "";
         }
-        return cipherText.toString();
     }
 
 
 
     private String substitutionDecrypt(String cipherText) {
-        cipherText = cleanInput(cipherText);
-        String plainAlphabet = textFieldPlainAlphabet.getText();
-        String cipherAlphabet = textFieldCipherAlphabet.getText();
-
-        StringBuilder plainText = new StringBuilder();
+        try {
+            Alphabet alphabet = plainAlphabet();
+            return newCipher(alphabet).decrypt(cipherText, new SubstitutionKey(textFieldCipherAlphabet.getText(), alphabet));
+        } catch (IllegalArgumentException e) {
+            infoDialog.showInfoDialog("Error", e.getMessage());
+            return "";
+        }
+    }
 
-        for (char c : cipherText.toCharArray()) {
-            int index = cipherAlphabet.indexOf(c);
-            plainText.append(plainAlphabet.charAt(index));
+    /**
+     * Builds the alphabet typed in the plaintext alphabet field; the cipher alphabet field must be a rearrangement of it.
+     */
+    private Alphabet plainAlphabet() {
+        List<Character> characters = new ArrayList<>();
+        for (char c : textFieldPlainAlphabet.getText().toCharArray()) {
+            characters.add(c);
         }
-        return plainText.toString();
+        return new Alphabet("Custom", "Substitution cipher alphabet", characters);
     }
 
+    private static Alphabet letterAlphabet() {
+        List<Character> characters = new ArrayList<>();
+        for (char c : ALPHABET.toCharArray()) {
+            characters.add(c);
+        }
+        return new Alphabet("A-Z", "Latin letters", characters);
+    }
 
-    private String cleanInput(String input) {
-        return input.toUpperCase().replaceAll("[^A-Z]", "");
+    /**
+     * Letters are upper-cased and anything outside the alphabet is dropped, as the cipher has always done.
+     */
+    private SubstitutionCipher newCipher(Alphabet alphabet) {
+        return new SubstitutionCipher(alphabet, alphabet,
+                CaseHandling.IGNORE, UnknownCharHandling.REMOVE, WhitespaceHandling.REMOVE);
     }
 
     /** Increment/Decrement Controls **/
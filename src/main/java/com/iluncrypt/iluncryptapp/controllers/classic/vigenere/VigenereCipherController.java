@@ -3,7 +3,14 @@ package com.iluncrypt.iluncryptapp.controllers.classic.vigenere;
 import com.iluncrypt.iluncryptapp.controllers.CipherController;
 import com.iluncrypt.iluncryptapp.controllers.IlunCryptController;
 import com.iluncrypt.iluncryptapp.controllers.classic.ClassicCiphersDialogController;
+import com.iluncrypt.iluncryptapp.models.Alphabet;
 import com.iluncrypt.iluncryptapp.models.CryptosystemConfig;
+import com.iluncrypt.iluncryptapp.models.algorithms.classic.VigenereCipher;
+import com.iluncrypt.iluncryptapp.models.enums.AlphabetPreset;
+import com.iluncrypt.iluncryptapp.models.enums.CaseHandling;
+import com.iluncrypt.iluncryptapp.models.enums.UnknownCharHandling;
+import com.iluncrypt.iluncryptapp.models.enums.WhitespaceHandling;
+import com.iluncrypt.iluncryptapp.models.keys.VigenereKey;
 import com.iluncrypt.iluncryptapp.utils.DialogHelper;
 import io.github.palexdev.materialfx.controls.MFXButton;
 import io.github.palexdev.materialfx.controls.MFXTextField;
@@ -28,9 +35,10 @@ import java.util.ResourceBundle;
  */
 public class VigenereCipherController implements CipherController, Initializable {
 
-    private static final int ALPHABET_SIZE = 26;
+    private static final Alphabet ALPHABET = AlphabetPreset.getAlphabetByName("A-Z");
     private final DialogHelper infoDialog;
     private final DialogHelper changeMethodDialog;
+    private final VigenereCipher vigenereCipher;
 
     // Stores the last entered values when switching methods
     private String lastPlainText = "";
@@ -61,6 +69,9 @@ public class VigenereCipherController implements CipherController, Initializable
     public VigenereCipherController(Stage stage) {
         this.infoDialog = new DialogHelper(stage);
         this.changeMethodDialog = new DialogHelper(stage);
+        // Letters are shifted keeping their case, everything else is kept in place without consuming the key
+        this.vigenereCipher = new VigenereCipher(ALPHABET, ALPHABET,
+                CaseHandling.PRESERVE, UnknownCharHandling.IGNORE, WhitespaceHandling.PRESERVE);
     }
 
     /**
@@ -223,8 +234,12 @@ public class VigenereCipherController implements CipherController, Initializable
     private void cipherText() {
         String plainText = textAreaPlainText.getText();
         if (!plainText.isEmpty()) {
-            String key = textFieldKey.getText();
-            textAreaCipherText.setText(VigenereEncrypt(plainText, key));
+            try {
+                VigenereKey key = new VigenereKey(textFieldKey.getText().toUpperCase(), ALPHABET);
+                textAreaCipherText.setText(vigenereCipher.encrypt(plainText, key));
+            } catch (IllegalArgumentException e) {
+                infoDialog.showInfoDialog("Error", e.getMessage());
+            }
         }
     }
 
@@ -232,63 +247,13 @@ public class VigenereCipherController implements CipherController, Initializable
     private void decipherText() {
         String cipherText = textAreaCipherText.getText();
         if (!cipherText.isEmpty()) {
-            String key = textFieldKey.getText();
-            textAreaPlainText.setText(VigenereDecrypt(cipherText, key));
-        }
-    }
-
-    private String ExtendKey(String text, String key) {
-        StringBuilder extendedKey = new StringBuilder(key);
-        int messageLength = text.length();
-        int keyLength = key.length();
-
-        for (int i = 0; extendedKey.length() < messageLength; i++) {
-            extendedKey.append(key.charAt(i % keyLength));
-        }
-        return extendedKey.toString();
-    }
-
-    private String VigenereEncrypt(String text, String extendedKey) {
-        StringBuilder result = new StringBuilder();
-        int keyIndex = 0;
-        for (char c : text.toCharArray()) {
-            if (Character.isLetter(c)) {
-                char base = Character.isLowerCase(c) ? 'a' : 'A';
-                char keyChar = extendedKey.charAt(keyIndex % extendedKey.length());
-                int shift = Character.toLowerCase(keyChar) - 'a';
-                result.append((char) (((c - base + shift) % ALPHABET_SIZE) + base));
-                keyIndex++;
-            } else {
-                result.append(c);
-            }
-        }
-        return result.toString();
-    }
-    private String VigenereDecrypt(String text, String extendedKey) {
-        StringBuilder result = new StringBuilder();
-        int keyIndex = 0;
-
-        for (char c : text.toCharArray()) {
-            if (Character.isLetter(c)) {
-                // Determinar si la letra es minúscula o mayúscula
-                char base = Character.isLowerCase(c) ? 'a' : 'A';
-                // Obtener el carácter correspondiente de la clave extendida
-                char keyChar = extendedKey.charAt(keyIndex % extendedKey.length());
-                // Calcular el desplazamiento basado en la letra de la clave
-                int shift = Character.toLowerCase(keyChar) - 'a';
-
-                // Aplicar el descifrado de Vigenère (restar el desplazamiento)
-                result.append((char) (((c - base - shift + ALPHABET_SIZE) % ALPHABET_SIZE) + base));
-
-                // Incrementar el índice de la clave solo si la letra es alfabética
-                keyIndex++;
-            } else {
-                // Si no es una letra, agregar el carácter tal cual
-                result.append(c);
+            try {
+                VigenereKey key = new VigenereKey(textFieldKey.getText().toUpperCase(), ALPHABET);
+                textAreaPlainText.setText(vigenereCipher.decrypt(cipherText, key));
+            } catch (IllegalArgumentException e) {
+                infoDialog.showInfoDialog("Error", e.getMessage());
             }
         }
-
-        return result.toString();
     }
 
 
@@ -6,7 +6,10 @@ import com.iluncrypt.iluncryptapp.models.Alphabet;
 import com.iluncrypt.iluncryptapp.models.CryptosystemConfig;
 import com.iluncrypt.iluncryptapp.models.attacks.BruteForceAnalysis;
 import com.iluncrypt.iluncryptapp.models.attacks.Candidate;
+import com.iluncrypt.iluncryptapp.models.attacks.KasiskiExamination;
+import com.iluncrypt.iluncryptapp.models.attacks.VigenereAttack;
 import com.iluncrypt.iluncryptapp.models.attacks.VigenereCryptanalysis;
+import com.iluncrypt.iluncryptapp.models.enums.AlphabetPreset;
 import com.iluncrypt.iluncryptapp.models.enums.Language;
 import com.iluncrypt.iluncryptapp.utils.DialogHelper;
 import io.github.palexdev.materialfx.controls.MFXButton;
@@ -34,6 +37,11 @@ import java.util.ResourceBundle;
  * Controller for Friedman Test Cryptanalysis.
  */
 public class FriedmanAnalysisController implements CipherController, Initializable {
+    // Key lengths, repeated sequences and likely periods listed after an attack
+    private static final int SHOWN_PERIODS = 20;
+    private static final int SHOWN_REPEATS = 30;
+    private static final int SHOWN_FACTORS = 10;
+
     private final DialogHelper infoDialog;
     private final DialogHelper errorDialog;
     private final Stage stage;
@@ -44,11 +52,17 @@ public class FriedmanAnalysisController implements CipherController, Initializab
     @FXML
     private MFXTableColumn<Candidate> colCandidate, colKey, colProbability;
 
+    @FXML
+    private MFXTableView<VigenereAttack.Period> tablePeriods;
+
+    @FXML
+    private MFXTableColumn<VigenereAttack.Period> colPeriod, colIC, colKasiski, colPeriodScore;
+
     @FXML
     private GridPane grid;
 
     @FXML
-    private TextArea textAreaCandidates, textAreaTextToAttack;
+    private TextArea textAreaCandidates, textAreaTextToAttack, textAreaRepeats;
 
     @FXML
     private MFXComboBox<String> comboBoxLanguage;
@@ -89,6 +103,20 @@ public class FriedmanAnalysisController implements CipherController, Initializab
 
         tableCandidates.getTableColumns().setAll(colKey, colProbability, colCandidate);
 
+        // Columnas de la tabla de longitudes de clave
+        colPeriod = new MFXTableColumn<>("Key Length", true);
+        colPeriod.setRowCellFactory(period -> new MFXTableRowCell<>(VigenereAttack.Period::getLength));
+        colIC = new MFXTableColumn<>("IC", true);
+        colIC.setRowCellFactory(period -> new MFXTableRowCell<>(VigenereAttack.Period::getIndexOfCoincidence,
+                ic -> String.format("%.4f", ic)));
+        colKasiski = new MFXTableColumn<>("Kasiski", true);
+        colKasiski.setRowCellFactory(period -> new MFXTableRowCell<>(VigenereAttack.Period::getKasiskiSupport,
+                support -> String.format("%.1f%%", support * 100)));
+        colPeriodScore = new MFXTableColumn<>("Score", true);
+        colPeriodScore.setRowCellFactory(period -> new MFXTableRowCell<>(VigenereAttack.Period::getScore,
+                score -> String.format("%.2f", score)));
+        tablePeriods.getTableColumns().setAll(List.of(colPeriod, colIC, colKasiski, colPeriodScore));
+
         //  Agregar un listener para que al hacer clic en una fila se muestre el candidato en el textarea
         tableCandidates.getSelectionModel().selectionProperty().addListener((obs, oldSelection, newSelection) -> {
             if (newSelection != null) {
@@ -175,6 +203,37 @@ public class FriedmanAnalysisController implements CipherController, Initializab
         if (!candidates.isEmpty()) {
             textAreaCandidates.setText(candidates.get(0).getDecryptedText());
         }
+
+        showKeyLengths(cipherText);
+    }
+
+    /**
+     * Shows the key length ranking (index of coincidence and Kasiski) and the Kasiski examination:
+     * the repeated sequences with their spacings and the periods that divide the most spacings.
+     */
+    private void showKeyLengths(String cipherText) {
+        Alphabet letters = AlphabetPreset.getAlphabetByName(AlphabetPreset.A_Z.getName());
+        KasiskiExamination kasiski = KasiskiExamination.examine(cipherText, letters,
+                KasiskiExamination.DEFAULT_MIN_LENGTH);
+        List<VigenereAttack.Period> periods = VigenereAttack.rankPeriods(cipherText, letters, kasiski,
+                VigenereAttack.DEFAULT_MAX_KEY_LENGTH);
+        tablePeriods.getItems().setAll(periods.subList(0, Math.min(SHOWN_PERIODS, periods.size())));
+
+        StringBuilder report = new StringBuilder();
+        report.append("Likely periods (spacings divided):\n");
+        for (KasiskiExamination.Factor factor : kasiski.rankFactors(VigenereAttack.DEFAULT_MAX_KEY_LENGTH)
+                .stream().limit(SHOWN_FACTORS).toList()) {
+            report.append("  ").append(factor.getPeriod()).append(": ").append(factor.getCount())
+                    .append(" of ").append(kasiski.getTotalSpacings()).append('\n');
+        }
+        List<KasiskiExamination.Repeat> repeats = kasiski.getRepeats();
+        report.append("\nRepeated sequences (").append(repeats.size()).append("):\n");
+        for (KasiskiExamination.Repeat repeat : repeats.subList(0, Math.min(SHOWN_REPEATS, repeats.size()))) {
+            report.append("  ").append(repeat.getText())
+                    .append("  spacings ").append(Arrays.toString(repeat.getSpacings()))
+                    .append("  gcd ").append(repeat.getGcd()).append('\n');
+        }
+        textAreaRepeats.setText(report.toString());
     }
 
     private void copyTextToAttack() {
@@ -247,6 +306,8 @@ public class FriedmanAnalysisController implements CipherController, Initializab
 
     public void clearAll() {
         tableCandidates.getItems().clear();
+        tablePeriods.getItems().clear();
+        textAreaRepeats.clear();
         textAreaTextToAttack.clear();
         textAreaCandidates.clear();
     }
@@ -17,6 +17,7 @@ import io.github.palexdev.materialfx.controls.MFXTextField;
 import io.github.palexdev.materialfx.utils.SwingFXUtils;
 import io.github.palexdev.mfxresources.fonts.MFXFontIcon;
 import javafx.application.Platform;
+import javafx.concurrent.Task;
 import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
 import javafx.fxml.Initializable;
@@ -51,6 +52,7 @@ import java.net.URL;
 import java.util.Base64;
 import java.util.Iterator;
 import java.util.ResourceBundle;
+import java.util.function.DoubleConsumer;
 
 /**
  * Controller for AES encryption.
@@ -503,7 +505,7 @@ public class AESImageController implements CipherController, Initializable {
     private void importNoEncryptedFile() {
         FileChooser fileChooser = new FileChooser();
         fileChooser.setTitle("Select Image to Encrypt");
-        fileChooser.getExtensionFilters().add(new FileChooser.ExtensionFilter("Image Files", "*.png", "*.jpg", "*.jpeg", "*.gif"));
+        fileChooser.getExtensionFilters().add(new FileChooser.ExtensionFilter("Image Files", "*.png", "*.jpg", "*.jpeg", "*.gif", "*.tif", "*.tiff"));
         decryptedFile = fileChooser.showOpenDialog(stage);
         if (decryptedFile != null) {
             textAreaPathUnencryptedImage.clear();
@@ -514,10 +516,14 @@ public class AESImageController implements CipherController, Initializable {
             textAreaPathUnencryptedImage.setText(decryptedFile.getAbsolutePath());
             textAreaPathUnencryptedImage.setEditable(false);
             try {
+                if (AESManager.isLargeImage(decryptedFile)) {
+                    textAreaPathUnencryptedImage.appendText("\nToo large to preview: it will be encrypted in tiles.");
+                    return;
+                }
                 Image image = new Image(new FileInputStream(decryptedFile));
                 displayImage(image, unencryptedImageView);
                 unencryptedImageContainer.setStyle("-fx-background-color: transparent;");
-            } catch (FileNotFoundException e) {
+            } catch (IOException e) {
                 showError("Error loading image: " + e.getMessage());
             }
         }
@@ -529,7 +535,7 @@ public class AESImageController implements CipherController, Initializable {
     private void importEncryptedFile() {
         FileChooser fileChooser = new FileChooser();
         fileChooser.setTitle("Select Image to Decrypt");
-        fileChooser.getExtensionFilters().add(new FileChooser.ExtensionFilter("Image Files", "*.png", "*.jpg", "*.jpeg", "*.gif"));
+        fileChooser.getExtensionFilters().add(new FileChooser.ExtensionFilter("Image Files", "*.png", "*.jpg", "*.jpeg", "*.gif", "*.tif", "*.tiff"));
         encryptedFile = fileChooser.showOpenDialog(stage);
 
         if (encryptedFile != null) {
@@ -541,10 +547,14 @@ public class AESImageController implements CipherController, Initializable {
             textAreaPathEncryptedImage.setText(encryptedFile.getAbsolutePath());
             textAreaPathEncryptedImage.setEditable(false);
             try {
+                if (AESManager.isLargeImage(encryptedFile)) {
+                    textAreaPathEncryptedImage.appendText("\nToo large to preview: it will be decrypted in tiles.");
+                    return;
+                }
                 Image image = new Image(new FileInputStream(encryptedFile));
                 displayImage(image, encryptedImageView);
                 encryptedImageContainer.setStyle("-fx-background-color: transparent;");
-            } catch (FileNotFoundException e) {
+            } catch (IOException e) {
                 showError("Error loading image: " + e.getMessage());
             }
         }
@@ -645,6 +655,11 @@ public class AESImageController implements CipherController, Initializable {
                 }
             }
 
+            if (AESManager.isLargeImage(decryptedFile)) {
+                encryptLargeImage(key);
+                return;
+            }
+
             BufferedImage inputImage = ImageIO.read(decryptedFile);
             if (inputImage == null) {
                 showError("Could not read image from the selected file.");
@@ -692,6 +707,11 @@ public class AESImageController implements CipherController, Initializable {
 
             SecretKey key = new SecretKeySpec(keyBytes, "AES");
 
+            if (AESManager.isLargeImage(encryptedFile)) {
+                decryptLargeImage(key);
+                return;
+            }
+
             // Leer la imagen encriptada desde el archivo
             BufferedImage encryptedImage = ImageIO.read(encryptedFile);
             if (encryptedImage == null) {
@@ -761,6 +781,122 @@ public class AESImageController implements CipherController, Initializable {
         }
     }
 
+    /**
+     * Encrypts an image too large to be loaded, tile by tile, straight into a TIFF file. The encryption
+     * runs on a background thread, and its progress is shown in place of the path of the encrypted image.
+     */
+    private void encryptLargeImage(SecretKey key) {
+        File fileToSave = chooseTiffFile("Save Encrypted Image", "encrypted_image.tif");
+        if (fileToSave == null) {
+            return; // Usuario canceló la operación.
+        }
+        File source = decryptedFile;
+        byte[] imageIV = iv;
+        if (imageIV != null) {
+            textFieldIV.setText(Base64.getEncoder().encodeToString(imageIV));
+        }
+        runLargeImageTask("Encrypting", textAreaPathEncryptedImage,
+                progress -> AESManager.encryptImageFile(source, fileToSave, key, imageIV, progress),
+                "Your image was encrypted in tiles and saved to " + fileToSave.getAbsolutePath() + ", with its IV.",
+                "Encryption failed: ");
+    }
+
+    /**
+     * Decrypts an image too large to be loaded, tile by tile, straight into a TIFF file. The IV is read
+     * from the file when it records one, and taken from its field otherwise. The decryption runs on a
+     * background thread, like {@link #encryptLargeImage}.
+     */
+    private void decryptLargeImage(SecretKey key) throws Exception {
+        byte[] storedIV;
+        try {
+            storedIV = AESManager.readImageFileIV(encryptedFile);
+        } catch (IllegalArgumentException e) {
+            showError("Invalid IV format in metadata.");
+            return;
+        }
+        if (storedIV != null) {
+            textFieldIV.setText(Base64.getEncoder().encodeToString(storedIV));
+        }
+        String ivText = textFieldIV.getText().trim();
+        if (ivText.isEmpty()) {
+            showError("No Initial Vector provided.");
+            return;
+        }
+        byte[] iv;
+        try {
+            iv = Base64.getDecoder().decode(ivText);
+        } catch (IllegalArgumentException e) {
+            showError("Invalid IV format. Please enter a valid Base64-encoded IV.");
+            return;
+        }
+        File fileToSave = chooseTiffFile("Save Decrypted Image", "decrypted_image.tif");
+        if (fileToSave == null) {
+            return; // Usuario canceló la operación.
+        }
+        File source = encryptedFile;
+        runLargeImageTask("Decrypting", textAreaPathUnencryptedImage,
+                progress -> AESManager.decryptImageFile(source, fileToSave, key, iv, progress),
+                "Your image was decrypted in tiles and saved to " + fileToSave.getAbsolutePath() + ".",
+                "Decryption failed: ");
+    }
+
+    /**
+     * Work on a large image file, which reports the fraction done through the given consumer.
+     */
+    private interface LargeImageWork {
+        void run(DoubleConsumer progress) throws Exception;
+    }
+
+    /**
+     * Runs the encryption or decryption of a large image in a {@link Task} on a daemon thread, with the
+     * encrypt and decrypt buttons disabled. The percentage done is written to the given text area while
+     * it runs, then the message of success, and a failure is reported in a dialog.
+     */
+    private void runLargeImageTask(String action, TextArea status, LargeImageWork work, String doneMessage,
+                                   String failurePrefix) {
+        Task<Void> task = new Task<>() {
+            @Override
+            protected Void call() throws Exception {
+                work.run(fraction -> updateProgress(fraction, 1));
+                return null;
+            }
+        };
+        status.setEditable(false);
+        status.setText(action + " image...");
+        task.progressProperty().addListener((obs, oldValue, newValue) -> {
+            if (newValue.doubleValue() >= 0) {
+                status.setText(action + " image... " + Math.round(newValue.doubleValue() * 100) + "%");
+            }
+        });
+        task.setOnSucceeded(e -> {
+            status.setText(doneMessage);
+            setImageButtonsDisabled(false);
+        });
+        task.setOnFailed(e -> {
+            status.setText("");
+            setImageButtonsDisabled(false);
+            showError(failurePrefix + task.getException().getMessage());
+        });
+        setImageButtonsDisabled(true);
+
+        Thread thread = new Thread(task, "large-image-cipher");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private void setImageButtonsDisabled(boolean disabled) {
+        btnEncrypt.setDisable(disabled);
+        btnDecrypt.setDisable(disabled);
+    }
+
+    private File chooseTiffFile(String title, String initialName) {
+        FileChooser fileChooser = new FileChooser();
+        fileChooser.setTitle(title);
+        fileChooser.getExtensionFilters().add(new FileChooser.ExtensionFilter("TIFF Image", "*.tif", "*.tiff"));
+        fileChooser.setInitialFileName(initialName);
+        return fileChooser.showSaveDialog(stage);
+    }
+
     private String searchForIV(Node node) {
         if (node.getNodeName().equals("tEXtEntry")) {
             NamedNodeMap attributes = node.getAttributes();
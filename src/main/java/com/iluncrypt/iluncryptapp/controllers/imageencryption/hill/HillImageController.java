@@ -2,63 +2,209 @@ package com.iluncrypt.iluncryptapp.controllers.imageencryption.hill;
 
 import com.iluncrypt.iluncryptapp.controllers.CipherController;
 import com.iluncrypt.iluncryptapp.models.CryptosystemConfig;
+import com.iluncrypt.iluncryptapp.models.algorithms.classic.HillImageCipher;
+import com.iluncrypt.iluncryptapp.models.keys.HillKey;
 import com.iluncrypt.iluncryptapp.utils.DialogHelper;
+import io.github.palexdev.materialfx.controls.MFXButton;
 import io.github.palexdev.materialfx.controls.MFXTextField;
+import io.github.palexdev.materialfx.utils.SwingFXUtils;
 import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
 import javafx.fxml.Initializable;
+import javafx.scene.control.TextArea;
 import javafx.scene.image.ImageView;
 import javafx.scene.layout.GridPane;
+import javafx.stage.FileChooser;
 import javafx.stage.Stage;
 
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
 import java.net.URL;
 import java.util.ResourceBundle;
 
 /**
- * Controller for Hill image encryption.
+ * Controller for Hill image encryption. The key is an n×n matrix over ℤ_256 applied to the samples of
+ * the image (see {@link HillImageCipher}); encrypted images are saved as PNG, which keeps every sample.
  */
 public class HillImageController implements CipherController, Initializable {
+    // Size of the keys generated when none is given
+    private static final int DEFAULT_KEY_SIZE = 3;
 
     private final DialogHelper infoDialog;
+    private final DialogHelper errorDialog;
     private final Stage stage;
+    private BufferedImage unencryptedImage;
+    private BufferedImage encryptedImage;
 
     @FXML
     private GridPane grid;
 
     @FXML
-    private ImageView imageView;
+    private ImageView UnencryptedImageView, EncryptedImageView;
 
     @FXML
-    private MFXTextField textFieldKeyMatrix;
+    private TextArea textAreaPathUnencryptedImage, textAreaPathEncryptedImage;
+
+    @FXML
+    private MFXTextField textFieldKey;
+
+    @FXML
+    private MFXButton btnEncrypt, btnDecrypt, btnShuffleKey, btnDeleteKey, btnClear;
+
+    @FXML
+    private MFXButton btnImportUnencryptedImage, btnImportEncryptedImage;
+
+    @FXML
+    private MFXButton btnSaveUnencryptedImage, btnSaveEncryptedImage;
 
     public HillImageController(Stage stage) {
         this.stage = stage;
         this.infoDialog = new DialogHelper(stage);
+        this.errorDialog = new DialogHelper(stage);
     }
 
     @Override
     public void initialize(URL location, ResourceBundle resources) {
         infoDialog.setOwnerNode(grid);
+        errorDialog.setOwnerNode(grid);
+
+        btnImportUnencryptedImage.setOnAction(e -> loadImage(false));
+        btnImportEncryptedImage.setOnAction(e -> loadImage(true));
+        btnSaveUnencryptedImage.setOnAction(e -> saveImage(false));
+        btnSaveEncryptedImage.setOnAction(e -> saveImage(true));
+        btnEncrypt.setOnAction(e -> encryptImage());
+        btnDecrypt.setOnAction(e -> decryptImage());
+        btnShuffleKey.setOnAction(e -> textFieldKey.setText(HillImageCipher.generateKey(keySize()).toString()));
+        btnDeleteKey.setOnAction(e -> textFieldKey.clear());
+        btnClear.setOnAction(e -> clearAll());
     }
 
-    @FXML
-    private void loadImage() {
-        // Implement image loading logic
+    /**
+     * Loads the image to encrypt, or the encrypted image to decrypt.
+     */
+    private void loadImage(boolean encrypted) {
+        FileChooser fileChooser = new FileChooser();
+        fileChooser.setTitle(encrypted ? "Select Image to Decrypt" : "Select Image to Encrypt");
+        fileChooser.getExtensionFilters().add(new FileChooser.ExtensionFilter("Image Files", "*.png", "*.jpg", "*.jpeg", "*.gif", "*.bmp"));
+        File file = fileChooser.showOpenDialog(stage);
+        if (file == null) {
+            return;
+        }
+        try {
+            BufferedImage image = ImageIO.read(file);
+            if (image == null) {
+                showError("Could not read image from the selected file.");
+                return;
+            }
+            if (encrypted) {
+                encryptedImage = image;
+                display(image, EncryptedImageView, textAreaPathEncryptedImage, file.getAbsolutePath());
+            } else {
+                unencryptedImage = image;
+                display(image, UnencryptedImageView, textAreaPathUnencryptedImage, file.getAbsolutePath());
+            }
+        } catch (IOException e) {
+            showError("Error loading image: " + e.getMessage());
+        }
     }
 
-    @FXML
-    private void saveImage() {
-        // Implement image saving logic
+    /**
+     * Saves the decrypted image in the chosen format, or the encrypted image as PNG.
+     */
+    private void saveImage(boolean encrypted) {
+        BufferedImage image = encrypted ? encryptedImage : unencryptedImage;
+        if (image == null) {
+            showError(encrypted ? "No encrypted image available to save." : "No decrypted image available to save.");
+            return;
+        }
+        FileChooser fileChooser = new FileChooser();
+        fileChooser.setTitle(encrypted ? "Save Encrypted Image" : "Save Decrypted Image");
+        // Los formatos con pérdida cambiarían los valores cifrados
+        fileChooser.getExtensionFilters().add(new FileChooser.ExtensionFilter("PNG Image", "*.png"));
+        if (!encrypted) {
+            fileChooser.getExtensionFilters().add(new FileChooser.ExtensionFilter("BMP Image", "*.bmp"));
+        }
+        fileChooser.setInitialFileName(encrypted ? "encrypted_image.png" : "decrypted_image.png");
+        File file = fileChooser.showSaveDialog(stage);
+        if (file == null) {
+            return;
+        }
+        try {
+            String format = file.getName().toLowerCase().endsWith(".bmp") ? "bmp" : "png";
+            ImageIO.write(image, format, file);
+            infoDialog.showInfoDialog("Success", "Image saved successfully.");
+        } catch (IOException e) {
+            showError("Failed to save image: " + e.getMessage());
+        }
     }
 
-    @FXML
     private void encryptImage() {
-        // Implement Hill image encryption logic
+        if (unencryptedImage == null) {
+            showError("No image to encrypt.");
+            return;
+        }
+        if (textFieldKey.getText().trim().isEmpty()) {
+            textFieldKey.setText(HillImageCipher.generateKey(DEFAULT_KEY_SIZE).toString());
+        }
+        try {
+            HillKey key = HillImageCipher.parseKey(textFieldKey.getText());
+            encryptedImage = HillImageCipher.encrypt(unencryptedImage, key);
+            display(encryptedImage, EncryptedImageView, textAreaPathEncryptedImage,
+                    "Your image was successfully encrypted. You can save it.");
+        } catch (IllegalArgumentException e) {
+            showError("Encryption failed: " + e.getMessage());
+        }
     }
 
-    @FXML
     private void decryptImage() {
-        // Implement Hill image decryption logic
+        if (encryptedImage == null) {
+            showError("No image to decrypt.");
+            return;
+        }
+        if (textFieldKey.getText().trim().isEmpty()) {
+            showError("No key provided.");
+            return;
+        }
+        try {
+            HillKey key = HillImageCipher.parseKey(textFieldKey.getText());
+            unencryptedImage = HillImageCipher.decrypt(encryptedImage, key);
+            display(unencryptedImage, UnencryptedImageView, textAreaPathUnencryptedImage,
+                    "Your image was successfully decrypted. You can save it.");
+        } catch (IllegalArgumentException e) {
+            showError("Decryption failed: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Gets the size of the matrix in the key field, or the default size if it holds no valid key.
+     */
+    private int keySize() {
+        try {
+            return HillImageCipher.parseKey(textFieldKey.getText()).getSize();
+        } catch (IllegalArgumentException e) {
+            return DEFAULT_KEY_SIZE;
+        }
+    }
+
+    private void display(BufferedImage image, ImageView imageView, TextArea textArea, String message) {
+        imageView.setImage(SwingFXUtils.toFXImage(image, null));
+        textArea.setText(message);
+    }
+
+    private void clearAll() {
+        unencryptedImage = null;
+        encryptedImage = null;
+        UnencryptedImageView.setImage(null);
+        EncryptedImageView.setImage(null);
+        textAreaPathUnencryptedImage.clear();
+        textAreaPathEncryptedImage.clear();
+        textFieldKey.clear();
+    }
+
+    private void showError(String message) {
+        errorDialog.showInfoDialog("Error", message);
     }
 
     @Override
@@ -30,10 +30,11 @@ import javafx.stage.Stage;
 import javax.crypto.SecretKey;
 import javax.crypto.spec.SecretKeySpec;
 import java.io.File;
-import java.io.FileOutputStream;
 import java.io.IOException;
 import java.net.URL;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
 import java.security.MessageDigest;
 import java.util.Base64;
 import java.util.ResourceBundle;
@@ -56,8 +57,8 @@ public class DESController implements CipherController, Initializable {
     private boolean fileMode = false; // Flag to indicate file encryption/decryption mode
     private File decryptedFile;
     private File encryptedFile;
-    private byte[] encryptedInfo;
-    private byte[] decryptedInfo;
+    private File encryptedOutput; // .ilun cifrado por streaming, pendiente de guardar
+    private File decryptedOutput; // Archivo descifrado por streaming, pendiente de guardar
     private byte[] iv;
 
     @FXML
@@ -152,7 +153,7 @@ public class DESController implements CipherController, Initializable {
 
     private void saveDecryptedInformation() {
         // Verificar si hay datos disponibles para guardar
-        if ((decryptedInfo == null || decryptedInfo.length == 0) && textAreaPlainText.getText().isEmpty()) {
+        if (decryptedOutput == null && textAreaPlainText.getText().isEmpty()) {
             infoDialog.showInfoDialog("Error","No decrypted data available to save.");
             return;
         }
@@ -163,7 +164,7 @@ public class DESController implements CipherController, Initializable {
         String originalExtension = "txt";
         if (fileMode && encryptedFile != null) {
             try {
-                IlunFileMetadata metadata = IlunFileManager.readIlunFile(encryptedFile).getMetadata();
+                IlunFileMetadata metadata = IlunFileManager.readIlunMetadata(encryptedFile);
                 originalExtension = metadata.getExtension().isEmpty() ? "txt" : metadata.getExtension();
             } catch (IOException e) {
                 showError("Failed to retrieve original file extension: " + e.getMessage());
@@ -181,18 +182,15 @@ public class DESController implements CipherController, Initializable {
             return; // Usuario canceló la operación
         }
 
-        try (FileOutputStream fos = new FileOutputStream(fileToSave)) {
-            byte[] dataToSave;
-
-            // Si se procesó un archivo, usa los bytes descifrados
-            if (fileMode && decryptedInfo != null) {
-                dataToSave = decryptedInfo;
+        try {
+            // Si se procesó un archivo, copiar el resultado descifrado al destino elegido
+            if (fileMode && decryptedOutput != null) {
+                Files.copy(decryptedOutput.toPath(), fileToSave.toPath(), StandardCopyOption.REPLACE_EXISTING);
             } else {
                 // Si el texto fue ingresado manualmente, guardar el texto como TXT
-                dataToSave = textAreaPlainText.getText().getBytes(StandardCharsets.UTF_8);
+                Files.write(fileToSave.toPath(), textAreaPlainText.getText().getBytes(StandardCharsets.UTF_8));
             }
 
-            fos.write(dataToSave);
             infoDialog.showInfoDialog("Success","Decrypted file saved successfully.");
         } catch (IOException e) {
             showError("Failed to save decrypted file: " + e.getMessage());
@@ -202,7 +200,7 @@ public class DESController implements CipherController, Initializable {
 
     private void saveEncryptedInformation() {
         // Verificar si hay información cifrada
-        if ((encryptedInfo == null || encryptedInfo.length == 0) && textAreaCipherText.getText().isEmpty()) {
+        if (encryptedOutput == null && textAreaCipherText.getText().isEmpty()) {
             infoDialog.showInfoDialog("Error","No encrypted data available to save.");
             return;
         }
@@ -223,15 +221,16 @@ public class DESController implements CipherController, Initializable {
         }
 
         try {
-            byte[] dataToSave;
-
-            if (fileMode && encryptedInfo != null) {
-                dataToSave = encryptedInfo;
-            } else {
-                String cipherText = textAreaCipherText.getText();
-                dataToSave = Base64.getDecoder().decode(cipherText);
+            // Si se procesó un archivo, el .ilun ya está completo: sólo se copia al destino elegido
+            if (fileMode && encryptedOutput != null) {
+                Files.copy(encryptedOutput.toPath(), fileToSave.toPath(), StandardCopyOption.REPLACE_EXISTING);
+                infoDialog.showInfoDialog("Success", "Encrypted file saved successfully: " + fileToSave.getAbsolutePath());
+                return;
             }
 
+            String cipherText = textAreaCipherText.getText();
+            byte[] dataToSave = Base64.getDecoder().decode(cipherText);
+
             String extension = (decryptedFile != null) ? getFileExtension(decryptedFile) : "txt";
             byte[] checksum = MessageDigest.getInstance("SHA-256").digest(dataToSave);
 
@@ -269,6 +268,19 @@ public class DESController implements CipherController, Initializable {
         return name.substring(lastIndex + 1);
     }
 
+    /**
+     * Creates a temporary file for the result of a file operation, deleting the previous one.
+     * The result is kept until it is replaced or the application exits, so it can be saved several times.
+     */
+    private static File replaceTempFile(File previous, String suffix) throws IOException {
+        if (previous != null) {
+            Files.deleteIfExists(previous.toPath());
+        }
+        File file = File.createTempFile("iluncrypt-", suffix);
+        file.deleteOnExit();
+        return file;
+    }
+
     public static String getNameFile(File file) {
         String name = file.getName();
         int lastIndex = name.lastIndexOf(".");
@@ -538,7 +550,10 @@ public class DESController implements CipherController, Initializable {
             }
 
             if(fileMode){
-                encryptedInfo = DESManager.encryptFile(decryptedFile,key,iv, desConfig);
+                File output = replaceTempFile(encryptedOutput, ".ilun");
+                encryptedOutput = null;
+                DESManager.encryptFile(decryptedFile, output, key, iv, desConfig);
+                encryptedOutput = output;
                 textAreaCipherText.setText("Your file was successfully encrypted. You can now save it as a .ilun file.");
                 textAreaCipherText.setEditable(false);
             }else {
@@ -588,7 +603,10 @@ public class DESController implements CipherController, Initializable {
                     return;
                 }
 
-                decryptedInfo = decryptFile(encryptedFile, key, desConfig);
+                File output = replaceTempFile(decryptedOutput, ".tmp");
+                decryptedOutput = null;
+                decryptFile(encryptedFile, output, key, desConfig);
+                decryptedOutput = output;
                 textAreaPlainText.setText("File decrypted successfully. You can now save it.");
                 textAreaPlainText.setEditable(false);
             } else {
@@ -1,20 +1,34 @@
 package com.iluncrypt.iluncryptapp.models;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 
 /**
  * Represents an alphabet definition with metadata.
+ * <p>
+ * Lookups ({@link #isValidChar(char)}, {@link #getIndex(char)}, {@link #getChar(int)}) run against a
+ * compiled primitive index that is built on first use, so they are O(1) and never box characters.
+ * Alphabets are immutable, so the index never goes stale: the constructor copies the characters and
+ * {@link #getCharacters()} returns a read-only view.
+ * </p>
  */
 public class Alphabet {
     private final String name;
     private final String description;
     private final List<Character> characters;
 
+    /**
+     * Compiled lookup tables. Transient so that Gson neither writes nor expects them; built lazily
+     * because Gson instantiates alphabets without running the constructor.
+     */
+    private transient volatile Index index;
+
     public Alphabet(String name, String description, List<Character> characters) {
         this.name = name;
         this.description = description;
-        this.characters = characters;
+        this.characters = List.copyOf(characters);
     }
 
     // Get the name of the alphabet
@@ -29,17 +43,17 @@ public class Alphabet {
 
     // Check if a character is part of the alphabet
     public boolean isValidChar(char c) {
-        return characters.contains(c);
+        return index().indexOf(c) >= 0;
     }
 
-    // Get the index of a character in the alphabet
+    // Get the index of a character in the alphabet, or -1 if it is not part of it
     public int getIndex(char c) {
-        return characters.indexOf(c);
+        return index().indexOf(c);
     }
 
     // Get a character at a specific index in the alphabet
     public char getChar(int index) {
-        return characters.get(index);
+        return index().symbols[index];
     }
 
     // Get the size of the alphabet
@@ -47,6 +61,22 @@ public class Alphabet {
         return characters.size();
     }
 
+    /**
+     * Returns a copy of the symbols of the alphabet, ordered by index.
+     *
+     * @return The symbols as a primitive array.
+     */
+    public char[] toCharArray() {
+        return index().symbols.clone();
+    }
+
+    /**
+     * Returns the internal symbol array without copying, for the kernels in this package.
+     */
+    char[] symbols() {
+        return index().symbols;
+    }
+
     @Override
     public String toString() {
         return name + " (" + size() + " chars)";
@@ -73,9 +103,111 @@ public class Alphabet {
     /**
      * Returns the list of characters in the alphabet.
      *
-     * @return A list of characters in this alphabet.
+     * @return A read-only list of characters in this alphabet.
      */
     public List<Character> getCharacters() {
-        return characters;
+        // Gson fills the field with a mutable list, so the view is read-only in every case
+        return Collections.unmodifiableList(characters);
+    }
+
+    /**
+     * Returns the compiled index, building it on first access.
+     */
+    private Index index() {
+        Index current = index;
+        if (current == null) {
+            current = new Index(characters);
+            index = current;
+        }
+        return current;
+    }
+
+    /**
+     * Immutable, primitive form of an alphabet.
+     * <p>
+     * Symbols are stored in a {@code char[]} for {@code getChar}. The reverse mapping is a dense
+     * {@code int[]} covering the range [min, max] of the symbols when that range is reasonably
+     * compact (the usual case: Latin presets and Unicode blocks are contiguous); otherwise the
+     * symbols are kept in an open-addressing hash table of at most half load, whose lookups take a
+     * single probe most of the time, where a binary search would mispredict a branch at every step.
+     * </p>
+     */
+    private static final class Index {
+        // A dense table may be up to this many times larger than the alphabet (plus a small constant).
+        private static final int MAX_DENSE_SPREAD = 64;
+        private static final int MIN_DENSE_SPAN = 1024;
+
+        private final char[] symbols;
+        private final char base;
+        private final int[] dense;
+        private final int[] slots;
+        private final int shift;
+
+        Index(List<Character> characters) {
+            int n = characters.size();
+            symbols = new char[n];
+            char min = Character.MAX_VALUE;
+            char max = Character.MIN_VALUE;
+            for (int i = 0; i < n; i++) {
+                char c = characters.get(i);
+                symbols[i] = c;
+                if (c < min) min = c;
+                if (c > max) max = c;
+            }
+
+            int span = n == 0 ? 0 : max - min + 1;
+            if (span <= Math.max(MIN_DENSE_SPAN, n * MAX_DENSE_SPREAD)) {
+                base = n == 0 ? 0 : min;
+                dense = new int[span];
+                Arrays.fill(dense, -1);
+                for (int i = 0; i < n; i++) {
+                    int slot = symbols[i] - base;
+                    if (dense[slot] < 0) { // keep the first occurrence, as List.indexOf did
+                        dense[slot] = i;
+                    }
+                }
+                slots = null;
+                shift = 0;
+            } else {
+                base = 0;
+                dense = null;
+                int bits = 32 - Integer.numberOfLeadingZeros(2 * n - 1);
+                slots = new int[1 << bits];
+                shift = 32 - bits;
+                Arrays.fill(slots, -1);
+                for (int i = 0; i < n; i++) {
+                    int slot = slot(symbols[i]);
+                    while (slots[slot] >= 0 && symbols[slots[slot]] != symbols[i]) {
+                        slot = (slot + 1) & (slots.length - 1);
+                    }
+                    if (slots[slot] < 0) { // keep the first occurrence, as List.indexOf did
+                        slots[slot] = i;
+                    }
+                }
+            }
+        }
+
+        /**
+         * Home slot of a symbol: the top bits of a Fibonacci hash, so that symbols spread out evenly.
+         */
+        private int slot(char c) {
+            return (c * 0x9E3779B9) >>> shift;
+        }
+
+        int indexOf(char c) {
+            if (dense != null) {
+                int slot = c - base;
+                return slot >= 0 && slot < dense.length ? dense[slot] : -1;
+            }
+            int slot = slot(c);
+            int i;
+            while ((i = slots[slot]) >= 0) {
+                if (symbols[i] == c) {
+                    return i;
+                }
+                slot = (slot + 1) & (slots.length - 1);
+            }
+            return -1;
+        }
     }
 }
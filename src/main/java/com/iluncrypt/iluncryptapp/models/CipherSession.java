@@ -0,0 +1,245 @@
+package com.iluncrypt.iluncryptapp.models;
+
+import com.iluncrypt.iluncryptapp.models.keys.Key;
+
+import java.nio.BufferOverflowException;
+import java.nio.CharBuffer;
+import java.util.Arrays;
+
+/**
+ * A chunked encryption or decryption over a {@link Cryptosystem}, in the spirit of
+ * {@link javax.crypto.Cipher#update} / {@link javax.crypto.Cipher#doFinal}.
+ * <p>
+ * Every chunk is normalized and transformed as it arrives. Ciphers working on blocks only receive
+ * whole blocks; the incomplete tail is carried over to the next chunk and handled (padded, when
+ * encrypting) by {@link #doFinal(CharBuffer)}. At most one block is kept between calls, so memory
+ * use is bounded by the chunk size. Ciphers providing a substitution table skip the carry
+ * entirely and go through the fused normalize + substitute kernel. Ciphers providing a
+ * {@link SymbolKernel} carry symbol indices instead of text and keep track of the position of
+ * each chunk, so periodic keys continue where the previous chunk stopped.
+ * </p>
+ * Sessions are not thread-safe.
+ */
+public class CipherSession {
+    private final Cryptosystem cryptosystem;
+    private final Key key;
+    private final boolean decrypt;
+    private final int blockSize;
+    private final Alphabet inputAlphabet;
+    private final int[] substitutionTable;
+    private final SymbolKernel symbolKernel;
+    private final StringBuilder carry = new StringBuilder();
+    private char[] scratch = new char[0];
+
+    // Carry of the kernel path: pending items (see Cryptosystem#classifySymbols) and symbols already emitted.
+    private int[] items = new int[0];
+    private int pending;
+    private long position;
+
+    CipherSession(Cryptosystem cryptosystem, Key key, boolean decrypt, int blockSize) {
+        if (blockSize < 1) {
+            throw new IllegalArgumentException("Block size must be positive.");
+        }
+        this.cryptosystem = cryptosystem;
+        this.key = key;
+        this.decrypt = decrypt;
+        this.blockSize = blockSize;
+        this.inputAlphabet = decrypt ? cryptosystem.ciphertextAlphabet : cryptosystem.plaintextAlphabet;
+        this.substitutionTable = cryptosystem.substitutionTable(key, decrypt);
+        this.symbolKernel = substitutionTable == null ? cryptosystem.symbolKernel(key, decrypt) : null;
+    }
+
+    /**
+     * Gets the number of normalized characters processed together by the underlying cipher.
+     *
+     * @return The block size (1 for character-by-character ciphers).
+     */
+    public int getBlockSize() {
+        return blockSize;
+    }
+
+    /**
+     * Returns an upper bound of the output produced by {@link #update(CharBuffer, CharBuffer)} for an
+     * input of the given length followed by {@link #doFinal(CharBuffer)}.
+     *
+     * @param inputLength The number of characters about to be supplied.
+     * @return The maximum number of characters that may be written.
+     */
+    public int getOutputSize(int inputLength) {
+        return carry.length() + pending + inputLength + (decrypt ? 0 : blockSize - 1);
+    }
+
+    /**
+     * Consumes all remaining characters of {@code input} and writes every complete result to {@code output}.
+     *
+     * @param input  The next chunk of text.
+     * @param output The buffer receiving the transformed text.
+     * @throws BufferOverflowException If {@code output} has less room than {@link #getOutputSize(int)}.
+     */
+    public void update(CharBuffer input, CharBuffer output) {
+        if (output.remaining() < getOutputSize(input.remaining())) {
+            throw new BufferOverflowException();
+        }
+        if (substitutionTable != null) {
+            transformSymbols(input, output);
+            return;
+        }
+        if (symbolKernel != null) {
+            updateKernel(input, output);
+            return;
+        }
+        cryptosystem.normalizeText(input, inputAlphabet, carry);
+        input.position(input.limit());
+
+        int ready = carry.length() - carry.length() % blockSize;
+        if (ready > 0) {
+            output.put(transform(carry.substring(0, ready)));
+            carry.delete(0, ready);
+        }
+    }
+
+    /**
+     * Convenience form of {@link #update(CharBuffer, CharBuffer)} that allocates the output.
+     *
+     * @param input The next chunk of text.
+     * @return A buffer, ready to be read, with the transformed text.
+     */
+    public CharBuffer update(CharBuffer input) {
+        CharBuffer output = CharBuffer.allocate(getOutputSize(input.remaining()));
+        update(input, output);
+        return output.flip();
+    }
+
+    /**
+     * Flushes the carried-over tail (padding it when encrypting with a block cipher) and resets the
+     * session so it can be reused for another text.
+     *
+     * @param output The buffer receiving the last transformed characters.
+     * @throws BufferOverflowException If {@code output} has less room than {@code getOutputSize(0)}.
+     * @throws IllegalArgumentException If the cipher rejects the tail (e.g. an incomplete block when decrypting).
+     */
+    public void doFinal(CharBuffer output) {
+        if (output.remaining() < getOutputSize(0)) {
+            throw new BufferOverflowException();
+        }
+        if (symbolKernel != null) {
+            finishKernel(output);
+            return;
+        }
+        if (carry.length() > 0) {
+            String tail = carry.toString();
+            carry.setLength(0);
+            output.put(transform(tail));
+        }
+    }
+
+    /**
+     * Convenience form of {@link #doFinal(CharBuffer)} that allocates the output.
+     *
+     * @return A buffer, ready to be read, with the last transformed characters.
+     */
+    public CharBuffer doFinal() {
+        CharBuffer output = CharBuffer.allocate(getOutputSize(0));
+        doFinal(output);
+        return output.flip();
+    }
+
+    /**
+     * Runs the fused kernel straight on the backing arrays when both buffers have one.
+     */
+    private void transformSymbols(CharBuffer input, CharBuffer output) {
+        int length = input.remaining();
+        char[] src;
+        int srcOffset;
+        if (input.hasArray()) {
+            src = input.array();
+            srcOffset = input.arrayOffset() + input.position();
+            input.position(input.limit());
+        } else {
+            src = scratch(length);
+            srcOffset = 0;
+            input.get(src, 0, length);
+        }
+
+        if (output.hasArray()) {
+            int written = cryptosystem.transformChars(src, srcOffset, length,
+                    output.array(), output.arrayOffset() + output.position(), decrypt, substitutionTable);
+            output.position(output.position() + written);
+        } else {
+            char[] dst = scratch(length);
+            int written = cryptosystem.transformChars(src, srcOffset, length, dst, 0, decrypt, substitutionTable);
+            output.put(dst, 0, written);
+        }
+    }
+
+    /**
+     * Emits every complete block, together with the kept characters that precede the next symbol.
+     */
+    private void updateKernel(CharBuffer input, CharBuffer output) {
+        int capacity = pending + input.remaining() + blockSize - 1;
+        if (items.length < capacity) {
+            items = Arrays.copyOf(items, capacity);
+        }
+        pending = cryptosystem.classifySymbols(input, decrypt, items, pending);
+        input.position(input.limit());
+
+        int symbols = Cryptosystem.countSymbols(items, 0, pending);
+        int ready = symbols - symbols % blockSize;
+        int split = pending;
+        if (ready < symbols) {
+            // Stop right before the first symbol of the incomplete block.
+            for (int i = 0, seen = 0; ; i++) {
+                if (items[i] >= 0 && seen++ == ready) {
+                    split = i;
+                    break;
+                }
+            }
+        }
+        if (split > 0) {
+            emit(output, split, ready, position);
+            position += ready;
+            System.arraycopy(items, split, items, 0, pending - split);
+            pending -= split;
+        }
+    }
+
+    /**
+     * Pads (or rejects) the incomplete block and resets the kernel state.
+     */
+    private void finishKernel(CharBuffer output) {
+        int count = pending;
+        long start = position;
+        pending = 0;
+        position = 0;
+        if (count == 0) {
+            return;
+        }
+        int symbols = Cryptosystem.countSymbols(items, 0, count);
+        int missing = cryptosystem.missingSymbols(symbols, blockSize, decrypt);
+        count = cryptosystem.padSymbols(items, count, missing);
+        emit(output, count, symbols + missing, start);
+    }
+
+    private void emit(CharBuffer output, int count, int symbols, long start) {
+        if (output.hasArray()) {
+            int written = cryptosystem.applyKernel(symbolKernel, start, items, count, symbols, blockSize, decrypt,
+                    output.array(), output.arrayOffset() + output.position());
+            output.position(output.position() + written);
+        } else {
+            char[] dst = scratch(count);
+            int written = cryptosystem.applyKernel(symbolKernel, start, items, count, symbols, blockSize, decrypt, dst, 0);
+            output.put(dst, 0, written);
+        }
+    }
+
+    private char[] scratch(int length) {
+        if (scratch.length < length) {
+            scratch = new char[length];
+        }
+        return scratch;
+    }
+
+    private String transform(String normalized) {
+        return decrypt ? cryptosystem.decryptMethod(normalized, key) : cryptosystem.encryptMethod(normalized, key);
+    }
+}
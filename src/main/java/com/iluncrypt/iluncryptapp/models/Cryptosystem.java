@@ -5,17 +5,83 @@ import com.iluncrypt.iluncryptapp.models.enums.UnknownCharHandling;
 import com.iluncrypt.iluncryptapp.models.enums.WhitespaceHandling;
 import com.iluncrypt.iluncryptapp.models.keys.Key;
 
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.CharBuffer;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+
 /**
  * Abstract class representing a generic cryptographic system.
  * Provides common configuration settings for handling uppercase letters, unknown characters and whitespac.
+ * <p>
+ * Besides the whole-{@code String} API, texts of any size can be processed with bounded memory through
+ * {@link #encrypt(Reader, Writer, Key)} / {@link #decrypt(Reader, Writer, Key)} or chunk by chunk with a
+ * {@link CipherSession}.
+ * </p>
+ * <p>
+ * Ciphers that map each symbol independently only need to supply {@link #substitutionTable(Key, boolean)}:
+ * normalization and substitution then run as one fused, table-driven pass over the text. Other ciphers
+ * that work on symbols (Vigenère, Hill) supply a {@link SymbolKernel} through {@link #symbolKernel(Key, boolean)}
+ * and run on {@code int[]} index arrays; padding of the last block is then handled here.
+ * </p>
+ * <p>
+ * With {@link #setParallel(boolean)}, texts of at least {@link #PARALLEL_THRESHOLD} characters are split
+ * into chunks processed on the common {@link java.util.concurrent.ForkJoinPool}; the result is identical.
+ * </p>
  */
 public abstract class Cryptosystem {
+    /** Size, in chars, of the chunks read from a {@link Reader} by the streaming API. */
+    private static final int STREAM_BUFFER_SIZE = 8192;
+
+    /** Minimum length, in chars, of a text processed in parallel; shorter texts stay on the sequential path. */
+    public static final int PARALLEL_THRESHOLD = 1 << 18;
+
+    // Classification codes for characters that are not symbols of the alphabet.
+    private static final int PASS_THROUGH = -1;
+    private static final int DROP = -2;
+    private static final int REPLACE = -3;
+    private static final char REPLACEMENT_CHAR = '?';
+
+    // Flags on the index of a letter found in the alphabet only in the other case (CaseHandling.PRESERVE):
+    // the symbol written for it is given the case of the letter back.
+    static final int LOWER_CASE = 1 << 30;
+    static final int UPPER_CASE = 1 << 29;
+    static final int SYMBOL_MASK = UPPER_CASE - 1;
+
+    /** Number of classification tables (256 KB each) kept for reuse by new instances. */
+    private static final int CACHED_TABLES = 16;
+
+    /**
+     * Classification tables shared by every instance, least recently used first. The key is the content
+     * of the alphabet, not the instance, since callers often build an equal alphabet for every cipher.
+     */
+    private static final Map<TableKey, int[]> TABLES = new LinkedHashMap<>(CACHED_TABLES, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<TableKey, int[]> eldest) {
+            return size() > CACHED_TABLES;
+        }
+    };
+
     protected Alphabet plaintextAlphabet;
     protected Alphabet ciphertextAlphabet;
     protected CaseHandling caseHandling;
     protected UnknownCharHandling unknownCharHandling;
     protected WhitespaceHandling whitespaceHandling;
 
+    /**
+     * Per-alphabet classification of every BMP char (symbol index or one of the codes above),
+     * with the case, whitespace and unknown-character rules already applied. Taken from {@link #TABLES}
+     * on first use, and built only if no other instance has the same alphabet and rules.
+     */
+    private volatile int[] plaintextCodes;
+    private volatile int[] ciphertextCodes;
+
+    private volatile boolean parallel;
+
     /**
      * Constructs a Cryptosystem with specified alphabets and handling configurations.
      *
@@ -43,6 +109,17 @@ public abstract class Cryptosystem {
      * @return The encrypted text.
      */
     public String encrypt(String plaintext, Key key) {
+        int[] table = substitutionTable(key, false);
+        if (table != null) {
+            return transformText(plaintext, false, table);
+        }
+        SymbolKernel kernel = symbolKernel(key, false);
+        if (kernel != null) {
+            return transformText(plaintext, false, kernel, getStreamBlockSize(key));
+        }
+        if (useParallel(plaintext.length())) {
+            return ParallelTransform.transformTemplate(this, plaintext, key, false);
+        }
         return encryptMethod(normalizeText(plaintext, plaintextAlphabet), key);
     }
 
@@ -54,9 +131,417 @@ public abstract class Cryptosystem {
      * @return The decrypted text.
      */
     public String decrypt(String ciphertext, Key key) {
+        int[] table = substitutionTable(key, true);
+        if (table != null) {
+            return transformText(ciphertext, true, table);
+        }
+        SymbolKernel kernel = symbolKernel(key, true);
+        if (kernel != null) {
+            return transformText(ciphertext, true, kernel, getStreamBlockSize(key));
+        }
+        if (useParallel(ciphertext.length())) {
+            return ParallelTransform.transformTemplate(this, ciphertext, key, true);
+        }
         return decryptMethod(normalizeText(ciphertext, ciphertextAlphabet), key);
     }
 
+    /**
+     * Enables or disables parallel processing of large texts, for the {@code String} API as well as for
+     * large chunks given to a {@link CipherSession}.
+     * <p>
+     * Texts are cut where it does not change the result: anywhere for monoalphabetic ciphers, on block
+     * boundaries for block ciphers, and with the absolute position of every chunk for periodic keys.
+     * Ciphers that only implement {@link #encryptMethod} / {@link #decryptMethod} are cut on multiples of
+     * {@link #getStreamBlockSize(Key)}, as when streaming.
+     * </p>
+     *
+     * @param parallel {@code true} to process texts of at least {@link #PARALLEL_THRESHOLD} chars in parallel.
+     */
+    public void setParallel(boolean parallel) {
+        this.parallel = parallel;
+    }
+
+    // Check whether large texts are processed in parallel
+    public boolean isParallel() {
+        return parallel;
+    }
+
+    boolean useParallel(int length) {
+        return parallel && length >= PARALLEL_THRESHOLD;
+    }
+
+    /**
+     * Encrypts everything read from {@code input} and writes the ciphertext to {@code output}.
+     * The text is normalized and encrypted chunk by chunk, so memory use does not depend on its length.
+     * Neither stream is closed.
+     *
+     * @param input  The source of plaintext.
+     * @param output The destination of the ciphertext.
+     * @param key    The encryption key.
+     * @throws IOException If reading or writing fails.
+     */
+    public void encrypt(Reader input, Writer output, Key key) throws IOException {
+        transformStream(input, output, newEncryptionSession(key));
+    }
+
+    /**
+     * Decrypts everything read from {@code input} and writes the plaintext to {@code output}.
+     * Neither stream is closed.
+     *
+     * @param input  The source of ciphertext.
+     * @param output The destination of the plaintext.
+     * @param key    The decryption key.
+     * @throws IOException If reading or writing fails.
+     */
+    public void decrypt(Reader input, Writer output, Key key) throws IOException {
+        transformStream(input, output, newDecryptionSession(key));
+    }
+
+    /**
+     * Starts a chunked encryption. Feed the plaintext with {@link CipherSession#update} and
+     * call {@link CipherSession#doFinal} once the end of the text is reached.
+     *
+     * @param key The encryption key.
+     * @return A new encryption session.
+     */
+    public CipherSession newEncryptionSession(Key key) {
+        return new CipherSession(this, key, false, getStreamBlockSize(key));
+    }
+
+    /**
+     * Starts a chunked decryption.
+     *
+     * @param key The decryption key.
+     * @return A new decryption session.
+     */
+    public CipherSession newDecryptionSession(Key key) {
+        return new CipherSession(this, key, true, getStreamBlockSize(key));
+    }
+
+    /**
+     * Number of normalized characters that must be handed to {@link #encryptMethod} /
+     * {@link #decryptMethod} at once when streaming. Ciphers that work on whole blocks
+     * (and pad the last one) must override this; character-by-character ciphers keep the default of 1.
+     * For ciphers with a {@link SymbolKernel} it is the number of symbols per block.
+     *
+     * @param key The key in use.
+     * @return The block size, in normalized characters.
+     */
+    protected int getStreamBlockSize(Key key) {
+        return 1;
+    }
+
+    /**
+     * Substitution table of a monoalphabetic cipher: {@code table[x]} is the index, in the output
+     * alphabet, of the image of the symbol with index {@code x} in the input alphabet. Ciphers returning
+     * a table are processed by the fused kernel and their {@link #encryptMethod} / {@link #decryptMethod}
+     * are bypassed; the default ({@code null}) keeps the normalize-then-transform template.
+     * <p>
+     * The table is only read, so implementations should return the one cached on the key
+     * (see {@link com.iluncrypt.iluncryptapp.models.keys.MonoalphabeticKey}).
+     * </p>
+     *
+     * @param key     The key in use.
+     * @param decrypt {@code true} for the decryption direction.
+     * @return The substitution table, or {@code null} if the cipher does not work symbol by symbol.
+     */
+    protected int[] substitutionTable(Key key, boolean decrypt) {
+        return null;
+    }
+
+    /**
+     * Normalizes and substitutes a text in a single pass using a substitution table.
+     * The only allocation is the output buffer, sized to the input.
+     *
+     * @param text    The raw input text.
+     * @param decrypt {@code true} if {@code text} is ciphertext.
+     * @param table   The substitution table (see {@link #substitutionTable(Key, boolean)}).
+     * @return The transformed text.
+     * @throws IllegalArgumentException If the table does not match the size of the alphabets.
+     */
+    protected final String transformText(String text, boolean decrypt, int[] table) {
+        char[] buffer = new char[text.length()];
+        text.getChars(0, buffer.length, buffer, 0);
+        int length = transformChars(buffer, 0, buffer.length, buffer, 0, decrypt, table);
+        return new String(buffer, 0, length);
+    }
+
+    /**
+     * Fused normalize + transform kernel. {@code src} and {@code dst} may be the same array as long as
+     * {@code dstOffset <= srcOffset}, since at most one char is written per char read.
+     *
+     * @return The number of chars written to {@code dst}.
+     * @throws IllegalArgumentException If the table does not match the size of the alphabets.
+     */
+    final int transformChars(char[] src, int srcOffset, int length, char[] dst, int dstOffset,
+                             boolean decrypt, int[] table) {
+        if (table.length != (decrypt ? ciphertextAlphabet : plaintextAlphabet).size()) {
+            throw new IllegalArgumentException("The key alphabet size does not match the alphabet size.");
+        }
+        // Chunks write in place, so a shifted in-place transform must stay sequential.
+        if (useParallel(length) && (src != dst || srcOffset == dstOffset)) {
+            classificationTable(decrypt);
+            return ParallelTransform.transformChars(this, src, srcOffset, length, dst, dstOffset, decrypt, table);
+        }
+        return substituteChars(src, srcOffset, length, dst, dstOffset, decrypt, table);
+    }
+
+    /**
+     * Sequential body of {@link #transformChars}.
+     */
+    final int substituteChars(char[] src, int srcOffset, int length, char[] dst, int dstOffset,
+                              boolean decrypt, int[] table) {
+        int[] codes = classificationTable(decrypt);
+        char[] symbols = (decrypt ? plaintextAlphabet : ciphertextAlphabet).symbols();
+        int j = dstOffset;
+        for (int i = srcOffset, end = srcOffset + length; i < end; i++) {
+            char c = src[i];
+            int code = codes[c];
+            if (code >= 0) {
+                dst[j++] = code < UPPER_CASE ? symbols[table[code]] : withCase(symbols[table[code & SYMBOL_MASK]], code);
+            } else if (code == PASS_THROUGH) {
+                dst[j++] = c;
+            } else if (code == REPLACE) {
+                dst[j++] = REPLACEMENT_CHAR;
+            }
+        }
+        return j - dstOffset;
+    }
+
+    /**
+     * Index-array form of a cipher that does not map each symbol on its own (e.g. Vigenère or Hill).
+     * Ciphers returning a kernel are processed on {@code int[]} arrays of symbol indices and their
+     * {@link #encryptMethod} / {@link #decryptMethod} are bypassed. Characters kept by normalization
+     * but outside the alphabet stay in place and do not consume key positions. Block ciphers declare
+     * their block size through {@link #getStreamBlockSize(Key)}: when encrypting, the last block is
+     * completed with a single random symbol repeated; when decrypting, an incomplete block is rejected.
+     *
+     * @param key     The key in use.
+     * @param decrypt {@code true} for the decryption direction.
+     * @return The kernel, or {@code null} if the cipher keeps the normalize-then-transform template.
+     */
+    protected SymbolKernel symbolKernel(Key key, boolean decrypt) {
+        return null;
+    }
+
+    /**
+     * Normalizes a text into symbol indices, runs a kernel over them and maps the result back to chars.
+     *
+     * @param text      The raw input text.
+     * @param decrypt   {@code true} if {@code text} is ciphertext.
+     * @param kernel    The kernel of the cipher (see {@link #symbolKernel(Key, boolean)}).
+     * @param blockSize The number of symbols the kernel processes together.
+     * @return The transformed text.
+     * @throws IllegalArgumentException If decrypting a text whose symbols do not fill whole blocks.
+     */
+    protected final String transformText(String text, boolean decrypt, SymbolKernel kernel, int blockSize) {
+        int[] items = new int[text.length() + blockSize - 1];
+        int count = classifySymbols(text, decrypt, items, 0);
+        int symbols = countSymbols(items, 0, count);
+        int missing = missingSymbols(symbols, blockSize, decrypt);
+        count = padSymbols(items, count, missing);
+        char[] output = new char[count];
+        int length = applyKernel(kernel, 0, items, count, symbols + missing, blockSize, decrypt, output, 0);
+        return new String(output, 0, length);
+    }
+
+    /**
+     * Appends the normalized form of {@code text} to {@code items}: the index of each symbol
+     * ({@code >= 0}) or, for characters kept as they are, their bitwise complement ({@code < 0}).
+     *
+     * @return The new number of items.
+     */
+    final int classifySymbols(CharSequence text, boolean decrypt, int[] items, int count) {
+        if (useParallel(text.length())) {
+            classificationTable(decrypt);
+            return ParallelTransform.classifySymbols(this, text, decrypt, items, count);
+        }
+        return classifySymbols(text, 0, text.length(), decrypt, items, count);
+    }
+
+    /**
+     * Sequential body of {@link #classifySymbols(CharSequence, boolean, int[], int)} for {@code text[from, to)}.
+     */
+    final int classifySymbols(CharSequence text, int from, int to, boolean decrypt, int[] items, int count) {
+        int[] codes = classificationTable(decrypt);
+        for (int i = from; i < to; i++) {
+            char c = text.charAt(i);
+            int code = codes[c];
+            if (code >= 0) {
+                items[count++] = code;
+            } else if (code == PASS_THROUGH) {
+                items[count++] = ~c;
+            } else if (code == REPLACE) {
+                items[count++] = ~REPLACEMENT_CHAR;
+            }
+        }
+        return count;
+    }
+
+    static int countSymbols(int[] items, int from, int to) {
+        int symbols = 0;
+        for (int i = from; i < to; i++) {
+            if (items[i] >= 0) {
+                symbols++;
+            }
+        }
+        return symbols;
+    }
+
+    /**
+     * Number of padding symbols needed to complete the last block.
+     *
+     * @throws IllegalArgumentException If decrypting and the last block is incomplete.
+     */
+    final int missingSymbols(int symbols, int blockSize, boolean decrypt) {
+        int remainder = symbols % blockSize;
+        if (remainder == 0) {
+            return 0;
+        }
+        if (decrypt) {
+            throw new IllegalArgumentException("The ciphertext length must be a multiple of the block size (" + blockSize + ").");
+        }
+        return blockSize - remainder;
+    }
+
+    /**
+     * Appends {@code missing} copies of a random plaintext symbol to {@code items}.
+     *
+     * @return The new number of items.
+     */
+    final int padSymbols(int[] items, int count, int missing) {
+        if (missing > 0) {
+            int filler = new Random().nextInt(plaintextAlphabet.size());
+            Arrays.fill(items, count, count + missing, filler);
+        }
+        return count + missing;
+    }
+
+    /**
+     * Runs {@code kernel} over the symbols among {@code items[0, count)} and writes the resulting chars,
+     * interleaved with the kept characters, to {@code dst}. {@code items} may be overwritten.
+     * {@code symbolCount} must be a multiple of {@code blockSize}.
+     *
+     * @return The number of chars written to {@code dst}.
+     */
+    final int applyKernel(SymbolKernel kernel, long position, int[] items, int count, int symbolCount,
+                          int blockSize, boolean decrypt, char[] dst, int dstOffset) {
+        char[] alphabet = (decrypt ? plaintextAlphabet : ciphertextAlphabet).symbols();
+        if (useParallel(count)) {
+            return ParallelTransform.applyKernel(kernel, position, items, count, symbolCount, blockSize,
+                    alphabet, caseHandling == CaseHandling.PRESERVE, dst, dstOffset);
+        }
+        if (symbolCount == count && caseHandling != CaseHandling.PRESERVE) {
+            // Only symbols: the kernel runs straight on the items.
+            kernel.apply(items, 0, count, position);
+            for (int i = 0; i < count; i++) {
+                dst[dstOffset + i] = alphabet[items[i]];
+            }
+            return count;
+        }
+
+        int[] symbols = new int[symbolCount];
+        for (int i = 0, s = 0; i < count; i++) {
+            if (items[i] >= 0) {
+                symbols[s++] = items[i] & SYMBOL_MASK;
+            }
+        }
+        kernel.apply(symbols, 0, symbolCount, position);
+        for (int i = 0, s = 0; i < count; i++) {
+            int item = items[i];
+            dst[dstOffset + i] = item >= 0 ? withCase(alphabet[symbols[s++]], item) : (char) ~item;
+        }
+        return count;
+    }
+
+    /**
+     * Gives a symbol the case recorded in the flags of its item, if any.
+     */
+    static char withCase(char symbol, int item) {
+        if ((item & LOWER_CASE) != 0) {
+            return Character.toLowerCase(symbol);
+        }
+        if ((item & UPPER_CASE) != 0) {
+            return Character.toUpperCase(symbol);
+        }
+        return symbol;
+    }
+
+    private int[] classificationTable(boolean decrypt) {
+        int[] codes = decrypt ? ciphertextCodes : plaintextCodes;
+        if (codes == null) {
+            codes = sharedClassificationTable(decrypt ? ciphertextAlphabet : plaintextAlphabet);
+            if (decrypt) {
+                ciphertextCodes = codes;
+            } else {
+                plaintextCodes = codes;
+            }
+        }
+        return codes;
+    }
+
+    /**
+     * Gets the classification table of an alphabet under the rules of this instance from the shared
+     * cache, building it if it is not there. The tables are never modified once built.
+     */
+    private int[] sharedClassificationTable(Alphabet alphabet) {
+        TableKey key = new TableKey(new String(alphabet.symbols()), caseHandling, unknownCharHandling,
+                whitespaceHandling);
+        synchronized (TABLES) {
+            return TABLES.computeIfAbsent(key, k -> buildClassificationTable(alphabet));
+        }
+    }
+
+    private record TableKey(String symbols, CaseHandling caseHandling, UnknownCharHandling unknownCharHandling,
+                            WhitespaceHandling whitespaceHandling) {
+    }
+
+    /**
+     * Applies the case, whitespace and unknown-character rules of {@link #normalizeText} to every
+     * possible char once, so the hot loop does not branch on them.
+     */
+    private int[] buildClassificationTable(Alphabet alphabet) {
+        int whitespaceCode = whitespaceHandling == WhitespaceHandling.PRESERVE ? PASS_THROUGH : DROP;
+        int unknownCode = switch (unknownCharHandling) {
+            case IGNORE -> PASS_THROUGH;
+            case REMOVE -> DROP;
+            case REPLACE -> REPLACE;
+        };
+        boolean foldCase = caseHandling == CaseHandling.IGNORE;
+        boolean keepCase = caseHandling == CaseHandling.PRESERVE;
+
+        int[] codes = new int[Character.MAX_VALUE + 1];
+        for (int c = 0; c <= Character.MAX_VALUE; c++) {
+            char processedChar = foldCase ? Character.toUpperCase((char) c) : (char) c;
+            if (Character.isWhitespace(processedChar)) {
+                codes[c] = whitespaceCode;
+            } else {
+                int index = alphabet.getIndex(processedChar);
+                if (index < 0 && keepCase) {
+                    index = otherCaseIndex(alphabet, (char) c);
+                }
+                codes[c] = index >= 0 ? index : unknownCode;
+            }
+        }
+        return codes;
+    }
+
+    /**
+     * Looks a char up in the alphabet in the other case, flagging the index with the case to give back.
+     *
+     * @return The flagged index, or -1 if the alphabet does not have the char in either case.
+     */
+    private static int otherCaseIndex(Alphabet alphabet, char c) {
+        char upper = Character.toUpperCase(c);
+        int index = upper != c ? alphabet.getIndex(upper) : -1;
+        if (index >= 0) {
+            return index | LOWER_CASE;
+        }
+        char lower = Character.toLowerCase(c);
+        index = lower != c ? alphabet.getIndex(lower) : -1;
+        return index >= 0 ? index | UPPER_CASE : -1;
+    }
+
     /**
      * The actual encryption method to be implemented by subclasses.
      *
@@ -82,18 +567,29 @@ public abstract class Cryptosystem {
      * @param alphabet  The reference alphabet for validation.
      * @return The normalized text.
      */
+    protected String normalizeText(String text, Alphabet alphabet) {
+        StringBuilder normalized = new StringBuilder(text.length());
+        normalizeText(text, alphabet, normalized);
+        return normalized.toString();
+    }
 
     /**
-     * Normalizes the input text based on case handling and unknown character handling settings.
+     * Normalizes the input text based on case handling and unknown character handling settings,
+     * appending the result to {@code normalized}. Each character is handled on its own, so a text
+     * can be normalized in arbitrary chunks.
+     * <p>
+     * With {@link CaseHandling#PRESERVE}, a letter the alphabet only has in the other case is a symbol,
+     * as in the table and kernel paths, and is kept in its own case: {@link #encryptMethod} /
+     * {@link #decryptMethod} then receive it unchanged and must carry its case to the output.
+     * </p>
      *
-     * @param text      The input text.
-     * @param alphabet  The reference alphabet for validation.
-     * @return The normalized text.
+     * @param text       The input text.
+     * @param alphabet   The reference alphabet for validation.
+     * @param normalized The builder receiving the normalized characters.
      */
-    protected String normalizeText(String text, Alphabet alphabet) {
-        StringBuilder normalized = new StringBuilder();
-
-        for (char c : text.toCharArray()) {
+    protected void normalizeText(CharSequence text, Alphabet alphabet, StringBuilder normalized) {
+        for (int i = 0, length = text.length(); i < length; i++) {
+            char c = text.charAt(i);
             char processedChar = c;
 
             // Apply case handling rules
@@ -102,7 +598,7 @@ public abstract class Cryptosystem {
                     processedChar = Character.toUpperCase(c);
                     break;
                 case PRESERVE:
-                    // No changes, but it's needed to review
+                    // Same symbol in either case; the letter keeps its own case
                     break;
                 case STRICT:
                     // No changes needed; keep original case
@@ -118,7 +614,8 @@ public abstract class Cryptosystem {
             }
 
             // Apply unknown character handling rules
-            if (alphabet.isValidChar(processedChar)) {
+            if (alphabet.isValidChar(processedChar)
+                    || caseHandling == CaseHandling.PRESERVE && otherCaseIndex(alphabet, c) >= 0) {
                 normalized.append(processedChar);
             } else {
                 switch (unknownCharHandling) {
@@ -134,6 +631,31 @@ public abstract class Cryptosystem {
                 }
             }
         }
-        return normalized.toString();
+    }
+
+    /**
+     * Pumps a reader through a session into a writer using fixed-size buffers.
+     */
+    private static void transformStream(Reader input, Writer output, CipherSession session) throws IOException {
+        CharBuffer in = CharBuffer.allocate(STREAM_BUFFER_SIZE);
+        CharBuffer out = CharBuffer.allocate(STREAM_BUFFER_SIZE + 2 * session.getBlockSize());
+        while (input.read(in) != -1) {
+            in.flip();
+            if (out.capacity() < session.getOutputSize(in.remaining())) {
+                // Characters kept around an incomplete block are carried too, so the carry may outgrow one block.
+                out = CharBuffer.allocate(session.getOutputSize(in.remaining()));
+            }
+            out.clear();
+            session.update(in, out);
+            output.write(out.array(), 0, out.position());
+            in.clear();
+        }
+        if (out.capacity() < session.getOutputSize(0)) {
+            out = CharBuffer.allocate(session.getOutputSize(0));
+        }
+        out.clear();
+        session.doFinal(out);
+        output.write(out.array(), 0, out.position());
+        output.flush();
     }
 }
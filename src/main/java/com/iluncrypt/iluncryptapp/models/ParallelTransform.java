@@ -0,0 +1,198 @@
+package com.iluncrypt.iluncryptapp.models;
+
+import com.iluncrypt.iluncryptapp.models.keys.Key;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.IntConsumer;
+
+/**
+ * Parallel forms of the {@link Cryptosystem} kernels, used in parallel mode for large inputs.
+ * <p>
+ * The input is cut into chunks processed on the common {@link ForkJoinPool}. Each chunk writes into its
+ * own region of a shared, preallocated array (normalization never produces more characters than it
+ * reads), and the regions are then closed up if characters were dropped. Normalization and
+ * substitution work character by character, so they can be cut anywhere; symbol kernels are cut on
+ * multiples of the block size and receive the absolute position of their first symbol, so blocks and
+ * key periods stay aligned exactly as in the sequential path.
+ * </p>
+ */
+final class ParallelTransform {
+    // Smaller chunks are not worth a task of their own.
+    private static final int MIN_CHUNK = 1 << 16;
+    // Chunks per worker, so that uneven chunks still balance.
+    private static final int CHUNKS_PER_THREAD = 4;
+
+    private ParallelTransform() {
+    }
+
+    /**
+     * Parallel {@link Cryptosystem#transformChars}. Requires {@code src != dst} or {@code srcOffset == dstOffset}.
+     */
+    static int transformChars(Cryptosystem cryptosystem, char[] src, int srcOffset, int length,
+                              char[] dst, int dstOffset, boolean decrypt, int[] table) {
+        int[] bounds = split(length, 1);
+        int[] written = new int[bounds.length - 1];
+        forEachChunk(written.length, c -> written[c] = cryptosystem.substituteChars(src, srcOffset + bounds[c],
+                bounds[c + 1] - bounds[c], dst, dstOffset + bounds[c], decrypt, table));
+        return compact(dst, dstOffset, bounds, written);
+    }
+
+    /**
+     * Parallel {@link Cryptosystem#classifySymbols(CharSequence, boolean, int[], int)}.
+     */
+    static int classifySymbols(Cryptosystem cryptosystem, CharSequence text, boolean decrypt, int[] items, int count) {
+        int[] bounds = split(text.length(), 1);
+        int[] written = new int[bounds.length - 1];
+        forEachChunk(written.length, c -> written[c] = cryptosystem.classifySymbols(text, bounds[c], bounds[c + 1],
+                decrypt, items, count + bounds[c]) - (count + bounds[c]));
+        return count + compact(items, count, bounds, written);
+    }
+
+    /**
+     * Parallel {@link Cryptosystem#applyKernel}: gathers the symbols, runs the kernel on block-aligned
+     * ranges and scatters the result back between the kept characters. With {@code caseFlags}, the
+     * items may carry the case flags of {@link Cryptosystem#withCase}.
+     */
+    static int applyKernel(SymbolKernel kernel, long position, int[] items, int count, int symbolCount,
+                           int blockSize, char[] alphabet, boolean caseFlags, char[] dst, int dstOffset) {
+        if (symbolCount == count && !caseFlags) {
+            int[] bounds = split(count, blockSize);
+            forEachChunk(bounds.length - 1, c -> {
+                kernel.apply(items, bounds[c], bounds[c + 1], position + bounds[c]);
+                for (int i = bounds[c]; i < bounds[c + 1]; i++) {
+                    dst[dstOffset + i] = alphabet[items[i]];
+                }
+            });
+            return count;
+        }
+
+        int[] bounds = split(count, 1);
+        int chunks = bounds.length - 1;
+        int[] symbolStart = new int[chunks + 1];
+        forEachChunk(chunks, c -> symbolStart[c + 1] = Cryptosystem.countSymbols(items, bounds[c], bounds[c + 1]));
+        for (int c = 0; c < chunks; c++) {
+            symbolStart[c + 1] += symbolStart[c];
+        }
+
+        int[] symbols = new int[symbolCount];
+        forEachChunk(chunks, c -> {
+            for (int i = bounds[c], s = symbolStart[c]; i < bounds[c + 1]; i++) {
+                if (items[i] >= 0) {
+                    symbols[s++] = items[i] & Cryptosystem.SYMBOL_MASK;
+                }
+            }
+        });
+
+        int[] blocks = split(symbolCount, blockSize);
+        forEachChunk(blocks.length - 1, c -> kernel.apply(symbols, blocks[c], blocks[c + 1], position + blocks[c]));
+
+        forEachChunk(chunks, c -> {
+            for (int i = bounds[c], s = symbolStart[c]; i < bounds[c + 1]; i++) {
+                int item = items[i];
+                dst[dstOffset + i] = item >= 0 ? Cryptosystem.withCase(alphabet[symbols[s++]], item) : (char) ~item;
+            }
+        });
+        return count;
+    }
+
+    /**
+     * Parallel form of the normalize-then-transform template: both steps run on chunks, the second one
+     * cut on multiples of the block size so that only the last chunk may be padded.
+     */
+    static String transformTemplate(Cryptosystem cryptosystem, String text, Key key, boolean decrypt) {
+        Alphabet alphabet = decrypt ? cryptosystem.ciphertextAlphabet : cryptosystem.plaintextAlphabet;
+        int[] bounds = split(text.length(), 1);
+        String[] normalizedParts = new String[bounds.length - 1];
+        forEachChunk(normalizedParts.length, c -> normalizedParts[c] =
+                cryptosystem.normalizeText(text.substring(bounds[c], bounds[c + 1]), alphabet));
+        String normalized = String.join("", normalizedParts);
+
+        int[] blocks = split(normalized.length(), cryptosystem.getStreamBlockSize(key));
+        String[] parts = new String[blocks.length - 1];
+        forEachChunk(parts.length, c -> {
+            String chunk = normalized.substring(blocks[c], blocks[c + 1]);
+            parts[c] = decrypt ? cryptosystem.decryptMethod(chunk, key) : cryptosystem.encryptMethod(chunk, key);
+        });
+        return String.join("", parts);
+    }
+
+    /**
+     * Cuts [0, length) into chunks whose inner boundaries are multiples of {@code align}.
+     *
+     * @return The boundaries: chunk c is [bounds[c], bounds[c + 1]).
+     */
+    static int[] split(int length, int align) {
+        int chunks = Math.max(1, Math.min(ForkJoinPool.getCommonPoolParallelism() * CHUNKS_PER_THREAD,
+                length / MIN_CHUNK));
+        int[] bounds = new int[chunks + 1];
+        for (int c = 1; c < chunks; c++) {
+            long cut = (long) length * c / chunks;
+            bounds[c] = (int) (cut - cut % align);
+        }
+        bounds[chunks] = length;
+        return bounds;
+    }
+
+    /**
+     * Moves the {@code written[c]} chars produced at {@code offset + bounds[c]} next to each other.
+     *
+     * @return The total number of chars.
+     */
+    private static int compact(char[] array, int offset, int[] bounds, int[] written) {
+        int end = offset;
+        for (int c = 0; c < written.length; c++) {
+            if (end != offset + bounds[c]) {
+                System.arraycopy(array, offset + bounds[c], array, end, written[c]);
+            }
+            end += written[c];
+        }
+        return end - offset;
+    }
+
+    private static int compact(int[] array, int offset, int[] bounds, int[] written) {
+        int end = offset;
+        for (int c = 0; c < written.length; c++) {
+            if (end != offset + bounds[c]) {
+                System.arraycopy(array, offset + bounds[c], array, end, written[c]);
+            }
+            end += written[c];
+        }
+        return end - offset;
+    }
+
+    private static void forEachChunk(int chunks, IntConsumer action) {
+        if (chunks == 1) {
+            action.accept(0);
+        } else {
+            ForkJoinPool.commonPool().invoke(new ChunkTask(0, chunks, action));
+        }
+    }
+
+    /**
+     * Runs {@code action} for every chunk index in [from, to), splitting the range in halves.
+     */
+    private static final class ChunkTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int from;
+        private final int to;
+        private final IntConsumer action;
+
+        ChunkTask(int from, int to, IntConsumer action) {
+            this.from = from;
+            this.to = to;
+            this.action = action;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from == 1) {
+                action.accept(from);
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new ChunkTask(from, mid, action), new ChunkTask(mid, to, action));
+        }
+    }
+}
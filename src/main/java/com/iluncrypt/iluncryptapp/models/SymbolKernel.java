@@ -0,0 +1,26 @@
+package com.iluncrypt.iluncryptapp.models;
+
+/**
+ * Core of a cipher expressed on symbol indices instead of characters.
+ * <p>
+ * {@link Cryptosystem} normalizes the text into an {@code int[]} of indices in the input alphabet,
+ * hands contiguous ranges of it to the kernel, and maps the resulting indices back to the output
+ * alphabet. Kernels therefore only contain plain arithmetic loops over primitive arrays, which the
+ * JIT is free to unroll and vectorize.
+ * </p>
+ */
+@FunctionalInterface
+public interface SymbolKernel {
+
+    /**
+     * Transforms {@code symbols[from, to)} in place.
+     *
+     * @param symbols  Symbol indices; on return they hold indices in the output alphabet.
+     * @param from     First index to transform (inclusive).
+     * @param to       Last index to transform (exclusive). For block ciphers, {@code to - from} is a
+     *                 multiple of the block size.
+     * @param position Position of {@code symbols[from]} among the symbols of the whole text, for
+     *                 ciphers whose key depends on it (e.g. Vigenère). Always a multiple of the block size.
+     */
+    void apply(int[] symbols, int from, int to, long position);
+}
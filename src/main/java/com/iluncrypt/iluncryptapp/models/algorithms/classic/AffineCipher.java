@@ -12,6 +12,10 @@ import com.iluncrypt.iluncryptapp.models.keys.Key;
  * Implements the Affine Cipher encryption and decryption, inheriting from the Cryptosystem class.
  * The Affine Cipher is a monoalphabetic substitution cipher where each letter is transformed
  * using the mathematical function: E(x) = (ax + b) mod m.
+ * <p>
+ * Being monoalphabetic, it only supplies the substitution tables compiled by its {@link AffineKey};
+ * normalization and encryption run as a single fused pass in {@link Cryptosystem}.
+ * </p>
  */
 public class AffineCipher extends Cryptosystem {
 
@@ -31,6 +35,22 @@ public class AffineCipher extends Cryptosystem {
         }
     }
 
+    /**
+     * Table form of the cipher: E(x) = (ax + b) mod m and D(x) = a⁻¹(x - b) mod m, compiled once per key.
+     *
+     * @param key     The key used. Must be an instance of AffineKey.
+     * @param decrypt {@code true} for D(x), {@code false} for E(x).
+     * @return The substitution table cached on the key.
+     * @throws IllegalArgumentException If the provided key is not an instance of AffineKey.
+     */
+    @Override
+    protected int[] substitutionTable(Key key, boolean decrypt) {
+        if (!(key instanceof AffineKey affineKey)) {
+            throw new IllegalArgumentException("Invalid key type. AffineCipher requires an AffineKey.");
+        }
+        return decrypt ? affineKey.getInverseTable() : affineKey.getForwardTable();
+    }
+
     /**
      * Encrypts the given plaintext using the Affine Cipher formula: E(x) = (ax + b) mod m.
      *
@@ -41,27 +61,7 @@ public class AffineCipher extends Cryptosystem {
      */
     @Override
     public String encryptMethod(String plaintext, Key key) {
-        if (!(key instanceof AffineKey affineKey)) {
-            throw new IllegalArgumentException("Invalid key type. AffineCipher requires an AffineKey.");
-        }
-
-        int a = affineKey.getA();
-        int b = affineKey.getB();
-        int alphabetSize = affineKey.getKeyAlphabet().size();
-
-        StringBuilder encrypted = new StringBuilder();
-        for (char c : plaintext.toCharArray()) {
-            if (Character.isWhitespace(c)) {
-                if (whitespaceHandling == WhitespaceHandling.PRESERVE) {
-                    encrypted.append(c);
-                }
-                continue;
-            }
-            int index = plaintextAlphabet.getIndex(c);
-            int encryptedIndex = (a * index + b) % alphabetSize;
-            encrypted.append(ciphertextAlphabet.getChar(encryptedIndex));
-        }
-        return encrypted.toString();
+        return transformText(plaintext, false, substitutionTable(key, false));
     }
 
     /**
@@ -74,44 +74,6 @@ public class AffineCipher extends Cryptosystem {
      */
     @Override
     public String decryptMethod(String ciphertext, Key key) {
-        if (!(key instanceof AffineKey affineKey)) {
-            throw new IllegalArgumentException("Invalid key type. AffineCipher requires an AffineKey.");
-        }
-
-        int a = affineKey.getA();
-        int b = affineKey.getB();
-        int alphabetSize = affineKey.getKeyAlphabet().size();
-        int modInverse = findModInverse(a, alphabetSize);
-
-        StringBuilder decrypted = new StringBuilder();
-        for (char c : ciphertext.toCharArray()) {
-            if (Character.isWhitespace(c)) {
-                if (whitespaceHandling == WhitespaceHandling.PRESERVE) {
-                    decrypted.append(c);
-                }
-                continue;
-            }
-            int index = ciphertextAlphabet.getIndex(c);
-            int decryptedIndex = (modInverse * (index - b + alphabetSize)) % alphabetSize;
-            decrypted.append(plaintextAlphabet.getChar(decryptedIndex));
-        }
-        return decrypted.toString();
-    }
-
-    /**
-     * Finds the modular inverse of 'a' modulo 'm' using brute force.
-     *
-     * @param a The number to find the inverse for.
-     * @param m The modulus.
-     * @return The modular inverse of 'a' modulo 'm'.
-     * @throws IllegalArgumentException If no modular inverse exists.
-     */
-    private int findModInverse(int a, int m) {
-        for (int x = 1; x < m; x++) {
-            if ((a * x) % m == 1) {
-                return x;
-            }
-        }
-        throw new IllegalArgumentException("No modular inverse exists for the given values.");
+        return transformText(ciphertext, true, substitutionTable(key, true));
     }
 }
\ No newline at end of file
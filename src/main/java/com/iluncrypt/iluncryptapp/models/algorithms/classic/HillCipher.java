@@ -2,11 +2,114 @@ package com.iluncrypt.iluncryptapp.models.algorithms.classic;
 
 import com.iluncrypt.iluncryptapp.models.Alphabet;
 import com.iluncrypt.iluncryptapp.models.Cryptosystem;
+import com.iluncrypt.iluncryptapp.models.SymbolKernel;
 import com.iluncrypt.iluncryptapp.models.enums.CaseHandling;
 import com.iluncrypt.iluncryptapp.models.enums.UnknownCharHandling;
 import com.iluncrypt.iluncryptapp.models.enums.WhitespaceHandling;
-import com.iluncrypt.iluncryptapp.models.keys.AffineKey;
+import com.iluncrypt.iluncryptapp.models.keys.HillKey;
 import com.iluncrypt.iluncryptapp.models.keys.Key;
 
-public class HillCipher {
+/**
+ * Implements the Hill Cipher with an n×n key matrix on any alphabet:
+ * C = K·P (mod m) and P = K⁻¹·C (mod m) for every block of n symbols.
+ * <p>
+ * The text is processed as an {@code int[]} of symbol indices in blocks of n; the last block is
+ * padded when encrypting (see {@link Cryptosystem#symbolKernel(Key, boolean)}).
+ * </p>
+ */
+public class HillCipher extends Cryptosystem {
+
+    /**
+     * Constructs a HillCipher using specified plaintext and ciphertext alphabets.
+     *
+     * @param plaintextAlphabet  The alphabet used for plaintext.
+     * @param ciphertextAlphabet The alphabet used for ciphertext.
+     * @throws IllegalArgumentException If the sizes of the plaintext and ciphertext alphabets do not match.
+     */
+    public HillCipher(Alphabet plaintextAlphabet, Alphabet ciphertextAlphabet,
+                      CaseHandling caseHandling, UnknownCharHandling unknownCharHandling, WhitespaceHandling whitespaceHandling) {
+        super(plaintextAlphabet, ciphertextAlphabet, caseHandling, unknownCharHandling, whitespaceHandling);
+
+        if (plaintextAlphabet.size() != ciphertextAlphabet.size()) {
+            throw new IllegalArgumentException("Plaintext and ciphertext alphabets must have the same size.");
+        }
+    }
+
+    /**
+     * The block size is the dimension of the key matrix.
+     */
+    @Override
+    protected int getStreamBlockSize(Key key) {
+        return requireHillKey(key).getSize();
+    }
+
+    /**
+     * Builds the block-wise matrix-vector product with K (encryption) or K⁻¹ (decryption).
+     *
+     * @param key     The key used. Must be an instance of HillKey.
+     * @param decrypt {@code true} for decryption.
+     * @return The kernel multiplying every block by the matrix.
+     * @throws IllegalArgumentException If the key is not a HillKey over an alphabet of the right size.
+     */
+    @Override
+    protected SymbolKernel symbolKernel(Key key, boolean decrypt) {
+        HillKey hillKey = requireHillKey(key);
+        int m = plaintextAlphabet.size();
+        if (hillKey.getKeyAlphabet().size() != m) {
+            throw new IllegalArgumentException("The key alphabet size does not match the alphabet size.");
+        }
+        int[] matrix = decrypt ? hillKey.getInverseMatrix() : hillKey.getMatrix();
+        int n = hillKey.getSize();
+        return (symbols, from, to, position) -> multiplyBlocks(symbols, from, to, matrix, n, m);
+    }
+
+    /**
+     * Replaces every block x of n symbols in symbols[from, to) by matrix·x mod m.
+     */
+    private static void multiplyBlocks(int[] symbols, int from, int to, int[] matrix, int n, int m) {
+        int[] block = new int[n];
+        for (int start = from; start < to; start += n) {
+            System.arraycopy(symbols, start, block, 0, n);
+            for (int i = 0, row = 0; i < n; i++, row += n) {
+                // Entries and symbols are below m ≤ 2^16, so n products always fit in a long.
+                long sum = 0;
+                for (int j = 0; j < n; j++) {
+                    sum += (long) matrix[row + j] * block[j];
+                }
+                symbols[start + i] = (int) (sum % m);
+            }
+        }
+    }
+
+    private static HillKey requireHillKey(Key key) {
+        if (!(key instanceof HillKey hillKey)) {
+            throw new IllegalArgumentException("Invalid key type. HillCipher requires a HillKey.");
+        }
+        return hillKey;
+    }
+
+    /**
+     * Encrypts the given plaintext block by block: C = K·P (mod m).
+     *
+     * @param plaintext The text to be encrypted.
+     * @param key       The key used for encryption. Must be an instance of HillKey.
+     * @return The encrypted ciphertext, padded to a whole number of blocks.
+     */
+    @Override
+    protected String encryptMethod(String plaintext, Key key) {
+        return transformText(plaintext, false, symbolKernel(key, false), getStreamBlockSize(key));
+    }
+
+    /**
+     * Decrypts the given ciphertext block by block: P = K⁻¹·C (mod m).
+     *
+     * @param ciphertext The text to be decrypted.
+     * @param key        The key used for decryption. Must be an instance of HillKey.
+     * @return The decrypted plaintext (including any padding added when encrypting).
+     * @throws IllegalArgumentException If the ciphertext does not contain a whole number of blocks.
+     */
+    @Override
+    protected String decryptMethod(String ciphertext, Key key) {
+        return transformText(ciphertext, true, symbolKernel(key, true), getStreamBlockSize(key));
+    }
 }
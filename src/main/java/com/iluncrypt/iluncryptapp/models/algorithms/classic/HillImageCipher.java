@@ -0,0 +1,197 @@
+package com.iluncrypt.iluncryptapp.models.algorithms.classic;
+
+import com.iluncrypt.iluncryptapp.models.Alphabet;
+import com.iluncrypt.iluncryptapp.models.keys.HillKey;
+
+import java.awt.AlphaComposite;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferByte;
+import java.security.SecureRandom;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * Implements the Hill Cipher on the pixels of an image: the 8-bit samples of the image, taken in the
+ * order of its data buffer, are cut into blocks of n values over ℤ_256, and every block x is replaced by
+ * K·x (encryption) or K⁻¹·x (decryption) modulo 256. The samples left over after the last whole block
+ * are kept as they are.
+ * <p>
+ * Images are processed as TYPE_3BYTE_BGR, or TYPE_4BYTE_ABGR when they have an alpha channel, which is
+ * then encrypted as well; these are the types PNG images are read back as, so an encrypted image saved
+ * as PNG decrypts once loaded again.
+ * </p>
+ * <p>
+ * Rather than multiplying the blocks one at a time, batches of blocks are transposed into one row of
+ * {@link #BATCH_VALUES} values per component and multiplied by the key as a matrix–matrix product, row by
+ * row: the inner loop runs over a contiguous array, which the JIT compiles to vector instructions, and
+ * every batch stays in cache while the n rows of the key go over it. Sums are kept in {@code int}, whose
+ * overflow is harmless since 256 divides 2^32. Large images are cut into bands of whole blocks
+ * processed in parallel on the common {@link ForkJoinPool}.
+ * </p>
+ */
+public final class HillImageCipher {
+    /** The modulus of the image cipher: one value per 8-bit sample. */
+    public static final int MODULUS = 256;
+    // Values of a batch, all components together: 64 KiB of ints
+    private static final int BATCH_VALUES = 1 << 14;
+    // Images under this many samples are processed on the calling thread
+    private static final int PARALLEL_THRESHOLD = 1 << 20;
+    // Smallest band given to a task
+    private static final int MIN_BAND = 1 << 18;
+    // Bands per thread of the pool, so that threads finishing early can take over the others' work
+    private static final int BANDS_PER_THREAD = 4;
+
+    private static final Alphabet KEY_ALPHABET = Alphabet.generateZAlphabet(MODULUS);
+    private static final SecureRandom SECURE_RANDOM = new SecureRandom();
+
+    private HillImageCipher() {
+    }
+
+    /**
+     * Builds a key for images from its textual form, e.g. "[[3, 3], [2, 5]]" or "3 3 2 5".
+     *
+     * @param matrixStr The matrix as text.
+     * @return The key, over ℤ_256.
+     * @throws IllegalArgumentException If the text is not a square matrix invertible modulo 256, that is,
+     *                                  with an odd determinant.
+     */
+    public static HillKey parseKey(String matrixStr) {
+        return new HillKey(matrixStr, KEY_ALPHABET);
+    }
+
+    /**
+     * Generates a random key for images.
+     *
+     * @param size The dimension n of the matrix.
+     * @return A random n×n matrix invertible modulo 256.
+     * @throws IllegalArgumentException If the size is not positive.
+     */
+    public static HillKey generateKey(int size) {
+        return generateKey(size, SECURE_RANDOM);
+    }
+
+    /**
+     * Generates a random key for images from a given source of randomness.
+     *
+     * @see #generateKey(int)
+     */
+    public static HillKey generateKey(int size, Random random) {
+        if (size <= 0) {
+            throw new IllegalArgumentException("The key matrix size must be positive.");
+        }
+        // Matrices with an odd determinant are common enough to be found by trial
+        while (true) {
+            int[][] matrix = new int[size][size];
+            for (int[] row : matrix) {
+                for (int j = 0; j < size; j++) {
+                    row[j] = random.nextInt(MODULUS);
+                }
+            }
+            try {
+                return new HillKey(matrix, KEY_ALPHABET);
+            } catch (IllegalArgumentException e) {
+                // Even determinant: try another one
+            }
+        }
+    }
+
+    /**
+     * Encrypts the pixels of an image: C = K·P (mod 256) for every block of n samples.
+     *
+     * @param image The image to encrypt; it is not modified.
+     * @param key   The key, over ℤ_256.
+     * @return A new TYPE_3BYTE_BGR or TYPE_4BYTE_ABGR image with the encrypted samples.
+     * @throws IllegalArgumentException If the key is not over ℤ_256.
+     */
+    public static BufferedImage encrypt(BufferedImage image, HillKey key) {
+        return transform(image, key, requireImageKey(key).getMatrix());
+    }
+
+    /**
+     * Decrypts the pixels of an image: P = K⁻¹·C (mod 256) for every block of n samples.
+     *
+     * @param image The image to decrypt; it is not modified.
+     * @param key   The key used for encryption, over ℤ_256.
+     * @return A new TYPE_3BYTE_BGR or TYPE_4BYTE_ABGR image with the decrypted samples.
+     * @throws IllegalArgumentException If the key is not over ℤ_256.
+     */
+    public static BufferedImage decrypt(BufferedImage image, HillKey key) {
+        return transform(image, key, requireImageKey(key).getInverseMatrix());
+    }
+
+    private static HillKey requireImageKey(HillKey key) {
+        if (key.getKeyAlphabet().size() != MODULUS) {
+            throw new IllegalArgumentException("Image keys must work modulo " + MODULUS + ".");
+        }
+        return key;
+    }
+
+    private static BufferedImage transform(BufferedImage image, HillKey key, int[] matrix) {
+        BufferedImage result = copyAsBytes(image);
+        byte[] samples = ((DataBufferByte) result.getRaster().getDataBuffer()).getData();
+        int n = key.getSize();
+        int length = samples.length - samples.length % n;
+        int bands = length < PARALLEL_THRESHOLD || ForkJoinPool.getCommonPoolParallelism() == 1
+                ? 1 : Math.max(1, Math.min(ForkJoinPool.getCommonPoolParallelism() * BANDS_PER_THREAD, length / MIN_BAND));
+        int blocks = length / n;
+        IntStream.range(0, bands).parallel().forEach(band -> {
+            int from = (int) ((long) blocks * band / bands) * n;
+            int to = (int) ((long) blocks * (band + 1) / bands) * n;
+            multiplyBlocks(samples, from, to, matrix, n);
+        });
+        return result;
+    }
+
+    /**
+     * Copies an image into a new TYPE_3BYTE_BGR or TYPE_4BYTE_ABGR image, whose data buffer holds exactly
+     * its samples, without blending translucent pixels.
+     */
+    private static BufferedImage copyAsBytes(BufferedImage image) {
+        int type = image.getColorModel().hasAlpha() ? BufferedImage.TYPE_4BYTE_ABGR : BufferedImage.TYPE_3BYTE_BGR;
+        BufferedImage copy = new BufferedImage(image.getWidth(), image.getHeight(), type);
+        Graphics2D g2d = copy.createGraphics();
+        g2d.setComposite(AlphaComposite.Src);
+        g2d.drawImage(image, 0, 0, null);
+        g2d.dispose();
+        return copy;
+    }
+
+    /**
+     * Replaces every block x of n samples in samples[from, to) by matrix·x mod 256, a batch of blocks at
+     * a time.
+     */
+    static void multiplyBlocks(byte[] samples, int from, int to, int[] matrix, int n) {
+        int batch = Math.max(1, BATCH_VALUES / n);
+        // rows[j * batch + b] holds component j of block b of the batch
+        int[] rows = new int[n * batch];
+        int[] sums = new int[batch];
+        for (int start = from; start < to; start += batch * n) {
+            int count = Math.min(batch, (to - start) / n);
+            for (int b = 0, p = start; b < count; b++, p += n) {
+                for (int j = 0; j < n; j++) {
+                    rows[j * batch + b] = samples[p + j] & 0xFF;
+                }
+            }
+            for (int i = 0; i < n; i++) {
+                Arrays.fill(sums, 0, count, 0);
+                for (int j = 0; j < n; j++) {
+                    int entry = matrix[i * n + j];
+                    if (entry == 0) {
+                        continue;
+                    }
+                    int row = j * batch;
+                    for (int b = 0; b < count; b++) {
+                        sums[b] += entry * rows[row + b];
+                    }
+                }
+                // The batch is already gathered, so the output can go straight back in place
+                for (int b = 0, p = start + i; b < count; b++, p += n) {
+                    samples[p] = (byte) sums[b];
+                }
+            }
+        }
+    }
+}
@@ -8,10 +8,68 @@ import com.iluncrypt.iluncryptapp.models.enums.WhitespaceHandling;
 import com.iluncrypt.iluncryptapp.models.keys.AffineKey;
 import com.iluncrypt.iluncryptapp.models.keys.Key;
 
+/**
+ * Implements the Multiplicative Cipher: E(x) = ax mod m and D(x) = a⁻¹x mod m.
+ * It is the Affine Cipher with b = 0, so its keys are {@link AffineKey}s whose additive part is zero.
+ */
+public class MultiplicativeCipher extends Cryptosystem {
 
+    /**
+     * Constructs a MultiplicativeCipher using specified plaintext and ciphertext alphabets.
+     *
+     * @param plaintextAlphabet  The alphabet used for plaintext.
+     * @param ciphertextAlphabet The alphabet used for ciphertext.
+     * @throws IllegalArgumentException If the sizes of the plaintext and ciphertext alphabets do not match.
+     */
+    public MultiplicativeCipher(Alphabet plaintextAlphabet, Alphabet ciphertextAlphabet,
+                                CaseHandling caseHandling, UnknownCharHandling unknownCharHandling, WhitespaceHandling whitespaceHandling) {
+        super(plaintextAlphabet, ciphertextAlphabet, caseHandling, unknownCharHandling, whitespaceHandling);
 
+        if (plaintextAlphabet.size() != ciphertextAlphabet.size()) {
+            throw new IllegalArgumentException("Plaintext and ciphertext alphabets must have the same size.");
+        }
+    }
 
-public class MultiplicativeCipher  {
+    /**
+     * Gets the tables compiled by the key.
+     *
+     * @param key     The key used. Must be an AffineKey with b = 0.
+     * @param decrypt {@code true} for decryption.
+     * @return The substitution table cached on the key.
+     * @throws IllegalArgumentException If the key is not an AffineKey or its additive part is not zero.
+     */
+    @Override
+    protected int[] substitutionTable(Key key, boolean decrypt) {
+        if (!(key instanceof AffineKey affineKey)) {
+            throw new IllegalArgumentException("Invalid key type. MultiplicativeCipher requires an AffineKey.");
+        }
+        if (affineKey.getB() != 0) {
+            throw new IllegalArgumentException("MultiplicativeCipher requires an AffineKey with b = 0.");
+        }
+        return decrypt ? affineKey.getInverseTable() : affineKey.getForwardTable();
+    }
 
-}
+    /**
+     * Encrypts the given plaintext using the formula: E(x) = ax mod m.
+     *
+     * @param plaintext The text to be encrypted.
+     * @param key       The key used for encryption. Must be an AffineKey with b = 0.
+     * @return The encrypted ciphertext.
+     */
+    @Override
+    protected String encryptMethod(String plaintext, Key key) {
+        return transformText(plaintext, false, substitutionTable(key, false));
+    }
 
+    /**
+     * Decrypts the given ciphertext using the formula: D(x) = a⁻¹x mod m.
+     *
+     * @param ciphertext The text to be decrypted.
+     * @param key        The key used for decryption. Must be an AffineKey with b = 0.
+     * @return The decrypted plaintext.
+     */
+    @Override
+    protected String decryptMethod(String ciphertext, Key key) {
+        return transformText(ciphertext, true, substitutionTable(key, true));
+    }
+}
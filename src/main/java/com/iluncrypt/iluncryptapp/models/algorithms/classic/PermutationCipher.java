@@ -26,6 +26,17 @@ public class PermutationCipher extends Cryptosystem {
         }
     }
 
+    /**
+     * Al cifrar por flujo, el texto se entrega en bloques completos; el relleno sólo se aplica al final.
+     */
+    @Override
+    protected int getStreamBlockSize(Key key) {
+        if (!(key instanceof PermutationKey)) {
+            throw new IllegalArgumentException("Clave inválida. PermutationCipher requiere una PermutationKey.");
+        }
+        return ((PermutationKey) key).getPermutation().length;
+    }
+
     @Override
     protected String encryptMethod(String plaintext, Key key) {
         if (!(key instanceof PermutationKey)) {
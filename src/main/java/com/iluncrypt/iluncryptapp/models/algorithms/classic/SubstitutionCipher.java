@@ -1,4 +1,76 @@
 package com.iluncrypt.iluncryptapp.models.algorithms.classic;
 
-public class SubstitutionCipher {
+import com.iluncrypt.iluncryptapp.models.Alphabet;
+import com.iluncrypt.iluncryptapp.models.Cryptosystem;
+import com.iluncrypt.iluncryptapp.models.enums.CaseHandling;
+import com.iluncrypt.iluncryptapp.models.enums.UnknownCharHandling;
+import com.iluncrypt.iluncryptapp.models.enums.WhitespaceHandling;
+import com.iluncrypt.iluncryptapp.models.keys.Key;
+import com.iluncrypt.iluncryptapp.models.keys.SubstitutionKey;
+
+/**
+ * Implements the general monoalphabetic Substitution Cipher: the symbol with index x in the
+ * plaintext alphabet is replaced by the x-th symbol of the key, taken from the ciphertext alphabet.
+ * <p>
+ * The key is compiled into substitution tables by {@link SubstitutionKey}; normalization and
+ * substitution run as a single fused pass in {@link Cryptosystem}.
+ * </p>
+ */
+public class SubstitutionCipher extends Cryptosystem {
+
+    /**
+     * Constructs a SubstitutionCipher using specified plaintext and ciphertext alphabets.
+     *
+     * @param plaintextAlphabet  The alphabet used for plaintext.
+     * @param ciphertextAlphabet The alphabet used for ciphertext (and by the key).
+     * @throws IllegalArgumentException If the sizes of the plaintext and ciphertext alphabets do not match.
+     */
+    public SubstitutionCipher(Alphabet plaintextAlphabet, Alphabet ciphertextAlphabet,
+                              CaseHandling caseHandling, UnknownCharHandling unknownCharHandling, WhitespaceHandling whitespaceHandling) {
+        super(plaintextAlphabet, ciphertextAlphabet, caseHandling, unknownCharHandling, whitespaceHandling);
+
+        if (plaintextAlphabet.size() != ciphertextAlphabet.size()) {
+            throw new IllegalArgumentException("Plaintext and ciphertext alphabets must have the same size.");
+        }
+    }
+
+    /**
+     * Gets the tables compiled by the key.
+     *
+     * @param key     The key used. Must be an instance of SubstitutionKey.
+     * @param decrypt {@code true} for decryption.
+     * @return The substitution table cached on the key.
+     * @throws IllegalArgumentException If the provided key is not an instance of SubstitutionKey.
+     */
+    @Override
+    protected int[] substitutionTable(Key key, boolean decrypt) {
+        if (!(key instanceof SubstitutionKey substitutionKey)) {
+            throw new IllegalArgumentException("Invalid key type. SubstitutionCipher requires a SubstitutionKey.");
+        }
+        return decrypt ? substitutionKey.getInverseTable() : substitutionKey.getForwardTable();
+    }
+
+    /**
+     * Encrypts the given plaintext by replacing every symbol with its image in the key.
+     *
+     * @param plaintext The text to be encrypted.
+     * @param key       The key used for encryption. Must be an instance of SubstitutionKey.
+     * @return The encrypted ciphertext.
+     */
+    @Override
+    protected String encryptMethod(String plaintext, Key key) {
+        return transformText(plaintext, false, substitutionTable(key, false));
+    }
+
+    /**
+     * Decrypts the given ciphertext by replacing every symbol with its preimage in the key.
+     *
+     * @param ciphertext The text to be decrypted.
+     * @param key        The key used for decryption. Must be an instance of SubstitutionKey.
+     * @return The decrypted plaintext.
+     */
+    @Override
+    protected String decryptMethod(String ciphertext, Key key) {
+        return transformText(ciphertext, true, substitutionTable(key, true));
+    }
 }
@@ -1,8 +1,113 @@
 package com.iluncrypt.iluncryptapp.models.algorithms.classic;
 
-public class VigenereCipher {
+import com.iluncrypt.iluncryptapp.models.Alphabet;
+import com.iluncrypt.iluncryptapp.models.Cryptosystem;
+import com.iluncrypt.iluncryptapp.models.SymbolKernel;
+import com.iluncrypt.iluncryptapp.models.enums.CaseHandling;
+import com.iluncrypt.iluncryptapp.models.enums.UnknownCharHandling;
+import com.iluncrypt.iluncryptapp.models.enums.WhitespaceHandling;
+import com.iluncrypt.iluncryptapp.models.keys.Key;
+import com.iluncrypt.iluncryptapp.models.keys.VigenereKey;
 
+/**
+ * Implements the Vigenère Cipher on any alphabet: E(xᵢ) = (xᵢ + kᵢ mod p) mod m and
+ * D(yᵢ) = (yᵢ - kᵢ mod p) mod m, where k is the keyword of period p.
+ * <p>
+ * Only symbols of the alphabet advance the key; characters kept by normalization (whitespace,
+ * unknown characters) are left untouched. The cipher runs as a {@link SymbolKernel} over symbol
+ * indices: the keyword is unrolled into a stripe so that the hot loop is a plain element-wise
+ * addition modulo m with no per-character division.
+ * </p>
+ */
+public class VigenereCipher extends Cryptosystem {
+    // Minimum length of the unrolled key stripe.
+    private static final int STRIPE_LENGTH = 256;
 
-}
+    /**
+     * Constructs a VigenereCipher using specified plaintext and ciphertext alphabets.
+     *
+     * @param plaintextAlphabet  The alphabet used for plaintext.
+     * @param ciphertextAlphabet The alphabet used for ciphertext.
+     * @throws IllegalArgumentException If the sizes of the plaintext and ciphertext alphabets do not match.
+     */
+    public VigenereCipher(Alphabet plaintextAlphabet, Alphabet ciphertextAlphabet,
+                          CaseHandling caseHandling, UnknownCharHandling unknownCharHandling, WhitespaceHandling whitespaceHandling) {
+        super(plaintextAlphabet, ciphertextAlphabet, caseHandling, unknownCharHandling, whitespaceHandling);
+
+        if (plaintextAlphabet.size() != ciphertextAlphabet.size()) {
+            throw new IllegalArgumentException("Plaintext and ciphertext alphabets must have the same size.");
+        }
+    }
+
+    /**
+     * Builds the periodic key addition. Decryption adds m - kᵢ, so both directions share the same loop.
+     *
+     * @param key     The key used. Must be an instance of VigenereKey.
+     * @param decrypt {@code true} for decryption.
+     * @return The kernel adding the key stream to the symbols.
+     * @throws IllegalArgumentException If the key is not a VigenereKey over an alphabet of the right size.
+     */
+    @Override
+    protected SymbolKernel symbolKernel(Key key, boolean decrypt) {
+        if (!(key instanceof VigenereKey vigenereKey)) {
+            throw new IllegalArgumentException("Invalid key type. VigenereCipher requires a VigenereKey.");
+        }
+        int m = plaintextAlphabet.size();
+        if (vigenereKey.getKeyAlphabet().size() != m) {
+            throw new IllegalArgumentException("The key alphabet size does not match the alphabet size.");
+        }
+
+        int[] shifts = vigenereKey.getShifts();
+        int period = shifts.length;
+        int[] stripe = new int[period * ((STRIPE_LENGTH + period - 1) / period)];
+        for (int i = 0; i < stripe.length; i++) {
+            int shift = shifts[i % period];
+            stripe[i] = decrypt ? (m - shift) % m : shift;
+        }
 
+        return (symbols, from, to, position) -> {
+            int offset = (int) (position % period);
+            for (int i = from; i < to; ) {
+                int length = Math.min(to - i, stripe.length - offset);
+                addMod(symbols, i, stripe, offset, length, m);
+                i += length;
+                offset = 0; // the stripe holds whole periods, so every later segment starts a period
+            }
+        };
+    }
 
+    /**
+     * symbols[at + k] = (symbols[at + k] + stripe[offset + k]) mod m, for values already in [0, m).
+     * Written without branches so the loop can be vectorized.
+     */
+    private static void addMod(int[] symbols, int at, int[] stripe, int offset, int length, int m) {
+        for (int k = 0; k < length; k++) {
+            int v = symbols[at + k] + stripe[offset + k];
+            symbols[at + k] = v - (m & ~((v - m) >> 31));
+        }
+    }
+
+    /**
+     * Encrypts the given plaintext by adding the repeated keyword to it.
+     *
+     * @param plaintext The text to be encrypted.
+     * @param key       The key used for encryption. Must be an instance of VigenereKey.
+     * @return The encrypted ciphertext.
+     */
+    @Override
+    protected String encryptMethod(String plaintext, Key key) {
+        return transformText(plaintext, false, symbolKernel(key, false), 1);
+    }
+
+    /**
+     * Decrypts the given ciphertext by subtracting the repeated keyword from it.
+     *
+     * @param ciphertext The text to be decrypted.
+     * @param key        The key used for decryption. Must be an instance of VigenereKey.
+     * @return The decrypted plaintext.
+     */
+    @Override
+    protected String decryptMethod(String ciphertext, Key key) {
+        return transformText(ciphertext, true, symbolKernel(key, true), 1);
+    }
+}
@@ -3,9 +3,9 @@ package com.iluncrypt.iluncryptapp.models.algorithms.publickey;
 import com.iluncrypt.iluncryptapp.models.DSAConfig;
 import com.iluncrypt.iluncryptapp.utils.filemanager.IlunFileManager;
 import com.iluncrypt.iluncryptapp.utils.filemanager.IlunFileMetadata;
+import com.iluncrypt.iluncryptapp.utils.filemanager.MappedFileReader;
 import javax.crypto.Cipher;
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
 import java.security.*;
@@ -99,14 +99,6 @@ public class DSAManager {
      * @return Hash bytes
      */
     private static byte[] calculateFileHash(File file) throws NoSuchAlgorithmException, IOException {
-        MessageDigest digest = MessageDigest.getInstance("SHA-256");
-        try (FileInputStream fis = new FileInputStream(file)) {
-            byte[] buffer = new byte[8192];
-            int bytesRead;
-            while ((bytesRead = fis.read(buffer)) != -1) {
-                digest.update(buffer, 0, bytesRead);
-            }
-        }
-        return digest.digest();
+        return MappedFileReader.digest(file, "SHA-256");
     }
 }
\ No newline at end of file
@@ -2,27 +2,35 @@ package com.iluncrypt.iluncryptapp.models.algorithms.symmetrickey;
 
 import com.iluncrypt.iluncryptapp.models.SymmetricKeyConfig;
 import com.iluncrypt.iluncryptapp.models.enums.symmetrickey.*;
-import com.iluncrypt.iluncryptapp.utils.filemanager.IlunFileData;
+import com.iluncrypt.iluncryptapp.utils.BufferPool;
+import com.iluncrypt.iluncryptapp.utils.filemanager.IlunChunkedMetadata;
 import com.iluncrypt.iluncryptapp.utils.filemanager.IlunFileManager;
+import com.iluncrypt.iluncryptapp.utils.filemanager.IlunFileMetadata;
+import com.iluncrypt.iluncryptapp.utils.filemanager.MappedFileReader;
 
 import javax.crypto.*;
-import javax.crypto.spec.GCMParameterSpec;
-import javax.crypto.spec.IvParameterSpec;
 import javax.crypto.Mac;
-import javax.crypto.spec.SecretKeySpec;
-import java.awt.*;
 import java.awt.image.BufferedImage;
 import java.io.*;
 import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
 import java.security.*;
+import java.util.Arrays;
 import java.util.Base64;
+import java.util.function.DoubleConsumer;
 
 /**
  * Manages AES encryption and decryption with support for IVs and HMAC authentication.
  */
 public class AESManager {
     private static final SecureRandom SECURE_RANDOM = new SecureRandom();
+    // Padded plaintexts from this size on are decrypted into a pooled buffer rather than a heap array
+    // that has to be copied again once the padding is removed; smaller ones are cheaper on the heap
+    private static final int POOLED_DECRYPTION_SIZE = 1 << 16;
+    /** Imágenes con más píxeles que este límite (64 MP, 256 MiB en ARGB) se cifran por bloques desde su archivo. */
+    public static final long LARGE_IMAGE_PIXELS = 1L << 26;
 
     /**
      * Generates a random symmetric key based on the given configuration.
@@ -46,14 +54,11 @@ public class AESManager {
      * @throws IllegalArgumentException if the mode does not require an IV.
      */
     public static byte[] generateIV(SymmetricKeyConfig config) {
-        if (!config.getMode().requiresIV()) {
+        CipherPlan plan = CipherPlan.of(config);
+        if (!plan.requiresIV()) {
             return null;
         }
-        int ivSize = config.getMode().getFixedIVSize();
-        if (ivSize == -1) {
-            ivSize = config.getAlgorithm().getBaseIVSize();
-        }
-        byte[] iv = new byte[ivSize];
+        byte[] iv = new byte[plan.getIVSize()];
         SECURE_RANDOM.nextBytes(iv);
         return iv;
     }
@@ -99,29 +104,45 @@ public class AESManager {
      * @throws Exception if encryption fails.
      */
     public static byte[] encrypt(byte[] data, SecretKey key, byte[] iv, SymmetricKeyConfig config) throws Exception {
-        String transformation = config.getAlgorithm().name() + "/" + config.getMode().getMode() + "/" + config.getPaddingScheme().getPadding();
-        Cipher cipher = Cipher.getInstance(transformation);
-
-        if (config.getMode() == SymmetricKeyMode.GCM) {
-            GCMParameterSpec gcmSpec = new GCMParameterSpec(config.getGCMTagSize().getSize(), iv);
-            cipher.init(Cipher.ENCRYPT_MODE, key, gcmSpec);
-        } else if (config.getMode().requiresIV()) {
-            IvParameterSpec ivSpec = new IvParameterSpec(iv);
-            cipher.init(Cipher.ENCRYPT_MODE, key, ivSpec);
+        return encrypt(ByteBuffer.wrap(data), key, iv, config);
+    }
+
+    /**
+     * Encrypts the remaining bytes of a buffer, such as a memory-mapped file, without copying them
+     * to the heap first. The result has the same layout as {@link #encrypt(byte[], SecretKey, byte[], SymmetricKeyConfig)}.
+     *
+     * @param data   The data to encrypt. Its position is moved to its limit.
+     * @param key    The secret key used for encryption.
+     * @param iv     The initialization vector (IV). Can be null if the mode does not require it.
+     * @param config The encryption configuration.
+     * @return The encrypted byte array.
+     * @throws Exception if encryption fails.
+     */
+    public static byte[] encrypt(ByteBuffer data, SecretKey key, byte[] iv, SymmetricKeyConfig config) throws Exception {
+        CipherPlan plan = CipherPlan.of(config);
+        int length = data.remaining();
+
+        // IV, ciphertext and HMAC are written straight into the result
+        int ivLength = iv != null ? iv.length : 0;
+        byte[] result = new byte[ivLength + plan.getCipherTextSize(length) + plan.getHMACSize()];
+        if (iv != null) System.arraycopy(iv, 0, result, 0, ivLength);
+        ByteBuffer output = ByteBuffer.wrap(result, ivLength, result.length - ivLength);
+        int cipherTextSize;
+        if (ParallelBlockCipher.isParallel(plan, Cipher.ENCRYPT_MODE, length)) {
+            cipherTextSize = ParallelBlockCipher.transform(plan, Cipher.ENCRYPT_MODE, key, iv, 0, data, output, true);
         } else {
-            cipher.init(Cipher.ENCRYPT_MODE, key);
+            Cipher cipher = plan.cipher(Cipher.ENCRYPT_MODE, key, iv);
+            cipherTextSize = cipher.doFinal(data, output);
         }
 
-        byte[] encryptedData = cipher.doFinal(data);
-        byte[] hmac = generateHMAC(encryptedData, key, config);
-
-        int totalSize = (iv != null ? iv.length : 0) + encryptedData.length + (hmac != null ? hmac.length : 0);
-        ByteBuffer buffer = ByteBuffer.allocate(totalSize);
-        if (iv != null) buffer.put(iv);
-        buffer.put(encryptedData);
-        if (hmac != null) buffer.put(hmac);
+        Mac mac = plan.mac(key);
+        if (mac != null) {
+            mac.update(result, ivLength, cipherTextSize);
+            mac.doFinal(result, ivLength + cipherTextSize);
+        }
 
-        return buffer.array();
+        int totalSize = ivLength + cipherTextSize + plan.getHMACSize();
+        return totalSize == result.length ? result : Arrays.copyOf(result, totalSize);
     }
 
     /**
@@ -134,148 +155,212 @@ public class AESManager {
      * @throws Exception if decryption fails.
      */
     public static byte[] decrypt(byte[] encryptedData, SecretKey key, SymmetricKeyConfig config) throws Exception {
-        String transformation = config.getAlgorithm().name() + "/" + config.getMode().getMode() + "/" + config.getPaddingScheme().getPadding();
-        Cipher cipher = Cipher.getInstance(transformation);
-
-        ByteBuffer buffer = ByteBuffer.wrap(encryptedData);
+        return decrypt(ByteBuffer.wrap(encryptedData), key, config);
+    }
 
-        int ivSize = config.getMode().getFixedIVSize();
-        if (ivSize == -1) {
-            ivSize = config.getAlgorithm().getBaseIVSize();
-        }
+    /**
+     * Decrypts the remaining bytes of a buffer, such as a memory-mapped file, without copying them
+     * to the heap first.
+     *
+     * @param encryptedData The encrypted data containing IV and optional HMAC. Its position is moved to its limit.
+     * @param key           The secret key used for decryption.
+     * @param config        The encryption configuration.
+     * @return The decrypted byte array.
+     * @throws Exception if decryption fails.
+     */
+    public static byte[] decrypt(ByteBuffer encryptedData, SecretKey key, SymmetricKeyConfig config) throws Exception {
+        CipherPlan plan = CipherPlan.of(config);
+        int start = encryptedData.position();
 
+        int ivSize = plan.getIVSize();
         byte[] iv = null;
-        if (config.getMode().requiresIV()) {
+        if (plan.requiresIV()) {
             iv = new byte[ivSize];
-            buffer.get(iv);
+            encryptedData.get(start, iv);
         }
 
-        int hmacSize = config.getAuthenticationMethod().getHMACSize() / 8;
-        boolean hasHMAC = config.getAuthenticationMethod() != AuthenticationMethod.NONE;
-
-        int cipherTextSize = buffer.remaining() - (hasHMAC ? hmacSize : 0);
+        int cipherTextSize = encryptedData.remaining() - ivSize - plan.getHMACSize();
 
         if (cipherTextSize <= 0) {
             throw new SecurityException("Cipher text is too short to contain a valid HMAC.");
         }
 
-        byte[] cipherText = new byte[cipherTextSize];
-        buffer.get(cipherText);
-
-        byte[] receivedHMAC = null;
-        if (hasHMAC) {
-            receivedHMAC = new byte[hmacSize];
-            buffer.get(receivedHMAC);
-        }
-
-        if (hasHMAC) {
-            if (!verifyHMAC(cipherText, receivedHMAC, key, config)) {
+        ByteBuffer cipherText = encryptedData.slice(start + ivSize, cipherTextSize);
+        if (plan.hasHMAC()) {
+            if (!verifyHMAC(encryptedData, start + ivSize, cipherTextSize, key, plan)) {
                 throw new SecurityException("Authentication failed: HMAC verification failed.");
             }
         }
+        encryptedData.position(encryptedData.limit());
 
-        if (config.getMode() == SymmetricKeyMode.GCM) {
-            GCMParameterSpec gcmSpec = new GCMParameterSpec(config.getGCMTagSize().getSize(), iv);
-            cipher.init(Cipher.DECRYPT_MODE, key, gcmSpec);
-        } else if (config.getMode().requiresIV()) {
-            IvParameterSpec ivSpec = new IvParameterSpec(iv);
-            cipher.init(Cipher.DECRYPT_MODE, key, ivSpec);
-        } else {
-            cipher.init(Cipher.DECRYPT_MODE, key);
+        if (ParallelBlockCipher.isParallel(plan, Cipher.DECRYPT_MODE, cipherTextSize)) {
+            return ParallelBlockCipher.doFinal(plan, Cipher.DECRYPT_MODE, key, iv, cipherText);
+        }
+        Cipher cipher = plan.cipher(Cipher.DECRYPT_MODE, key, iv);
+        if (!plan.isPadded() || cipherTextSize < POOLED_DECRYPTION_SIZE) {
+            byte[] result = new byte[cipher.getOutputSize(cipherTextSize)];
+            int size = cipher.doFinal(cipherText, ByteBuffer.wrap(result));
+            return size == result.length ? result : Arrays.copyOf(result, size);
+        }
+        // La longitud del texto plano solo se conoce al quitar el relleno: se descifra en un búfer del pool
+        try (BufferPool.Lease lease = BufferPool.shared().acquire(cipher.getOutputSize(cipherTextSize))) {
+            ByteBuffer plainText = lease.buffer();
+            cipher.doFinal(cipherText, plainText);
+            byte[] result = new byte[plainText.flip().remaining()];
+            plainText.get(result);
+            return result;
         }
-
-        return cipher.doFinal(cipherText);
     }
 
 
     /**
-     * Encrypts a file and returns the encrypted data as a byte array.
+     * Encrypts a file and returns the encrypted data as a byte array. The whole result is held in memory,
+     * so files larger than {@link MappedFileReader#IN_MEMORY_LIMIT} are rejected; those are streamed into a
+     * .ilun file by {@link #encryptFile(File, File, SecretKey, byte[], SymmetricKeyConfig)}.
      *
      * @param inputFile The input file to be encrypted.
      * @param key       The secret key used for encryption.
      * @param iv        The initialization vector (IV), required for certain modes.
      * @param config    The encryption configuration.
      * @return The encrypted file data as a byte array.
+     * @throws IllegalArgumentException if the file is too large to be encrypted in memory.
      * @throws Exception if encryption fails.
      */
     public static byte[] encryptFile(File inputFile, SecretKey key, byte[] iv, SymmetricKeyConfig config) throws Exception {
-        byte[] fileBytes = readFile(inputFile);
-
         // Generar IV si es necesario y no se proporciona
         if (config.getMode().requiresIV() && iv == null) {
             iv = generateIV(config);
         }
 
-        // Llamada al método encrypt que ya se encarga de incluir el IV
-        byte[] encryptedData = encrypt(fileBytes, key, iv, config);
-
-        // Retornar directamente el resultado sin concatenar el IV nuevamente
-        return encryptedData;
+        // El archivo se cifra desde su proyección en memoria, sin copiarlo antes al heap;
+        // encrypt ya se encarga de incluir el IV
+        try (FileChannel channel = FileChannel.open(inputFile.toPath(), StandardOpenOption.READ)) {
+            checkInMemorySize(channel.size(), "encrypted");
+            return encrypt(MappedFileReader.map(channel, 0, channel.size()), key, iv, config);
+        }
     }
 
 
 
     /**
-     * Decrypts an encrypted file and returns the decrypted data as a byte array.
+     * Decrypts an encrypted file and returns the decrypted data as a byte array. The whole result is held
+     * in memory, so payloads larger than {@link MappedFileReader#IN_MEMORY_LIMIT} are rejected; those are
+     * streamed into a file by {@link #decryptFile(File, File, SecretKey, SymmetricKeyConfig)}.
      *
      * @param inputFile The encrypted input file.
      * @param key       The secret key used for decryption.
      * @param config    The encryption configuration.
      * @return The decrypted file data as a byte array.
+     * @throws IllegalArgumentException if the payload is too large to be decrypted in memory.
      * @throws Exception if decryption fails.
      */
     public static byte[] decryptFile(File inputFile, SecretKey key, SymmetricKeyConfig config) throws Exception {
+        try (FileChannel channel = FileChannel.open(inputFile.toPath(), StandardOpenOption.READ)) {
+            IlunFileManager.readIlunHeader(channel);
+            long payloadSize = channel.size() - channel.position();
+            checkInMemorySize(payloadSize, "decrypted");
+            return decrypt(MappedFileReader.map(channel, channel.position(), payloadSize), key, config);
+        }
+    }
 
-        IlunFileData fileData = IlunFileManager.readIlunFile(inputFile);
-
-        byte[] encryptedData = fileData.getEncryptedData();
-        ByteBuffer buffer = ByteBuffer.wrap(encryptedData);
-
-
-        return decrypt(encryptedData, key, config);
+    private static void checkInMemorySize(long size, String action) {
+        if (size > MappedFileReader.IN_MEMORY_LIMIT) {
+            throw new IllegalArgumentException("File too large to be " + action + " in memory: " + size
+                    + " bytes, the limit is " + MappedFileReader.IN_MEMORY_LIMIT + ". Stream it to a file instead.");
+        }
     }
 
 
     /**
-     * Generates an HMAC for data integrity verification.
+     * Encrypts a file into a .ilun file by streaming it through the cipher, so that memory use does
+     * not depend on the size of the file. The payload is the same as the one of
+     * {@link #encryptFile(File, SecretKey, byte[], SymmetricKeyConfig)}.
+     *
+     * @param inputFile  The input file to be encrypted.
+     * @param outputFile The .ilun file to write.
+     * @param key        The secret key used for encryption.
+     * @param iv         The initialization vector (IV), required for certain modes. Generated if null.
+     * @param config     The encryption configuration.
+     * @return The metadata written to the .ilun header.
+     * @throws Exception if encryption fails.
      */
-    private static byte[] generateHMAC(byte[] data, SecretKey key, SymmetricKeyConfig config) throws Exception {
-        if (config.getAuthenticationMethod() == AuthenticationMethod.NONE) return null;
-
-        Mac mac = Mac.getInstance(config.getAuthenticationMethod().getHMACAlgorithm());
-
-        // Usa la clave derivada para HMAC
-        SecretKeySpec keySpec = new SecretKeySpec(key.getEncoded(), config.getAuthenticationMethod().getHMACAlgorithm());
-        mac.init(keySpec);
-
-        return mac.doFinal(data);
+    public static IlunFileMetadata encryptFile(File inputFile, File outputFile, SecretKey key, byte[] iv, SymmetricKeyConfig config) throws Exception {
+        // Generar IV si es necesario y no se proporciona
+        if (config.getMode().requiresIV() && iv == null) {
+            iv = generateIV(config);
+        }
+        return SymmetricFileCipher.encryptFile(inputFile, outputFile, key, iv, config);
     }
 
-
-    private static boolean verifyHMAC(byte[] data, byte[] receivedHMAC, SecretKey key, SymmetricKeyConfig config) throws Exception {
-        int expectedHMACSize = config.getAuthenticationMethod().getHMACSize() / 8;
-        if (receivedHMAC == null || receivedHMAC.length != expectedHMACSize) {
-            System.out.println("HMAC size mismatch: Expected " + expectedHMACSize + ", but received " + (receivedHMAC != null ? receivedHMAC.length : 0));
-            return false;
+    /**
+     * Decrypts a .ilun file into another file by streaming it through the cipher. Chunked files are
+     * decrypted chunk by chunk, in parallel.
+     *
+     * @param inputFile  The encrypted input file.
+     * @param outputFile The file receiving the decrypted data. It is deleted if decryption fails.
+     * @param key        The secret key used for decryption.
+     * @param config     The encryption configuration.
+     * @return The metadata of the .ilun header.
+     * @throws Exception if decryption or HMAC verification fails.
+     */
+    public static IlunFileMetadata decryptFile(File inputFile, File outputFile, SecretKey key, SymmetricKeyConfig config) throws Exception {
+        if (IlunFileManager.isChunkedFile(inputFile)) {
+            return ChunkedFileCipher.decryptFile(inputFile, outputFile, key, config);
         }
+        return SymmetricFileCipher.decryptFile(inputFile, outputFile, key, config);
+    }
 
-        byte[] computedHMAC = generateHMAC(data, key, config);
+    /**
+     * Encrypts a file into a chunked .ilun file, whose chunks are encrypted in parallel and can later
+     * be decrypted and authenticated independently.
+     *
+     * @param inputFile  The input file to be encrypted.
+     * @param outputFile The .ilun file to write.
+     * @param key        The secret key used for encryption.
+     * @param nonce      The nonce the IV of every chunk is derived from, if the mode requires an IV. Generated if null.
+     * @param config     The encryption configuration.
+     * @return The header written to the .ilun file.
+     * @throws Exception if encryption fails.
+     */
+    public static IlunChunkedMetadata encryptFileChunked(File inputFile, File outputFile, SecretKey key, byte[] nonce, SymmetricKeyConfig config) throws Exception {
+        if (config.getMode().requiresIV() && nonce == null) {
+            nonce = generateIV(config);
+        }
+        return ChunkedFileCipher.encryptFile(inputFile, outputFile, key, nonce, config);
+    }
 
-        System.out.println("Computed HMAC: " + Base64.getEncoder().encodeToString(computedHMAC));
-        System.out.println("Received HMAC: " + Base64.getEncoder().encodeToString(receivedHMAC));
+    /**
+     * Decrypts a byte range of the original file from a chunked .ilun file, without decrypting the rest.
+     *
+     * @param inputFile The chunked .ilun file.
+     * @param offset    The offset of the range in the original file.
+     * @param length    The length of the range.
+     * @param key       The secret key used for decryption.
+     * @param config    The encryption configuration.
+     * @return The decrypted range.
+     * @throws Exception if decryption or authentication fails.
+     */
+    public static byte[] decryptFileRange(File inputFile, long offset, int length, SecretKey key, SymmetricKeyConfig config) throws Exception {
+        return ChunkedFileCipher.decryptRange(inputFile, offset, length, key, config);
+    }
 
+    /**
+     * Verifies the HMAC that follows {@code length} bytes of ciphertext at {@code offset}.
+     */
+    private static boolean verifyHMAC(ByteBuffer data, int offset, int length, SecretKey key, CipherPlan plan) throws Exception {
+        Mac mac = plan.mac(key);
+        mac.update(data.slice(offset, length));
+        byte[] computedHMAC = mac.doFinal();
+        byte[] receivedHMAC = new byte[plan.getHMACSize()];
+        data.get(offset + length, receivedHMAC);
         return MessageDigest.isEqual(computedHMAC, receivedHMAC);
     }
 
 
-    /* Utility Methods */
-
-    private static byte[] readFile(File file) throws IOException {
-        return java.nio.file.Files.readAllBytes(file.toPath());
-    }
-
     /**
-     * Encripta la imagen a nivel de píxeles y devuelve un BufferedImage visualizable.
+     * Encripta la imagen a nivel de píxeles y devuelve un BufferedImage visualizable del mismo tipo.
+     * Los píxeles se cifran directamente sobre el raster de la imagen (ver {@link RasterCipher}), por
+     * franjas de filas en paralelo en las imágenes grandes, con el mismo resultado que un único cifrador.
      * @param inputImage La imagen original a encriptar.
      * @param key La clave AES.
      * @param iv El vector de inicialización (debe tener 16 bytes).
@@ -283,42 +368,8 @@ public class AESManager {
      * @throws Exception Si ocurre algún error durante la encriptación.
      */
     public static BufferedImage encryptImage(BufferedImage inputImage, SecretKey key, byte[] iv) throws Exception {
-        // Asegurarse de que la imagen esté en formato TYPE_INT_ARGB
-        if (inputImage.getType() != BufferedImage.TYPE_INT_ARGB) {
-            BufferedImage converted = new BufferedImage(inputImage.getWidth(), inputImage.getHeight(), BufferedImage.TYPE_INT_ARGB);
-            Graphics2D g2d = converted.createGraphics();
-            g2d.drawImage(inputImage, 0, 0, null);
-            g2d.dispose();
-            inputImage = converted;
-        }
-        int width = inputImage.getWidth();
-        int height = inputImage.getHeight();
-        int[] pixels = inputImage.getRGB(0, 0, width, height, null, 0, width);
-
-        // Convertir el arreglo de enteros (4 bytes cada uno) a un arreglo de bytes
-        ByteBuffer buffer = ByteBuffer.allocate(pixels.length * 4);
-        for (int pixel : pixels) {
-            buffer.putInt(pixel);
-        }
-        byte[] pixelBytes = buffer.array();
-
-        // Cifrar los bytes usando AES/CTR/NoPadding
-        Cipher cipher = Cipher.getInstance("AES/CTR/NoPadding");
-        IvParameterSpec ivSpec = new IvParameterSpec(iv);
-        cipher.init(Cipher.ENCRYPT_MODE, key, ivSpec);
-        byte[] encryptedBytes = cipher.doFinal(pixelBytes);
-
-        // Convertir los bytes cifrados de vuelta a un arreglo de enteros
-        ByteBuffer encryptedBuffer = ByteBuffer.wrap(encryptedBytes);
-        int[] encryptedPixels = new int[pixels.length];
-        for (int i = 0; i < encryptedPixels.length; i++) {
-            encryptedPixels[i] = encryptedBuffer.getInt();
-        }
-
-        // Crear un nuevo BufferedImage usando los píxeles cifrados
-        BufferedImage encryptedImage = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
-        encryptedImage.setRGB(0, 0, width, height, encryptedPixels, 0, width);
-        return encryptedImage;
+        // Cifrar los bytes ARGB de los píxeles usando AES/CTR/NoPadding, por franjas de filas en paralelo
+        return RasterCipher.transform(new RasterCipher.CounterStream("AES/CTR/NoPadding", Cipher.ENCRYPT_MODE, key, iv), inputImage);
     }
 
     /**
@@ -326,38 +377,73 @@ public class AESManager {
      * @param encryptedImage La imagen cifrada (visualizable) que contiene los píxeles cifrados.
      * @param key La clave AES.
      * @param iv El vector de inicialización (debe ser el mismo utilizado en la encriptación).
-     * @return La imagen descifrada como BufferedImage.
+     * @return La imagen descifrada como BufferedImage, del mismo tipo que la cifrada.
      * @throws Exception Si ocurre algún error durante la descifrado.
      */
     public static BufferedImage decryptImage(BufferedImage encryptedImage, SecretKey key, byte[] iv) throws Exception {
-        int width = encryptedImage.getWidth();
-        int height = encryptedImage.getHeight();
-        int[] encryptedPixels = encryptedImage.getRGB(0, 0, width, height, null, 0, width);
-
-        // Convertir el arreglo de enteros cifrados a bytes
-        ByteBuffer buffer = ByteBuffer.allocate(encryptedPixels.length * 4);
-        for (int pixel : encryptedPixels) {
-            buffer.putInt(pixel);
-        }
-        byte[] encryptedBytes = buffer.array();
-
-        // Descifrar los bytes usando AES/CTR/NoPadding
-        Cipher cipher = Cipher.getInstance("AES/CTR/NoPadding");
-        IvParameterSpec ivSpec = new IvParameterSpec(iv);
-        cipher.init(Cipher.DECRYPT_MODE, key, ivSpec);
-        byte[] decryptedBytes = cipher.doFinal(encryptedBytes);
-
-        // Convertir los bytes descifrados a un arreglo de enteros
-        ByteBuffer decryptedBuffer = ByteBuffer.wrap(decryptedBytes);
-        int[] decryptedPixels = new int[encryptedPixels.length];
-        for (int i = 0; i < decryptedPixels.length; i++) {
-            decryptedPixels[i] = decryptedBuffer.getInt();
+        // Descifrar los bytes ARGB de los píxeles usando AES/CTR/NoPadding, por franjas de filas en paralelo
+        return RasterCipher.transform(new RasterCipher.CounterStream("AES/CTR/NoPadding", Cipher.DECRYPT_MODE, key, iv), encryptedImage);
+    }
+
+    /**
+     * Indica si una imagen es demasiado grande para cargarla completa en memoria, y debe cifrarse por
+     * bloques con {@link #encryptImageFile}. Solo se lee la cabecera del archivo.
+     * @param imageFile El archivo de imagen.
+     * @return true si la imagen tiene más de {@link #LARGE_IMAGE_PIXELS} píxeles.
+     * @throws IOException Si el archivo no se puede leer.
+     */
+    public static boolean isLargeImage(File imageFile) throws IOException {
+        try {
+            return TiledImageCipher.pixelCount(imageFile) > LARGE_IMAGE_PIXELS;
+        } catch (IllegalArgumentException e) {
+            // Formato no reconocido: se deja el error a la lectura normal
+            return false;
         }
+    }
 
-        // Crear la imagen descifrada con los píxeles originales
-        BufferedImage decryptedImage = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
-        decryptedImage.setRGB(0, 0, width, height, decryptedPixels, 0, width);
-        return decryptedImage;
+    /**
+     * Encripta una imagen desde su archivo, por bloques (tiles), sin cargarla completa en memoria, y la
+     * guarda como un TIFF por bloques sin compresión. Los píxeles cifrados son los mismos que produce
+     * {@link #encryptImage} sobre la imagen completa. El IV queda guardado en el TIFF y se recupera con
+     * {@link #readImageFileIV}. Ver {@link TiledImageCipher}.
+     * @param inputFile La imagen original, en cualquier formato legible por ImageIO.
+     * @param outputFile El archivo TIFF de salida; se reemplaza si existe.
+     * @param key La clave AES.
+     * @param iv El vector de inicialización (debe tener 16 bytes).
+     * @param progress Recibe la fracción de bloques procesados, de 0 a 1, tras cada franja de la imagen.
+     * @throws Exception Si ocurre algún error de lectura, escritura o encriptación.
+     */
+    public static void encryptImageFile(File inputFile, File outputFile, SecretKey key, byte[] iv,
+                                        DoubleConsumer progress) throws Exception {
+        RasterCipher.CounterStream stream = new RasterCipher.CounterStream("AES/CTR/NoPadding", Cipher.ENCRYPT_MODE, key, iv);
+        TiledImageCipher.transform(inputFile, outputFile, stream, TiledImageCipher.TILE_SIZE, iv, progress);
+    }
+
+    /**
+     * Descifra una imagen encriptada desde su archivo, por bloques (tiles), sin cargarla completa en
+     * memoria, y la guarda como un TIFF por bloques sin compresión.
+     * @param inputFile La imagen cifrada: un TIFF de {@link #encryptImageFile} o un PNG de {@link #encryptImage}.
+     * @param outputFile El archivo TIFF de salida; se reemplaza si existe.
+     * @param key La clave AES.
+     * @param iv El vector de inicialización (debe ser el mismo utilizado en la encriptación).
+     * @param progress Recibe la fracción de bloques procesados, de 0 a 1, tras cada franja de la imagen.
+     * @throws Exception Si ocurre algún error de lectura, escritura o descifrado.
+     */
+    public static void decryptImageFile(File inputFile, File outputFile, SecretKey key, byte[] iv,
+                                        DoubleConsumer progress) throws Exception {
+        RasterCipher.CounterStream stream = new RasterCipher.CounterStream("AES/CTR/NoPadding", Cipher.DECRYPT_MODE, key, iv);
+        TiledImageCipher.transform(inputFile, outputFile, stream, TiledImageCipher.TILE_SIZE, null, progress);
+    }
+
+    /**
+     * Obtiene el vector de inicialización guardado en un TIFF cifrado por {@link #encryptImageFile}.
+     * @param imageFile La imagen cifrada.
+     * @return El IV, o null si el archivo no es un TIFF o no guarda ningún IV.
+     * @throws IllegalArgumentException Si el archivo no es una imagen legible o su IV no está en Base64.
+     * @throws IOException Si el archivo no se puede leer.
+     */
+    public static byte[] readImageFileIV(File imageFile) throws IOException {
+        return TiledImageCipher.readIV(imageFile);
     }
 
 }
@@ -0,0 +1,316 @@
+package com.iluncrypt.iluncryptapp.models.algorithms.symmetrickey;
+
+import com.iluncrypt.iluncryptapp.models.SymmetricKeyConfig;
+import com.iluncrypt.iluncryptapp.models.enums.symmetrickey.SymmetricKeyMode;
+import com.iluncrypt.iluncryptapp.utils.filemanager.IlunChunkedMetadata;
+import com.iluncrypt.iluncryptapp.utils.filemanager.IlunFileManager;
+
+import javax.crypto.AEADBadTagException;
+import javax.crypto.Cipher;
+import javax.crypto.Mac;
+import javax.crypto.SecretKey;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.util.Arrays;
+
+/**
+ * Encrypts files into chunked (ILUNCR2) .ilun files and decrypts them, whole or by byte range.
+ * <p>
+ * Every chunk is encrypted on its own, with an IV derived from the nonce of the header and the chunk
+ * number. For CTR the IV of a chunk is the counter of its first block, so the chunks continue a single
+ * keystream; the other modes XOR the chunk number into the last bytes of the nonce. Each chunk is
+ * authenticated, by its GCM tag or by an HMAC stored after its ciphertext, together with the digest of
+ * the header and its number, so chunks cannot be modified, reordered, dropped or moved to another file
+ * without being detected. Configurations without authentication produce chunks without tag, which can
+ * still be read by range but not verified.
+ * </p>
+ * <p>
+ * The size of every record is known before encrypting, so the header, with the offset of every record,
+ * is written first. Chunks are then encrypted and decrypted in parallel on the common
+ * {@link java.util.concurrent.ForkJoinPool}, each one read and written at its own offset, and
+ * decryption stops at the first chunk that fails authentication.
+ * </p>
+ */
+public final class ChunkedFileCipher {
+    /** Default size of the chunks: 1 MiB. */
+    public static final int DEFAULT_CHUNK_SIZE = 1 << 20;
+    // Chunks are multiples of the largest block size, so that CTR chunks start on a block boundary
+    private static final int CHUNK_ALIGNMENT = 16;
+
+    private ChunkedFileCipher() {
+    }
+
+    /**
+     * Encrypts a file into a chunked .ilun file with chunks of {@link #DEFAULT_CHUNK_SIZE} bytes.
+     *
+     * @see #encryptFile(File, File, SecretKey, byte[], SymmetricKeyConfig, int)
+     */
+    public static IlunChunkedMetadata encryptFile(File inputFile, File outputFile, SecretKey key, byte[] nonce,
+                                                  SymmetricKeyConfig config) throws Exception {
+        return encryptFile(inputFile, outputFile, key, nonce, config, DEFAULT_CHUNK_SIZE);
+    }
+
+    /**
+     * Encrypts a file into a chunked .ilun file.
+     *
+     * @param inputFile  The file to encrypt.
+     * @param outputFile The .ilun file to write. It is replaced if it exists.
+     * @param key        The secret key used for encryption.
+     * @param nonce      The nonce the chunk IVs are derived from, of the IV size of the mode, or null if
+     *                   the mode does not require an IV. It must not be reused with the same key.
+     * @param config     The encryption configuration.
+     * @param chunkSize  The size of the chunks, a positive multiple of 16 bytes.
+     * @return The header written to the file.
+     * @throws IllegalArgumentException If the chunk size or the nonce are not valid.
+     * @throws Exception if reading, encrypting or writing fails.
+     */
+    public static IlunChunkedMetadata encryptFile(File inputFile, File outputFile, SecretKey key, byte[] nonce,
+                                                  SymmetricKeyConfig config, int chunkSize) throws Exception {
+        if (chunkSize <= 0 || chunkSize % CHUNK_ALIGNMENT != 0) {
+            throw new IllegalArgumentException("Chunk size must be a positive multiple of " + CHUNK_ALIGNMENT + " bytes.");
+        }
+        CipherPlan plan = CipherPlan.of(config);
+        if (!plan.requiresIV()) {
+            nonce = new byte[0];
+        } else if (nonce == null || nonce.length != plan.getIVSize()) {
+            throw new IllegalArgumentException("The nonce must be " + plan.getIVSize() + " bytes long.");
+        }
+
+        long plaintextSize = Files.size(inputFile.toPath());
+        int chunkCount = IlunChunkedMetadata.chunkCount(plaintextSize, chunkSize);
+        long[] offsets = new long[chunkCount + 1];
+        offsets[0] = IlunFileManager.chunkedHeaderLength(config.isSaveAlgorithm(), nonce.length, chunkCount);
+        for (int chunk = 0; chunk < chunkCount; chunk++) {
+            int length = (int) Math.min(chunkSize, plaintextSize - (long) chunk * chunkSize);
+            offsets[chunk + 1] = offsets[chunk] + plan.getCipherTextSize(length) + plan.getHMACSize();
+        }
+        IlunChunkedMetadata metadata = new IlunChunkedMetadata(
+                config.isSaveAlgorithm() ? config.getAlgorithm().name() : null,
+                SymmetricFileCipher.getFileExtension(inputFile),
+                plaintextSize,
+                config.isSaveAlgorithm(),
+                chunkSize,
+                nonce,
+                offsets
+        );
+
+        boolean completed = false;
+        try (FileChannel input = FileChannel.open(inputFile.toPath(), StandardOpenOption.READ);
+             FileChannel output = FileChannel.open(outputFile.toPath(), StandardOpenOption.CREATE,
+                     StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            IlunFileManager.writeChunkedHeader(output, metadata);
+            ParallelBlockCipher.forEach(0, chunkCount, chunk -> encryptChunk(input, output, metadata, chunk, key, plan));
+            completed = true;
+            return metadata;
+        } finally {
+            if (!completed) {
+                Files.deleteIfExists(outputFile.toPath());
+            }
+        }
+    }
+
+    /**
+     * Decrypts a whole chunked .ilun file.
+     *
+     * @param inputFile  The chunked .ilun file to decrypt.
+     * @param outputFile The file receiving the plaintext. It is replaced if it exists, and deleted if
+     *                   decryption or authentication fails.
+     * @param key        The secret key used for decryption.
+     * @param config     The encryption configuration.
+     * @return The header of the file, e.g. to restore the original extension.
+     * @throws SecurityException if a chunk fails authentication.
+     * @throws IOException if the header does not match the configuration or the file has been truncated
+     *                     or extended.
+     * @throws Exception if reading, decrypting or writing fails.
+     */
+    public static IlunChunkedMetadata decryptFile(File inputFile, File outputFile, SecretKey key,
+                                                  SymmetricKeyConfig config) throws Exception {
+        boolean completed = false;
+        try (FileChannel input = FileChannel.open(inputFile.toPath(), StandardOpenOption.READ);
+             FileChannel output = FileChannel.open(outputFile.toPath(), StandardOpenOption.CREATE,
+                     StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            CipherPlan plan = CipherPlan.of(config);
+            IlunChunkedMetadata metadata = readHeader(input, plan);
+
+            ParallelBlockCipher.forEach(0, metadata.getChunkCount(), chunk -> {
+                byte[] plaintext = decryptChunk(input, metadata, chunk, key, plan);
+                write(output, plaintext, metadata.getChunkPlaintextSize(chunk), (long) chunk * metadata.getChunkSize());
+            });
+            completed = true;
+            return metadata;
+        } finally {
+            if (!completed) {
+                Files.deleteIfExists(outputFile.toPath());
+            }
+        }
+    }
+
+    /**
+     * Decrypts a byte range of the original file, reading and authenticating only the chunks it spans.
+     *
+     * @param inputFile The chunked .ilun file.
+     * @param offset    The offset of the range in the original file.
+     * @param length    The length of the range.
+     * @param key       The secret key used for decryption.
+     * @param config    The encryption configuration.
+     * @return The plaintext of the range.
+     * @throws IllegalArgumentException If the range is not inside the original file.
+     * @throws SecurityException if one of the chunks fails authentication.
+     * @throws IOException if the header does not match the configuration or the file has been truncated
+     *                     or extended.
+     * @throws Exception if reading or decrypting fails.
+     */
+    public static byte[] decryptRange(File inputFile, long offset, int length, SecretKey key,
+                                      SymmetricKeyConfig config) throws Exception {
+        try (FileChannel input = FileChannel.open(inputFile.toPath(), StandardOpenOption.READ)) {
+            CipherPlan plan = CipherPlan.of(config);
+            IlunChunkedMetadata metadata = readHeader(input, plan);
+            if (offset < 0 || length < 0 || offset > metadata.getPlaintextSize() - length) {
+                throw new IllegalArgumentException("The range is outside of the file.");
+            }
+
+            byte[] range = new byte[length];
+            if (length == 0) {
+                return range;
+            }
+            int chunkSize = metadata.getChunkSize();
+            int first = (int) (offset / chunkSize);
+            int last = (int) ((offset + length - 1) / chunkSize);
+            ParallelBlockCipher.forEach(first, last + 1, chunk -> {
+                byte[] plaintext = decryptChunk(input, metadata, chunk, key, plan);
+                long chunkStart = (long) chunk * chunkSize;
+                int from = (int) Math.max(0, offset - chunkStart);
+                int to = (int) Math.min(metadata.getChunkPlaintextSize(chunk), offset + length - chunkStart);
+                System.arraycopy(plaintext, from, range, (int) (chunkStart + from - offset), to - from);
+            });
+            return range;
+        }
+    }
+
+    /**
+     * Reads, encrypts and writes one chunk. The plaintext is encrypted in place in the record buffer.
+     */
+    private static void encryptChunk(FileChannel input, FileChannel output, IlunChunkedMetadata metadata, int chunk,
+                                     SecretKey key, CipherPlan plan) throws Exception {
+        int length = metadata.getChunkPlaintextSize(chunk);
+        byte[] record = new byte[(int) metadata.getChunkRecordSize(chunk)];
+        read(input, record, length, (long) chunk * metadata.getChunkSize());
+
+        byte[] associatedData = associatedData(metadata, chunk);
+        Cipher cipher = plan.cipher(Cipher.ENCRYPT_MODE, key, chunkIV(plan, metadata, chunk));
+        if (plan.getMode() == SymmetricKeyMode.GCM) {
+            cipher.updateAAD(associatedData);
+        }
+        int cipherTextSize = cipher.doFinal(record, 0, length, record, 0);
+
+        Mac mac = plan.mac(key);
+        if (mac != null) {
+            mac.update(associatedData);
+            mac.update(record, 0, cipherTextSize);
+            mac.doFinal(record, cipherTextSize);
+        }
+        write(output, record, record.length, metadata.getChunkOffset(chunk));
+    }
+
+    /**
+     * Reads, authenticates and decrypts one chunk.
+     *
+     * @return A buffer starting with the plaintext of the chunk.
+     */
+    private static byte[] decryptChunk(FileChannel input, IlunChunkedMetadata metadata, int chunk, SecretKey key,
+                                       CipherPlan plan) throws Exception {
+        // Checked against the configuration by readHeader
+        int recordSize = (int) metadata.getChunkRecordSize(chunk);
+        int cipherTextSize = recordSize - plan.getHMACSize();
+        byte[] record = new byte[recordSize];
+        read(input, record, recordSize, metadata.getChunkOffset(chunk));
+
+        byte[] associatedData = associatedData(metadata, chunk);
+        Mac mac = plan.mac(key);
+        if (mac != null) {
+            mac.update(associatedData);
+            mac.update(record, 0, cipherTextSize);
+            if (!MessageDigest.isEqual(mac.doFinal(), Arrays.copyOfRange(record, cipherTextSize, recordSize))) {
+                throw new SecurityException("Authentication failed: chunk " + chunk + " is corrupted.");
+            }
+        }
+
+        Cipher cipher = plan.cipher(Cipher.DECRYPT_MODE, key, chunkIV(plan, metadata, chunk));
+        if (plan.getMode() == SymmetricKeyMode.GCM) {
+            cipher.updateAAD(associatedData);
+        }
+        int plaintextSize;
+        try {
+            plaintextSize = cipher.doFinal(record, 0, cipherTextSize, record, 0);
+        } catch (AEADBadTagException e) {
+            throw new SecurityException("Authentication failed: chunk " + chunk + " is corrupted.", e);
+        }
+        if (plaintextSize != metadata.getChunkPlaintextSize(chunk)) {
+            throw new SecurityException("Chunk " + chunk + " does not have the expected size.");
+        }
+        return record;
+    }
+
+    /**
+     * Derives the IV of a chunk from the nonce of the file.
+     *
+     * @return The IV, or null if the mode does not require one.
+     */
+    static byte[] chunkIV(CipherPlan plan, IlunChunkedMetadata metadata, long chunk) {
+        if (!plan.requiresIV()) {
+            return null;
+        }
+        byte[] iv = metadata.getNonce().clone();
+        if (plan.getMode() == SymmetricKeyMode.CTR) {
+            // Counter of the first block of the chunk
+            return ParallelBlockCipher.counterAt(iv, chunk * (metadata.getChunkSize() / plan.getBlockSize()));
+        } else {
+            for (int i = 0; i < Long.BYTES && i < iv.length; i++) {
+                iv[iv.length - 1 - i] ^= (byte) (chunk >>> (8 * i));
+            }
+        }
+        return iv;
+    }
+
+    /**
+     * Data authenticated with every chunk: the digest of the header and the chunk number.
+     */
+    private static byte[] associatedData(IlunChunkedMetadata metadata, int chunk) {
+        byte[] headerDigest = metadata.getHeaderDigest();
+        return ByteBuffer.allocate(headerDigest.length + Long.BYTES).put(headerDigest).putLong(chunk).array();
+    }
+
+    /**
+     * Reads the header of a chunked file and checks it against the configuration: the nonce size and the
+     * size of every record, which bounds every allocation by the size of the file.
+     */
+    private static IlunChunkedMetadata readHeader(FileChannel input, CipherPlan plan) throws IOException {
+        IlunChunkedMetadata metadata = IlunFileManager.readChunkedHeader(input,
+                size -> plan.getCipherTextSize(size) + plan.getHMACSize());
+        if (metadata.getNonce().length != plan.getIVSize()) {
+            throw new SecurityException("The file was not encrypted with this configuration.");
+        }
+        return metadata;
+    }
+
+    private static void read(FileChannel channel, byte[] data, int length, long position) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(data, 0, length);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("Unexpected end of file.");
+            }
+        }
+    }
+
+    private static void write(FileChannel channel, byte[] data, int length, long position) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(data, 0, length);
+        while (buffer.hasRemaining()) {
+            channel.write(buffer, position + buffer.position());
+        }
+    }
+}
@@ -0,0 +1,241 @@
+package com.iluncrypt.iluncryptapp.models.algorithms.symmetrickey;
+
+import com.iluncrypt.iluncryptapp.models.SymmetricKeyConfig;
+import com.iluncrypt.iluncryptapp.models.enums.symmetrickey.AuthenticationMethod;
+import com.iluncrypt.iluncryptapp.models.enums.symmetrickey.GCMTagSize;
+import com.iluncrypt.iluncryptapp.models.enums.symmetrickey.PaddingScheme;
+import com.iluncrypt.iluncryptapp.models.enums.symmetrickey.SymmetricKeyAlgorithm;
+import com.iluncrypt.iluncryptapp.models.enums.symmetrickey.SymmetricKeyMode;
+
+import javax.crypto.Cipher;
+import javax.crypto.Mac;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.IvParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+import java.security.GeneralSecurityException;
+
+/**
+ * Everything a {@link SymmetricKeyConfig} resolves to before any data is processed: the
+ * transformation, the IV size, and the HMAC algorithm and size.
+ * <p>
+ * Plans also keep, for every thread, the {@link Cipher} and {@link Mac} they created, so that the
+ * provider lookup of {@link Cipher#getInstance} and {@link Mac#getInstance} is paid once per thread
+ * instead of once per message. Plans never hold keys: instances returned by {@link #cipher} and
+ * {@link #mac} are initialized with the given key and IV on every call. They belong to the calling thread
+ * and must be done with before the next call on the same plan from that thread, so they must not be
+ * stored or kept across calls that may run other work on the thread (such as
+ * {@link java.util.concurrent.ForkJoinTask#join}).
+ * </p>
+ * <p>
+ * {@link SymmetricKeyConfig} is mutable, so plans are looked up by the values of the configuration on
+ * every call to {@link #of}; the lookup itself is an array access.
+ * </p>
+ */
+public final class CipherPlan {
+    private static final SymmetricKeyAlgorithm[] ALGORITHMS = SymmetricKeyAlgorithm.values();
+    private static final SymmetricKeyMode[] MODES = SymmetricKeyMode.values();
+    private static final PaddingScheme[] PADDINGS = PaddingScheme.values();
+    private static final AuthenticationMethod[] AUTHENTICATIONS = AuthenticationMethod.values();
+    // GCM tag sizes plus "no tag"
+    private static final int TAG_SIZES = GCMTagSize.values().length + 1;
+
+    // Plans, filled on first use. Safe to publish without locking: every field is final.
+    private static final CipherPlan[] CACHE =
+            new CipherPlan[ALGORITHMS.length * MODES.length * PADDINGS.length * AUTHENTICATIONS.length * TAG_SIZES];
+
+    private final String transformation;
+    private final SymmetricKeyMode mode;
+    private final int gcmTagBits;
+    private final boolean padded;
+    private final int blockSize;
+    private final int ivSize;
+    private final String hmacAlgorithm;
+    private final int hmacSize;
+    private final ThreadLocal<Instances> instances = ThreadLocal.withInitial(Instances::new);
+    // The same plan without padding, filled on first use by unpadded()
+    private CipherPlan unpadded;
+
+    /**
+     * The instances created by one thread.
+     */
+    private static final class Instances {
+        private Cipher cipher;
+        private Mac mac;
+    }
+
+    private CipherPlan(SymmetricKeyConfig config) {
+        this.transformation = config.getTransformation();
+        this.mode = config.getMode();
+        this.gcmTagBits = config.getGCMTagSize() != null ? config.getGCMTagSize().getSize() : 0;
+        this.padded = config.getPaddingScheme() != PaddingScheme.NO_PADDING;
+        this.blockSize = config.getAlgorithm().getBaseIVSize();
+        int fixedIVSize = mode.getFixedIVSize();
+        this.ivSize = !mode.requiresIV() ? 0 : fixedIVSize == -1 ? config.getAlgorithm().getBaseIVSize() : fixedIVSize;
+        this.hmacAlgorithm = config.getAuthenticationMethod().getHMACAlgorithm();
+        this.hmacSize = config.getAuthenticationMethod().getHMACSize() / 8;
+    }
+
+    private CipherPlan(CipherPlan padded) {
+        this.transformation = padded.transformation.substring(0, padded.transformation.lastIndexOf('/') + 1)
+                + PaddingScheme.NO_PADDING.getPadding();
+        this.mode = padded.mode;
+        this.gcmTagBits = padded.gcmTagBits;
+        this.padded = false;
+        this.blockSize = padded.blockSize;
+        this.ivSize = padded.ivSize;
+        this.hmacAlgorithm = padded.hmacAlgorithm;
+        this.hmacSize = padded.hmacSize;
+    }
+
+    /**
+     * Gets the plan of a configuration. Configurations with the same values share the same plan.
+     *
+     * @param config The encryption configuration.
+     * @return The shared plan.
+     */
+    public static CipherPlan of(SymmetricKeyConfig config) {
+        int index = config.getAlgorithm().ordinal();
+        index = index * MODES.length + config.getMode().ordinal();
+        index = index * PADDINGS.length + config.getPaddingScheme().ordinal();
+        index = index * AUTHENTICATIONS.length + config.getAuthenticationMethod().ordinal();
+        index = index * TAG_SIZES + (config.getGCMTagSize() != null ? config.getGCMTagSize().ordinal() + 1 : 0);
+
+        CipherPlan plan = CACHE[index];
+        if (plan == null) {
+            plan = new CipherPlan(config);
+            CACHE[index] = plan;
+        }
+        return plan;
+    }
+
+    /**
+     * Gets the cipher of the calling thread, initialized for a new message.
+     *
+     * @param opmode {@link Cipher#ENCRYPT_MODE} or {@link Cipher#DECRYPT_MODE}.
+     * @param key    The secret key.
+     * @param iv     The initialization vector, ignored if the mode does not require it.
+     * @return The initialized cipher, owned by the calling thread.
+     * @throws GeneralSecurityException If the transformation is not available, if the key or IV are invalid,
+     *                                  or if a GCM encryption reuses the key and IV of the previous one.
+     */
+    public Cipher cipher(int opmode, SecretKey key, byte[] iv) throws GeneralSecurityException {
+        Instances local = instances.get();
+        if (local.cipher == null) {
+            local.cipher = Cipher.getInstance(transformation);
+        }
+        init(local.cipher, opmode, key, iv);
+        return local.cipher;
+    }
+
+    /**
+     * Gets the HMAC of the calling thread, keyed with the secret key.
+     *
+     * @param key The secret key, also used as HMAC key.
+     * @return The initialized Mac, owned by the calling thread, or null if the plan has no HMAC.
+     * @throws GeneralSecurityException If the HMAC algorithm is not available or the key is invalid.
+     */
+    public Mac mac(SecretKey key) throws GeneralSecurityException {
+        if (hmacAlgorithm == null) {
+            return null;
+        }
+        Instances local = instances.get();
+        if (local.mac == null) {
+            local.mac = Mac.getInstance(hmacAlgorithm);
+        }
+        local.mac.init(new SecretKeySpec(key.getEncoded(), hmacAlgorithm));
+        return local.mac;
+    }
+
+    /**
+     * Gets the same plan without padding, used to process whole blocks in the middle of a message.
+     *
+     * @return This plan if it has no padding, or its unpadded form.
+     */
+    CipherPlan unpadded() {
+        if (!padded) {
+            return this;
+        }
+        CipherPlan plan = unpadded;
+        if (plan == null) {
+            // Safe to publish without locking: every field is final
+            plan = new CipherPlan(this);
+            unpadded = plan;
+        }
+        return plan;
+    }
+
+    private void init(Cipher cipher, int opmode, SecretKey key, byte[] iv) throws GeneralSecurityException {
+        if (mode == SymmetricKeyMode.GCM) {
+            cipher.init(opmode, key, new GCMParameterSpec(gcmTagBits, iv));
+        } else if (mode.requiresIV()) {
+            cipher.init(opmode, key, new IvParameterSpec(iv));
+        } else {
+            cipher.init(opmode, key);
+        }
+    }
+
+    // Get the transformation passed to Cipher.getInstance
+    public String getTransformation() {
+        return transformation;
+    }
+
+    // Get the encryption mode
+    public SymmetricKeyMode getMode() {
+        return mode;
+    }
+
+    // Check whether the mode requires an IV
+    public boolean requiresIV() {
+        return ivSize > 0;
+    }
+
+    // Check whether the transformation pads messages
+    public boolean isPadded() {
+        return padded;
+    }
+
+    // Get the block size of the algorithm in bytes
+    public int getBlockSize() {
+        return blockSize;
+    }
+
+    /**
+     * Gets the size of the ciphertext of a message, including the padding or the GCM tag but not the
+     * IV or the HMAC.
+     *
+     * @param plaintextSize The size of the message in bytes.
+     * @return The size of its ciphertext in bytes.
+     */
+    public int getCipherTextSize(int plaintextSize) {
+        if (padded) {
+            return (plaintextSize / blockSize + 1) * blockSize;
+        }
+        return plaintextSize + gcmTagBits / 8;
+    }
+
+    // Get the IV size in bytes, 0 if the mode does not use an IV
+    public int getIVSize() {
+        return ivSize;
+    }
+
+    // Check whether messages carry an HMAC
+    public boolean hasHMAC() {
+        return hmacAlgorithm != null;
+    }
+
+    // Get the HMAC algorithm, null if there is none
+    public String getHMACAlgorithm() {
+        return hmacAlgorithm;
+    }
+
+    // Get the HMAC size in bytes, 0 if there is none
+    public int getHMACSize() {
+        return hmacSize;
+    }
+
+    @Override
+    public String toString() {
+        return transformation + (hmacAlgorithm != null ? " + " + hmacAlgorithm : "");
+    }
+}
@@ -0,0 +1,263 @@
+package com.iluncrypt.iluncryptapp.models.algorithms.symmetrickey;
+
+import com.iluncrypt.iluncryptapp.utils.BufferPool;
+import com.iluncrypt.iluncryptapp.utils.filemanager.MappedFileReader;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Runs a range of a file through a transform in three overlapping stages: a reader thread maps the
+ * parts of the range and loads their pages, the calling thread transforms them, and a writer thread
+ * writes the results to the output channel.
+ * <p>
+ * The stages are connected by queues holding at most {@link #DEPTH} parts, and the transform writes
+ * into {@link #DEPTH} direct buffers leased from the {@link BufferPool}, which the writer hands back
+ * once they are on disk: while
+ * one part is being transformed, the next one is read and the previous one written. All the
+ * cryptographic work stays on the calling thread, which owns the {@link CipherPlan} instances, so the
+ * time spent by the reader and the writer is pure I/O. A range that fits in a single part is processed
+ * on the calling thread only, without handoffs.
+ * </p>
+ */
+final class FilePipeline {
+    // Parts in flight between two stages: one being processed while the next one waits
+    static final int DEPTH = 2;
+
+    /**
+     * The work of the cipher stage.
+     */
+    interface Transform {
+        /**
+         * Transforms a part of the range.
+         *
+         * @param in     The part, to be consumed.
+         * @param offset The offset of the part within the range.
+         * @param out    A cleared buffer of the output size given to the pipeline.
+         * @param last   Whether this is the last part of the range.
+         * @return The buffer holding the output from 0 to its position: {@code out}, or a larger buffer
+         *         when the output does not fit in it.
+         * @throws Exception If the transform fails; the pipeline is stopped.
+         */
+        ByteBuffer apply(ByteBuffer in, long offset, ByteBuffer out, boolean last) throws Exception;
+    }
+
+    private record Part(ByteBuffer data, ByteBuffer pooled, boolean last, Exception failure) {
+    }
+
+    private final FileChannel input;
+    private final long position;
+    private final long length;
+    private final int partSize;
+    private final int outputSize;
+    private final FileChannel output;
+    private final Transform transform;
+
+    private final BlockingQueue<Part> toCipher = new ArrayBlockingQueue<>(DEPTH);
+    private final BlockingQueue<Part> toWriter = new ArrayBlockingQueue<>(DEPTH);
+    private final BlockingQueue<ByteBuffer> free = new ArrayBlockingQueue<>(DEPTH);
+    private volatile IOException writeFailure;
+
+    // Each counter is updated by its own stage and read once the stages have been joined
+    private long readNanos;
+    private long cipherNanos;
+    private long writeNanos;
+    private long written;
+
+    private FilePipeline(FileChannel input, long position, long length, int partSize, int outputSize,
+                         FileChannel output, Transform transform) {
+        this.input = input;
+        this.position = position;
+        this.length = length;
+        this.partSize = partSize;
+        this.outputSize = outputSize;
+        this.output = output;
+        this.transform = transform;
+    }
+
+    /**
+     * Transforms a range of a file into the current position of another channel.
+     *
+     * @param input      The channel to read; its position is not used nor changed.
+     * @param position   The offset of the range.
+     * @param length     The length of the range.
+     * @param partSize   The size of the parts handed to the transform.
+     * @param outputSize The size of the pooled output buffers, enough for the output of a part.
+     * @param output     The channel the results are written to, in order.
+     * @param transform  The work of the cipher stage.
+     * @return How busy every stage was.
+     * @throws Exception The first failure of a stage.
+     */
+    static PipelineStats run(FileChannel input, long position, long length, int partSize, int outputSize,
+                             FileChannel output, Transform transform) throws Exception {
+        FilePipeline pipeline = new FilePipeline(input, position, length, partSize, outputSize, output, transform);
+        long start = System.nanoTime();
+        if (length <= partSize) {
+            pipeline.runInline();
+        } else {
+            pipeline.runStaged();
+        }
+        return new PipelineStats(pipeline.readNanos, pipeline.cipherNanos, pipeline.writeNanos,
+                System.nanoTime() - start, length, pipeline.written);
+    }
+
+    private void runInline() throws Exception {
+        long start = System.nanoTime();
+        MappedByteBuffer part = new MappedFileReader(input, position, length, partSize).next();
+        ByteBuffer data = part == null ? ByteBuffer.allocate(0) : part.load();
+        long loaded = System.nanoTime();
+        readNanos = loaded - start;
+
+        try (BufferPool.Lease lease = BufferPool.shared().acquire(outputSize)) {
+            ByteBuffer result = transform.apply(data, 0, lease.buffer(), true);
+            long transformEnd = System.nanoTime();
+            cipherNanos = transformEnd - loaded;
+
+            written = SymmetricFileCipher.write(output, result.flip());
+            writeNanos = System.nanoTime() - transformEnd;
+        }
+    }
+
+    private void runStaged() throws Exception {
+        BufferPool.Lease[] leases = new BufferPool.Lease[DEPTH];
+        try {
+            for (int i = 0; i < DEPTH; i++) {
+                leases[i] = BufferPool.shared().acquire(outputSize);
+                free.add(leases[i].buffer());
+            }
+            runStages();
+        } finally {
+            // Both stages have been joined: no buffer is in use any more
+            for (BufferPool.Lease lease : leases) {
+                if (lease != null) {
+                    lease.close();
+                }
+            }
+        }
+        if (writeFailure != null) {
+            throw writeFailure;
+        }
+    }
+
+    private void runStages() throws Exception {
+        Thread reader = start("ilun-pipeline-read", this::read);
+        Thread writer = start("ilun-pipeline-write", this::write);
+        boolean completed = false;
+        try {
+            transformAll();
+            writer.join();
+            reader.join();
+            completed = true;
+        } finally {
+            if (!completed) {
+                reader.interrupt();
+                writer.interrupt();
+                joinUninterruptibly(reader);
+                joinUninterruptibly(writer);
+            }
+        }
+    }
+
+    /**
+     * The cipher stage, on the calling thread.
+     */
+    private void transformAll() throws Exception {
+        long offset = 0;
+        while (true) {
+            Part part = toCipher.take();
+            if (part.failure() != null) {
+                throw part.failure();
+            }
+            ByteBuffer out = free.take();
+            if (writeFailure != null) {
+                throw writeFailure;
+            }
+            long start = System.nanoTime();
+            int size = part.data().remaining();
+            ByteBuffer result = transform.apply(part.data(), offset, out.clear(), part.last());
+            cipherNanos += System.nanoTime() - start;
+            offset += size;
+            toWriter.put(new Part(result.flip(), out, part.last(), null));
+            if (part.last()) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * The read stage: maps the parts and loads their pages ahead of the cipher stage.
+     */
+    private void read() {
+        try {
+            MappedFileReader reader = new MappedFileReader(input, position, length, partSize);
+            long start = System.nanoTime();
+            MappedByteBuffer part;
+            while ((part = reader.next()) != null) {
+                part.load();
+                readNanos += System.nanoTime() - start;
+                toCipher.put(new Part(part, null, reader.remaining() == 0, null));
+                start = System.nanoTime();
+            }
+        } catch (InterruptedException e) {
+            // Stopped by the cipher stage
+        } catch (IOException | RuntimeException e) {
+            try {
+                toCipher.put(new Part(null, null, true, e));
+            } catch (InterruptedException stopped) {
+                // Stopped by the cipher stage
+            }
+        }
+    }
+
+    /**
+     * The write stage. After a failure it keeps returning buffers to the pool, so that the cipher stage
+     * does not block before noticing it.
+     */
+    private void write() {
+        try {
+            while (true) {
+                Part part = toWriter.take();
+                if (writeFailure == null) {
+                    long start = System.nanoTime();
+                    try {
+                        written += SymmetricFileCipher.write(output, part.data());
+                    } catch (IOException e) {
+                        writeFailure = e;
+                    }
+                    writeNanos += System.nanoTime() - start;
+                }
+                free.put(part.pooled());
+                if (part.last()) {
+                    return;
+                }
+            }
+        } catch (InterruptedException e) {
+            // Stopped by the cipher stage
+        }
+    }
+
+    private static Thread start(String name, Runnable stage) {
+        Thread thread = new Thread(stage, name);
+        thread.setDaemon(true);
+        thread.start();
+        return thread;
+    }
+
+    private static void joinUninterruptibly(Thread thread) {
+        boolean interrupted = false;
+        while (thread.isAlive()) {
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,270 @@
+package com.iluncrypt.iluncryptapp.models.algorithms.symmetrickey;
+
+import com.iluncrypt.iluncryptapp.models.enums.symmetrickey.SymmetricKeyMode;
+
+import javax.crypto.Cipher;
+import javax.crypto.SecretKey;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.IntStream;
+
+/**
+ * Multi-threaded encryption and decryption for the modes whose blocks do not depend on the previous
+ * output: CTR and ECB in both directions, and CBC decryption.
+ * <p>
+ * The data is cut into block-aligned segments that are processed in parallel on the common
+ * {@link ForkJoinPool}, each one by its own unpadded cipher started where a single cipher would be at
+ * that point of the message: a CTR segment starts with the counter of its first block, and a CBC segment
+ * with the ciphertext block that precedes it as IV. Padding is added or removed by the configured cipher
+ * on the last block only, so the output is byte for byte the one of a single {@link Cipher#doFinal}.
+ * </p>
+ * <p>
+ * Splitting only pays off for large inputs: {@link #isParallel} tells the callers to keep the single
+ * cipher for inputs under {@link #PARALLEL_THRESHOLD} bytes, for the other modes, and when the common
+ * pool has a single thread.
+ * </p>
+ */
+final class ParallelBlockCipher {
+    /** Inputs under this size are processed by a single cipher: 1 MiB. */
+    static final int PARALLEL_THRESHOLD = 1 << 20;
+    // Smallest segment given to a task
+    private static final int MIN_SEGMENT = 1 << 18;
+    // Segments per thread of the pool, so that threads finishing early can take over the others' work
+    private static final int SEGMENTS_PER_THREAD = 4;
+
+    private ParallelBlockCipher() {
+    }
+
+    /**
+     * Work done on one index of a range.
+     */
+    @FunctionalInterface
+    interface IndexAction {
+        void apply(int index) throws Exception;
+    }
+
+    /**
+     * Checks whether the parallel engine should process an input.
+     *
+     * @param plan   The plan of the configuration.
+     * @param opmode {@link Cipher#ENCRYPT_MODE} or {@link Cipher#DECRYPT_MODE}.
+     * @param length The size of the input in bytes.
+     * @return True if the mode can be split and the input is large enough to be worth it.
+     */
+    static boolean isParallel(CipherPlan plan, int opmode, long length) {
+        return length >= PARALLEL_THRESHOLD && ForkJoinPool.getCommonPoolParallelism() > 1 && supports(plan, opmode);
+    }
+
+    /**
+     * Checks whether a mode can be split into independent segments in a direction.
+     *
+     * @param plan   The plan of the configuration.
+     * @param opmode {@link Cipher#ENCRYPT_MODE} or {@link Cipher#DECRYPT_MODE}.
+     * @return True for CTR, ECB and CBC decryption.
+     */
+    static boolean supports(CipherPlan plan, int opmode) {
+        return switch (plan.getMode()) {
+            case CTR, ECB -> true;
+            case CBC -> opmode == Cipher.DECRYPT_MODE;
+            default -> false;
+        };
+    }
+
+    /**
+     * Processes part of a message, as {@link Cipher#update} would for a part in the middle of the message
+     * and {@link Cipher#doFinal} for the last one. Buffers may be heap, direct or mapped.
+     *
+     * @param plan       The plan of the configuration.
+     * @param opmode     {@link Cipher#ENCRYPT_MODE} or {@link Cipher#DECRYPT_MODE}.
+     * @param key        The secret key.
+     * @param iv         For CTR the IV of the message; for CBC the ciphertext block that precedes the
+     *                   input, which is the IV at the start of the message; ignored for ECB.
+     * @param firstBlock For CTR, the position of the first block of the input in the message.
+     * @param in         The input, all its remaining bytes: a multiple of the block size unless it ends
+     *                   the message. Its position is moved to its limit.
+     * @param out        The output, with room for the input plus one block. It may share memory with the
+     *                   input, at the same position. Its position is moved past the bytes written.
+     * @param last       Whether the input ends the message.
+     * @return The number of bytes written to the output.
+     * @throws Exception If the key or IV are invalid, or the padding of the last block is wrong.
+     */
+    static int transform(CipherPlan plan, int opmode, SecretKey key, byte[] iv, long firstBlock,
+                         ByteBuffer in, ByteBuffer out, boolean last) throws Exception {
+        int length = in.remaining();
+        int bulk = bulkLength(plan, opmode, length, last);
+        // The last blocks go first: processing the bulk in place overwrites the ciphertext they chain from
+        byte[] tail = last ? tail(plan, opmode, key, iv, in, bulk) : new byte[0];
+        bulk(plan, opmode, key, iv, firstBlock, in, bulk, out);
+        out.put(out.position() + bulk, tail);
+        in.position(in.limit());
+        out.position(out.position() + bulk + tail.length);
+        return bulk + tail.length;
+    }
+
+    /**
+     * Processes a whole message, as {@link Cipher#doFinal} would.
+     *
+     * @param in The message, all its remaining bytes. Its position is moved to its limit.
+     * @return The output, of its exact size.
+     * @see #transform
+     */
+    static byte[] doFinal(CipherPlan plan, int opmode, SecretKey key, byte[] iv, ByteBuffer in) throws Exception {
+        int bulk = bulkLength(plan, opmode, in.remaining(), true);
+        // Decrypting the last block first gives the size of the padding, hence of the output
+        byte[] tail = tail(plan, opmode, key, iv, in, bulk);
+        byte[] out = new byte[bulk + tail.length];
+        bulk(plan, opmode, key, iv, 0, in, bulk, ByteBuffer.wrap(out));
+        System.arraycopy(tail, 0, out, bulk, tail.length);
+        in.position(in.limit());
+        return out;
+    }
+
+    /**
+     * Gets the counter of a block of a CTR message: the IV plus the block position, big-endian.
+     *
+     * @param iv    The IV of the message.
+     * @param block The position of the block in the message.
+     * @return The counter of the block.
+     */
+    static byte[] counterAt(byte[] iv, long block) {
+        byte[] counter = iv.clone();
+        long carry = block;
+        for (int i = counter.length - 1; i >= 0 && carry != 0; i--) {
+            long sum = (counter[i] & 0xFF) + (carry & 0xFF);
+            counter[i] = (byte) sum;
+            carry = (carry >>> 8) + (sum >>> 8);
+        }
+        return counter;
+    }
+
+    /**
+     * Gets the number of segments to cut an input into: one per {@link #MIN_SEGMENT} bytes at most, and
+     * {@link #SEGMENTS_PER_THREAD} per thread of the common pool.
+     *
+     * @param length The size of the input in bytes.
+     * @return At least 1.
+     */
+    static int segmentCount(long length) {
+        long wanted = (long) ForkJoinPool.getCommonPoolParallelism() * SEGMENTS_PER_THREAD;
+        return (int) Math.max(1, Math.min(wanted, length / MIN_SEGMENT));
+    }
+
+    /**
+     * Runs an action on the indexes [from, to) in parallel. Once an action fails, the indexes that have
+     * not started yet are skipped and the first failure is thrown.
+     */
+    static void forEach(int from, int to, IndexAction action) throws Exception {
+        AtomicReference<Exception> failure = new AtomicReference<>();
+        IntStream.range(from, to).parallel().forEach(index -> {
+            if (failure.get() != null) {
+                return;
+            }
+            try {
+                action.apply(index);
+            } catch (Exception e) {
+                failure.compareAndSet(null, e);
+            }
+        });
+        if (failure.get() != null) {
+            throw failure.get();
+        }
+    }
+
+    /**
+     * Gets the size of the part of the input made of whole blocks that need no padding work: everything
+     * for CTR and for parts in the middle of the message; for the last part of a padded message, all the
+     * whole blocks when encrypting, and all the blocks but the last one when decrypting.
+     */
+    private static int bulkLength(CipherPlan plan, int opmode, int length, boolean last) {
+        int blockSize = plan.getBlockSize();
+        if (!last || plan.getMode() == SymmetricKeyMode.CTR) {
+            return length;
+        }
+        if (opmode == Cipher.DECRYPT_MODE && plan.isPadded()) {
+            return length > 0 ? (length - 1) / blockSize * blockSize : 0;
+        }
+        return length - length % blockSize;
+    }
+
+    /**
+     * Processes the end of the message, after the bulk, with the configured (padded) cipher.
+     */
+    private static byte[] tail(CipherPlan plan, int opmode, SecretKey key, byte[] iv,
+                               ByteBuffer in, int bulk) throws Exception {
+        int length = in.remaining();
+        if (bulk == length && !plan.isPadded()) {
+            return new byte[0];
+        }
+        byte[] chain = iv;
+        if (plan.requiresIV() && bulk > 0) {
+            chain = new byte[plan.getBlockSize()];
+            in.get(in.position() + bulk - chain.length, chain);
+        }
+        Cipher cipher = plan.cipher(opmode, key, chain);
+        byte[] tail = new byte[cipher.getOutputSize(length - bulk)];
+        int produced = cipher.doFinal(in.slice(in.position() + bulk, length - bulk), ByteBuffer.wrap(tail));
+        return produced == tail.length ? tail : Arrays.copyOf(tail, produced);
+    }
+
+    /**
+     * Processes the first {@code length} bytes of the input, whole blocks (and the final partial block of a
+     * CTR message), in parallel segments. The positions of the buffers are left unchanged.
+     */
+    private static void bulk(CipherPlan plan, int opmode, SecretKey key, byte[] iv, long firstBlock,
+                             ByteBuffer in, int length, ByteBuffer out) throws Exception {
+        if (length == 0) {
+            return;
+        }
+        int blockSize = plan.getBlockSize();
+        int[] bounds = split(length, blockSize);
+        int segments = bounds.length - 1;
+        int inOff = in.position();
+        int outOff = out.position();
+
+        // Every segment gets its IV before any of them runs, since in-place segments overwrite the
+        // ciphertext block the next one chains from
+        byte[][] ivs = new byte[segments][];
+        for (int s = 0; s < segments; s++) {
+            int start = bounds[s];
+            switch (plan.getMode()) {
+                case CTR -> ivs[s] = counterAt(iv, firstBlock + start / blockSize);
+                case CBC -> {
+                    if (start == 0) {
+                        ivs[s] = iv;
+                    } else {
+                        ivs[s] = new byte[blockSize];
+                        in.get(inOff + start - blockSize, ivs[s]);
+                    }
+                }
+                default -> ivs[s] = null;
+            }
+        }
+
+        CipherPlan unpadded = plan.unpadded();
+        forEach(0, segments, s -> {
+            int start = bounds[s];
+            int size = bounds[s + 1] - start;
+            Cipher cipher = unpadded.cipher(opmode, key, ivs[s]);
+            cipher.doFinal(in.slice(inOff + start, size), out.slice(outOff + start, size));
+        });
+    }
+
+    /**
+     * Cuts a length into block-aligned segments, one per {@link #MIN_SEGMENT} bytes at most and
+     * {@link #SEGMENTS_PER_THREAD} per thread of the pool.
+     *
+     * @return The bounds of the segments: segment i is [bounds[i], bounds[i + 1]).
+     */
+    private static int[] split(int length, int blockSize) {
+        int segments = segmentCount(length);
+        int[] bounds = new int[segments + 1];
+        for (int s = 1; s < segments; s++) {
+            long bound = (long) length * s / segments;
+            bounds[s] = (int) (bound - bound % blockSize);
+        }
+        bounds[segments] = length;
+        return bounds;
+    }
+}
@@ -0,0 +1,93 @@
+package com.iluncrypt.iluncryptapp.models.algorithms.symmetrickey;
+
+/**
+ * How busy every stage of a file pipeline was: the time each stage spent working, as opposed to
+ * waiting for the others, over the duration of the whole job.
+ * <p>
+ * The read and write stages only move data between the disk and memory, while the cipher stage does
+ * all the cryptographic work (cipher, HMAC and checksum). A job whose cipher stage is busy nearly all
+ * the time is CPU-bound; one whose read or write stage is the busiest is I/O-bound.
+ * </p>
+ */
+public final class PipelineStats {
+    /**
+     * The stages of a file pipeline.
+     */
+    public enum Stage {
+        /** Mapping the input and bringing its pages into memory. */
+        READ,
+        /** Encryption or decryption, HMAC and checksum. */
+        CIPHER,
+        /** Writing the output. */
+        WRITE
+    }
+
+    private final long[] busyNanos;
+    private final long elapsedNanos;
+    private final long bytesRead;
+    private final long bytesWritten;
+
+    PipelineStats(long readNanos, long cipherNanos, long writeNanos, long elapsedNanos, long bytesRead, long bytesWritten) {
+        this.busyNanos = new long[]{readNanos, cipherNanos, writeNanos};
+        this.elapsedNanos = elapsedNanos;
+        this.bytesRead = bytesRead;
+        this.bytesWritten = bytesWritten;
+    }
+
+    // Get the time a stage spent working, in nanoseconds
+    public long getBusyNanos(Stage stage) {
+        return busyNanos[stage.ordinal()];
+    }
+
+    // Get the duration of the whole job, in nanoseconds
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    // Get the number of bytes read from the input
+    public long getBytesRead() {
+        return bytesRead;
+    }
+
+    // Get the number of bytes written to the output
+    public long getBytesWritten() {
+        return bytesWritten;
+    }
+
+    /**
+     * Gets the fraction of the job a stage spent working.
+     *
+     * @param stage The stage.
+     * @return A value between 0 and 1.
+     */
+    public double getUtilization(Stage stage) {
+        return elapsedNanos > 0 ? Math.min(1.0, (double) getBusyNanos(stage) / elapsedNanos) : 0;
+    }
+
+    /**
+     * Gets the stage that limited the job: the one that spent the most time working.
+     *
+     * @return The busiest stage.
+     */
+    public Stage getBottleneck() {
+        Stage busiest = Stage.CIPHER;
+        for (Stage stage : Stage.values()) {
+            if (getBusyNanos(stage) > getBusyNanos(busiest)) {
+                busiest = stage;
+            }
+        }
+        return busiest;
+    }
+
+    // Check whether the job was limited by the disk rather than by the cipher
+    public boolean isIOBound() {
+        return getBottleneck() != Stage.CIPHER;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("PipelineStats{read=%.0f%%, cipher=%.0f%%, write=%.0f%%, elapsed=%.1f ms, bytesRead=%d, bytesWritten=%d, %s}",
+                100 * getUtilization(Stage.READ), 100 * getUtilization(Stage.CIPHER), 100 * getUtilization(Stage.WRITE),
+                elapsedNanos / 1e6, bytesRead, bytesWritten, isIOBound() ? "I/O-bound" : "CPU-bound");
+    }
+}
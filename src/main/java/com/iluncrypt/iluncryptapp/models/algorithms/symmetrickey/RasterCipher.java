@@ -0,0 +1,450 @@
+package com.iluncrypt.iluncryptapp.models.algorithms.symmetrickey;
+
+import com.iluncrypt.iluncryptapp.utils.BufferPool;
+
+import javax.crypto.Cipher;
+import javax.crypto.spec.IvParameterSpec;
+import java.awt.color.ColorSpace;
+import java.awt.image.BufferedImage;
+import java.awt.image.ColorModel;
+import java.awt.image.ComponentColorModel;
+import java.awt.image.ComponentSampleModel;
+import java.awt.image.DataBuffer;
+import java.awt.image.DataBufferByte;
+import java.awt.image.DataBufferInt;
+import java.awt.image.DirectColorModel;
+import java.awt.image.PixelInterleavedSampleModel;
+import java.awt.image.SinglePixelPackedSampleModel;
+import java.awt.image.WritableRaster;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.security.GeneralSecurityException;
+import java.security.Key;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Encrypts and decrypts the pixels of an image by working on the {@link DataBuffer} of its raster,
+ * without {@link BufferedImage#getRGB} and {@link BufferedImage#setRGB} or intermediate copies of the
+ * whole image.
+ * <p>
+ * The cipher sees every pixel as 4 bytes, alpha, red, green and blue (a big-endian ARGB integer), in
+ * row-major order: the stream produced by {@code getRGB} on an 8-bit image, so that images encrypted
+ * by earlier versions still decrypt. Opaque images contribute an alpha of 0xFF, whose output is dropped,
+ * which keeps their type and makes them survive lossless formats without an alpha channel. The pixels are
+ * gathered from the data buffer into pooled buffers {@link #CHUNK_PIXELS} at a time, run through
+ * {@link Cipher#update} and scattered back into the destination raster, which can be the source itself.
+ * With CTR, a tile of a larger image can be processed on its own, each row with the keystream at its
+ * position in the stream of the whole image ({@link #transformTile}); for the same reason, large images
+ * are processed in row bands in parallel.
+ * </p>
+ * <p>
+ * Packed integer rasters (TYPE_INT_ARGB, TYPE_INT_RGB, TYPE_INT_BGR...) and interleaved byte rasters
+ * with 8-bit RGB or RGBA samples (TYPE_3BYTE_BGR, TYPE_4BYTE_ABGR, PNG images...) are read directly.
+ * Other layouts, such as grayscale, indexed or 16-bit images, are first converted to TYPE_INT_ARGB.
+ * </p>
+ */
+final class RasterCipher {
+    // Pixels handed to the cipher at a time: 256 KiB
+    static final int CHUNK_PIXELS = 1 << 16;
+    // Largest block of the image ciphers (AES), for the output a block cipher holds back or pads
+    private static final int MAX_BLOCK_SIZE = 16;
+
+    private RasterCipher() {
+    }
+
+    /**
+     * Runs the pixels of an image through a cipher into a new image of the same type.
+     *
+     * @param cipher An initialized cipher, finished by this call.
+     * @param image  The image to transform; it is not modified.
+     * @return The transformed image, of the type of the source, or TYPE_INT_ARGB if its layout is not
+     *         supported.
+     * @throws GeneralSecurityException If the cipher fails.
+     */
+    static BufferedImage transform(Cipher cipher, BufferedImage image) throws GeneralSecurityException {
+        if (PixelAccess.of(image.getRaster(), image.getColorModel()) == null) {
+            image = toIntArgb(image);
+        }
+        PixelAccess source = PixelAccess.of(image.getRaster(), image.getColorModel());
+        BufferedImage result = createCompatible(image);
+        transform(cipher, source, PixelAccess.of(result.getRaster(), result.getColorModel()), 0, source.width * source.height);
+        return result;
+    }
+
+    /**
+     * Runs the pixels of an image through a CTR keystream into a new image of the same type, in row bands
+     * processed in parallel on the common {@link ForkJoinPool}. Every band starts its own cipher at the
+     * position of its first row in the stream, so the output is bit for bit the one of a single cipher.
+     * Images under {@link ParallelBlockCipher#PARALLEL_THRESHOLD} bytes of pixels, or a pool with a
+     * single thread, get a single band.
+     *
+     * @param stream The keystream of the image.
+     * @param image  The image to transform; it is not modified.
+     * @return The transformed image, of the type of the source, or TYPE_INT_ARGB if its layout is not
+     *         supported.
+     * @throws Exception If the cipher fails.
+     */
+    static BufferedImage transform(CounterStream stream, BufferedImage image) throws Exception {
+        if (PixelAccess.of(image.getRaster(), image.getColorModel()) == null) {
+            image = toIntArgb(image);
+        }
+        PixelAccess source = PixelAccess.of(image.getRaster(), image.getColorModel());
+        BufferedImage result = createCompatible(image);
+        PixelAccess target = PixelAccess.of(result.getRaster(), result.getColorModel());
+        int width = source.width;
+        int height = source.height;
+        long length = (long) width * height * Integer.BYTES;
+        int bands = length < ParallelBlockCipher.PARALLEL_THRESHOLD || ForkJoinPool.getCommonPoolParallelism() == 1
+                ? 1 : Math.min(height, ParallelBlockCipher.segmentCount(length));
+        ParallelBlockCipher.forEach(0, bands, band -> {
+            int top = (int) ((long) height * band / bands);
+            int bottom = (int) ((long) height * (band + 1) / bands);
+            long offset = (long) top * width * Integer.BYTES;
+            transform(stream.at(offset), source, target, top * width, (bottom - top) * width);
+        });
+        return result;
+    }
+
+    /**
+     * Runs the pixels of an image through a cipher, replacing them.
+     *
+     * @param cipher An initialized cipher, finished by this call.
+     * @param image  The image to transform in place.
+     * @throws IllegalArgumentException If the layout of the image is not supported.
+     * @throws GeneralSecurityException If the cipher fails.
+     */
+    static void transformInPlace(Cipher cipher, BufferedImage image) throws GeneralSecurityException {
+        PixelAccess pixels = PixelAccess.of(image.getRaster(), image.getColorModel());
+        if (pixels == null) {
+            throw new IllegalArgumentException("Unsupported image layout for in-place encryption.");
+        }
+        transform(cipher, pixels, pixels, 0, pixels.width * pixels.height);
+    }
+
+    /**
+     * Runs a tile of a larger image through a CTR stream, every row of the tile with the keystream of its
+     * position in the pixel stream of the whole image, so that the tiles of an image give the output of
+     * {@link #transform} on the whole image.
+     *
+     * @param stream     The keystream of the whole image.
+     * @param tile       The pixels of the tile; transformed in place when its layout is supported.
+     * @param x          The column of the tile in the image.
+     * @param y          The row of the tile in the image.
+     * @param imageWidth The width of the image.
+     * @return The transformed tile: {@code tile} itself, or a TYPE_INT_ARGB copy if its layout is not
+     *         supported.
+     * @throws GeneralSecurityException If the cipher fails.
+     */
+    static BufferedImage transformTile(CounterStream stream, BufferedImage tile, long x, long y, long imageWidth)
+            throws GeneralSecurityException {
+        PixelAccess pixels = PixelAccess.of(tile.getRaster(), tile.getColorModel());
+        if (pixels == null) {
+            tile = toIntArgb(tile);
+            pixels = PixelAccess.of(tile.getRaster(), tile.getColorModel());
+        }
+        for (int row = 0; row < pixels.height; row++) {
+            long offset = ((y + row) * imageWidth + x) * Integer.BYTES;
+            transform(stream.at(offset), pixels, pixels, row * pixels.width, pixels.width);
+        }
+        return tile;
+    }
+
+    /**
+     * Streams {@code pixelCount} pixels of the source, from the given index on, through the cipher into
+     * the same pixels of the target. Output never gets ahead of input, so both can be the same raster.
+     */
+    private static void transform(Cipher cipher, PixelAccess source, PixelAccess target, int first, int pixelCount)
+            throws GeneralSecurityException {
+        int chunkBytes = Math.min(CHUNK_PIXELS, pixelCount) * Integer.BYTES;
+        // Room for the bytes a block cipher holds back and for the padding of the last chunk
+        try (BufferPool.Lease input = BufferPool.shared().acquire(chunkBytes);
+             BufferPool.Lease output = BufferPool.shared().acquire(2 * chunkBytes + 2 * MAX_BLOCK_SIZE)) {
+            ByteBuffer in = input.buffer();
+            ByteBuffer out = output.buffer().clear();
+            int end = first + pixelCount;
+            int written = first;
+            do {
+                int count = Math.min(CHUNK_PIXELS, end - first);
+                in.clear();
+                source.gather(first, count, in.asIntBuffer());
+                in.limit(count * Integer.BYTES);
+                first += count;
+                if (first < end) {
+                    cipher.update(in, out);
+                } else {
+                    cipher.doFinal(in, out);
+                }
+                // Whole pixels go to the target, a partial one waits for the next chunk
+                out.flip();
+                int produced = Math.min(out.remaining() / Integer.BYTES, end - written);
+                target.scatter(written, produced, out.asIntBuffer());
+                written += produced;
+                out.position(out.position() + produced * Integer.BYTES).compact();
+            } while (first < end);
+        }
+    }
+
+    /**
+     * Creates an empty image with the color model and sample layout of another one, so that the standard
+     * image types are kept.
+     */
+    private static BufferedImage createCompatible(BufferedImage image) {
+        ColorModel colorModel = image.getColorModel();
+        WritableRaster raster = image.getRaster().createCompatibleWritableRaster(image.getWidth(), image.getHeight());
+        return new BufferedImage(colorModel, raster, colorModel.isAlphaPremultiplied(), null);
+    }
+
+    /**
+     * Copies an image into a TYPE_INT_ARGB one row at a time with getRGB, whose rounding of premultiplied
+     * or non-sRGB samples drawImage does not always reproduce.
+     */
+    private static BufferedImage toIntArgb(BufferedImage image) {
+        int width = image.getWidth();
+        int height = image.getHeight();
+        BufferedImage converted = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+        int[] pixels = ((DataBufferInt) converted.getRaster().getDataBuffer()).getData();
+        for (int y = 0; y < height; y++) {
+            image.getRGB(0, y, width, 1, pixels, y * width, width);
+        }
+        return converted;
+    }
+
+    /**
+     * The CTR keystream of one key and IV, from which ciphers can be started at any byte of the stream
+     * rather than only at its beginning. Every thread gets its own cipher instance.
+     */
+    static final class CounterStream {
+        private final String transformation;
+        private final int opmode;
+        private final Key key;
+        private final byte[] iv;
+        private final ThreadLocal<Cipher> ciphers = new ThreadLocal<>();
+
+        /**
+         * @param transformation A CTR transformation without padding, such as {@code AES/CTR/NoPadding}.
+         * @param opmode         {@link Cipher#ENCRYPT_MODE} or {@link Cipher#DECRYPT_MODE}.
+         * @param key            The secret key.
+         * @param iv             The initial counter, of one block.
+         */
+        CounterStream(String transformation, int opmode, Key key, byte[] iv) {
+            this.transformation = transformation;
+            this.opmode = opmode;
+            this.key = key;
+            this.iv = iv.clone();
+        }
+
+        /**
+         * Gets the cipher of the current thread, initialized at a byte of the stream: with the counter of
+         * the block holding that byte, and the keystream before it within the block already used.
+         *
+         * @param offset The position in the stream.
+         * @return The cipher, valid until the next call on the same thread.
+         * @throws GeneralSecurityException If the transformation is not available or the key is invalid.
+         */
+        Cipher at(long offset) throws GeneralSecurityException {
+            Cipher cipher = ciphers.get();
+            if (cipher == null) {
+                cipher = Cipher.getInstance(transformation);
+                ciphers.set(cipher);
+            }
+            int blockSize = iv.length;
+            cipher.init(opmode, key, new IvParameterSpec(ParallelBlockCipher.counterAt(iv, offset / blockSize)));
+            int skip = (int) (offset % blockSize);
+            if (skip > 0) {
+                cipher.update(new byte[skip]);
+            }
+            return cipher;
+        }
+    }
+
+    /**
+     * Reads and writes pixels of a raster as ARGB integers, in row-major order.
+     */
+    private abstract static class PixelAccess {
+        final int width;
+        final int height;
+
+        PixelAccess(WritableRaster raster) {
+            this.width = raster.getWidth();
+            this.height = raster.getHeight();
+        }
+
+        /**
+         * Gets direct access to a raster, or null if its layout is not supported. Premultiplied samples are
+         * not the ARGB values of getRGB/setRGB, so such rasters are left to the fallback.
+         */
+        static PixelAccess of(WritableRaster raster, ColorModel colorModel) {
+            if (colorModel.getColorSpace().getType() != ColorSpace.TYPE_RGB || colorModel.isAlphaPremultiplied()) {
+                return null;
+            }
+            if (raster.getDataBuffer() instanceof DataBufferInt
+                    && raster.getSampleModel() instanceof SinglePixelPackedSampleModel
+                    && colorModel instanceof DirectColorModel direct
+                    && is8Bit(direct.getRedMask()) && is8Bit(direct.getGreenMask()) && is8Bit(direct.getBlueMask())
+                    && (direct.getAlphaMask() == 0 || is8Bit(direct.getAlphaMask()))) {
+                return new PackedInt(raster, direct);
+            }
+            if (raster.getDataBuffer() instanceof DataBufferByte
+                    && raster.getSampleModel() instanceof PixelInterleavedSampleModel
+                    && colorModel instanceof ComponentColorModel
+                    && (raster.getNumBands() == 3 || raster.getNumBands() == 4)
+                    && raster.getNumBands() == colorModel.getNumComponents()
+                    && raster.getSampleModel().getSampleSize(0) == 8) {
+                return new InterleavedByte(raster);
+            }
+            return null;
+        }
+
+        private static boolean is8Bit(int mask) {
+            return mask != 0 && mask >>> Integer.numberOfTrailingZeros(mask) == 0xFF;
+        }
+
+        /**
+         * Index of the first element of the pixel (0, 0) in the data array.
+         */
+        static int origin(WritableRaster raster, int pixelStride, int scanlineStride) {
+            return raster.getDataBuffer().getOffset()
+                    - raster.getSampleModelTranslateY() * scanlineStride - raster.getSampleModelTranslateX() * pixelStride;
+        }
+
+        /**
+         * Appends {@code count} pixels, starting at the given index, to the buffer.
+         */
+        void gather(int first, int count, IntBuffer out) {
+            for (int end = first + count; first < end; ) {
+                int x = first % width;
+                int n = Math.min(width - x, end - first);
+                gatherRow(x, first / width, n, out);
+                first += n;
+            }
+        }
+
+        /**
+         * Writes {@code count} pixels, starting at the given index, from the buffer.
+         */
+        void scatter(int first, int count, IntBuffer in) {
+            for (int end = first + count; first < end; ) {
+                int x = first % width;
+                int n = Math.min(width - x, end - first);
+                scatterRow(x, first / width, n, in);
+                first += n;
+            }
+        }
+
+        abstract void gatherRow(int x, int y, int count, IntBuffer out);
+
+        abstract void scatterRow(int x, int y, int count, IntBuffer in);
+    }
+
+    /**
+     * One integer per pixel, with 8-bit components at the positions of the color model masks.
+     */
+    private static final class PackedInt extends PixelAccess {
+        private final int[] data;
+        private final int origin;
+        private final int scanlineStride;
+        private final int redShift;
+        private final int greenShift;
+        private final int blueShift;
+        // -1 for opaque images
+        private final int alphaShift;
+        // Already ARGB: rows are copied as they are
+        private final boolean argb;
+
+        PackedInt(WritableRaster raster, DirectColorModel colorModel) {
+            super(raster);
+            this.data = ((DataBufferInt) raster.getDataBuffer()).getData();
+            this.scanlineStride = ((SinglePixelPackedSampleModel) raster.getSampleModel()).getScanlineStride();
+            this.origin = origin(raster, 1, scanlineStride);
+            this.redShift = Integer.numberOfTrailingZeros(colorModel.getRedMask());
+            this.greenShift = Integer.numberOfTrailingZeros(colorModel.getGreenMask());
+            this.blueShift = Integer.numberOfTrailingZeros(colorModel.getBlueMask());
+            this.alphaShift = colorModel.getAlphaMask() == 0 ? -1 : Integer.numberOfTrailingZeros(colorModel.getAlphaMask());
+            this.argb = alphaShift == 24 && redShift == 16 && greenShift == 8 && blueShift == 0;
+        }
+
+        @Override
+        void gatherRow(int x, int y, int count, IntBuffer out) {
+            int index = origin + y * scanlineStride + x;
+            if (argb) {
+                out.put(data, index, count);
+                return;
+            }
+            for (int end = index + count; index < end; index++) {
+                int pixel = data[index];
+                int alpha = alphaShift < 0 ? 0xFF : pixel >>> alphaShift & 0xFF;
+                out.put(alpha << 24 | (pixel >>> redShift & 0xFF) << 16
+                        | (pixel >>> greenShift & 0xFF) << 8 | pixel >>> blueShift & 0xFF);
+            }
+        }
+
+        @Override
+        void scatterRow(int x, int y, int count, IntBuffer in) {
+            int index = origin + y * scanlineStride + x;
+            if (argb) {
+                in.get(data, index, count);
+                return;
+            }
+            for (int end = index + count; index < end; index++) {
+                int pixel = in.get();
+                int value = (pixel >>> 16 & 0xFF) << redShift | (pixel >>> 8 & 0xFF) << greenShift
+                        | (pixel & 0xFF) << blueShift;
+                data[index] = alphaShift < 0 ? value : value | (pixel >>> 24) << alphaShift;
+            }
+        }
+    }
+
+    /**
+     * One byte per sample, the samples of a pixel next to each other: red, green, blue and, if present,
+     * alpha bands at the offsets of the sample model.
+     */
+    private static final class InterleavedByte extends PixelAccess {
+        private final byte[] data;
+        private final int origin;
+        private final int pixelStride;
+        private final int scanlineStride;
+        private final int red;
+        private final int green;
+        private final int blue;
+        // -1 for opaque images
+        private final int alpha;
+
+        InterleavedByte(WritableRaster raster) {
+            super(raster);
+            ComponentSampleModel sampleModel = (ComponentSampleModel) raster.getSampleModel();
+            int[] bandOffsets = sampleModel.getBandOffsets();
+            this.data = ((DataBufferByte) raster.getDataBuffer()).getData();
+            this.pixelStride = sampleModel.getPixelStride();
+            this.scanlineStride = sampleModel.getScanlineStride();
+            this.origin = origin(raster, pixelStride, scanlineStride);
+            this.red = bandOffsets[0];
+            this.green = bandOffsets[1];
+            this.blue = bandOffsets[2];
+            this.alpha = bandOffsets.length > 3 ? bandOffsets[3] : -1;
+        }
+
+        @Override
+        void gatherRow(int x, int y, int count, IntBuffer out) {
+            int index = origin + y * scanlineStride + x * pixelStride;
+            for (int end = index + count * pixelStride; index < end; index += pixelStride) {
+                int a = alpha < 0 ? 0xFF : data[index + alpha] & 0xFF;
+                out.put(a << 24 | (data[index + red] & 0xFF) << 16 | (data[index + green] & 0xFF) << 8
+                        | data[index + blue] & 0xFF);
+            }
+        }
+
+        @Override
+        void scatterRow(int x, int y, int count, IntBuffer in) {
+            int index = origin + y * scanlineStride + x * pixelStride;
+            for (int end = index + count * pixelStride; index < end; index += pixelStride) {
+                int pixel = in.get();
+                if (alpha >= 0) {
+                    data[index + alpha] = (byte) (pixel >>> 24);
+                }
+                data[index + red] = (byte) (pixel >>> 16);
+                data[index + green] = (byte) (pixel >>> 8);
+                data[index + blue] = (byte) pixel;
+            }
+        }
+    }
+}
@@ -11,6 +11,11 @@ package com.iluncrypt.iluncryptapp.models.algorithms.symmetrickey;
  * The key must be a 10-bit binary string (e.g., "1010000010").
  * </p>
  *
+ * <p>
+ * Both formats are packed into bytes, one SDES block each, and mapped through the 256-entry tables
+ * of the compiled {@link SDESKey}. Bulk binary data can use the {@code byte[]} methods directly.
+ * </p>
+ *
  * <p>Usage example:</p>
  * <pre>{@code
  * SDESCryptosystem sdes = new SDESCryptosystem();
@@ -31,29 +36,6 @@ package com.iluncrypt.iluncryptapp.models.algorithms.symmetrickey;
  */
 public class SDESCryptosystem {
 
-    // Permutation tables (indices are 1-indexed)
-    private static final int[] P10 = {3, 5, 2, 7, 4, 10, 1, 9, 8, 6};
-    private static final int[] P8  = {6, 3, 7, 4, 8, 5, 10, 9};
-    private static final int[] P4  = {2, 4, 3, 1};
-    private static final int[] IP  = {2, 6, 3, 1, 4, 8, 5, 7};
-    private static final int[] IP_INV = {4, 1, 3, 5, 7, 2, 8, 6};
-    private static final int[] EP  = {4, 1, 2, 3, 2, 3, 4, 1};
-
-    // S-boxes
-    private static final int[][] S0 = {
-            {1, 0, 3, 2},
-            {3, 2, 1, 0},
-            {0, 2, 1, 3},
-            {3, 1, 3, 2}
-    };
-
-    private static final int[][] S1 = {
-            {0, 1, 2, 3},
-            {2, 0, 1, 3},
-            {3, 0, 1, 0},
-            {2, 1, 0, 3}
-    };
-
     /**
      * Encrypts the given plaintext using SDES.
      *
@@ -64,30 +46,7 @@ public class SDESCryptosystem {
      * @throws IllegalArgumentException if the key is not 10 bits or if the plaintext is invalid.
      */
     public String encrypt(String plaintext, String key10) {
-        boolean inputIsBinary = plaintext.matches("[01]+");
-        String binaryPlain;
-        if (inputIsBinary) {
-            binaryPlain = plaintext;
-        } else {
-            // Convert letters (A-P) to binary (each letter = 4 bits)
-            binaryPlain = textToBinary(plaintext.toUpperCase());
-        }
-        if (binaryPlain.length() % 8 != 0) {
-            throw new IllegalArgumentException("Plaintext must represent 8-bit blocks (each block of 2 letters or 8 binary digits).");
-        }
-
-        String[] keys = generateKeys(key10);
-        String k1 = keys[0];
-        String k2 = keys[1];
-
-        StringBuilder binaryCipher = new StringBuilder();
-        for (int i = 0; i < binaryPlain.length(); i += 8) {
-            String block = binaryPlain.substring(i, i + 8);
-            String cipherBlock = encryptBlock(block, k1, k2);
-            binaryCipher.append(cipherBlock);
-        }
-
-        return inputIsBinary ? binaryCipher.toString() : binaryToText(binaryCipher.toString());
+        return transformText(plaintext, SDESKey.fromBinary(key10).getEncryptionTable(), "Plaintext");
     }
 
     /**
@@ -100,253 +59,171 @@ public class SDESCryptosystem {
      * @throws IllegalArgumentException if the key is not 10 bits or if the ciphertext is invalid.
      */
     public String decrypt(String ciphertext, String key10) {
-        boolean inputIsBinary = ciphertext.matches("[01]+");
-        String binaryCipher;
-        if (inputIsBinary) {
-            binaryCipher = ciphertext;
-        } else {
-            binaryCipher = textToBinary(ciphertext.toUpperCase());
-        }
-        if (binaryCipher.length() % 8 != 0) {
-            throw new IllegalArgumentException("Ciphertext must represent 8-bit blocks (each block of 2 letters or 8 binary digits).");
-        }
-
-        String[] keys = generateKeys(key10);
-        // For decryption, the subkeys are used in reverse order.
-        String k1 = keys[0];
-        String k2 = keys[1];
-
-        StringBuilder binaryPlain = new StringBuilder();
-        for (int i = 0; i < binaryCipher.length(); i += 8) {
-            String block = binaryCipher.substring(i, i + 8);
-            String plainBlock = decryptBlock(block, k1, k2);
-            binaryPlain.append(plainBlock);
-        }
-
-        return inputIsBinary ? binaryPlain.toString() : binaryToText(binaryPlain.toString());
+        return transformText(ciphertext, SDESKey.fromBinary(key10).getDecryptionTable(), "Ciphertext");
     }
 
     /**
-     * Generates the two subkeys (K1 and K2) from the provided 10-bit key.
+     * Encrypts bulk data, each byte being one SDES block.
      *
-     * @param key10 The 10-bit key as a binary string.
-     * @return An array containing K1 and K2.
-     * @throws IllegalArgumentException if the key is not 10 bits.
+     * @param data The plaintext bytes.
+     * @param key  The compiled key.
+     * @return A new array with the ciphertext.
      */
-    private String[] generateKeys(String key10) {
-        if (key10.length() != 10) {
-            throw new IllegalArgumentException("Key must be 10 bits.");
-        }
-        // Apply P10 permutation
-        String permuted = permute(key10, P10);
-        // Split into two halves (5 bits each)
-        String left = permuted.substring(0, 5);
-        String right = permuted.substring(5);
-        // Perform a circular left shift by 1
-        left = leftShift(left, 1);
-        right = leftShift(right, 1);
-        // Combine halves and apply P8 to get K1
-        String k1 = permute(left + right, P8);
-        // Perform additional circular left shifts by 2
-        left = leftShift(left, 2);
-        right = leftShift(right, 2);
-        String k2 = permute(left + right, P8);
-        return new String[]{k1, k2};
+    public byte[] encrypt(byte[] data, SDESKey key) {
+        byte[] output = new byte[data.length];
+        transform(data, 0, data.length, output, 0, key.getEncryptionTable());
+        return output;
     }
 
     /**
-     * Encrypts an 8-bit block using SDES.
+     * Decrypts bulk data, each byte being one SDES block.
      *
-     * @param block The 8-bit block as a binary string.
-     * @param k1    The first subkey.
-     * @param k2    The second subkey.
-     * @return The encrypted 8-bit block as a binary string.
+     * @param data The ciphertext bytes.
+     * @param key  The compiled key.
+     * @return A new array with the plaintext.
      */
-    private String encryptBlock(String block, String k1, String k2) {
-        // Initial Permutation (IP)
-        String ip = permute(block, IP);
-        String left = ip.substring(0, 4);
-        String right = ip.substring(4);
-        // First round: fK function with subkey K1
-        String result = fk(left, right, k1);
-        // Swap the two halves
-        String swapped = result.substring(4) + result.substring(0, 4);
-        // Second round: fK function with subkey K2
-        result = fk(swapped.substring(0, 4), swapped.substring(4), k2);
-        // Inverse Initial Permutation (IP^-1)
-        return permute(result, IP_INV);
+    public byte[] decrypt(byte[] data, SDESKey key) {
+        byte[] output = new byte[data.length];
+        transform(data, 0, data.length, output, 0, key.getDecryptionTable());
+        return output;
     }
 
     /**
-     * Decrypts an 8-bit block using SDES.
+     * Encrypts {@code length} bytes of {@code input} into {@code output}. Both ranges may be the same.
      *
-     * @param block The 8-bit block as a binary string.
-     * @param k1    The first subkey.
-     * @param k2    The second subkey.
-     * @return The decrypted 8-bit block as a binary string.
+     * @param input        The plaintext bytes.
+     * @param inputOffset  Where the plaintext starts.
+     * @param length       The number of bytes to encrypt.
+     * @param output       The array receiving the ciphertext.
+     * @param outputOffset Where the ciphertext starts.
+     * @param key          The compiled key.
      */
-    private String decryptBlock(String block, String k1, String k2) {
-        // Initial Permutation (IP)
-        String ip = permute(block, IP);
-        String left = ip.substring(0, 4);
-        String right = ip.substring(4);
-        // First round with K2 (subkeys used in reverse order for decryption)
-        String result = fk(left, right, k2);
-        // Swap halves
-        String swapped = result.substring(4) + result.substring(0, 4);
-        // Second round with K1
-        result = fk(swapped.substring(0, 4), swapped.substring(4), k1);
-        // Apply inverse IP
-        return permute(result, IP_INV);
+    public void encrypt(byte[] input, int inputOffset, int length, byte[] output, int outputOffset, SDESKey key) {
+        transform(input, inputOffset, length, output, outputOffset, key.getEncryptionTable());
     }
 
     /**
-     * The fK function combines the left and right halves of the data with the subkey.
+     * Decrypts {@code length} bytes of {@code input} into {@code output}. Both ranges may be the same.
      *
-     * @param left   The left 4 bits.
-     * @param right  The right 4 bits.
-     * @param subkey The subkey to use.
-     * @return An 8-bit binary string resulting from the function.
+     * @param input        The ciphertext bytes.
+     * @param inputOffset  Where the ciphertext starts.
+     * @param length       The number of bytes to decrypt.
+     * @param output       The array receiving the plaintext.
+     * @param outputOffset Where the plaintext starts.
+     * @param key          The compiled key.
      */
-    private String fk(String left, String right, String subkey) {
-        // Expand and permute the right half using EP (4 -> 8 bits)
-        String expanded = permute(right, EP);
-        // XOR with the subkey
-        String xorResult = xor(expanded, subkey);
-        // Split the result into two 4-bit groups
-        String leftXor = xorResult.substring(0, 4);
-        String rightXor = xorResult.substring(4);
-        // Apply the S-boxes
-        String s0Output = sBox(leftXor, S0);
-        String s1Output = sBox(rightXor, S1);
-        // Combine the outputs (each 2 bits) and apply P4
-        String p4Output = permute(s0Output + s1Output, P4);
-        // XOR with the left half
-        String leftResult = xor(left, p4Output);
-        // Return the concatenation of the new left half with the unchanged right half
-        return leftResult + right;
+    public void decrypt(byte[] input, int inputOffset, int length, byte[] output, int outputOffset, SDESKey key) {
+        transform(input, inputOffset, length, output, outputOffset, key.getDecryptionTable());
     }
 
     /**
-     * Applies an S-box to a 4-bit input.
-     *
-     * @param input A 4-bit binary string.
-     * @param sBox  The S-box (4x4 matrix).
-     * @return A 2-bit binary string as output.
+     * Maps every byte through a 256-entry table of a compiled key.
      */
-    private String sBox(String input, int[][] sBox) {
-        // Determine row from first and last bit
-        int row = Integer.parseInt("" + input.charAt(0) + input.charAt(3), 2);
-        // Determine column from the two middle bits
-        int col = Integer.parseInt(input.substring(1, 3), 2);
-        int sVal = sBox[row][col];
-        String binary = Integer.toBinaryString(sVal);
-        while (binary.length() < 2) {
-            binary = "0" + binary;
+    private static void transform(byte[] input, int inputOffset, int length, byte[] output, int outputOffset, byte[] table) {
+        for (int i = 0; i < length; i++) {
+            output[outputOffset + i] = table[input[inputOffset + i] & 0xFF];
         }
-        return binary;
     }
 
     /**
-     * Applies a permutation to the input string using the provided permutation table.
+     * Decodes the text into bytes, maps them through the table and encodes the result in the same
+     * format as the input.
      *
-     * @param input       The binary string to permute.
-     * @param permutation The permutation table (1-indexed).
-     * @return The permuted binary string.
+     * @param text  A binary string or a letter string (A–P, case-insensitive).
+     * @param table The encryption or decryption table of the key.
+     * @param label "Plaintext" or "Ciphertext", for the error messages.
      */
-    private String permute(String input, int[] permutation) {
-        StringBuilder output = new StringBuilder();
-        for (int pos : permutation) {
-            output.append(input.charAt(pos - 1));
-        }
-        return output.toString();
+    private String transformText(String text, byte[] table, String label) {
+        boolean inputIsBinary = isBinary(text);
+        byte[] data = inputIsBinary ? binaryToBytes(text, label) : lettersToBytes(text, label);
+        transform(data, 0, data.length, data, 0, table);
+        return inputIsBinary ? bytesToBinary(data) : bytesToLetters(data);
     }
 
     /**
-     * Performs a circular left shift on the input string.
-     *
-     * @param input  The binary string to shift.
-     * @param shifts The number of positions to shift.
-     * @return The shifted binary string.
+     * Checks whether the text is a non-empty string of binary digits.
      */
-    private String leftShift(String input, int shifts) {
-        int n = input.length();
-        shifts = shifts % n;
-        return input.substring(shifts) + input.substring(0, shifts);
+    private static boolean isBinary(String text) {
+        if (text.isEmpty()) {
+            return false;
+        }
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c != '0' && c != '1') {
+                return false;
+            }
+        }
+        return true;
     }
 
     /**
-     * Computes the XOR of two binary strings of equal length.
-     *
-     * @param a The first binary string.
-     * @param b The second binary string.
-     * @return The resulting binary string after XOR.
+     * Packs a binary string into bytes, 8 digits per byte.
      */
-    private String xor(String a, String b) {
-        StringBuilder result = new StringBuilder();
-        for (int i = 0; i < a.length(); i++) {
-            result.append(a.charAt(i) == b.charAt(i) ? '0' : '1');
+    private static byte[] binaryToBytes(String binary, String label) {
+        if (binary.length() % 8 != 0) {
+            throw new IllegalArgumentException(label + " must represent 8-bit blocks (each block of 2 letters or 8 binary digits).");
+        }
+        byte[] data = new byte[binary.length() / 8];
+        for (int i = 0, pos = 0; i < data.length; i++) {
+            int value = 0;
+            for (int bit = 0; bit < 8; bit++) {
+                value = (value << 1) | (binary.charAt(pos++) - '0');
+            }
+            data[i] = (byte) value;
         }
-        return result.toString();
+        return data;
     }
 
     /**
-     * Converts a letter-based string (each letter A–P representing 4 bits) to a binary string.
-     *
-     * @param text The text containing letters A–P.
-     * @return The corresponding binary string.
+     * Packs a letter string into bytes: every letter (A = 0000, …, P = 1111) is a nibble, high nibble first.
      */
-    private String textToBinary(String text) {
-        StringBuilder binary = new StringBuilder();
-        for (char c : text.toCharArray()) {
-            binary.append(letterToNibble(c));
+    private static byte[] lettersToBytes(String text, String label) {
+        if (text.length() % 2 != 0) {
+            throw new IllegalArgumentException(label + " must represent 8-bit blocks (each block of 2 letters or 8 binary digits).");
+        }
+        byte[] data = new byte[text.length() / 2];
+        for (int i = 0; i < data.length; i++) {
+            data[i] = (byte) ((letterToNibble(text.charAt(2 * i)) << 4) | letterToNibble(text.charAt(2 * i + 1)));
         }
-        return binary.toString();
+        return data;
     }
 
     /**
-     * Converts a binary string to a letter-based string using 4-bit groups (A = 0000, …, P = 1111).
+     * Converts a letter (A–P, case-insensitive) to its 4-bit value.
      *
-     * @param binary The binary string.
-     * @return The corresponding letter-based string.
-     * @throws IllegalArgumentException if the binary string length is not a multiple of 4.
+     * @throws IllegalArgumentException if the letter is out of range.
      */
-    private String binaryToText(String binary) {
-        if (binary.length() % 4 != 0) {
-            throw new IllegalArgumentException("Binary string length must be a multiple of 4.");
+    private static int letterToNibble(char letter) {
+        int value = Character.toUpperCase(letter) - 'A';
+        if (value < 0 || value > 15) {
+            throw new IllegalArgumentException("Invalid character '" + letter + "': letters must be between A and P.");
         }
-        StringBuilder text = new StringBuilder();
-        for (int i = 0; i < binary.length(); i += 4) {
-            String nibble = binary.substring(i, i + 4);
-            text.append(nibbleToLetter(nibble));
-        }
-        return text.toString();
+        return value;
     }
 
     /**
-     * Converts a letter (A–P) to its 4-bit binary representation.
-     *
-     * @param letter The letter to convert.
-     * @return A 4-bit binary string.
+     * Converts bytes to a binary string, 8 digits per byte.
      */
-    private String letterToNibble(char letter) {
-        int value = letter - 'A';
-        String binary = Integer.toBinaryString(value);
-        while (binary.length() < 4) {
-            binary = "0" + binary;
+    private static String bytesToBinary(byte[] data) {
+        char[] binary = new char[data.length * 8];
+        for (int i = 0, pos = 0; i < data.length; i++) {
+            for (int bit = 7; bit >= 0; bit--) {
+                binary[pos++] = (char) ('0' + ((data[i] >>> bit) & 1));
+            }
         }
-        return binary;
+        return new String(binary);
     }
 
     /**
-     * Converts a 4-bit binary string to its corresponding letter (A–P).
-     *
-     * @param nibble A 4-bit binary string.
-     * @return The corresponding letter.
+     * Converts bytes to a letter string using 4-bit groups (A = 0000, …, P = 1111).
      */
-    private char nibbleToLetter(String nibble) {
-        int value = Integer.parseInt(nibble, 2);
-        return (char) ('A' + value);
+    private static String bytesToLetters(byte[] data) {
+        char[] text = new char[data.length * 2];
+        for (int i = 0; i < data.length; i++) {
+            text[2 * i] = (char) ('A' + ((data[i] >>> 4) & 0x0F));
+            text[2 * i + 1] = (char) ('A' + (data[i] & 0x0F));
+        }
+        return new String(text);
     }
 
     /**
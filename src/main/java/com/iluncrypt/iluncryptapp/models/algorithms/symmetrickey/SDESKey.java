@@ -0,0 +1,223 @@
+package com.iluncrypt.iluncryptapp.models.algorithms.symmetrickey;
+
+/**
+ * A compiled 10-bit SDES key.
+ * <p>
+ * Since the SDES block is a single byte, the whole cipher under a fixed key is a permutation of the
+ * 256 possible bytes. The key is therefore compiled once into its two subkeys and into an encryption
+ * and a decryption table of 256 entries each, and encrypting data reduces to one lookup per byte.
+ * Bits are numbered from 1 at the most significant end, as in the permutation tables of the standard.
+ * </p>
+ * <p>
+ * There are only 1024 keys, so instances are shared: {@link #of(int)} always returns the same object
+ * for the same key. Instances are immutable and safe to use from several threads.
+ * </p>
+ */
+public final class SDESKey {
+    /** Number of distinct SDES keys. */
+    public static final int KEY_COUNT = 1 << 10;
+
+    // Permutation tables (indices are 1-indexed)
+    private static final int[] P10 = {3, 5, 2, 7, 4, 10, 1, 9, 8, 6};
+    private static final int[] P8  = {6, 3, 7, 4, 8, 5, 10, 9};
+    private static final int[] P4  = {2, 4, 3, 1};
+    private static final int[] IP  = {2, 6, 3, 1, 4, 8, 5, 7};
+    private static final int[] IP_INV = {4, 1, 3, 5, 7, 2, 8, 6};
+    private static final int[] EP  = {4, 1, 2, 3, 2, 3, 4, 1};
+
+    // S-boxes
+    private static final int[][] S0 = {
+            {1, 0, 3, 2},
+            {3, 2, 1, 0},
+            {0, 2, 1, 3},
+            {3, 1, 3, 2}
+    };
+
+    private static final int[][] S1 = {
+            {0, 1, 2, 3},
+            {2, 0, 1, 3},
+            {3, 0, 1, 0},
+            {2, 1, 0, 3}
+    };
+
+    // Right half (4 bits) → P4(S0 || S1) of EP(right) XOR subkey, for every subkey: F[subkey][right].
+    private static final int[][] ROUND_FUNCTION = buildRoundFunction();
+
+    // Compiled keys, filled on first use. Safe to publish without locking: every field is final.
+    private static final SDESKey[] CACHE = new SDESKey[KEY_COUNT];
+
+    private final int key;
+    private final int k1;
+    private final int k2;
+    private final byte[] encryptionTable = new byte[256];
+    private final byte[] decryptionTable = new byte[256];
+
+    private SDESKey(int key) {
+        this.key = key;
+        int permuted = permute(key, 10, P10);
+        // Circular left shift by 1 of both 5-bit halves, then by 2 more for K2
+        int shifted = rotateHalves(permuted, 1);
+        this.k1 = permute(shifted, 10, P8);
+        this.k2 = permute(rotateHalves(shifted, 2), 10, P8);
+
+        for (int block = 0; block < 256; block++) {
+            int cipher = cipherBlock(block, k1, k2);
+            encryptionTable[block] = (byte) cipher;
+            decryptionTable[cipher] = (byte) block;
+        }
+    }
+
+    /**
+     * Gets the compiled form of a key.
+     *
+     * @param key The key as a 10-bit integer (0 to 1023).
+     * @return The shared compiled key.
+     * @throws IllegalArgumentException If the key does not fit in 10 bits.
+     */
+    public static SDESKey of(int key) {
+        if (key < 0 || key >= KEY_COUNT) {
+            throw new IllegalArgumentException("Key must be 10 bits.");
+        }
+        SDESKey compiled = CACHE[key];
+        if (compiled == null) {
+            compiled = new SDESKey(key);
+            CACHE[key] = compiled;
+        }
+        return compiled;
+    }
+
+    /**
+     * Gets the compiled form of a key given as a binary string.
+     *
+     * @param key10 The 10-bit key as a binary string (e.g., "1010000010").
+     * @return The shared compiled key.
+     * @throws IllegalArgumentException If the key is not a string of 10 binary digits.
+     */
+    public static SDESKey fromBinary(String key10) {
+        if (key10 == null || key10.length() != 10) {
+            throw new IllegalArgumentException("Key must be 10 bits.");
+        }
+        int key = 0;
+        for (int i = 0; i < 10; i++) {
+            char bit = key10.charAt(i);
+            if (bit != '0' && bit != '1') {
+                throw new IllegalArgumentException("Key must be a binary string.");
+            }
+            key = (key << 1) | (bit - '0');
+        }
+        return of(key);
+    }
+
+    /**
+     * Runs the two Feistel rounds of SDES on one block: IP, fK with the first subkey, swap,
+     * fK with the second subkey and IP⁻¹. Decryption is the same with the subkeys exchanged.
+     */
+    private static int cipherBlock(int block, int first, int second) {
+        int ip = permute(block, 8, IP);
+        int left = ip >>> 4;
+        int right = ip & 0x0F;
+        // First round, then swap the halves
+        left ^= ROUND_FUNCTION[first][right];
+        // Second round on the swapped halves
+        right ^= ROUND_FUNCTION[second][left];
+        return permute((right << 4) | left, 8, IP_INV);
+    }
+
+    private static int[][] buildRoundFunction() {
+        int[][] f = new int[256][16];
+        for (int subkey = 0; subkey < 256; subkey++) {
+            for (int right = 0; right < 16; right++) {
+                int x = permute(right, 4, EP) ^ subkey;
+                int s0 = sBox(x >>> 4, S0);
+                int s1 = sBox(x & 0x0F, S1);
+                f[subkey][right] = permute((s0 << 2) | s1, 4, P4);
+            }
+        }
+        return f;
+    }
+
+    /**
+     * Applies an S-box to 4 bits: the outer bits select the row and the inner bits the column.
+     */
+    private static int sBox(int input, int[][] sBox) {
+        int row = ((input >>> 2) & 0b10) | (input & 0b01);
+        int col = (input >>> 1) & 0b11;
+        return sBox[row][col];
+    }
+
+    /**
+     * Applies a permutation table (1-indexed from the most significant bit) to a value of {@code bits} bits.
+     */
+    private static int permute(int input, int bits, int[] permutation) {
+        int output = 0;
+        for (int pos : permutation) {
+            output = (output << 1) | ((input >>> (bits - pos)) & 1);
+        }
+        return output;
+    }
+
+    /**
+     * Rotates both 5-bit halves of a 10-bit value to the left.
+     */
+    private static int rotateHalves(int value, int shifts) {
+        int left = value >>> 5;
+        int right = value & 0x1F;
+        left = ((left << shifts) | (left >>> (5 - shifts))) & 0x1F;
+        right = ((right << shifts) | (right >>> (5 - shifts))) & 0x1F;
+        return (left << 5) | right;
+    }
+
+    // Get the key as a 10-bit integer
+    public int getKey() {
+        return key;
+    }
+
+    // Get the first 8-bit subkey
+    public int getK1() {
+        return k1;
+    }
+
+    // Get the second 8-bit subkey
+    public int getK2() {
+        return k2;
+    }
+
+    // Encrypt a single 8-bit block
+    public int encryptBlock(int block) {
+        return encryptionTable[block & 0xFF] & 0xFF;
+    }
+
+    // Decrypt a single 8-bit block
+    public int decryptBlock(int block) {
+        return decryptionTable[block & 0xFF] & 0xFF;
+    }
+
+    /**
+     * Gets the table mapping every plaintext byte to its ciphertext. The returned array is shared and must not be modified.
+     *
+     * @return The encryption table, indexed by unsigned byte value.
+     */
+    public byte[] getEncryptionTable() {
+        return encryptionTable;
+    }
+
+    /**
+     * Gets the table mapping every ciphertext byte to its plaintext. The returned array is shared and must not be modified.
+     *
+     * @return The decryption table, indexed by unsigned byte value.
+     */
+    public byte[] getDecryptionTable() {
+        return decryptionTable;
+    }
+
+    /**
+     * Returns the key as a 10-bit binary string.
+     *
+     * @return The key, e.g. "1010000010".
+     */
+    @Override
+    public String toString() {
+        String binary = Integer.toBinaryString(key | KEY_COUNT);
+        return binary.substring(1);
+    }
+}
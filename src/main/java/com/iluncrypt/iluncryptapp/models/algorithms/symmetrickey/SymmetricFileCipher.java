@@ -0,0 +1,366 @@
+package com.iluncrypt.iluncryptapp.models.algorithms.symmetrickey;
+
+import com.iluncrypt.iluncryptapp.models.SymmetricKeyConfig;
+import com.iluncrypt.iluncryptapp.models.enums.symmetrickey.SymmetricKeyMode;
+import com.iluncrypt.iluncryptapp.utils.filemanager.IlunFileManager;
+import com.iluncrypt.iluncryptapp.utils.filemanager.IlunFileMetadata;
+import com.iluncrypt.iluncryptapp.utils.filemanager.MappedFileReader;
+
+import javax.crypto.Cipher;
+import javax.crypto.Mac;
+import javax.crypto.SecretKey;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+
+/**
+ * Streams files through a symmetric cipher into and out of the .ilun format, with constant memory.
+ * <p>
+ * The payload has the same layout as the one produced by {@link AESManager#encrypt} and
+ * {@link DESManager#encrypt}: IV, ciphertext and HMAC of the ciphertext. Encryption writes the .ilun
+ * header first, then runs the memory-mapped source file (see {@link MappedFileReader}) through a
+ * {@link FilePipeline}, which reads, encrypts and writes consecutive parts at the same time; the
+ * cipher stage feeds every part to {@link Cipher#update} and its result to the HMAC and the payload
+ * checksum. The size and checksum of the header are filled in at the end. Decryption does the reverse
+ * and checks the HMAC once the whole ciphertext has been read, deleting the output if it does not match.
+ * How busy every stage of the last job was is available from {@link #getLastPipelineStats()}.
+ * </p>
+ * <p>
+ * Memory use does not depend on the size of the file, except for GCM decryption: the JCE provider
+ * keeps the ciphertext until the tag is verified in {@link Cipher#doFinal}.
+ * </p>
+ * <p>
+ * Large files in CTR or ECB, and large CBC files being decrypted, are instead processed
+ * {@link #PARALLEL_BUFFER_SIZE} bytes at a time by {@link ParallelBlockCipher}, which splits every
+ * part between the threads of the common pool. The HMAC and the checksum are still computed by
+ * the calling thread.
+ * </p>
+ */
+public final class SymmetricFileCipher {
+    // Size of the output buffers of the pipeline, a size class of the BufferPool.
+    static final int BUFFER_SIZE = 1 << 20;
+    // Size of the output buffers handed to ParallelBlockCipher, enough for several segments per thread.
+    static final int PARALLEL_BUFFER_SIZE = 1 << 24;
+    private static final String CHECKSUM_ALGORITHM = "SHA-256";
+    private static final ThreadLocal<PipelineStats> LAST_STATS = new ThreadLocal<>();
+
+    private SymmetricFileCipher() {
+    }
+
+    /**
+     * Gets how busy the read, cipher and write stages were during the last file encrypted or decrypted
+     * by the current thread, to tell whether it was I/O-bound or CPU-bound.
+     *
+     * @return The statistics of the last pipeline, or null if none has completed on this thread.
+     */
+    public static PipelineStats getLastPipelineStats() {
+        return LAST_STATS.get();
+    }
+
+    /**
+     * Encrypts a file into a .ilun file.
+     *
+     * @param inputFile  The file to encrypt.
+     * @param outputFile The .ilun file to write. It is replaced if it exists.
+     * @param key        The secret key used for encryption.
+     * @param iv         The initialization vector (IV), or null if the mode does not require it.
+     * @param config     The encryption configuration.
+     * @return The metadata written to the header.
+     * @throws Exception if reading, encrypting or writing fails.
+     */
+    public static IlunFileMetadata encryptFile(File inputFile, File outputFile, SecretKey key, byte[] iv,
+                                               SymmetricKeyConfig config) throws Exception {
+        CipherPlan plan = CipherPlan.of(config);
+        Mac mac = plan.mac(key);
+        MessageDigest checksum = MessageDigest.getInstance(CHECKSUM_ALGORITHM);
+        IlunFileMetadata metadata = new IlunFileMetadata(
+                config.isSaveAlgorithm() ? config.getAlgorithm().name() : null,
+                getFileExtension(inputFile),
+                0,
+                new byte[checksum.getDigestLength()],
+                config.isSaveAlgorithm()
+        );
+
+        boolean completed = false;
+        try (FileChannel input = FileChannel.open(inputFile.toPath(), StandardOpenOption.READ);
+             FileChannel output = FileChannel.open(outputFile.toPath(), StandardOpenOption.CREATE,
+                     StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            int headerLength = IlunFileManager.writeIlunHeader(output, metadata);
+            long payloadSize = 0;
+
+            if (iv != null) {
+                checksum.update(iv);
+                payloadSize += write(output, iv, iv.length);
+            }
+
+            long length = input.size();
+            PipelineStats stats = ParallelBlockCipher.isParallel(plan, Cipher.ENCRYPT_MODE, length)
+                    ? encryptParallel(input, output, plan, key, iv, mac, checksum)
+                    : encryptSequential(input, output, plan, key, iv, mac, checksum);
+            LAST_STATS.set(stats);
+            payloadSize += stats.getBytesWritten();
+
+            if (mac != null) {
+                byte[] hmac = mac.doFinal();
+                checksum.update(hmac);
+                payloadSize += write(output, hmac, hmac.length);
+            }
+
+            byte[] digest = checksum.digest();
+            IlunFileManager.completeIlunHeader(output, headerLength, payloadSize, digest);
+            completed = true;
+            return new IlunFileMetadata(metadata.getAlgorithm(), metadata.getExtension(), payloadSize,
+                    digest, metadata.isStoreAlgorithm());
+        } finally {
+            if (!completed) {
+                Files.deleteIfExists(outputFile.toPath());
+            }
+        }
+    }
+
+    /**
+     * Decrypts a .ilun file.
+     *
+     * @param inputFile  The .ilun file to decrypt.
+     * @param outputFile The file receiving the plaintext. It is replaced if it exists, and deleted if
+     *                   decryption or authentication fails.
+     * @param key        The secret key used for decryption.
+     * @param config     The encryption configuration.
+     * @return The metadata read from the header, e.g. to restore the original extension.
+     * @throws SecurityException if the HMAC does not match.
+     * @throws Exception if reading, decrypting or writing fails.
+     */
+    public static IlunFileMetadata decryptFile(File inputFile, File outputFile, SecretKey key,
+                                               SymmetricKeyConfig config) throws Exception {
+        boolean completed = false;
+        try (FileChannel input = FileChannel.open(inputFile.toPath(), StandardOpenOption.READ);
+             FileChannel output = FileChannel.open(outputFile.toPath(), StandardOpenOption.CREATE,
+                     StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            IlunFileMetadata metadata = IlunFileManager.readIlunHeader(input);
+            CipherPlan plan = CipherPlan.of(config);
+
+            byte[] iv = null;
+            if (plan.requiresIV()) {
+                iv = new byte[plan.getIVSize()];
+                if (read(input, iv) != iv.length) {
+                    throw new SecurityException("Cipher text is too short to contain the IV.");
+                }
+            }
+
+            Mac mac = plan.mac(key);
+            int hmacSize = plan.getHMACSize();
+            long cipherTextEnd = input.size() - hmacSize;
+            if (cipherTextEnd <= input.position()) {
+                throw new SecurityException("Cipher text is too short to contain a valid HMAC.");
+            }
+
+            // A tampered ciphertext usually breaks the padding too: report the HMAC first
+            long start = input.position();
+            GeneralSecurityException[] failure = new GeneralSecurityException[1];
+            LAST_STATS.set(ParallelBlockCipher.isParallel(plan, Cipher.DECRYPT_MODE, cipherTextEnd - start)
+                    ? decryptParallel(input, output, plan, key, iv, mac, start, cipherTextEnd - start, failure)
+                    : decryptSequential(input, output, plan, key, iv, mac, start, cipherTextEnd - start, failure));
+            input.position(cipherTextEnd);
+
+            if (mac != null) {
+                byte[] receivedHMAC = new byte[hmacSize];
+                if (read(input, receivedHMAC) != hmacSize || !MessageDigest.isEqual(mac.doFinal(), receivedHMAC)) {
+                    throw new SecurityException("Authentication failed: HMAC verification failed.");
+                }
+            }
+            if (failure[0] != null) {
+                throw failure[0];
+            }
+
+            completed = true;
+            return metadata;
+        } finally {
+            if (!completed) {
+                Files.deleteIfExists(outputFile.toPath());
+            }
+        }
+    }
+
+    /**
+     * Encrypts the input with a single cipher, feeding the ciphertext to the HMAC and to the checksum.
+     */
+    private static PipelineStats encryptSequential(FileChannel input, FileChannel output, CipherPlan plan,
+                                                   SecretKey key, byte[] iv, Mac mac, MessageDigest checksum) throws Exception {
+        Cipher cipher = plan.cipher(Cipher.ENCRYPT_MODE, key, iv);
+        long length = input.size();
+        int partSize = partSize(plan, BUFFER_SIZE);
+        return FilePipeline.run(input, 0, length, partSize, outputSize(cipher, plan, length, partSize), output, (in, offset, out, last) -> {
+                    out = prepare(out, cipher.getOutputSize(in.remaining()));
+                    if (last) {
+                        cipher.doFinal(in, out);
+                    } else {
+                        cipher.update(in, out);
+                    }
+                    digest(out, mac, checksum);
+                    return out;
+                });
+    }
+
+    /**
+     * Decrypts the ciphertext that follows the IV with a single cipher, feeding it to the HMAC.
+     * The failure of the final block, e.g. a wrong padding, is stored in {@code failure}.
+     */
+    private static PipelineStats decryptSequential(FileChannel input, FileChannel output, CipherPlan plan,
+                                                   SecretKey key, byte[] iv, Mac mac, long start, long length,
+                                                   GeneralSecurityException[] failure) throws Exception {
+        Cipher cipher = plan.cipher(Cipher.DECRYPT_MODE, key, iv);
+        // GCM returns nothing before doFinal, whatever getOutputSize announces
+        boolean buffered = plan.getMode() == SymmetricKeyMode.GCM;
+        int partSize = partSize(plan, BUFFER_SIZE);
+        return FilePipeline.run(input, start, length, partSize, outputSize(cipher, plan, length, partSize), output, (in, offset, out, last) -> {
+                    if (mac != null) {
+                        mac.update(in.duplicate());
+                    }
+                    if (!last) {
+                        out = buffered ? out : prepare(out, cipher.getOutputSize(in.remaining()));
+                        cipher.update(in, out);
+                        return out;
+                    }
+                    try {
+                        out = prepare(out, cipher.getOutputSize(in.remaining()));
+                        cipher.doFinal(in, out);
+                    } catch (GeneralSecurityException e) {
+                        failure[0] = e;
+                        out.clear();
+                    }
+                    return out;
+                });
+    }
+
+    /**
+     * Encrypts the input with {@link ParallelBlockCipher}, one large part at a time.
+     */
+    private static PipelineStats encryptParallel(FileChannel input, FileChannel output, CipherPlan plan, SecretKey key,
+                                                 byte[] iv, Mac mac, MessageDigest checksum) throws Exception {
+        int blockSize = plan.getBlockSize();
+        int partSize = partSize(plan, PARALLEL_BUFFER_SIZE);
+        // Room for the padding block
+        return FilePipeline.run(input, 0, input.size(), partSize, (int) Math.min(input.size(), partSize) + blockSize,
+                output, (in, offset, out, last) -> {
+                    ParallelBlockCipher.transform(plan, Cipher.ENCRYPT_MODE, key, iv, offset / blockSize, in, out, last);
+                    digest(out, mac, checksum);
+                    return out;
+                });
+    }
+
+    /**
+     * Decrypts the ciphertext that follows the IV with {@link ParallelBlockCipher}, one large part at a
+     * time, feeding it to the HMAC. The failure of the final block, e.g. a wrong padding, is stored in
+     * {@code failure}.
+     */
+    private static PipelineStats decryptParallel(FileChannel input, FileChannel output, CipherPlan plan,
+                                                 SecretKey key, byte[] iv, Mac mac, long start, long length,
+                                                 GeneralSecurityException[] failure) throws Exception {
+        int blockSize = plan.getBlockSize();
+        boolean chained = plan.getMode() == SymmetricKeyMode.CBC;
+        int partSize = partSize(plan, PARALLEL_BUFFER_SIZE);
+        return FilePipeline.run(input, start, length, partSize, (int) Math.min(length, partSize),
+                output, (in, offset, out, last) -> {
+                    if (mac != null) {
+                        mac.update(in.duplicate());
+                    }
+                    // CTR parts start at the counter of their first block, CBC parts chain from the previous one
+                    byte[] chain = iv;
+                    if (chained && offset > 0) {
+                        chain = new byte[blockSize];
+                        if (input.read(ByteBuffer.wrap(chain), start + offset - blockSize) != blockSize) {
+                            throw new IOException("Unexpected end of the cipher text.");
+                        }
+                    }
+                    try {
+                        ParallelBlockCipher.transform(plan, Cipher.DECRYPT_MODE, key, chain, offset / blockSize, in, out, last);
+                    } catch (GeneralSecurityException e) {
+                        if (!last) {
+                            throw e;
+                        }
+                        failure[0] = e;
+                        out.clear();
+                    }
+                    return out;
+                });
+    }
+
+    /**
+     * Gets the extension of a file, without the period, or an empty string if it has none.
+     */
+    static String getFileExtension(File file) {
+        String name = file.getName();
+        int lastIndex = name.lastIndexOf('.');
+        if (lastIndex == -1 || lastIndex == name.length() - 1) {
+            return "";
+        }
+        return name.substring(lastIndex + 1);
+    }
+
+    /**
+     * Feeds the ciphertext just written to a buffer to the HMAC and to the payload checksum.
+     *
+     * @param data A buffer filled by the cipher from 0 to its position, which is not changed.
+     */
+    private static void digest(ByteBuffer data, Mac mac, MessageDigest checksum) {
+        ByteBuffer cipherText = data.duplicate().flip();
+        if (mac != null) {
+            mac.update(cipherText.duplicate());
+        }
+        checksum.update(cipherText);
+    }
+
+    private static int write(FileChannel channel, byte[] data, int length) throws IOException {
+        return write(channel, ByteBuffer.wrap(data, 0, length));
+    }
+
+    static int write(FileChannel channel, ByteBuffer data) throws IOException {
+        int length = data.remaining();
+        while (data.hasRemaining()) {
+            channel.write(data);
+        }
+        return length;
+    }
+
+    /**
+     * Fills the buffer from the channel as far as possible.
+     *
+     * @return The number of bytes read, less than the length only at the end of the file.
+     */
+    private static int read(FileChannel channel, byte[] data) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(data);
+        while (buffer.hasRemaining() && channel.read(buffer) >= 0) {
+            // Keep reading until the buffer is full or the file ends
+        }
+        return buffer.position();
+    }
+
+    /**
+     * Gets the size of the parts whose output fits in a buffer of the given size: two blocks are left for
+     * the bytes the cipher keeps between parts and for the padding or the tag of the last one.
+     */
+    private static int partSize(CipherPlan plan, int bufferSize) {
+        return bufferSize - 2 * plan.getBlockSize();
+    }
+
+    /**
+     * Gets the size of the output buffers of a single cipher: the output of a part, plus a block of room.
+     */
+    private static int outputSize(Cipher cipher, CipherPlan plan, long length, int partSize) {
+        return cipher.getOutputSize((int) Math.min(length, partSize)) + plan.getBlockSize();
+    }
+
+    /**
+     * Clears an output buffer, or replaces it if it is too small. Only the end of a GCM decryption needs
+     * more than the pooled buffers, as the provider returns the whole plaintext at once: that buffer is
+     * allocated on the heap.
+     */
+    private static ByteBuffer prepare(ByteBuffer buffer, int capacity) {
+        return buffer.capacity() >= capacity ? buffer.clear() : ByteBuffer.allocate(capacity);
+    }
+}
@@ -0,0 +1,295 @@
+package com.iluncrypt.iluncryptapp.models.algorithms.symmetrickey;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageTypeSpecifier;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.metadata.IIOInvalidTreeException;
+import javax.imageio.metadata.IIOMetadata;
+import javax.imageio.plugins.tiff.BaselineTIFFTagSet;
+import javax.imageio.plugins.tiff.TIFFDirectory;
+import javax.imageio.plugins.tiff.TIFFField;
+import javax.imageio.plugins.tiff.TIFFTag;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Point;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.awt.image.SampleModel;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Base64;
+import java.util.Iterator;
+import java.util.function.DoubleConsumer;
+
+/**
+ * Encrypts and decrypts image files too large to be loaded whole, tile by tile, with a memory use
+ * bounded by the size of the tiles rather than by the size of the image.
+ * <p>
+ * The source is read region by region through an {@link ImageReader} with
+ * {@link ImageReadParam#setSourceRegion}: tile by tile when the source is itself tiled, such as the
+ * tiled TIFF files written here, and otherwise in strips one tile high, which the decoders of sequential
+ * formats (PNG, JPEG...) can produce in a single pass over the rows before the strip. A strip spans the
+ * full width of the image unless it would take more than {@link #STRIP_BYTES}; wider images are read in
+ * several strips side by side, each of them decoding the rows above it again, which trades decoding time
+ * for a memory use bounded whatever the width. Every
+ * tile is run through the CTR keystream at the position of its rows in the pixel stream of the whole
+ * image (see {@link RasterCipher#transformTile}), so the result is the one of
+ * {@link AESManager#encryptImage} on the whole image, and the tiles of a strip are processed in
+ * parallel.
+ * </p>
+ * <p>
+ * The output is an uncompressed tiled TIFF, the only format whose standard writer accepts pixels tile
+ * by tile ({@link ImageWriter#replacePixels}) in any order. Reads and writes are serialized, as readers
+ * and writers are not thread-safe; only the cipher work runs in parallel. An image that fits in a single
+ * tile is written in one go, as the TIFF writer cannot replace the pixels of a file of a single tile.
+ * </p>
+ * <p>
+ * The IV of an encrypted image is recorded in the ImageDescription tag of the TIFF, as {@code IV=} and
+ * its Base64 form, the way the PNG files of {@link AESManager#encryptImage} carry it in a tEXt entry.
+ * </p>
+ */
+final class TiledImageCipher {
+    /** Side of the tiles, in pixels. */
+    static final int TILE_SIZE = 512;
+
+    /** Largest strip read from a source that is not tiled, in bytes of decoded pixels. */
+    static final long STRIP_BYTES = 64L << 20;
+
+    private static final String TIFF_METADATA_FORMAT = "javax_imageio_tiff_image_1.0";
+    private static final String IV_PREFIX = "IV=";
+
+    private final ImageReader reader;
+    private final ImageWriter writer;
+    private final RasterCipher.CounterStream stream;
+    private final int width;
+    private final int height;
+    private final int tileSize;
+    private final byte[] iv;
+    private final DoubleConsumer progress;
+    private boolean prepared;
+
+    private TiledImageCipher(ImageReader reader, ImageWriter writer, RasterCipher.CounterStream stream, int tileSize,
+                             byte[] iv, DoubleConsumer progress) throws IOException {
+        this.reader = reader;
+        this.writer = writer;
+        this.stream = stream;
+        this.width = reader.getWidth(0);
+        this.height = reader.getHeight(0);
+        this.tileSize = tileSize;
+        this.iv = iv;
+        this.progress = progress;
+    }
+
+    /**
+     * Runs the pixels of an image file through a CTR keystream into a tiled TIFF file.
+     *
+     * @param input    The image to transform, in any format with an {@link ImageReader}.
+     * @param output   The TIFF file to write; replaced if it exists.
+     * @param stream   The keystream of the image.
+     * @param tileSize The side of the tiles, a multiple of 16.
+     * @param iv       The IV to record in the output, or null to record none.
+     * @param progress Receives the fraction of the tiles done, from 0 to 1, after every strip.
+     * @throws IllegalArgumentException If the tile size is invalid or the input is not a readable image.
+     * @throws Exception                If reading, writing or the cipher fails.
+     */
+    static void transform(File input, File output, RasterCipher.CounterStream stream, int tileSize, byte[] iv,
+                          DoubleConsumer progress) throws Exception {
+        if (tileSize <= 0 || tileSize % 16 != 0) {
+            throw new IllegalArgumentException("Tile size must be a positive multiple of 16.");
+        }
+        Files.deleteIfExists(output.toPath());
+        try (ImageInputStream in = ImageIO.createImageInputStream(input);
+             ImageOutputStream out = ImageIO.createImageOutputStream(output)) {
+            ImageReader reader = openReader(in, true);
+            ImageWriter writer = ImageIO.getImageWritersByFormatName("tiff").next();
+            try {
+                writer.setOutput(out);
+                new TiledImageCipher(reader, writer, stream, tileSize, iv, progress).run();
+            } finally {
+                reader.dispose();
+                writer.dispose();
+            }
+        }
+    }
+
+    /**
+     * Gets the number of pixels of an image file from its header, without decoding it.
+     *
+     * @param file The image file.
+     * @return The width times the height of the first image of the file.
+     * @throws IllegalArgumentException If the file is not a readable image.
+     * @throws IOException              If the file cannot be read.
+     */
+    static long pixelCount(File file) throws IOException {
+        try (ImageInputStream in = ImageIO.createImageInputStream(file)) {
+            ImageReader reader = openReader(in, true);
+            try {
+                return (long) reader.getWidth(0) * reader.getHeight(0);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    /**
+     * Gets the IV recorded in a TIFF file written by {@link #transform}.
+     *
+     * @param file The image file.
+     * @return The IV, or null if the file is not a TIFF or records no IV.
+     * @throws IllegalArgumentException If the file is not a readable image or its IV is not valid Base64.
+     * @throws IOException              If the file cannot be read.
+     */
+    static byte[] readIV(File file) throws IOException {
+        try (ImageInputStream in = ImageIO.createImageInputStream(file)) {
+            ImageReader reader = openReader(in, false);
+            try {
+                IIOMetadata metadata = reader.getImageMetadata(0);
+                if (metadata == null || !TIFF_METADATA_FORMAT.equals(metadata.getNativeMetadataFormatName())) {
+                    return null;
+                }
+                TIFFField field = TIFFDirectory.createFromMetadata(metadata)
+                        .getTIFFField(BaselineTIFFTagSet.TAG_IMAGE_DESCRIPTION);
+                String description = field != null ? field.getAsString(0) : null;
+                if (description == null || !description.startsWith(IV_PREFIX)) {
+                    return null;
+                }
+                return Base64.getDecoder().decode(description.substring(IV_PREFIX.length()));
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    private static ImageReader openReader(ImageInputStream in, boolean ignoreMetadata) {
+        Iterator<ImageReader> readers = in == null ? null : ImageIO.getImageReaders(in);
+        if (readers == null || !readers.hasNext()) {
+            throw new IllegalArgumentException("Unsupported image format.");
+        }
+        ImageReader reader = readers.next();
+        // Regions are read in any order, so the stream must stay seekable
+        reader.setInput(in, false, ignoreMetadata);
+        return reader;
+    }
+
+    private void run() throws Exception {
+        if (width <= tileSize && height <= tileSize) {
+            BufferedImage image = read(new Rectangle(0, 0, width, height));
+            image = RasterCipher.transformTile(stream, image, 0, 0, width);
+            ImageWriteParam param = writeParam();
+            writer.write(null, new IIOImage(image, null, metadata(new ImageTypeSpecifier(image), param)), param);
+            progress.accept(1);
+            return;
+        }
+        boolean tiledSource = reader.isImageTiled(0);
+        int columns = (width + tileSize - 1) / tileSize;
+        int stripColumns = tiledSource ? columns : stripColumns(columns);
+        long tiles = (long) columns * ((height + tileSize - 1) / tileSize);
+        long done = 0;
+        for (int y = 0; y < height; y += tileSize) {
+            int rows = Math.min(tileSize, height - y);
+            int top = y;
+            for (int first = 0; first < columns; first += stripColumns) {
+                int last = Math.min(columns, first + stripColumns);
+                int left = first * tileSize;
+                BufferedImage strip = tiledSource ? null
+                        : read(new Rectangle(left, y, Math.min(width, last * tileSize) - left, rows));
+                ParallelBlockCipher.forEach(first, last, column -> {
+                    int x = column * tileSize;
+                    int columnWidth = Math.min(tileSize, width - x);
+                    BufferedImage tile = strip != null
+                            ? strip.getSubimage(x - left, 0, columnWidth, rows)
+                            : read(new Rectangle(x, top, columnWidth, rows));
+                    write(RasterCipher.transformTile(stream, tile, x, top, width), x, top);
+                });
+                done += last - first;
+                progress.accept((double) done / tiles);
+            }
+        }
+        if (!prepared) {
+            throw new IOException("The image has no pixels.");
+        }
+        writer.endReplacePixels();
+    }
+
+    /**
+     * Gets the number of tile columns read together from a source that is not tiled, so that a strip takes
+     * at most {@link #STRIP_BYTES}, estimated from the decoded pixel layout of the reader.
+     */
+    private int stripColumns(int columns) throws IOException {
+        ImageTypeSpecifier type = reader.getRawImageType(0);
+        if (type == null) {
+            Iterator<ImageTypeSpecifier> types = reader.getImageTypes(0);
+            type = types.hasNext() ? types.next() : null;
+        }
+        long pixelBytes = Integer.BYTES;
+        if (type != null) {
+            SampleModel model = type.getSampleModel();
+            int bits = 0;
+            for (int size : model.getSampleSize()) {
+                bits += size;
+            }
+            pixelBytes = Math.max(1, (bits + 7) / 8);
+        }
+        long columnBytes = pixelBytes * tileSize * tileSize;
+        return (int) Math.max(1, Math.min(columns, STRIP_BYTES / columnBytes));
+    }
+
+    private BufferedImage read(Rectangle region) throws IOException {
+        synchronized (reader) {
+            ImageReadParam param = reader.getDefaultReadParam();
+            param.setSourceRegion(region);
+            return reader.read(0, param);
+        }
+    }
+
+    /**
+     * Writes a tile at its place. The first tile gives the layout of the whole output, which is written
+     * empty before any pixel.
+     */
+    private void write(BufferedImage tile, int x, int y) throws IOException {
+        synchronized (writer) {
+            if (!prepared) {
+                ImageWriteParam param = writeParam();
+                ImageTypeSpecifier type = new ImageTypeSpecifier(tile);
+                writer.prepareWriteEmpty(null, type, width, height, metadata(type, param), null, param);
+                writer.endWriteEmpty();
+                writer.prepareReplacePixels(0, new Rectangle(0, 0, width, height));
+                prepared = true;
+            }
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setDestinationOffset(new Point(x, y));
+            writer.replacePixels(tile, param);
+        }
+    }
+
+    /**
+     * Gets the layout of the output: tiles of the chosen size, uncompressed as pixels can only be replaced
+     * in uncompressed tiles.
+     */
+    private ImageWriteParam writeParam() {
+        ImageWriteParam param = writer.getDefaultWriteParam();
+        param.setTilingMode(ImageWriteParam.MODE_EXPLICIT);
+        param.setTiling(tileSize, tileSize, 0, 0);
+        param.setCompressionMode(ImageWriteParam.MODE_DISABLED);
+        return param;
+    }
+
+    /**
+     * Gets the image metadata of the output, which records the IV, or null if there is no IV to record.
+     */
+    private IIOMetadata metadata(ImageTypeSpecifier type, ImageWriteParam param) throws IIOInvalidTreeException {
+        if (iv == null) {
+            return null;
+        }
+        TIFFDirectory directory = TIFFDirectory.createFromMetadata(writer.getDefaultImageMetadata(type, param));
+        TIFFTag tag = BaselineTIFFTagSet.getInstance().getTag(BaselineTIFFTagSet.TAG_IMAGE_DESCRIPTION);
+        String description = IV_PREFIX + Base64.getEncoder().encodeToString(iv);
+        directory.addTIFFField(new TIFFField(tag, TIFFTag.TIFF_ASCII, 1, new String[]{description}));
+        return directory.getAsMetadata();
+    }
+}
@@ -1,13 +1,10 @@
 package com.iluncrypt.iluncryptapp.models.attacks;
 
 import com.iluncrypt.iluncryptapp.models.enums.Language;
-import com.iluncrypt.iluncryptapp.models.enums.EnglishLetterFrequencyZ26;
-import com.iluncrypt.iluncryptapp.models.enums.FrenchLetterFrequencyZ26;
-import com.iluncrypt.iluncryptapp.models.enums.SpanishLetterFrequencyZ26;
-import com.iluncrypt.iluncryptapp.models.enums.PortugueseLetterFrequencyZ26;
 
-import java.util.*;
-import java.util.stream.Collectors;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
 
 /**
  * This class performs brute force analysis for simple substitution ciphers:
@@ -28,20 +25,33 @@ public class BruteForceAnalysis {
      * @return A list of Candidate objects sorted from highest to lowest probability.
      */
     public static List<Candidate> bruteForce(String cipherText, String cipherType, Language language) {
-        Map<Character, Double> expectedFrequencies = getExpectedFrequencies(language);
+        LanguageModel model = LanguageModel.of(language);
+        return bruteForce(cipherText, cipherType, text -> computeLanguageScore(text, model));
+    }
+
+    /**
+     * Performs the same brute force attack, but evaluates each candidate with the given scoring function,
+     * for instance the quadgram model {@link NGramFitness#of(Language)}.
+     *
+     * @param cipherText The encrypted text.
+     * @param cipherType "Shift" or "Multiplicative" (case-insensitive).
+     * @param scorer     The scoring function; higher is better.
+     * @return A list of Candidate objects sorted from highest to lowest score.
+     */
+    public static List<Candidate> bruteForce(String cipherText, String cipherType, TextScorer scorer) {
         List<Candidate> candidates = new ArrayList<>();
 
         if (cipherType.equalsIgnoreCase("Shift")) {
             for (int key = 1; key < 26; key++) {
                 String decryptedText = shiftDecrypt(cipherText, key);
-                double score = computeLanguageScore(decryptedText, expectedFrequencies);
+                double score = scorer.score(decryptedText);
                 candidates.add(new Candidate(String.valueOf(key), score, decryptedText));
             }
         } else if (cipherType.equalsIgnoreCase("Multiplicative")) {
             for (int key = 1; key < 26; key++) {
                 if (gcd(key, 26) == 1) { // Only keys coprime with 26 are valid
                     String decryptedText = multiplicativeDecrypt(cipherText, key);
-                    double score = computeLanguageScore(decryptedText, expectedFrequencies);
+                    double score = scorer.score(decryptedText);
                     candidates.add(new Candidate(String.valueOf(key), score, decryptedText));
                 }
             }
@@ -117,74 +127,25 @@ public class BruteForceAnalysis {
      * Computes a language matching score for the given text. The score is defined as
      * 1/(1 + chiSquare), where chiSquare is computed from the observed letter frequencies.
      *
-     * @param text                The text to evaluate.
-     * @param expectedFrequencies A map from letter (A-Z) to expected frequency (in percentage).
+     * @param text  The text to evaluate.
+     * @param model The model of the expected language.
      * @return A score between 0 and 1; higher is better.
      */
-    private static double computeLanguageScore(String text, Map<Character, Double> expectedFrequencies) {
-        String filtered = text.toUpperCase().replaceAll("[^A-Z]", "");
-        if (filtered.isEmpty()) {
+    private static double computeLanguageScore(CharSequence text, LanguageModel model) {
+        int[] counts = new int[LanguageModel.LETTERS];
+        int n = LanguageModel.countLetters(text, counts);
+        if (n == 0) {
             return 0.0;
         }
-        int n = filtered.length();
-        Map<Character, Integer> counts = new HashMap<>();
-        for (char c = 'A'; c <= 'Z'; c++) {
-            counts.put(c, 0);
-        }
-        for (char c : filtered.toCharArray()) {
-            counts.put(c, counts.get(c) + 1);
-        }
-        Map<Character, Double> observed = new HashMap<>();
-        for (char c = 'A'; c <= 'Z'; c++) {
-            observed.put(c, counts.get(c) * 100.0 / n);
-        }
+        double[] expectedProbabilities = model.getProbabilities();
         double chiSquare = 0.0;
-        for (char c = 'A'; c <= 'Z'; c++) {
-            double expected = expectedFrequencies.getOrDefault(c, 0.0);
+        for (int i = 0; i < LanguageModel.LETTERS; i++) {
+            double expected = expectedProbabilities[i] * 100.0;
             if (expected > 0) {
-                double obs = observed.get(c);
-                chiSquare += Math.pow(obs - expected, 2) / expected;
+                double obs = counts[i] * 100.0 / n;
+                chiSquare += (obs - expected) * (obs - expected) / expected;
             }
         }
         return 1.0 / (1.0 + chiSquare);
     }
-
-    /**
-     * Returns a map with expected letter frequencies (in percentages) for the given language.
-     *
-     * @param language The language.
-     * @return Map of letter (A-Z) to expected frequency.
-     */
-    private static Map<Character, Double> getExpectedFrequencies(Language language) {
-        Map<Character, Double> map = new HashMap<>();
-        switch (language) {
-            case ENGLISH:
-                for (EnglishLetterFrequencyZ26 letter : EnglishLetterFrequencyZ26.values()) {
-                    map.put(letter.name().charAt(0), letter.getProbability());
-                }
-                break;
-            case FRENCH:
-                for (FrenchLetterFrequencyZ26 letter : FrenchLetterFrequencyZ26.values()) {
-                    map.put(letter.name().charAt(0), letter.getProbability());
-                }
-                break;
-            case SPANISH:
-                for (SpanishLetterFrequencyZ26 letter : SpanishLetterFrequencyZ26.values()) {
-                    map.put(letter.name().charAt(0), letter.getProbability());
-                }
-                break;
-            case PORTUGUESE:
-                for (PortugueseLetterFrequencyZ26 letter : PortugueseLetterFrequencyZ26.values()) {
-                    map.put(letter.name().charAt(0), letter.getProbability());
-                }
-                break;
-            default:
-                // Default to English if not specified
-                for (EnglishLetterFrequencyZ26 letter : EnglishLetterFrequencyZ26.values()) {
-                    map.put(letter.name().charAt(0), letter.getProbability());
-                }
-                break;
-        }
-        return map;
-    }
 }
@@ -3,10 +3,12 @@ package com.iluncrypt.iluncryptapp.models.attacks;
 import com.iluncrypt.iluncryptapp.models.Alphabet;
 import com.iluncrypt.iluncryptapp.models.algorithms.classic.AffineCipher;
 import com.iluncrypt.iluncryptapp.models.algorithms.classic.PermutationCipher;
+import com.iluncrypt.iluncryptapp.models.algorithms.classic.VigenereCipher;
 // Supón que existen clases ShiftCipher, VigenereCipher, SubstitutionCipher y HillCipher
 // o que implementas funciones similares.
 import com.iluncrypt.iluncryptapp.models.keys.AffineKey;
 import com.iluncrypt.iluncryptapp.models.keys.PermutationKey;
+import com.iluncrypt.iluncryptapp.models.keys.VigenereKey;
 import com.iluncrypt.iluncryptapp.models.enums.CaseHandling;
 import com.iluncrypt.iluncryptapp.models.enums.UnknownCharHandling;
 import com.iluncrypt.iluncryptapp.models.enums.WhitespaceHandling;
@@ -17,6 +19,11 @@ public class BruteForceAttacker {
 
     public enum Language {
         ENGLISH, SPANISH, FRENCH, PORTUGUESE;
+
+        // Obtener el modelo compilado del idioma
+        LanguageModel model() {
+            return LanguageModel.of(com.iluncrypt.iluncryptapp.models.enums.Language.valueOf(name()));
+        }
     }
 
     public static class Candidate implements Comparable<Candidate> {
@@ -35,50 +42,43 @@ public class BruteForceAttacker {
         }
     }
 
-    // Para efectos del análisis, usamos frecuencias aproximadas para A-Z.
-    private static final Map<Language, double[]> languageFrequencies = new HashMap<>();
+    // Claves de Vigenère devueltas por ataque
+    private static final int VIGENERE_RESULTS = 5;
+
+    // Puntuación de los candidatos; null para usar chi-cuadrado contra el idioma de cada ataque
+    private final TextScorer scorer;
+
+    /**
+     * Crea un atacante que puntúa los candidatos con chi-cuadrado sobre las frecuencias de letras del
+     * idioma indicado en cada ataque.
+     */
+    public BruteForceAttacker() {
+        this(null);
+    }
 
-    static {
-        // Frecuencias en porcentaje para el alfabeto inglés (A-Z)
-        languageFrequencies.put(Language.ENGLISH, new double[]{
-                8.2, 1.5, 2.8, 4.3, 13.0, 2.2, 2.0, 6.1, 7.0, 0.15, 0.77, 4.0, 2.4,
-                6.7, 7.5, 1.9, 0.095, 6.0, 6.3, 9.1, 2.8, 0.98, 2.4, 0.15, 2.0, 0.074
-        });
-        // Frecuencias para español
-        languageFrequencies.put(Language.SPANISH, new double[]{
-                12.53, 1.42, 4.68, 5.86, 13.68, 0.69, 1.01, 0.70, 6.25, 0.44, 0.01, 4.97,
-                3.15, 6.71, 8.68, 2.51, 0.88, 6.87, 7.98, 4.63, 3.93, 0.90, 0.02, 0.22, 0.90, 0.52
-        });
-        // Frecuencias para francés
-        languageFrequencies.put(Language.FRENCH, new double[]{
-                7.636, 0.901, 3.260, 3.669, 14.715, 1.066, 0.866, 0.737, 7.529, 0.613,
-                0.049, 5.456, 2.968, 7.095, 5.796, 2.521, 1.362, 6.693, 7.948, 7.244,
-                6.311, 1.838, 0.049, 0.427, 0.128, 0.326
-        });
-        // Frecuencias para portugués
-        languageFrequencies.put(Language.PORTUGUESE, new double[]{
-                14.63, 1.04, 3.88, 4.99, 12.57, 1.02, 1.30, 1.28, 6.18, 0.40,
-                0.02, 4.74, 2.97, 5.05, 10.73, 2.52, 1.20, 6.53, 7.81, 4.34,
-                4.63, 1.67, 0.01, 0.21, 0.01, 0.47
-        });
+    /**
+     * Crea un atacante que puntúa los candidatos con otra función, por ejemplo
+     * {@link NGramFitness#of} del idioma esperado, en lugar de chi-cuadrado.
+     *
+     * @param scorer La función de puntuación, o null para usar chi-cuadrado.
+     */
+    public BruteForceAttacker(TextScorer scorer) {
+        this.scorer = scorer;
     }
 
     // Función de scoring basada en chi-cuadrado (mientras menor sea chi-cuadrado, mejor la concordancia)
     // Se invierte el valor para que un score mayor indique mayor probabilidad.
     private double scorePlaintext(String plaintext, Language language) {
-        String text = plaintext.toUpperCase().replaceAll("[^A-Z]", "");
-        if (text.length() == 0) return Double.MIN_VALUE;
-        double[] frequencies = languageFrequencies.get(language);
-        double[] observed = new double[26];
-        for (char c : text.toCharArray()) {
-            if (c >= 'A' && c <= 'Z') {
-                observed[c - 'A']++;
-            }
+        if (scorer != null) {
+            return scorer.score(plaintext);
         }
+        int[] observed = new int[LanguageModel.LETTERS];
+        int total = LanguageModel.countLetters(plaintext, observed);
+        if (total == 0) return Double.MIN_VALUE;
+        double[] probabilities = language.model().getProbabilities();
         double chiSquare = 0.0;
-        double total = text.length();
-        for (int i = 0; i < 26; i++) {
-            double expected = total * (frequencies[i] / 100.0);
+        for (int i = 0; i < LanguageModel.LETTERS; i++) {
+            double expected = total * probabilities[i];
             double diff = observed[i] - expected;
             chiSquare += (diff * diff) / (expected + 1e-6);
         }
@@ -128,9 +128,18 @@ public class BruteForceAttacker {
     public List<Candidate> attackShift(String cipherText, Alphabet alphabet, Language language) {
         List<Candidate> candidates = new ArrayList<>();
         int modulus = alphabet.size();
+        // SHIFT es AFFINE con a = 1: se reutilizan las tablas compiladas de AffineKey.
+        Alphabet keyAlphabet = Alphabet.generateZAlphabet(modulus);
+        AffineCipher shiftCipher = new AffineCipher(
+                alphabet,
+                alphabet,
+                CaseHandling.IGNORE,
+                UnknownCharHandling.REMOVE,
+                WhitespaceHandling.PRESERVE
+        );
         for (int key = 0; key < modulus; key++) {
             try {
-                String candidatePlain = shiftDecrypt(cipherText, key, alphabet);
+                String candidatePlain = shiftCipher.decrypt(cipherText, new AffineKey(1, key, keyAlphabet));
                 double score = scorePlaintext(candidatePlain, language);
                 candidates.add(new Candidate(candidatePlain, score));
             } catch (Exception e) {
@@ -148,18 +157,20 @@ public class BruteForceAttacker {
     public List<Candidate> attackAffine(String cipherText, Alphabet plaintextAlphabet, Alphabet ciphertextAlphabet, Language language) {
         List<Candidate> candidates = new ArrayList<>();
         int modulus = plaintextAlphabet.size();
+        // El alfabeto de claves y el cifrador se construyen una sola vez para todo el barrido.
+        Alphabet keyAlphabet = Alphabet.generateZAlphabet(modulus);
+        AffineCipher affineCipher = new AffineCipher(
+                plaintextAlphabet,
+                ciphertextAlphabet,
+                CaseHandling.IGNORE,
+                UnknownCharHandling.REMOVE,
+                WhitespaceHandling.PRESERVE
+        );
         for (int a = 0; a < modulus; a++) {
             if (gcd(a, modulus) != 1) continue;
             for (int b = 0; b < modulus; b++) {
                 try {
-                    AffineKey key = new AffineKey(a, b, Alphabet.generateZAlphabet(modulus));
-                    AffineCipher affineCipher = new AffineCipher(
-                            plaintextAlphabet,
-                            ciphertextAlphabet,
-                            CaseHandling.IGNORE,
-                            UnknownCharHandling.REMOVE,
-                            WhitespaceHandling.PRESERVE
-                    );
+                    AffineKey key = new AffineKey(a, b, keyAlphabet);
                     String candidatePlain = affineCipher.decrypt(cipherText, key);
                     double score = scorePlaintext(candidatePlain, language);
                     candidates.add(new Candidate(candidatePlain, score));
@@ -178,17 +189,18 @@ public class BruteForceAttacker {
     public List<Candidate> attackMultiplicative(String cipherText, Alphabet plaintextAlphabet, Alphabet ciphertextAlphabet, Language language) {
         List<Candidate> candidates = new ArrayList<>();
         int modulus = plaintextAlphabet.size();
+        Alphabet keyAlphabet = Alphabet.generateZAlphabet(modulus);
+        AffineCipher multiplicativeCipher = new AffineCipher(
+                plaintextAlphabet,
+                ciphertextAlphabet,
+                CaseHandling.IGNORE,
+                UnknownCharHandling.REMOVE,
+                WhitespaceHandling.PRESERVE
+        );
         for (int a = 0; a < modulus; a++) {
             if (gcd(a, modulus) != 1) continue;
             try {
-                AffineKey key = new AffineKey(a, 0, Alphabet.generateZAlphabet(modulus));
-                AffineCipher multiplicativeCipher = new AffineCipher(
-                        plaintextAlphabet,
-                        ciphertextAlphabet,
-                        CaseHandling.IGNORE,
-                        UnknownCharHandling.REMOVE,
-                        WhitespaceHandling.PRESERVE
-                );
+                AffineKey key = new AffineKey(a, 0, keyAlphabet);
                 String candidatePlain = multiplicativeCipher.decrypt(cipherText, key);
                 double score = scorePlaintext(candidatePlain, language);
                 candidates.add(new Candidate(candidatePlain, score));
@@ -208,6 +220,14 @@ public class BruteForceAttacker {
     public List<Candidate> attackPermutation(String cipherText, Alphabet plaintextAlphabet, Alphabet ciphertextAlphabet, Language language, int blockSize) {
         List<Candidate> candidates = new ArrayList<>();
         List<int[]> perms = generateAllPermutations(blockSize);
+        Alphabet keyAlphabet = Alphabet.generateZAlphabet(blockSize);
+        PermutationCipher permutationCipher = new PermutationCipher(
+                plaintextAlphabet,
+                ciphertextAlphabet,
+                CaseHandling.IGNORE,
+                UnknownCharHandling.REMOVE,
+                WhitespaceHandling.PRESERVE
+        );
         for (int[] perm : perms) {
             try {
                 StringBuilder keyStrBuilder = new StringBuilder();
@@ -215,14 +235,7 @@ public class BruteForceAttacker {
                     keyStrBuilder.append(num);
                 }
                 String keyStr = keyStrBuilder.toString();
-                PermutationKey key = new PermutationKey(keyStr, Alphabet.generateZAlphabet(blockSize));
-                PermutationCipher permutationCipher = new PermutationCipher(
-                        plaintextAlphabet,
-                        ciphertextAlphabet,
-                        CaseHandling.IGNORE,
-                        UnknownCharHandling.REMOVE,
-                        WhitespaceHandling.PRESERVE
-                );
+                PermutationKey key = new PermutationKey(keyStr, keyAlphabet);
                 String candidatePlain = permutationCipher.decrypt(cipherText, key);
                 double score = scorePlaintext(candidatePlain, language);
                 candidates.add(new Candidate(candidatePlain, score));
@@ -236,22 +249,43 @@ public class BruteForceAttacker {
 
     /**
      * Ataque al cifrado VIGENERE.
-     * Debido a la complejidad de un ataque completo, este método es un stub a implementar con
-     * técnicas heurísticas (por ejemplo, análisis de índice de coincidencia y hill-climbing).
+     * Ordena los periodos hasta maxKeyLength por índice de coincidencia y Kasiski y busca las mejores
+     * claves de cada uno (ver {@link VigenereAttack}). Los candidatos se puntúan con la aptitud por
+     * cuadrigramas del idioma, o con la función de puntuación del atacante si se le dio una.
      */
     public List<Candidate> attackVigenere(String cipherText, Alphabet plaintextAlphabet, Alphabet ciphertextAlphabet, Language language, int maxKeyLength) {
         List<Candidate> candidates = new ArrayList<>();
-        // TODO: Implementar ataque heurístico a Vigenere
+        VigenereCipher vigenereCipher = new VigenereCipher(
+                plaintextAlphabet,
+                ciphertextAlphabet,
+                CaseHandling.IGNORE,
+                UnknownCharHandling.REMOVE,
+                WhitespaceHandling.PRESERVE
+        );
+        for (VigenereAttack.Solution solution : VigenereAttack.attack(cipherText, plaintextAlphabet,
+                ciphertextAlphabet, language.model().getLanguage(), maxKeyLength, VIGENERE_RESULTS)) {
+            VigenereKey key = new VigenereKey(solution.getKeyword(plaintextAlphabet), plaintextAlphabet);
+            String candidatePlain = vigenereCipher.decrypt(cipherText, key);
+            double score = scorer != null ? scorer.score(candidatePlain) : solution.getScore();
+            candidates.add(new Candidate(candidatePlain, score));
+        }
+        Collections.sort(candidates);
         return candidates;
     }
 
     /**
      * Ataque al cifrado SUBSTITUTION.
-     * TODO: hill-climbing o basado en diccionarios.
+     * Hill-climbing por cuadrigramas con reinicios en paralelo (ver {@link SubstitutionAttack}); el
+     * espacio de 26! claves no se puede recorrer, así que la puntuación es siempre la aptitud por
+     * cuadrigramas del idioma y no la función de puntuación del atacante.
      */
     public List<Candidate> attackSubstitution(String cipherText, Alphabet plaintextAlphabet, Alphabet ciphertextAlphabet, Language language) {
         List<Candidate> candidates = new ArrayList<>();
-        // TODO: Implementar ataque para cifrado por sustitución
+        for (SubstitutionAttack.Solution solution : SubstitutionAttack.attack(cipherText, plaintextAlphabet,
+                ciphertextAlphabet, language.model().getLanguage())) {
+            candidates.add(new Candidate(solution.getPlaintext(), solution.getScore()));
+        }
+        Collections.sort(candidates);
         return candidates;
     }
 
@@ -292,15 +326,4 @@ public class BruteForceAttacker {
     private int gcd(int a, int b) {
         return b == 0 ? a : gcd(b, a % b);
     }
-
-    private String shiftDecrypt(String cipherText, int shiftKey, Alphabet alphabet) {
-        StringBuilder sb = new StringBuilder();
-        int size = alphabet.size();
-        for (char c : cipherText.toCharArray()) {
-            int index = alphabet.getIndex(c);
-            int newIndex = (index - shiftKey + size) % size;
-            sb.append(alphabet.getChar(newIndex));
-        }
-        return sb.toString();
-    }
 }
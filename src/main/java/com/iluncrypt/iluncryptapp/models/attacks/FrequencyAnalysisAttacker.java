@@ -13,6 +13,11 @@ public class FrequencyAnalysisAttacker {
 
     public enum Language {
         ENGLISH, SPANISH, FRENCH, PORTUGUESE;
+
+        // Obtener el modelo compilado del idioma
+        LanguageModel model() {
+            return LanguageModel.of(com.iluncrypt.iluncryptapp.models.enums.Language.valueOf(name()));
+        }
     }
 
     /**
@@ -35,29 +40,6 @@ public class FrequencyAnalysisAttacker {
         }
     }
 
-    // Distribuciones esperadas (porcentaje) para los 26 caracteres (A-Z) para cada idioma.
-    private static final Map<Language, double[]> expectedFrequencies = new HashMap<>();
-    static {
-        expectedFrequencies.put(Language.ENGLISH, new double[]{
-                8.2, 1.5, 2.8, 4.3, 13.0, 2.2, 2.0, 6.1, 7.0, 0.15, 0.77, 4.0, 2.4,
-                6.7, 7.5, 1.9, 0.095, 6.0, 6.3, 9.1, 2.8, 0.98, 2.4, 0.15, 2.0, 0.074
-        });
-        expectedFrequencies.put(Language.SPANISH, new double[]{
-                12.53, 1.42, 4.68, 5.86, 13.68, 0.69, 1.01, 0.70, 6.25, 0.44, 0.01, 4.97,
-                3.15, 6.71, 8.68, 2.51, 0.88, 6.87, 7.98, 4.63, 3.93, 0.90, 0.02, 0.22, 0.90, 0.52
-        });
-        expectedFrequencies.put(Language.FRENCH, new double[]{
-                7.636, 0.901, 3.260, 3.669, 14.715, 1.066, 0.866, 0.737, 7.529, 0.613,
-                0.049, 5.456, 2.968, 7.095, 5.796, 2.521, 1.362, 6.693, 7.948, 7.244,
-                6.311, 1.838, 0.049, 0.427, 0.128, 0.326
-        });
-        expectedFrequencies.put(Language.PORTUGUESE, new double[]{
-                14.63, 1.04, 3.88, 4.99, 12.57, 1.02, 1.30, 1.28, 6.18, 0.40,
-                0.02, 4.74, 2.97, 5.05, 10.73, 2.52, 1.20, 6.53, 7.81, 4.34,
-                4.63, 1.67, 0.01, 0.21, 0.01, 0.47
-        });
-    }
-
     /**
      * Devuelve una lista de candidatos de texto en claro para un ciphertext dado,
      * utilizando un ataque por análisis de frecuencias y hill-climbing.
@@ -85,7 +67,7 @@ public class FrequencyAnalysisAttacker {
             alphabetLetters.add(alphabet.getChar(i));
         }
         // Ordena las letras según la frecuencia esperada del idioma (de mayor a menor)
-        double[] expFreq = expectedFrequencies.get(language);
+        double[] expFreq = language.model().getProbabilities();
         alphabetLetters.sort((a, b) -> Double.compare(expFreq[b - 'A'], expFreq[a - 'A']));
 
         // Mapeo base: asigna la i-ésima letra del ciphertext (por frecuencia) a la i-ésima letra esperada.
@@ -174,19 +156,13 @@ public class FrequencyAnalysisAttacker {
      * un score mayor indique mejor concordancia).
      */
     public static double scorePlaintext(String plaintext, Language language, Alphabet alphabet) {
-        String text = plaintext.toUpperCase().replaceAll("[^A-Z]", "");
-        if (text.length() == 0) return Double.MIN_VALUE;
-        double[] expFreq = expectedFrequencies.get(language);
-        double[] observed = new double[26];
-        for (char c : text.toCharArray()) {
-            if (c >= 'A' && c <= 'Z') {
-                observed[c - 'A']++;
-            }
-        }
+        int[] observed = new int[LanguageModel.LETTERS];
+        int total = LanguageModel.countLetters(plaintext, observed);
+        if (total == 0) return Double.MIN_VALUE;
+        double[] probabilities = language.model().getProbabilities();
         double chiSquare = 0.0;
-        double total = text.length();
-        for (int i = 0; i < 26; i++) {
-            double expected = total * (expFreq[i] / 100.0);
+        for (int i = 0; i < LanguageModel.LETTERS; i++) {
+            double expected = total * probabilities[i];
             double diff = observed[i] - expected;
             chiSquare += (diff * diff) / (expected + 1e-6);
         }
@@ -1,10 +1,6 @@
 package com.iluncrypt.iluncryptapp.models.attacks;
 
 import com.iluncrypt.iluncryptapp.models.enums.Language;
-import com.iluncrypt.iluncryptapp.models.enums.EnglishLetterFrequencyZ26;
-import com.iluncrypt.iluncryptapp.models.enums.FrenchLetterFrequencyZ26;
-import com.iluncrypt.iluncryptapp.models.enums.SpanishLetterFrequencyZ26;
-import com.iluncrypt.iluncryptapp.models.enums.PortugueseLetterFrequencyZ26;
 
 import java.util.*;
 import java.util.stream.Collectors;
@@ -22,6 +18,21 @@ public class FrequencyAttack {
      * @return A list of up to five Candidate objects.
      */
     public static List<Candidate> analyze(String encryptedText, Language language, String cipherType) {
+        return analyze(encryptedText, language, cipherType, text -> computeCombinedScore(text, language));
+    }
+
+    /**
+     * Same as {@link #analyze(String, Language, String)}, but scores the candidates with the given
+     * function instead of the combined monogram, bigram and trigram score, for instance with the
+     * quadgram model {@link NGramFitness#of(Language)}.
+     *
+     * @param encryptedText The ciphertext (letters A–Z are considered).
+     * @param language      The language to base the expected letters on.
+     * @param cipherType    The cipher type ("shift", "multiplicative", or "affine").
+     * @param scorer        The scoring function; higher is better.
+     * @return A list of up to five Candidate objects.
+     */
+    public static List<Candidate> analyze(String encryptedText, Language language, String cipherType, TextScorer scorer) {
         List<Candidate> candidates = new ArrayList<>();
         // Preprocess text: uppercase and keep only letters A-Z.
         String filtered = encryptedText.toUpperCase().replaceAll("[^A-Z]", "");
@@ -44,7 +55,7 @@ public class FrequencyAttack {
                 char cipherCandidate = sortedEntries.get(i).getKey();
                 int shift = (cipherCandidate - expected + 26) % 26;
                 String decrypted = decryptShift(encryptedText, shift);
-                double score = computeCombinedScore(decrypted, language);
+                double score = scorer.score(decrypted);
                 candidates.add(new Candidate(String.valueOf(shift), score, decrypted));
             }
         } else if (cipherType.equalsIgnoreCase("multiplicative")) {
@@ -64,7 +75,7 @@ public class FrequencyAttack {
                     continue;
                 }
                 String decrypted = decryptMultiplicative(encryptedText, keyCandidate);
-                double score = computeCombinedScore(decrypted, language);
+                double score = scorer.score(decrypted);
                 candidates.add(new Candidate(String.valueOf(keyCandidate), score, decrypted));
             }
         } else if (cipherType.equalsIgnoreCase("affine")) {
@@ -106,7 +117,7 @@ public class FrequencyAttack {
                             if (seenKeys.contains(keyStr)) continue;
                             seenKeys.add(keyStr);
                             String decrypted = decryptAffine(encryptedText, a, b);
-                            double score = computeCombinedScore(decrypted, language);
+                            double score = scorer.score(decrypted);
                             candidates.add(new Candidate(keyStr, score, decrypted));
                         }
                     }
@@ -118,7 +129,7 @@ public class FrequencyAttack {
                     if (gcd(a, 26) != 1) continue;
                     for (int b = 0; b < 26; b++) {
                         String decrypted = decryptAffine(encryptedText, a, b);
-                        double score = computeCombinedScore(decrypted, language);
+                        double score = scorer.score(decrypted);
                         candidates.add(new Candidate(a + "," + b, score, decrypted));
                     }
                 }
@@ -148,79 +159,44 @@ public class FrequencyAttack {
 
     // Returns the expected letter (with highest probability) for monogram frequencies.
     private static char getExpectedLetter(Language language) {
-        Map<Character, Double> expected = getExpectedFrequencies(language);
-        char best = 'E'; // default
+        double[] expected = LanguageModel.of(language).getProbabilities();
+        int best = 'E' - 'A'; // default
         double max = -1;
-        for (Map.Entry<Character, Double> entry : expected.entrySet()) {
-            if (entry.getValue() > max) {
-                max = entry.getValue();
-                best = entry.getKey();
+        for (int i = 0; i < LanguageModel.LETTERS; i++) {
+            if (expected[i] > max) {
+                max = expected[i];
+                best = i;
             }
         }
-        return best;
+        return (char) ('A' + best);
     }
 
     // For multiplicative cipher: choose an expected letter that is invertible mod 26.
     private static char getExpectedLetterForMultiplicative(Language language) {
-        Map<Character, Double> expected = getExpectedFrequencies(language);
-        char best = ' ';
+        double[] expected = LanguageModel.of(language).getProbabilities();
+        int best = -1;
         double max = -1;
-        for (Map.Entry<Character, Double> entry : expected.entrySet()) {
-            int val = entry.getKey() - 'A';
-            if (gcd(val, 26) == 1 && entry.getValue() > max) {
-                max = entry.getValue();
-                best = entry.getKey();
+        for (int i = 0; i < LanguageModel.LETTERS; i++) {
+            if (gcd(i, 26) == 1 && expected[i] > max) {
+                max = expected[i];
+                best = i;
             }
         }
-        if (best == ' ') {
-            best = 'H'; // fallback
+        if (best < 0) {
+            return 'H'; // fallback
         }
-        return best;
+        return (char) ('A' + best);
     }
 
     // Returns the top N expected letters based on frequency.
     private static List<Character> getTopExpectedLetters(Language language, int n) {
-        Map<Character, Double> expected = getExpectedFrequencies(language);
-        List<Map.Entry<Character, Double>> list = new ArrayList<>(expected.entrySet());
-        list.sort((e1, e2) -> Double.compare(e2.getValue(), e1.getValue()));
-        List<Character> result = new ArrayList<>();
-        for (int i = 0; i < Math.min(n, list.size()); i++) {
-            result.add(list.get(i).getKey());
-        }
-        return result;
-    }
-
-    // Retrieves expected monogram frequencies from language-specific enums.
-    private static Map<Character, Double> getExpectedFrequencies(Language language) {
-        Map<Character, Double> map = new HashMap<>();
-        switch (language) {
-            case ENGLISH:
-                for (EnglishLetterFrequencyZ26 letter : EnglishLetterFrequencyZ26.values()) {
-                    map.put(letter.name().charAt(0), letter.getProbability());
-                }
-                break;
-            case FRENCH:
-                for (FrenchLetterFrequencyZ26 letter : FrenchLetterFrequencyZ26.values()) {
-                    map.put(letter.name().charAt(0), letter.getProbability());
-                }
-                break;
-            case SPANISH:
-                for (SpanishLetterFrequencyZ26 letter : SpanishLetterFrequencyZ26.values()) {
-                    map.put(letter.name().charAt(0), letter.getProbability());
-                }
-                break;
-            case PORTUGUESE:
-                for (PortugueseLetterFrequencyZ26 letter : PortugueseLetterFrequencyZ26.values()) {
-                    map.put(letter.name().charAt(0), letter.getProbability());
-                }
-                break;
-            default:
-                for (EnglishLetterFrequencyZ26 letter : EnglishLetterFrequencyZ26.values()) {
-                    map.put(letter.name().charAt(0), letter.getProbability());
-                }
-                break;
+        double[] expected = LanguageModel.of(language).getProbabilities();
+        List<Character> letters = new ArrayList<>();
+        for (char c = 'A'; c <= 'Z'; c++) {
+            letters.add(c);
         }
-        return map;
+        letters.sort((c1, c2) -> Double.compare(expected[c2 - 'A'], expected[c1 - 'A']));
+        return new ArrayList<>(letters.subList(0, Math.min(n, letters.size())));
     }
 
     // --- Decryption routines ---
@@ -288,98 +264,52 @@ public class FrequencyAttack {
 
     // --- Combined Score Calculation (Monogram, Bigram, Trigram) ---
 
-    private static double computeCombinedScore(String text, Language language) {
-        double mono = computeMonogramScore(text, language);
-        double bi = computeBigramScore(text, language);
-        double tri = computeTrigramScore(text, language);
+    /**
+     * Scores a text in a single pass over its letters: the monogram chi-squared against the language
+     * model and the fractions of bigrams and trigrams that are among the most common of the language.
+     */
+    private static double computeCombinedScore(CharSequence text, Language language) {
+        LanguageModel model = LanguageModel.of(language);
+        int[] counts = new int[LanguageModel.LETTERS];
+        int n = 0;
+        int commonBigrams = 0;
+        int commonTrigrams = 0;
+        int previous = -1;
+        int beforePrevious = -1;
+        for (int i = 0; i < text.length(); i++) {
+            int letter = LanguageModel.letterIndex(text.charAt(i));
+            if (letter < 0) {
+                continue;
+            }
+            counts[letter]++;
+            n++;
+            if (previous >= 0 && model.isCommonBigram(previous * 26 + letter)) {
+                commonBigrams++;
+            }
+            if (beforePrevious >= 0 && model.isCommonTrigram((beforePrevious * 26 + previous) * 26 + letter)) {
+                commonTrigrams++;
+            }
+            beforePrevious = previous;
+            previous = letter;
+        }
+        double mono = computeMonogramScore(counts, n, model);
+        double bi = n < 2 ? 0.0 : commonBigrams / (double) (n - 1);
+        double tri = n < 3 ? 0.0 : commonTrigrams / (double) (n - 2);
         return (mono + bi + tri) / 3.0;
     }
 
-    // Monogram score using chi-squared.
-    private static double computeMonogramScore(String text, Language language) {
-        String filtered = text.toUpperCase().replaceAll("[^A-Z]", "");
-        if (filtered.isEmpty()) return 0.0;
-        int n = filtered.length();
-        Map<Character, Integer> counts = new HashMap<>();
-        for (char c = 'A'; c <= 'Z'; c++) {
-            counts.put(c, 0);
-        }
-        for (char c : filtered.toCharArray()) {
-            counts.put(c, counts.get(c) + 1);
-        }
-        Map<Character, Double> observed = new HashMap<>();
-        for (char c = 'A'; c <= 'Z'; c++) {
-            observed.put(c, counts.get(c) * 100.0 / n);
-        }
-        Map<Character, Double> expected = getExpectedFrequencies(language);
+    // Monogram score using chi-squared over percentages.
+    private static double computeMonogramScore(int[] counts, int n, LanguageModel model) {
+        if (n == 0) return 0.0;
+        double[] expected = model.getProbabilities();
         double chi = 0.0;
-        for (char c = 'A'; c <= 'Z'; c++) {
-            double exp = expected.getOrDefault(c, 0.0);
+        for (int i = 0; i < LanguageModel.LETTERS; i++) {
+            double exp = expected[i] * 100.0;
             if (exp > 0) {
-                double obs = observed.get(c);
-                chi += Math.pow(obs - exp, 2) / exp;
+                double obs = counts[i] * 100.0 / n;
+                chi += (obs - exp) * (obs - exp) / exp;
             }
         }
         return 1.0 / (1.0 + chi);
     }
-
-    // Bigram score: fraction of consecutive two-letter sequences that are common.
-    private static double computeBigramScore(String text, Language language) {
-        String filtered = text.toUpperCase().replaceAll("[^A-Z]", "");
-        if (filtered.length() < 2) return 0.0;
-        Set<String> commonBigrams = getCommonBigrams(language);
-        int totalBigrams = filtered.length() - 1;
-        int count = 0;
-        for (int i = 0; i < filtered.length() - 1; i++) {
-            String bi = filtered.substring(i, i + 2);
-            if (commonBigrams.contains(bi)) {
-                count++;
-            }
-        }
-        return count / (double) totalBigrams;
-    }
-
-    // Trigram score: fraction of three-letter sequences that are common.
-    private static double computeTrigramScore(String text, Language language) {
-        String filtered = text.toUpperCase().replaceAll("[^A-Z]", "");
-        if (filtered.length() < 3) return 0.0;
-        Set<String> commonTrigrams = getCommonTrigrams(language);
-        int totalTrigrams = filtered.length() - 2;
-        int count = 0;
-        for (int i = 0; i < filtered.length() - 2; i++) {
-            String tri = filtered.substring(i, i + 3);
-            if (commonTrigrams.contains(tri)) {
-                count++;
-            }
-        }
-        return count / (double) totalTrigrams;
-    }
-
-    // Returns a set of common bigrams; for demonstration, English values are used.
-    private static Set<String> getCommonBigrams(Language language) {
-        Set<String> bigrams = new HashSet<>();
-        if (language == Language.ENGLISH) {
-            bigrams.add("TH"); bigrams.add("HE"); bigrams.add("IN");
-            bigrams.add("ER"); bigrams.add("AN"); bigrams.add("RE");
-        } else {
-            // Default values (could be refined per language)
-            bigrams.add("TH"); bigrams.add("HE"); bigrams.add("IN");
-            bigrams.add("ER"); bigrams.add("AN"); bigrams.add("RE");
-        }
-        return bigrams;
-    }
-
-    // Returns a set of common trigrams; for demonstration, English values are used.
-    private static Set<String> getCommonTrigrams(Language language) {
-        Set<String> trigrams = new HashSet<>();
-        if (language == Language.ENGLISH) {
-            trigrams.add("THE"); trigrams.add("ING"); trigrams.add("AND");
-            trigrams.add("ENT"); trigrams.add("ION");
-        } else {
-            // Default values (could be refined per language)
-            trigrams.add("THE"); trigrams.add("ING"); trigrams.add("AND");
-            trigrams.add("ENT"); trigrams.add("ION");
-        }
-        return trigrams;
-    }
 }
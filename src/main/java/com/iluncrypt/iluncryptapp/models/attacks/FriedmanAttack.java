@@ -18,6 +18,11 @@ public class FriedmanAttack {
 
     public enum Language {
         ENGLISH, SPANISH, FRENCH, PORTUGUESE;
+
+        // Obtener el modelo compilado del idioma
+        LanguageModel model() {
+            return LanguageModel.of(com.iluncrypt.iluncryptapp.models.enums.Language.valueOf(name()));
+        }
     }
 
     /**
@@ -44,22 +49,6 @@ public class FriedmanAttack {
         }
     }
 
-    // Valores esperados de índice de coincidencia para cada idioma (valores aproximados)
-    private static double getExpectedIC(Language language) {
-        switch (language) {
-            case ENGLISH:
-                return 0.0667;
-            case SPANISH:
-                return 0.077;
-            case FRENCH:
-                return 0.072;
-            case PORTUGUESE:
-                return 0.072;
-            default:
-                return 0.0667;
-        }
-    }
-
     /**
      * Calcula el índice de coincidencia de un texto.
      * Se utiliza la fórmula: IC = Σ f(letter)*(f(letter)-1) / (N*(N-1))
@@ -107,7 +96,7 @@ public class FriedmanAttack {
                                                  int minKeyLength, int maxKeyLength) {
         List<Candidate> candidates = new ArrayList<>();
         String filteredText = filterText(cipherText, alphabet);
-        double expectedIC = getExpectedIC(language);
+        double expectedIC = language.model().getExpectedIC();
         // Para cada posible clave, dividir el texto en k subtextos.
         for (int k = minKeyLength; k <= maxKeyLength; k++) {
             double avgIC = 0.0;
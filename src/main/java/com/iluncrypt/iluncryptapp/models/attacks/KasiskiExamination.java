@@ -0,0 +1,387 @@
+package com.iluncrypt.iluncryptapp.models.attacks;
+
+import com.iluncrypt.iluncryptapp.models.Alphabet;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Examen de Kasiski: busca las secuencias repetidas de un texto cifrado y las distancias entre sus
+ * apariciones, que en un cifrado polialfabético suelen ser múltiplos de la longitud de la clave.
+ * <p>
+ * Las repeticiones se obtienen de un arreglo de sufijos del texto normalizado, construido por duplicación
+ * de prefijos con ordenamiento por conteo, y de su arreglo LCP (algoritmo de Kasai). Los sufijos
+ * consecutivos cuyo prefijo común tiene al menos minLength símbolos empiezan por el mismo n-grama, así
+ * que cada racha del arreglo LCP es una secuencia repetida con todas sus apariciones, extendida hasta el
+ * prefijo común de la racha. Las rachas cuyas apariciones van todas precedidas del mismo símbolo son la
+ * cola de una repetición más larga y se omiten, para no contar sus distancias varias veces. El coste es
+ * O(n log n) en el peor caso y O(n log L) con L la repetición más larga, así que el examen sigue siendo
+ * rápido con textos de megabytes.
+ * </p>
+ */
+public final class KasiskiExamination {
+    /** Longitud mínima por defecto de las secuencias repetidas: trigramas. */
+    public static final int DEFAULT_MIN_LENGTH = 3;
+
+    /**
+     * Secuencia repetida con sus apariciones.
+     */
+    public static final class Repeat {
+        private final String text;
+        private final int length;
+        private final int[] positions;
+
+        private Repeat(String text, int length, int[] positions) {
+            this.text = text;
+            this.length = length;
+            this.positions = positions;
+        }
+
+        // Obtener la secuencia repetida
+        public String getText() {
+            return text;
+        }
+
+        // Obtener la longitud de la secuencia
+        public int getLength() {
+            return length;
+        }
+
+        /**
+         * Obtiene las posiciones de las apariciones en el texto normalizado, en orden creciente.
+         */
+        public int[] getPositions() {
+            return positions.clone();
+        }
+
+        /**
+         * Obtiene las distancias entre apariciones consecutivas.
+         */
+        public int[] getSpacings() {
+            int[] spacings = new int[positions.length - 1];
+            for (int i = 1; i < positions.length; i++) {
+                spacings[i - 1] = positions[i] - positions[i - 1];
+            }
+            return spacings;
+        }
+
+        /**
+         * Obtiene el máximo común divisor de las distancias, candidato a longitud de la clave.
+         */
+        public int getGcd() {
+            int gcd = 0;
+            for (int i = 1; i < positions.length; i++) {
+                gcd = gcd(gcd, positions[i] - positions[i - 1]);
+            }
+            return gcd;
+        }
+
+        @Override
+        public String toString() {
+            return text + " at " + Arrays.toString(positions) + " | Spacings: " + Arrays.toString(getSpacings())
+                    + " | GCD: " + getGcd();
+        }
+    }
+
+    /**
+     * Periodo candidato con el número de distancias que divide.
+     */
+    public static final class Factor {
+        private final int period;
+        private final long count;
+        private final double score;
+
+        private Factor(int period, long count, double score) {
+            this.period = period;
+            this.count = count;
+            this.score = score;
+        }
+
+        // Obtener el periodo
+        public int getPeriod() {
+            return period;
+        }
+
+        // Obtener el número de distancias que son múltiplos del periodo
+        public long getCount() {
+            return count;
+        }
+
+        // Obtener el estadístico z del conteo frente al azar; mayor es mejor
+        public double getScore() {
+            return score;
+        }
+
+        @Override
+        public String toString() {
+            return "Period: " + period + " | Spacings: " + count + " | Score: " + score;
+        }
+    }
+
+    private final List<Repeat> repeats;
+    // spacingCounts[d]: distancias iguales a d
+    private final int[] spacingCounts;
+    private final long totalSpacings;
+
+    private KasiskiExamination(List<Repeat> repeats, int[] spacingCounts, long totalSpacings) {
+        this.repeats = repeats;
+        this.spacingCounts = spacingCounts;
+        this.totalSpacings = totalSpacings;
+    }
+
+    /**
+     * Examina un texto cifrado.
+     *
+     * @param cipherText La cifra; se ignoran los caracteres fuera del alfabeto y las letras se prueban
+     *                   también en mayúscula.
+     * @param alphabet   El alfabeto del texto cifrado.
+     * @param minLength  La longitud mínima de las secuencias repetidas, al menos 2.
+     * @return El resultado del examen.
+     * @throws IllegalArgumentException Si la longitud mínima es menor que 2.
+     */
+    public static KasiskiExamination examine(String cipherText, Alphabet alphabet, int minLength) {
+        int[] symbols = SubstitutionAttack.cipherSymbols(cipherText, alphabet);
+        return examine(symbols, alphabet.size(), minLength, alphabet);
+    }
+
+    /**
+     * Examina un texto ya convertido en símbolos de 0 a alphabetSize - 1.
+     *
+     * @param alphabet El alfabeto con que se escriben las repeticiones, o null para no escribirlas.
+     */
+    static KasiskiExamination examine(int[] symbols, int alphabetSize, int minLength, Alphabet alphabet) {
+        if (minLength < 2) {
+            throw new IllegalArgumentException("The minimum repeat length must be at least 2.");
+        }
+        int n = symbols.length;
+        int[] spacingCounts = new int[Math.max(1, n)];
+        if (n < 2) {
+            return new KasiskiExamination(List.of(), spacingCounts, 0);
+        }
+        int[] sa = suffixArray(symbols, alphabetSize);
+        int[] lcp = lcpArray(symbols, sa);
+
+        List<Repeat> repeats = new ArrayList<>();
+        long totalSpacings = 0;
+        int i = 1;
+        while (i < n) {
+            if (lcp[i] < minLength) {
+                i++;
+                continue;
+            }
+            // Racha sa[start - 1 .. end - 1] con prefijo común de al menos minLength
+            int start = i;
+            int common = lcp[i];
+            while (i < n && lcp[i] >= minLength) {
+                common = Math.min(common, lcp[i]);
+                i++;
+            }
+            int[] positions = Arrays.copyOfRange(sa, start - 1, i);
+            if (!isLeftMaximal(symbols, positions)) {
+                continue;
+            }
+            Arrays.sort(positions);
+            for (int k = 1; k < positions.length; k++) {
+                spacingCounts[positions[k] - positions[k - 1]]++;
+            }
+            totalSpacings += positions.length - 1;
+            repeats.add(new Repeat(text(symbols, positions[0], common, alphabet), common, positions));
+        }
+        repeats.sort(Comparator.comparingInt(Repeat::getLength).reversed()
+                .thenComparing(Comparator.comparingInt((Repeat r) -> r.positions.length).reversed())
+                .thenComparingInt(r -> r.positions[0]));
+        return new KasiskiExamination(Collections.unmodifiableList(repeats), spacingCounts, totalSpacings);
+    }
+
+    /**
+     * Obtiene las secuencias repetidas, de la más larga a la más corta y, a igual longitud, de la más a la
+     * menos frecuente.
+     */
+    public List<Repeat> getRepeats() {
+        return repeats;
+    }
+
+    // Obtener el número total de distancias entre apariciones consecutivas
+    public long getTotalSpacings() {
+        return totalSpacings;
+    }
+
+    /**
+     * Cuenta las distancias que son múltiplos de un periodo, en O(n / period).
+     *
+     * @param period El periodo, positivo.
+     * @return El número de distancias divisibles por el periodo.
+     */
+    public long countDivisible(int period) {
+        long count = 0;
+        for (int spacing = period; spacing < spacingCounts.length; spacing += period) {
+            count += spacingCounts[spacing];
+        }
+        return count;
+    }
+
+    /**
+     * Histograma de factores: para cada periodo de 2 a maxPeriod, las distancias que divide, ordenado por
+     * el exceso sobre las que dividiría por azar (una de cada period) medido como estadístico z. Así los
+     * factores pequeños, que dividen muchas distancias de cualquier texto, no tapan al periodo real.
+     *
+     * @param maxPeriod El periodo máximo.
+     * @return Los periodos, de más a menos probable.
+     */
+    public List<Factor> rankFactors(int maxPeriod) {
+        List<Factor> factors = new ArrayList<>();
+        for (int period = 2; period <= maxPeriod && period < spacingCounts.length; period++) {
+            long count = countDivisible(period);
+            double chance = 1.0 / period;
+            double expected = totalSpacings * chance;
+            double score = totalSpacings == 0 ? 0.0
+                    : (count - expected) / Math.sqrt(expected * (1.0 - chance));
+            factors.add(new Factor(period, count, score));
+        }
+        factors.sort(Comparator.comparingDouble(Factor::getScore).reversed().thenComparingInt(Factor::getPeriod));
+        return factors;
+    }
+
+    // -------------------- ARREGLO DE SUFIJOS --------------------
+
+    /**
+     * Arreglo de sufijos por duplicación de prefijos: en cada ronda los sufijos se ordenan por el par
+     * (clase de los primeros k símbolos, clase de los k siguientes) con dos ordenamientos por conteo, y
+     * se termina en cuanto todas las clases son distintas.
+     */
+    private static int[] suffixArray(int[] symbols, int alphabetSize) {
+        int n = symbols.length;
+        int[] sa = new int[n];
+        int[] rank = new int[n];
+        int[] tmp = new int[n];
+        int[] count = new int[Math.max(alphabetSize, n) + 1];
+
+        for (int symbol : symbols) {
+            count[symbol + 1]++;
+        }
+        for (int c = 0; c < alphabetSize; c++) {
+            count[c + 1] += count[c];
+        }
+        for (int i = 0; i < n; i++) {
+            sa[count[symbols[i]]++] = i;
+        }
+        int classes = 0;
+        for (int j = 0; j < n; j++) {
+            if (j > 0 && symbols[sa[j]] != symbols[sa[j - 1]]) {
+                classes++;
+            }
+            rank[sa[j]] = classes;
+        }
+        classes++;
+
+        for (int k = 1; classes < n; k <<= 1) {
+            // Orden por la segunda clave: primero los sufijos sin segunda mitad, luego sa desplazado
+            int filled = 0;
+            for (int i = n - k; i < n; i++) {
+                tmp[filled++] = i;
+            }
+            for (int j = 0; j < n; j++) {
+                if (sa[j] >= k) {
+                    tmp[filled++] = sa[j] - k;
+                }
+            }
+            // Orden estable por la primera clave
+            Arrays.fill(count, 0, classes + 1, 0);
+            for (int i = 0; i < n; i++) {
+                count[rank[i] + 1]++;
+            }
+            for (int c = 0; c < classes; c++) {
+                count[c + 1] += count[c];
+            }
+            for (int j = 0; j < n; j++) {
+                int i = tmp[j];
+                sa[count[rank[i]]++] = i;
+            }
+            // Nuevas clases
+            tmp[sa[0]] = 0;
+            classes = 1;
+            for (int j = 1; j < n; j++) {
+                int a = sa[j - 1];
+                int b = sa[j];
+                int secondA = a + k < n ? rank[a + k] : -1;
+                int secondB = b + k < n ? rank[b + k] : -1;
+                if (rank[a] != rank[b] || secondA != secondB) {
+                    classes++;
+                }
+                tmp[b] = classes - 1;
+            }
+            int[] swap = rank;
+            rank = tmp;
+            tmp = swap;
+        }
+        return sa;
+    }
+
+    /**
+     * Arreglo LCP de Kasai: lcp[j] es el prefijo común de los sufijos sa[j - 1] y sa[j], con lcp[0] = 0.
+     */
+    private static int[] lcpArray(int[] symbols, int[] sa) {
+        int n = symbols.length;
+        int[] rank = new int[n];
+        for (int j = 0; j < n; j++) {
+            rank[sa[j]] = j;
+        }
+        int[] lcp = new int[n];
+        int h = 0;
+        for (int i = 0; i < n; i++) {
+            if (rank[i] == 0) {
+                h = 0;
+                continue;
+            }
+            int previous = sa[rank[i] - 1];
+            while (i + h < n && previous + h < n && symbols[i + h] == symbols[previous + h]) {
+                h++;
+            }
+            lcp[rank[i]] = h;
+            if (h > 0) {
+                h--;
+            }
+        }
+        return lcp;
+    }
+
+    /**
+     * Una repetición es maximal por la izquierda si alguna aparición empieza el texto o no todas van
+     * precedidas del mismo símbolo.
+     */
+    private static boolean isLeftMaximal(int[] symbols, int[] positions) {
+        if (positions[0] == 0) {
+            return true;
+        }
+        int before = symbols[positions[0] - 1];
+        for (int position : positions) {
+            if (position == 0 || symbols[position - 1] != before) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String text(int[] symbols, int from, int length, Alphabet alphabet) {
+        if (alphabet == null) {
+            return "";
+        }
+        char[] chars = new char[length];
+        for (int j = 0; j < length; j++) {
+            chars[j] = alphabet.getChar(symbols[from + j]);
+        }
+        return new String(chars);
+    }
+
+    private static int gcd(int a, int b) {
+        while (b != 0) {
+            int t = a % b;
+            a = b;
+            b = t;
+        }
+        return a;
+    }
+}
@@ -0,0 +1,357 @@
+package com.iluncrypt.iluncryptapp.models.attacks;
+
+import com.iluncrypt.iluncryptapp.models.enums.EnglishLetterFrequencyZ26;
+import com.iluncrypt.iluncryptapp.models.enums.FrenchLetterFrequencyZ26;
+import com.iluncrypt.iluncryptapp.models.enums.Language;
+import com.iluncrypt.iluncryptapp.models.enums.PortugueseLetterFrequencyZ26;
+import com.iluncrypt.iluncryptapp.models.enums.SpanishLetterFrequencyZ26;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Modelo estadístico de un idioma sobre las letras A–Z, compartido por todos los ataques.
+ * <p>
+ * Cada {@link Language} se compila una sola vez, al cargar la clase, en tablas planas de tipos
+ * primitivos indexadas por el valor de las letras (A = 0, ..., Z = 25):
+ * </p>
+ * <ul>
+ *   <li><b>Monogramas:</b> probabilidades normalizadas de los enums {@code *LetterFrequencyZ26} y sus
+ *       logaritmos, junto con el índice de coincidencia esperado de un texto del idioma.</li>
+ *   <li><b>Bigramas y trigramas:</b> logaritmos de la probabilidad de los 26² y 26³ n-gramas,
+ *       indexados por {@code (a·26 + b)·26 + c}. Los n-gramas más frecuentes del idioma toman su
+ *       frecuencia publicada y el resto de la masa se reparte como una cadena de Markov sobre el orden
+ *       inferior, de modo que ningún n-grama tiene probabilidad nula.</li>
+ * </ul>
+ * Los arreglos devueltos son compartidos entre hilos y no deben modificarse; puntuar un texto con ellos
+ * no hace búsquedas en mapas ni crea objetos.
+ */
+public final class LanguageModel {
+    /** Número de letras del modelo. */
+    public static final int LETTERS = 26;
+    // Probabilidad mínima de una letra, para que su logaritmo sea finito
+    private static final double MIN_PROBABILITY = 1e-4;
+
+    private static final Map<Language, LanguageModel> MODELS = new EnumMap<>(Language.class);
+
+    static {
+        for (Language language : Language.values()) {
+            MODELS.put(language, new LanguageModel(language));
+        }
+    }
+
+    private final Language language;
+    private final double[] probabilities;
+    private final double[] logProbabilities;
+    private final double expectedIC;
+    private final float[] bigramLogProbabilities;
+    private final float[] trigramLogProbabilities;
+    private final boolean[] commonBigrams;
+    private final boolean[] commonTrigrams;
+
+    private LanguageModel(Language language) {
+        this.language = language;
+        this.probabilities = letterProbabilities(language);
+        this.logProbabilities = new double[LETTERS];
+        for (int i = 0; i < LETTERS; i++) {
+            logProbabilities[i] = Math.log(Math.max(probabilities[i], MIN_PROBABILITY));
+        }
+        this.expectedIC = expectedIC(language);
+
+        this.commonBigrams = new boolean[LETTERS * LETTERS];
+        this.commonTrigrams = new boolean[LETTERS * LETTERS * LETTERS];
+        double[] bigrams = bigramProbabilities(probabilities, parse(commonBigrams(language), 2, commonBigrams));
+        double[] trigrams = trigramProbabilities(probabilities, bigrams, parse(commonTrigrams(language), 3, commonTrigrams));
+        this.bigramLogProbabilities = toLog(bigrams);
+        this.trigramLogProbabilities = toLog(trigrams);
+    }
+
+    /**
+     * Obtiene el modelo compilado de un idioma.
+     *
+     * @param language El idioma.
+     * @return El modelo, compartido por todos los llamadores.
+     */
+    public static LanguageModel of(Language language) {
+        return MODELS.get(language);
+    }
+
+    // Obtener el idioma del modelo
+    public Language getLanguage() {
+        return language;
+    }
+
+    /**
+     * Obtiene la probabilidad de cada letra, normalizada para que sumen 1.
+     *
+     * @return Arreglo compartido de {@link #LETTERS} probabilidades; no debe modificarse.
+     */
+    public double[] getProbabilities() {
+        return probabilities;
+    }
+
+    /**
+     * Obtiene el logaritmo natural de la probabilidad de cada letra, acotado inferiormente para que sea
+     * finito.
+     *
+     * @return Arreglo compartido de {@link #LETTERS} valores; no debe modificarse.
+     */
+    public double[] getLogProbabilities() {
+        return logProbabilities;
+    }
+
+    // Obtener el índice de coincidencia esperado para un texto del idioma
+    public double getExpectedIC() {
+        return expectedIC;
+    }
+
+    /**
+     * Obtiene el logaritmo natural de la probabilidad de cada bigrama, indexado por {@code a·26 + b}.
+     *
+     * @return Arreglo compartido de 26² valores; no debe modificarse.
+     */
+    public float[] getBigramLogProbabilities() {
+        return bigramLogProbabilities;
+    }
+
+    /**
+     * Obtiene el logaritmo natural de la probabilidad de cada trigrama, indexado por
+     * {@code (a·26 + b)·26 + c}.
+     *
+     * @return Arreglo compartido de 26³ valores; no debe modificarse.
+     */
+    public float[] getTrigramLogProbabilities() {
+        return trigramLogProbabilities;
+    }
+
+    // Indica si el bigrama a·26 + b está entre los más frecuentes del idioma
+    public boolean isCommonBigram(int index) {
+        return commonBigrams[index];
+    }
+
+    // Indica si el trigrama (a·26 + b)·26 + c está entre los más frecuentes del idioma
+    public boolean isCommonTrigram(int index) {
+        return commonTrigrams[index];
+    }
+
+    /**
+     * Convierte una letra en su índice en las tablas.
+     *
+     * @param c Un carácter cualquiera.
+     * @return El valor de la letra (A = 0, ..., Z = 25), sin distinguir mayúsculas, o -1 si no es una
+     *         letra A–Z.
+     */
+    public static int letterIndex(char c) {
+        if (c >= 'A' && c <= 'Z') {
+            return c - 'A';
+        }
+        if (c >= 'a' && c <= 'z') {
+            return c - 'a';
+        }
+        return -1;
+    }
+
+    /**
+     * Cuenta las letras A–Z de un texto, sin distinguir mayúsculas e ignorando el resto de caracteres.
+     *
+     * @param text   El texto.
+     * @param counts Arreglo de {@link #LETTERS} contadores al que se suman las apariciones.
+     * @return El número de letras contadas.
+     */
+    public static int countLetters(CharSequence text, int[] counts) {
+        int total = 0;
+        for (int i = 0, length = text.length(); i < length; i++) {
+            int letter = letterIndex(text.charAt(i));
+            if (letter >= 0) {
+                counts[letter]++;
+                total++;
+            }
+        }
+        return total;
+    }
+
+    // -------------------- CONSTRUCCIÓN DE LAS TABLAS --------------------
+
+    private static double[] letterProbabilities(Language language) {
+        double[] frequencies = new double[LETTERS];
+        switch (language) {
+            case SPANISH -> {
+                for (SpanishLetterFrequencyZ26 letter : SpanishLetterFrequencyZ26.values()) {
+                    frequencies[letter.name().charAt(0) - 'A'] = letter.getProbability();
+                }
+            }
+            case FRENCH -> {
+                for (FrenchLetterFrequencyZ26 letter : FrenchLetterFrequencyZ26.values()) {
+                    frequencies[letter.name().charAt(0) - 'A'] = letter.getProbability();
+                }
+            }
+            case PORTUGUESE -> {
+                for (PortugueseLetterFrequencyZ26 letter : PortugueseLetterFrequencyZ26.values()) {
+                    frequencies[letter.name().charAt(0) - 'A'] = letter.getProbability();
+                }
+            }
+            default -> {
+                for (EnglishLetterFrequencyZ26 letter : EnglishLetterFrequencyZ26.values()) {
+                    frequencies[letter.name().charAt(0) - 'A'] = letter.getProbability();
+                }
+            }
+        }
+        return normalize(frequencies);
+    }
+
+    /**
+     * Índice de coincidencia medido en textos del idioma. Σ p² sobre la tabla de monogramas lo
+     * subestima, porque las tablas publicadas suavizan las letras más frecuentes.
+     */
+    private static double expectedIC(Language language) {
+        return switch (language) {
+            case SPANISH -> 0.0775;
+            case FRENCH -> 0.0778;
+            case PORTUGUESE -> 0.0745;
+            default -> 0.0667;
+        };
+    }
+
+    /**
+     * Reparte la masa que no cubren los bigramas conocidos entre el resto, en proporción a p(a)·p(b).
+     */
+    private static double[] bigramProbabilities(double[] letters, double[] known) {
+        double[] bigrams = new double[LETTERS * LETTERS];
+        for (int a = 0; a < LETTERS; a++) {
+            for (int b = 0; b < LETTERS; b++) {
+                bigrams[a * LETTERS + b] = letters[a] * letters[b];
+            }
+        }
+        return merge(known, bigrams);
+    }
+
+    /**
+     * Reparte la masa que no cubren los trigramas conocidos entre el resto, en proporción a
+     * p(ab)·p(bc)/p(b), la probabilidad de la cadena de Markov de los bigramas.
+     */
+    private static double[] trigramProbabilities(double[] letters, double[] bigrams, double[] known) {
+        double[] trigrams = new double[LETTERS * LETTERS * LETTERS];
+        for (int ab = 0; ab < LETTERS * LETTERS; ab++) {
+            int b = ab % LETTERS;
+            double middle = Math.max(letters[b], MIN_PROBABILITY);
+            for (int c = 0; c < LETTERS; c++) {
+                trigrams[ab * LETTERS + c] = bigrams[ab] * bigrams[b * LETTERS + c] / middle;
+            }
+        }
+        return merge(known, trigrams);
+    }
+
+    /**
+     * Combina las probabilidades conocidas con una estimación para los demás n-gramas, que reciben
+     * juntos la masa restante.
+     */
+    private static double[] merge(double[] known, double[] estimate) {
+        double knownMass = 0.0;
+        double estimateMass = 0.0;
+        for (int i = 0; i < known.length; i++) {
+            if (known[i] > 0) {
+                knownMass += known[i];
+            } else {
+                estimateMass += estimate[i];
+            }
+        }
+        double scale = Math.max(1.0 - knownMass, 0.0) / estimateMass;
+        double[] result = new double[known.length];
+        for (int i = 0; i < known.length; i++) {
+            result[i] = known[i] > 0 ? known[i] : estimate[i] * scale;
+        }
+        return normalize(result);
+    }
+
+    /**
+     * Lee una lista "NGRAMA porcentaje ..." en una tabla de probabilidades y marca sus n-gramas como
+     * frecuentes.
+     */
+    private static double[] parse(String table, int n, boolean[] common) {
+        double[] probabilities = new double[common.length];
+        String[] tokens = table.trim().split("\\s+");
+        for (int i = 0; i < tokens.length; i += 2) {
+            int index = 0;
+            for (int j = 0; j < n; j++) {
+                index = index * LETTERS + tokens[i].charAt(j) - 'A';
+            }
+            probabilities[index] = Double.parseDouble(tokens[i + 1]) / 100.0;
+            common[index] = true;
+        }
+        return probabilities;
+    }
+
+    private static double[] normalize(double[] values) {
+        double total = 0.0;
+        for (double v : values) {
+            total += v;
+        }
+        double[] result = new double[values.length];
+        for (int i = 0; i < values.length; i++) {
+            result[i] = values[i] / total;
+        }
+        return result;
+    }
+
+    private static float[] toLog(double[] probabilities) {
+        float[] logs = new float[probabilities.length];
+        for (int i = 0; i < probabilities.length; i++) {
+            logs[i] = (float) Math.log(probabilities[i]);
+        }
+        return logs;
+    }
+
+    // -------------------- N-GRAMAS MÁS FRECUENTES (porcentaje aproximado sobre el total) --------------------
+
+    private static String commonBigrams(Language language) {
+        return switch (language) {
+            case SPANISH -> """
+                    DE 2.57 ES 2.30 EN 2.26 EL 1.90 LA 1.84 OS 1.75 UE 1.57 AR 1.47 RA 1.45 RE 1.41
+                    ER 1.40 AS 1.38 ON 1.33 ST 1.25 AD 1.20 AL 1.18 OR 1.13 TA 1.10 CO 1.08 NT 1.05
+                    SE 1.03 TE 1.00 QU 0.96 AN 0.95 DO 0.92 NA 0.88 CI 0.85 IO 0.82 PO 0.78 LO 0.76
+                    """;
+            case FRENCH -> """
+                    ES 3.05 LE 2.22 DE 2.17 EN 2.12 RE 2.09 NT 1.97 ON 1.64 ER 1.63 TE 1.55 EL 1.46
+                    AN 1.45 SE 1.38 ET 1.33 LA 1.31 AI 1.25 IT 1.20 ME 1.18 OU 1.14 EM 1.10 IE 1.05
+                    NE 1.02 QU 0.99 UR 0.95 ED 0.92 AR 0.90 IS 0.88 TI 0.85 US 0.83 RA 0.80 CE 0.78
+                    """;
+            case PORTUGUESE -> """
+                    DE 2.35 RA 1.90 ES 1.85 OS 1.80 AS 1.75 DO 1.65 AR 1.57 CO 1.55 EN 1.50 QU 1.45
+                    ER 1.43 DA 1.40 RE 1.38 CA 1.30 TA 1.28 SE 1.25 NT 1.22 MA 1.18 UE 1.15 TE 1.12
+                    OR 1.10 AD 1.05 OD 1.00 NA 0.98 EM 0.95 AO 0.92 AM 0.90 IS 0.88 ST 0.85 IA 0.82
+                    """;
+            default -> """
+                    TH 3.56 HE 3.07 IN 2.43 ER 2.05 AN 1.99 RE 1.85 ON 1.76 AT 1.49 EN 1.45 ND 1.35
+                    TI 1.34 ES 1.34 OR 1.28 TE 1.20 OF 1.17 ED 1.17 IS 1.13 IT 1.12 AL 1.09 AR 1.07
+                    ST 1.05 TO 1.04 NT 1.04 NG 0.95 SE 0.93 HA 0.93 AS 0.87 OU 0.87 IO 0.83 LE 0.83
+                    VE 0.83 CO 0.79 ME 0.79 DE 0.76 HI 0.76 RI 0.73 RO 0.73 IC 0.70 NE 0.69 EA 0.69
+                    """;
+        };
+    }
+
+    private static String commonTrigrams(Language language) {
+        return switch (language) {
+            case SPANISH -> """
+                    QUE 1.10 ENT 0.60 DEL 0.55 LOS 0.52 EDE 0.50 CON 0.48 LAS 0.46 ION 0.45 ADO 0.44
+                    EST 0.43 NTE 0.42 ELA 0.40 ARA 0.38 PAR 0.36 OSE 0.35 CIO 0.34 ESE 0.33 UNA 0.32
+                    POR 0.31 ODE 0.30 RES 0.30 ALA 0.29 ERA 0.28 SDE 0.28 STA 0.27 ENE 0.27
+                    """;
+            case FRENCH -> """
+                    ENT 0.90 LES 0.80 EDE 0.63 DES 0.61 QUE 0.61 AIT 0.54 LLE 0.51 SDE 0.51 ION 0.48
+                    EME 0.47 ELA 0.44 RES 0.43 MEN 0.42 ESE 0.41 DEL 0.40 ANT 0.40 TIO 0.38 PAR 0.36
+                    ESD 0.35 TDE 0.35 ONT 0.34 OUR 0.33 ETA 0.32
+                    """;
+            case PORTUGUESE -> """
+                    QUE 1.00 ENT 0.65 COM 0.55 NTE 0.52 EST 0.50 ADO 0.48 ODE 0.45 ARA 0.43 DOS 0.42
+                    ADE 0.40 DAS 0.38 MEN 0.35 EDE 0.35 OSE 0.33 ASE 0.32 PAR 0.32 ERA 0.30 STA 0.30
+                    CON 0.29 ACA 0.28 ORA 0.28 RES 0.27 ANT 0.27
+                    """;
+            default -> """
+                    THE 1.81 AND 0.73 ING 0.72 ENT 0.42 ION 0.42 HER 0.36 FOR 0.34 THA 0.33 NTH 0.33
+                    INT 0.32 ERE 0.31 TIO 0.31 TER 0.30 EST 0.28 ERS 0.28 ATI 0.26 HAT 0.26 ATE 0.25
+                    ALL 0.25 ETH 0.24 HES 0.24 VER 0.24 HIS 0.24 OFT 0.22 ITH 0.21 FTH 0.21 STH 0.21
+                    OTH 0.21 RES 0.21 ONT 0.20
+                    """;
+        };
+    }
+}
@@ -0,0 +1,334 @@
+package com.iluncrypt.iluncryptapp.models.attacks;
+
+import com.iluncrypt.iluncryptapp.ResourcesLoader;
+import com.iluncrypt.iluncryptapp.models.enums.Language;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Función de aptitud por n-gramas: la log-verosimilitud de un texto bajo un modelo de n-gramas, es decir,
+ * la suma de los logaritmos de las probabilidades de todos sus n-gramas solapados.
+ * <p>
+ * La tabla es un arreglo denso de {@code float} con una entrada por n-grama, indexado en base
+ * {@code alphabetSize}: {@code ((s0·m + s1)·m + s2)·m + s3} para cuadrigramas. El índice se desplaza sobre
+ * el texto con una resta, una multiplicación y una suma por símbolo, sin divisiones, así que puntuar un
+ * arreglo de símbolos no crea objetos y sólo lee la tabla y el texto. El modelo admite cualquier tamaño
+ * de alfabeto mientras la tabla quepa en un arreglo.
+ * </p>
+ * <p>
+ * Los modelos de los idiomas se construyen a partir de {@link LanguageModel}: monogramas, bigramas y
+ * trigramas se toman tal cual. Los cuadrigramas mezclan las frecuencias medidas de los cuadrigramas más
+ * comunes del idioma (recursos {@code ngrams/quadgrams-<código>.txt}) con la extensión de los trigramas
+ * como cadena de Markov de orden 2, p(abcd) = p(abc)·p(bcd)/p(bc), que da una probabilidad razonable a
+ * los que no aparecen en la lista. Cada modelo se construye la primera vez que se pide y se comparte
+ * entre hilos.
+ * </p>
+ */
+public final class NGramFitness implements TextScorer {
+    /** Orden de los modelos más precisos: cuadrigramas. */
+    public static final int QUADGRAMS = 4;
+
+    // Peso de las frecuencias medidas frente a la extensión de Markov
+    private static final double MEASURED_WEIGHT = 0.7;
+
+    private static final Map<Language, NGramFitness[]> MODELS = new EnumMap<>(Language.class);
+
+    private final int alphabetSize;
+    private final int n;
+    // alphabetSize^(n-1): peso del símbolo que sale de la ventana
+    private final int place;
+    private final float[] table;
+    private final float floor;
+
+    /**
+     * Crea una función de aptitud a partir de una tabla de log-probabilidades.
+     *
+     * @param alphabetSize     El número de símbolos del alfabeto.
+     * @param n                El orden de los n-gramas.
+     * @param logProbabilities La tabla de alphabetSize^n log-probabilidades, indexada en base
+     *                         alphabetSize; se usa sin copiarla y no debe modificarse.
+     * @throws IllegalArgumentException Si el alfabeto o el orden no son positivos o si el tamaño de la
+     *                                  tabla no es alphabetSize^n.
+     */
+    public NGramFitness(int alphabetSize, int n, float[] logProbabilities) {
+        if (alphabetSize <= 0 || n <= 0) {
+            throw new IllegalArgumentException("The alphabet size and the n-gram order must be positive.");
+        }
+        long size = 1;
+        for (int i = 0; i < n && size <= Integer.MAX_VALUE; i++) {
+            size *= alphabetSize;
+        }
+        if (size != logProbabilities.length) {
+            throw new IllegalArgumentException("The table must have " + alphabetSize + "^" + n + " entries.");
+        }
+        this.alphabetSize = alphabetSize;
+        this.n = n;
+        this.place = (int) (size / alphabetSize);
+        this.table = logProbabilities;
+        float min = 0.0f;
+        for (float value : logProbabilities) {
+            min = Math.min(min, value);
+        }
+        this.floor = min;
+    }
+
+    /**
+     * Obtiene el modelo de cuadrigramas de un idioma.
+     *
+     * @param language El idioma.
+     * @return La función de aptitud, compartida por todos los llamadores.
+     */
+    public static NGramFitness of(Language language) {
+        return of(language, QUADGRAMS);
+    }
+
+    /**
+     * Obtiene el modelo de n-gramas de un idioma sobre las letras A–Z.
+     *
+     * @param language El idioma.
+     * @param n        El orden, de 1 a {@link #QUADGRAMS}.
+     * @return La función de aptitud, compartida por todos los llamadores.
+     * @throws IllegalArgumentException Si el orden no está entre 1 y 4.
+     */
+    public static NGramFitness of(Language language, int n) {
+        if (n < 1 || n > QUADGRAMS) {
+            throw new IllegalArgumentException("The n-gram order must be between 1 and " + QUADGRAMS + ".");
+        }
+        synchronized (MODELS) {
+            NGramFitness[] models = MODELS.computeIfAbsent(language, l -> new NGramFitness[QUADGRAMS]);
+            if (models[n - 1] == null) {
+                models[n - 1] = new NGramFitness(LanguageModel.LETTERS, n, languageTable(language, n));
+            }
+            return models[n - 1];
+        }
+    }
+
+    // Obtener el número de símbolos del alfabeto
+    public int getAlphabetSize() {
+        return alphabetSize;
+    }
+
+    // Obtener el orden de los n-gramas
+    public int getN() {
+        return n;
+    }
+
+    /**
+     * Suma las log-probabilidades de los n-gramas de symbols[from, to).
+     *
+     * @param symbols Los símbolos, entre 0 y alphabetSize - 1; no se comprueban.
+     * @param from    Primera posición, incluida.
+     * @param to      Última posición, excluida.
+     * @return La log-verosimilitud del fragmento, o 0 si es más corto que un n-grama.
+     */
+    public double score(int[] symbols, int from, int to) {
+        if (to - from < n) {
+            return 0.0;
+        }
+        int prefix = 0;
+        for (int i = from; i < from + n - 1; i++) {
+            prefix = prefix * alphabetSize + symbols[i];
+        }
+        float[] table = this.table;
+        double total = 0.0;
+        for (int i = from + n - 1, out = from; i < to; i++, out++) {
+            int index = prefix * alphabetSize + symbols[i];
+            total += table[index];
+            prefix = index - symbols[out] * place;
+        }
+        return total;
+    }
+
+    /**
+     * Suma las log-probabilidades de todos los n-gramas de un arreglo de símbolos.
+     *
+     * @see #score(int[], int, int)
+     */
+    public double score(int[] symbols) {
+        return score(symbols, 0, symbols.length);
+    }
+
+    /**
+     * Log-probabilidad media por n-grama de symbols[from, to), comparable entre textos de distinta
+     * longitud.
+     *
+     * @return La media, o la log-probabilidad mínima de la tabla si el fragmento es más corto que un
+     *         n-grama.
+     */
+    public double averageScore(int[] symbols, int from, int to) {
+        int windows = to - from - n + 1;
+        return windows <= 0 ? floor : score(symbols, from, to) / windows;
+    }
+
+    /**
+     * Log-probabilidad media por n-grama de las letras A–Z de un texto, sin distinguir mayúsculas e
+     * ignorando los demás caracteres. No crea objetos.
+     *
+     * @param text El texto.
+     * @return La media, o la log-probabilidad mínima de la tabla si el texto tiene menos de n letras.
+     * @throws IllegalStateException Si el modelo no es de 26 símbolos.
+     */
+    @Override
+    public double score(CharSequence text) {
+        if (alphabetSize != LanguageModel.LETTERS) {
+            throw new IllegalStateException("Only models over A-Z can score text.");
+        }
+        int letters = 0;
+        int index = 0;
+        double total = 0.0;
+        for (int i = 0, length = text.length(); i < length; i++) {
+            int letter = LanguageModel.letterIndex(text.charAt(i));
+            if (letter < 0) {
+                continue;
+            }
+            // El resto conserva las n - 1 últimas letras
+            index = (index % place) * alphabetSize + letter;
+            if (++letters >= n) {
+                total += table[index];
+            }
+        }
+        return letters < n ? floor : total / (letters - n + 1);
+    }
+
+    /**
+     * Convierte las letras A–Z de un texto en símbolos de 0 a 25, sin distinguir mayúsculas y omitiendo
+     * los demás caracteres.
+     *
+     * @param text El texto.
+     * @return Un arreglo nuevo con una entrada por letra.
+     */
+    public static int[] toSymbols(CharSequence text) {
+        int[] symbols = new int[text.length()];
+        int count = 0;
+        for (int i = 0, length = text.length(); i < length; i++) {
+            int letter = LanguageModel.letterIndex(text.charAt(i));
+            if (letter >= 0) {
+                symbols[count++] = letter;
+            }
+        }
+        return count == symbols.length ? symbols : Arrays.copyOf(symbols, count);
+    }
+
+    // -------------------- TABLAS DE LOS IDIOMAS --------------------
+
+    private static float[] languageTable(Language language, int n) {
+        LanguageModel model = LanguageModel.of(language);
+        switch (n) {
+            case 1 -> {
+                double[] logs = model.getLogProbabilities();
+                float[] table = new float[logs.length];
+                for (int i = 0; i < logs.length; i++) {
+                    table[i] = (float) logs[i];
+                }
+                return table;
+            }
+            case 2 -> {
+                return model.getBigramLogProbabilities().clone();
+            }
+            case 3 -> {
+                return model.getTrigramLogProbabilities().clone();
+            }
+            default -> {
+                return quadgramTable(model.getTrigramLogProbabilities(), measuredQuadgrams(language));
+            }
+        }
+    }
+
+    /**
+     * Extiende los trigramas a cuadrigramas, log p(abcd) = log p(abc) + log p(bcd) - log p(bc), con p(bc)
+     * la suma de los trigramas que empiezan por bc, y mezcla el resultado con las frecuencias medidas:
+     * p = w·medida + (1 - w)·Markov. La lista medida sólo tiene los cuadrigramas más comunes y no suma 1;
+     * la masa que le falta se reparte entre los que no aparecen en proporción a Markov, así que las dos
+     * distribuciones, y la mezcla, suman 1.
+     */
+    private static float[] quadgramTable(float[] trigrams, double[] measured) {
+        int m = LanguageModel.LETTERS;
+        double[] pairLogs = new double[m * m];
+        for (int bc = 0; bc < m * m; bc++) {
+            double sum = 0.0;
+            for (int d = 0; d < m; d++) {
+                sum += Math.exp(trigrams[bc * m + d]);
+            }
+            pairLogs[bc] = Math.log(sum);
+        }
+        double[] markov = new double[m * m * m * m];
+        double listed = 0.0;
+        double unlisted = 0.0;
+        for (int abc = 0; abc < m * m * m; abc++) {
+            int bc = abc % (m * m);
+            double head = trigrams[abc] - pairLogs[bc];
+            for (int d = 0; d < m; d++) {
+                int index = abc * m + d;
+                markov[index] = Math.exp(head + trigrams[bc * m + d]);
+                if (measured[index] > 0.0) {
+                    listed += measured[index];
+                } else {
+                    unlisted += markov[index];
+                }
+            }
+        }
+        // Escala de Markov para los cuadrigramas que no están en la lista
+        double rest = unlisted > 0.0 ? Math.max(0.0, 1.0 - listed) / unlisted : 0.0;
+        float[] table = new float[markov.length];
+        for (int i = 0; i < table.length; i++) {
+            double full = measured[i] > 0.0 ? measured[i] : rest * markov[i];
+            table[i] = (float) Math.log(MEASURED_WEIGHT * full + (1.0 - MEASURED_WEIGHT) * markov[i]);
+        }
+        return table;
+    }
+
+    /**
+     * Lee las frecuencias relativas de los cuadrigramas más comunes de un idioma. El recurso tiene una
+     * línea "# total N" con el número de cuadrigramas contados y una línea "ABCD cuenta" por cuadrigrama;
+     * los que no aparecen quedan en 0.
+     *
+     * @throws IllegalStateException Si el recurso no existe o está mal formado.
+     */
+    private static double[] measuredQuadgrams(Language language) {
+        String name = "ngrams/quadgrams-" + language.getCode() + ".txt";
+        InputStream stream = ResourcesLoader.loadStream(name);
+        if (stream == null) {
+            throw new IllegalStateException("Missing n-gram resource: " + name);
+        }
+        int m = LanguageModel.LETTERS;
+        double[] frequencies = new double[m * m * m * m];
+        long total = 0;
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(stream, StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.startsWith("# total ")) {
+                    total = Long.parseLong(line.substring(8).trim());
+                } else if (!line.isBlank() && line.charAt(0) != '#') {
+                    int index = 0;
+                    for (int i = 0; i < QUADGRAMS; i++) {
+                        int letter = LanguageModel.letterIndex(line.charAt(i));
+                        if (letter < 0) {
+                            throw new IllegalStateException("Invalid quadgram in " + name + ": " + line);
+                        }
+                        index = index * m + letter;
+                    }
+                    frequencies[index] = Long.parseLong(line.substring(QUADGRAMS).trim());
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (NumberFormatException | StringIndexOutOfBoundsException e) {
+            throw new IllegalStateException("Malformed n-gram resource: " + name, e);
+        }
+        if (total <= 0) {
+            throw new IllegalStateException("Missing total in n-gram resource: " + name);
+        }
+        for (int i = 0; i < frequencies.length; i++) {
+            frequencies[i] /= total;
+        }
+        return frequencies;
+    }
+}
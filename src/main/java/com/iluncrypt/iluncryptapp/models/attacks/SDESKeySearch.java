@@ -0,0 +1,221 @@
+package com.iluncrypt.iluncryptapp.models.attacks;
+
+import com.iluncrypt.iluncryptapp.models.algorithms.symmetrickey.SDESKey;
+import com.iluncrypt.iluncryptapp.models.enums.Language;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * Búsqueda exhaustiva de la clave de SDES sobre las 1024 claves posibles.
+ * <p>
+ * Cada clave se prueba con sus tablas precompiladas ({@link SDESKey}), así que ninguna prueba crea
+ * cadenas ni descifra el texto completo:
+ * </p>
+ * <ul>
+ *   <li><b>Texto plano conocido:</b> se compara byte a byte el fragmento conocido con el descifrado
+ *       del fragmento correspondiente y se detiene en la primera clave que coincide.</li>
+ *   <li><b>Sólo texto cifrado:</b> como SDES cifra cada byte por separado, el histograma del texto
+ *       descifrado es una permutación del histograma del texto cifrado. Éste se cuenta una sola vez
+ *       y cada clave se puntúa en 256 pasos con un modelo de bytes del idioma, sin importar el
+ *       tamaño del texto.</li>
+ * </ul>
+ * Las claves se reparten entre los hilos del pool común de {@link java.util.concurrent.ForkJoinPool}.
+ */
+public class SDESKeySearch {
+
+    // Proporción aproximada de cada clase de byte en texto natural codificado en ASCII/UTF-8.
+    private static final double LETTER_SHARE = 0.80;
+    private static final double SPACE_SHARE = 0.15;
+    private static final double COMMON_SHARE = 0.04;
+    private static final double PRINTABLE_SHARE = 0.009;
+    private static final double OTHER_SHARE = 0.001;
+    // Proporción de letras minúsculas entre las letras.
+    private static final double LOWERCASE_SHARE = 0.95;
+    private static final String COMMON_SYMBOLS = "0123456789.,;:'\"!?-()\n\r";
+
+    /**
+     * Clave candidata con su puntuación. Mayor puntuación indica mayor probabilidad.
+     */
+    public static class KeyCandidate implements Comparable<KeyCandidate> {
+        private final SDESKey key;
+        private final double score;
+
+        public KeyCandidate(SDESKey key, double score) {
+            this.key = key;
+            this.score = score;
+        }
+
+        // Obtener la clave compilada
+        public SDESKey getKey() {
+            return key;
+        }
+
+        // Obtener la puntuación (log-verosimilitud media por byte en el modo de sólo texto cifrado)
+        public double getScore() {
+            return score;
+        }
+
+        /**
+         * Descifra un texto con esta clave.
+         *
+         * @param ciphertext El texto cifrado.
+         * @return Un arreglo nuevo con el texto descifrado.
+         */
+        public byte[] decrypt(byte[] ciphertext) {
+            byte[] table = key.getDecryptionTable();
+            byte[] plaintext = new byte[ciphertext.length];
+            for (int i = 0; i < ciphertext.length; i++) {
+                plaintext[i] = table[ciphertext[i] & 0xFF];
+            }
+            return plaintext;
+        }
+
+        @Override
+        public int compareTo(KeyCandidate o) {
+            // De mayor a menor puntuación; a igual puntuación, por clave
+            int byScore = Double.compare(o.score, this.score);
+            return byScore != 0 ? byScore : Integer.compare(key.getKey(), o.key.getKey());
+        }
+
+        @Override
+        public String toString() {
+            return "Key: " + key + " | Score: " + score;
+        }
+    }
+
+    /**
+     * Ataque con texto plano conocido: busca una clave que descifre {@code ciphertext[offset..]}
+     * en {@code knownPlaintext}.
+     *
+     * @param ciphertext     El texto cifrado.
+     * @param knownPlaintext El fragmento de texto plano conocido.
+     * @param offset         Posición del fragmento dentro del texto.
+     * @return Una lista con la primera clave (la menor) que coincide, o vacía si ninguna coincide.
+     * @throws IllegalArgumentException Si el fragmento está vacío o no cabe en el texto cifrado.
+     */
+    public static List<KeyCandidate> knownPlaintextAttack(byte[] ciphertext, byte[] knownPlaintext, int offset) {
+        if (knownPlaintext.length == 0) {
+            throw new IllegalArgumentException("The known plaintext cannot be empty.");
+        }
+        if (offset < 0 || offset > ciphertext.length - knownPlaintext.length) {
+            throw new IllegalArgumentException("The known plaintext does not fit in the ciphertext at offset " + offset + ".");
+        }
+        return IntStream.range(0, SDESKey.KEY_COUNT)
+                .parallel()
+                .filter(key -> matches(SDESKey.of(key).getDecryptionTable(), ciphertext, knownPlaintext, offset))
+                .mapToObj(key -> new KeyCandidate(SDESKey.of(key), 1.0))
+                .findFirst()
+                .map(List::of)
+                .orElse(Collections.emptyList());
+    }
+
+    /**
+     * Ataque con texto plano conocido al comienzo del texto cifrado.
+     *
+     * @see #knownPlaintextAttack(byte[], byte[], int)
+     */
+    public static List<KeyCandidate> knownPlaintextAttack(byte[] ciphertext, byte[] knownPlaintext) {
+        return knownPlaintextAttack(ciphertext, knownPlaintext, 0);
+    }
+
+    /**
+     * Ataque con sólo texto cifrado: puntúa las 1024 claves según lo bien que el texto descifrado se
+     * ajusta al idioma.
+     *
+     * @param ciphertext El texto cifrado.
+     * @param language   El idioma esperado del texto plano.
+     * @return Las 1024 claves ordenadas de la más a la menos probable.
+     */
+    public static List<KeyCandidate> ciphertextOnlyAttack(byte[] ciphertext, Language language) {
+        long[] histogram = new long[256];
+        for (byte b : ciphertext) {
+            histogram[b & 0xFF]++;
+        }
+        double[] model = byteLogProbabilities(language);
+        double total = Math.max(1, ciphertext.length);
+
+        List<KeyCandidate> candidates = new ArrayList<>(IntStream.range(0, SDESKey.KEY_COUNT)
+                .parallel()
+                .mapToObj(key -> {
+                    byte[] table = SDESKey.of(key).getDecryptionTable();
+                    double logLikelihood = 0.0;
+                    for (int c = 0; c < 256; c++) {
+                        if (histogram[c] != 0) {
+                            logLikelihood += histogram[c] * model[table[c] & 0xFF];
+                        }
+                    }
+                    return new KeyCandidate(SDESKey.of(key), logLikelihood / total);
+                })
+                .toList());
+        Collections.sort(candidates);
+        return candidates;
+    }
+
+    /**
+     * Comprueba si la tabla descifra el fragmento del texto cifrado en el texto plano conocido.
+     */
+    private static boolean matches(byte[] table, byte[] ciphertext, byte[] knownPlaintext, int offset) {
+        for (int i = 0; i < knownPlaintext.length; i++) {
+            if (table[ciphertext[offset + i] & 0xFF] != knownPlaintext[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Construye el logaritmo de la probabilidad de cada byte en texto del idioma: letras según su
+     * frecuencia (sobre todo en minúscula), espacios, dígitos y puntuación común, el resto de ASCII
+     * imprimible y, con muy poco peso, cualquier otro byte (control o UTF-8 de letras acentuadas).
+     */
+    private static double[] byteLogProbabilities(Language language) {
+        double[] letters = letterFrequencies(language);
+        double letterTotal = 0.0;
+        for (double f : letters) {
+            letterTotal += f;
+        }
+
+        // Primero se reparte cada clase y luego su proporción entre los bytes de la clase
+        double[] p = new double[256];
+        int printable = 0;
+        int other = 0;
+        for (int b = 0; b < 256; b++) {
+            if (b >= 'a' && b <= 'z') {
+                p[b] = LETTER_SHARE * LOWERCASE_SHARE * letters[b - 'a'] / letterTotal;
+            } else if (b >= 'A' && b <= 'Z') {
+                p[b] = LETTER_SHARE * (1 - LOWERCASE_SHARE) * letters[b - 'A'] / letterTotal;
+            } else if (b == ' ') {
+                p[b] = SPACE_SHARE;
+            } else if (COMMON_SYMBOLS.indexOf(b) >= 0) {
+                p[b] = COMMON_SHARE / COMMON_SYMBOLS.length();
+            } else if (b > ' ' && b < 0x7F) {
+                printable++;
+            } else {
+                other++;
+            }
+        }
+        for (int b = 0; b < 256; b++) {
+            if (p[b] == 0.0) {
+                p[b] = b > ' ' && b < 0x7F ? PRINTABLE_SHARE / printable : OTHER_SHARE / other;
+            }
+        }
+        for (int b = 0; b < 256; b++) {
+            p[b] = Math.log(p[b]);
+        }
+        return p;
+    }
+
+    /**
+     * Probabilidades de A–Z del idioma, sin ninguna nula para que el logaritmo sea finito.
+     */
+    private static double[] letterFrequencies(Language language) {
+        double[] frequencies = LanguageModel.of(language).getProbabilities().clone();
+        for (int i = 0; i < frequencies.length; i++) {
+            frequencies[i] = Math.max(frequencies[i], 1e-4);
+        }
+        return frequencies;
+    }
+}
@@ -0,0 +1,440 @@
+package com.iluncrypt.iluncryptapp.models.attacks;
+
+import com.iluncrypt.iluncryptapp.models.Alphabet;
+import com.iluncrypt.iluncryptapp.models.algorithms.classic.SubstitutionCipher;
+import com.iluncrypt.iluncryptapp.models.enums.CaseHandling;
+import com.iluncrypt.iluncryptapp.models.enums.Language;
+import com.iluncrypt.iluncryptapp.models.enums.UnknownCharHandling;
+import com.iluncrypt.iluncryptapp.models.enums.WhitespaceHandling;
+import com.iluncrypt.iluncryptapp.models.keys.SubstitutionKey;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.stream.IntStream;
+
+/**
+ * Ataque con sólo texto cifrado al cifrado por sustitución monoalfabética sobre las letras A–Z.
+ * <p>
+ * Se busca la clave que maximiza la aptitud por cuadrigramas del texto descifrado
+ * ({@link NGramFitness}) con hill-climbing sobre intercambios de dos letras de la clave: cada pasada
+ * prueba los 325 intercambios y acepta los que mejoran, hasta que ninguno mejora.
+ * </p>
+ * <p>
+ * Un intercambio sólo cambia los cuadrigramas que tocan alguna posición de los dos símbolos cifrados
+ * intercambiados, así que sólo éstos se vuelven a puntuar: un índice precalculado guarda, para cada
+ * símbolo, sus posiciones y los cuadrigramas que las contienen, y la diferencia de puntuación se
+ * calcula sobre la unión de las dos listas sin crear objetos. Los reinicios, desde claves aleatorias
+ * salvo el primero, que parte del orden de frecuencias, son independientes y se reparten entre los
+ * hilos del pool común de {@link java.util.concurrent.ForkJoinPool}. La búsqueda termina al agotar los
+ * reinicios o el tiempo, o antes si {@value #CONFIRMATIONS} reinicios llegan a la misma mejor clave.
+ * </p>
+ */
+public final class SubstitutionAttack {
+    /** Reinicios por defecto. */
+    public static final int DEFAULT_RESTARTS = 256;
+    /** Tiempo máximo por defecto, en milisegundos. */
+    public static final long DEFAULT_TIME_LIMIT_MILLIS = 2000;
+    // Reinicios que deben llegar a la mejor clave para darla por encontrada
+    private static final int CONFIRMATIONS = 3;
+    // Candidatos devueltos
+    private static final int MAX_RESULTS = 5;
+    private static final int LETTERS = LanguageModel.LETTERS;
+    private static final int N = NGramFitness.QUADGRAMS;
+
+    /**
+     * Clave encontrada, con su puntuación y el texto descifrado.
+     */
+    public static final class Solution {
+        private final String key;
+        private final double score;
+        private final String plaintext;
+
+        private Solution(String key, double score, String plaintext) {
+            this.key = key;
+            this.score = score;
+            this.plaintext = plaintext;
+        }
+
+        /**
+         * Obtiene la clave en el formato de {@link SubstitutionKey}: los símbolos cifrados en el orden del
+         * alfabeto del texto plano.
+         */
+        public String getKey() {
+            return key;
+        }
+
+        // Obtener la log-probabilidad media por cuadrigrama del texto descifrado
+        public double getScore() {
+            return score;
+        }
+
+        // Obtener el texto descifrado con la clave
+        public String getPlaintext() {
+            return plaintext;
+        }
+
+        @Override
+        public String toString() {
+            return "Key: " + key + " | Score: " + score;
+        }
+    }
+
+    private final NGramFitness fitness;
+    // Símbolos cifrados del texto, entre 0 y 25
+    private final int[] text;
+    // positions[positionStart[c], positionStart[c + 1]) son las posiciones del símbolo c
+    private final int[] positionStart;
+    private final int[] positions;
+    // windows[windowStart[c], windowStart[c + 1]) son, en orden, los cuadrigramas que contienen a c
+    private final int[] windowStart;
+    private final int[] windows;
+    private final long deadline;
+    private final int restarts;
+
+    // Estado compartido por los reinicios, protegido por this
+    private final Map<String, Double> found = new HashMap<>();
+    private double bestScore = Double.NEGATIVE_INFINITY;
+    private String bestKey;
+    private int confirmations;
+
+    private SubstitutionAttack(NGramFitness fitness, int[] text, int restarts, long deadline) {
+        this.fitness = fitness;
+        this.text = text;
+        this.restarts = restarts;
+        this.deadline = deadline;
+
+        positionStart = new int[LETTERS + 1];
+        for (int symbol : text) {
+            positionStart[symbol + 1]++;
+        }
+        for (int c = 0; c < LETTERS; c++) {
+            positionStart[c + 1] += positionStart[c];
+        }
+        positions = new int[text.length];
+        int[] next = positionStart.clone();
+        for (int i = 0; i < text.length; i++) {
+            positions[next[text[i]]++] = i;
+        }
+
+        // Cada cuadrigrama se anota una vez en cada símbolo distinto que contiene
+        int windowCount = Math.max(0, text.length - N + 1);
+        int[] counts = new int[LETTERS];
+        for (int w = 0; w < windowCount; w++) {
+            for (int j = 0; j < N; j++) {
+                if (firstInWindow(w, j)) {
+                    counts[text[w + j]]++;
+                }
+            }
+        }
+        windowStart = new int[LETTERS + 1];
+        for (int c = 0; c < LETTERS; c++) {
+            windowStart[c + 1] = windowStart[c] + counts[c];
+        }
+        windows = new int[windowStart[LETTERS]];
+        next = windowStart.clone();
+        for (int w = 0; w < windowCount; w++) {
+            for (int j = 0; j < N; j++) {
+                if (firstInWindow(w, j)) {
+                    windows[next[text[w + j]]++] = w;
+                }
+            }
+        }
+    }
+
+    private boolean firstInWindow(int window, int offset) {
+        for (int j = 0; j < offset; j++) {
+            if (text[window + j] == text[window + offset]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Ataca un texto cifrado con los reinicios y el tiempo por defecto.
+     *
+     * @see #attack(String, Alphabet, Alphabet, Language, int, long)
+     */
+    public static List<Solution> attack(String cipherText, Alphabet plaintextAlphabet, Alphabet ciphertextAlphabet,
+                                        Language language) {
+        return attack(cipherText, plaintextAlphabet, ciphertextAlphabet, language,
+                DEFAULT_RESTARTS, DEFAULT_TIME_LIMIT_MILLIS);
+    }
+
+    /**
+     * Busca la clave de un texto cifrado por sustitución.
+     *
+     * @param cipherText         El texto cifrado; se ignoran los caracteres fuera del alfabeto cifrado.
+     * @param plaintextAlphabet  El alfabeto del texto plano: las 26 letras A–Z en cualquier orden.
+     * @param ciphertextAlphabet El alfabeto del texto cifrado, de 26 símbolos.
+     * @param language           El idioma del texto plano.
+     * @param restarts           El número máximo de reinicios.
+     * @param timeLimitMillis    El tiempo máximo de la búsqueda, en milisegundos.
+     * @return Hasta cinco claves distintas, de la más a la menos probable, o una lista vacía si el texto
+     *         tiene menos símbolos que un cuadrigrama.
+     * @throws IllegalArgumentException Si los alfabetos no son de 26 letras o el presupuesto no es
+     *                                  positivo.
+     */
+    public static List<Solution> attack(String cipherText, Alphabet plaintextAlphabet, Alphabet ciphertextAlphabet,
+                                        Language language, int restarts, long timeLimitMillis) {
+        int[] plainLetters = plainLetters(plaintextAlphabet);
+        if (ciphertextAlphabet.size() != LETTERS) {
+            throw new IllegalArgumentException("The ciphertext alphabet must have " + LETTERS + " symbols.");
+        }
+        if (restarts <= 0 || timeLimitMillis <= 0) {
+            throw new IllegalArgumentException("The number of restarts and the time limit must be positive.");
+        }
+        int[] text = cipherSymbols(cipherText, ciphertextAlphabet);
+        if (text.length < N) {
+            return List.of();
+        }
+        SubstitutionAttack attack = new SubstitutionAttack(NGramFitness.of(language), text, restarts,
+                System.nanoTime() + timeLimitMillis * 1_000_000L);
+        attack.run(language);
+        return attack.solutions(cipherText, plaintextAlphabet, ciphertextAlphabet, plainLetters);
+    }
+
+    private void run(Language language) {
+        int[] initial = frequencyKey(LanguageModel.of(language));
+        SplittableRandom seeds = new SplittableRandom();
+        long[] restartSeeds = new long[restarts];
+        for (int r = 0; r < restarts; r++) {
+            restartSeeds[r] = seeds.nextLong();
+        }
+        IntStream.range(0, restarts).parallel().forEach(r -> {
+            if (isDone()) {
+                return;
+            }
+            int[] key = r == 0 ? initial.clone() : randomKey(new SplittableRandom(restartSeeds[r]));
+            double score = climb(key);
+            offer(key, score);
+        });
+    }
+
+    /**
+     * Hill-climbing desde una clave: prueba todos los intercambios y acepta los que mejoran hasta que
+     * ninguno mejora o se acaba el tiempo.
+     *
+     * @param key Para cada símbolo cifrado, la letra del texto plano; se modifica hasta el óptimo local.
+     * @return La log-verosimilitud del texto descifrado con la clave final.
+     */
+    private double climb(int[] key) {
+        int[] plain = new int[text.length];
+        for (int i = 0; i < text.length; i++) {
+            plain[i] = key[text[i]];
+        }
+        double score = fitness.score(plain);
+        boolean improved = true;
+        while (improved && System.nanoTime() < deadline) {
+            improved = false;
+            for (int a = 0; a < LETTERS - 1; a++) {
+                for (int b = a + 1; b < LETTERS; b++) {
+                    double delta = trySwap(key, plain, a, b);
+                    if (delta > 0) {
+                        score += delta;
+                        improved = true;
+                    }
+                }
+            }
+        }
+        return score;
+    }
+
+    /**
+     * Intercambia las letras de los símbolos cifrados a y b si mejora la puntuación, volviendo a puntuar
+     * sólo los cuadrigramas que los contienen.
+     *
+     * @return La mejora aplicada, o 0 si el intercambio se ha deshecho.
+     */
+    private double trySwap(int[] key, int[] plain, int a, int b) {
+        if (windowStart[a] == windowStart[a + 1] && windowStart[b] == windowStart[b + 1]) {
+            return 0.0;
+        }
+        double before = unionScore(plain, a, b);
+        swap(key, plain, a, b);
+        double delta = unionScore(plain, a, b) - before;
+        if (delta > 0) {
+            return delta;
+        }
+        swap(key, plain, a, b);
+        return 0.0;
+    }
+
+    private void swap(int[] key, int[] plain, int a, int b) {
+        int letter = key[a];
+        key[a] = key[b];
+        key[b] = letter;
+        for (int p = positionStart[a]; p < positionStart[a + 1]; p++) {
+            plain[positions[p]] = key[a];
+        }
+        for (int p = positionStart[b]; p < positionStart[b + 1]; p++) {
+            plain[positions[p]] = key[b];
+        }
+    }
+
+    /**
+     * Suma la puntuación de los cuadrigramas que contienen a o b, recorriendo las dos listas ordenadas
+     * a la vez para contar una sola vez los que contienen a ambos.
+     */
+    private double unionScore(int[] plain, int a, int b) {
+        int i = windowStart[a];
+        int iEnd = windowStart[a + 1];
+        int j = windowStart[b];
+        int jEnd = windowStart[b + 1];
+        double total = 0.0;
+        while (i < iEnd || j < jEnd) {
+            int w;
+            if (j == jEnd || (i < iEnd && windows[i] < windows[j])) {
+                w = windows[i++];
+            } else if (i == iEnd || windows[j] < windows[i]) {
+                w = windows[j++];
+            } else {
+                w = windows[i++];
+                j++;
+            }
+            total += fitness.score(plain, w, w + N);
+        }
+        return total;
+    }
+
+    private synchronized boolean isDone() {
+        return confirmations >= CONFIRMATIONS || System.nanoTime() >= deadline;
+    }
+
+    private synchronized void offer(int[] key, double score) {
+        String id = keyId(key);
+        found.merge(id, score, Math::max);
+        if (id.equals(bestKey)) {
+            confirmations++;
+        } else if (score > bestScore) {
+            bestScore = score;
+            bestKey = id;
+            confirmations = 1;
+        }
+    }
+
+    // La clave como texto: la letra del texto plano de cada símbolo cifrado
+    private static String keyId(int[] key) {
+        char[] letters = new char[key.length];
+        for (int c = 0; c < key.length; c++) {
+            letters[c] = (char) ('A' + key[c]);
+        }
+        return new String(letters);
+    }
+
+    /**
+     * Construye las mejores claves distintas en el formato de {@link SubstitutionKey} y descifra el
+     * texto con ellas.
+     */
+    private List<Solution> solutions(String cipherText, Alphabet plaintextAlphabet, Alphabet ciphertextAlphabet,
+                                     int[] plainLetters) {
+        List<Map.Entry<String, Double>> best = new ArrayList<>(found.entrySet());
+        best.sort((e1, e2) -> Double.compare(e2.getValue(), e1.getValue()));
+        SubstitutionCipher cipher = new SubstitutionCipher(plaintextAlphabet, ciphertextAlphabet,
+                CaseHandling.IGNORE, UnknownCharHandling.REMOVE, WhitespaceHandling.PRESERVE);
+        int windowCount = Math.max(1, text.length - N + 1);
+        List<Solution> solutions = new ArrayList<>();
+        for (Map.Entry<String, Double> entry : best.subList(0, Math.min(MAX_RESULTS, best.size()))) {
+            String letters = entry.getKey();
+            char[] key = new char[LETTERS];
+            for (int c = 0; c < LETTERS; c++) {
+                int letter = letters.charAt(c) - 'A';
+                for (int x = 0; x < LETTERS; x++) {
+                    if (plainLetters[x] == letter) {
+                        key[x] = ciphertextAlphabet.getChar(c);
+                    }
+                }
+            }
+            SubstitutionKey substitutionKey = new SubstitutionKey(new String(key), ciphertextAlphabet);
+            solutions.add(new Solution(substitutionKey.getKey(), entry.getValue() / windowCount,
+                    cipher.decrypt(cipherText, substitutionKey)));
+        }
+        return solutions;
+    }
+
+    // -------------------- PREPARACIÓN --------------------
+
+    /**
+     * Letra A–Z de cada símbolo del alfabeto del texto plano.
+     *
+     * @throws IllegalArgumentException Si el alfabeto no son las 26 letras A–Z.
+     */
+    static int[] plainLetters(Alphabet plaintextAlphabet) {
+        if (plaintextAlphabet.size() != LETTERS) {
+            throw new IllegalArgumentException("The plaintext alphabet must be the " + LETTERS + " letters A-Z.");
+        }
+        int[] letters = new int[LETTERS];
+        boolean[] seen = new boolean[LETTERS];
+        for (int x = 0; x < LETTERS; x++) {
+            letters[x] = LanguageModel.letterIndex(plaintextAlphabet.getChar(x));
+            if (letters[x] < 0 || seen[letters[x]]) {
+                throw new IllegalArgumentException("The plaintext alphabet must be the " + LETTERS + " letters A-Z.");
+            }
+            seen[letters[x]] = true;
+        }
+        return letters;
+    }
+
+    /**
+     * Índice en el alfabeto cifrado de cada símbolo del texto, probando también en mayúscula y omitiendo
+     * los que no pertenecen al alfabeto.
+     */
+    static int[] cipherSymbols(String cipherText, Alphabet ciphertextAlphabet) {
+        int[] symbols = new int[cipherText.length()];
+        int count = 0;
+        for (int i = 0; i < cipherText.length(); i++) {
+            char c = cipherText.charAt(i);
+            int index = ciphertextAlphabet.getIndex(c);
+            if (index < 0) {
+                index = ciphertextAlphabet.getIndex(Character.toUpperCase(c));
+            }
+            if (index >= 0) {
+                symbols[count++] = index;
+            }
+        }
+        return Arrays.copyOf(symbols, count);
+    }
+
+    /**
+     * Clave inicial que asigna al i-ésimo símbolo cifrado más frecuente la i-ésima letra más probable del
+     * idioma.
+     */
+    private int[] frequencyKey(LanguageModel model) {
+        int[] counts = new int[LETTERS];
+        for (int symbol : text) {
+            counts[symbol]++;
+        }
+        double[] probabilities = model.getProbabilities();
+        Integer[] symbols = new Integer[LETTERS];
+        Integer[] letters = new Integer[LETTERS];
+        for (int i = 0; i < LETTERS; i++) {
+            symbols[i] = i;
+            letters[i] = i;
+        }
+        Arrays.sort(symbols, (x, y) -> Integer.compare(counts[y], counts[x]));
+        Arrays.sort(letters, (x, y) -> Double.compare(probabilities[y], probabilities[x]));
+        int[] key = new int[LETTERS];
+        for (int i = 0; i < LETTERS; i++) {
+            key[symbols[i]] = letters[i];
+        }
+        return key;
+    }
+
+    private static int[] randomKey(SplittableRandom random) {
+        int[] key = new int[LETTERS];
+        for (int i = 0; i < LETTERS; i++) {
+            key[i] = i;
+        }
+        for (int i = LETTERS - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int letter = key[i];
+            key[i] = key[j];
+            key[j] = letter;
+        }
+        return key;
+    }
+}
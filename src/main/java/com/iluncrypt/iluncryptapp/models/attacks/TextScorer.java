@@ -0,0 +1,18 @@
+package com.iluncrypt.iluncryptapp.models.attacks;
+
+/**
+ * Función de puntuación de un texto candidato, que los ataques usan para ordenar sus candidatos.
+ * Un score mayor indica un texto más parecido al idioma esperado.
+ *
+ * @see NGramFitness
+ */
+@FunctionalInterface
+public interface TextScorer {
+    /**
+     * Puntúa un texto.
+     *
+     * @param text El texto candidato, con cualquier carácter.
+     * @return El score del texto; mayor es mejor.
+     */
+    double score(CharSequence text);
+}
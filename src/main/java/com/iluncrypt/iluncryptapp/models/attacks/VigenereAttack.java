@@ -0,0 +1,487 @@
+package com.iluncrypt.iluncryptapp.models.attacks;
+
+import com.iluncrypt.iluncryptapp.models.Alphabet;
+import com.iluncrypt.iluncryptapp.models.enums.Language;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+/**
+ * Ataque con sólo texto cifrado al cifrado de Vigenère sobre alfabetos de 26 símbolos cuyo texto plano
+ * son las letras A–Z.
+ * <p>
+ * Primero se ordenan los periodos posibles, hasta cientos, combinando dos indicios: el índice de
+ * coincidencia de las columnas, calculado con una sola pasada de conteo por periodo sobre un arreglo de
+ * enteros, y el método de Kasiski ({@link KasiskiExamination}), las distancias entre secuencias
+ * repetidas que son múltiplos del periodo. Ambos se miden como estadísticos z frente a un texto
+ * aleatorio, que descartan los divisores del periodo real y puntúan sus múltiplos por debajo de él.
+ * </p>
+ * <p>
+ * Para cada periodo probado, la log-verosimilitud de cada desplazamiento de cada columna se obtiene de
+ * sus conteos y de una tabla de correlación precalculada con las log-probabilidades de las letras del
+ * idioma. Las claves se recorren de mejor a peor suma de log-verosimilitudes con una búsqueda best-first
+ * sobre un montículo, que genera cada combinación una sola vez y se detiene tras las
+ * {@value #KEYS_PER_PERIOD} mejores, en lugar de enumerar las 26^k combinaciones. Esas claves se
+ * reordenan con la aptitud por cuadrigramas del texto descifrado ({@link NGramFitness}) y las mejores
+ * se afinan columna a columna, cambiando el desplazamiento de una columna cuando mejora la aptitud; así
+ * se corrigen las columnas de claves largas con pocas letras, donde las frecuencias no bastan.
+ * </p>
+ */
+public final class VigenereAttack {
+    /** Periodo máximo por defecto. */
+    public static final int DEFAULT_MAX_KEY_LENGTH = 256;
+    // Letras mínimas por columna para que el índice de coincidencia de un periodo sea fiable
+    private static final int MIN_COLUMN_LETTERS = 5;
+    // Periodos, de mejor a peor, cuyas claves se buscan
+    private static final int PERIODS_TRIED = 3;
+    // Claves de cada periodo que se reordenan por cuadrigramas
+    private static final int KEYS_PER_PERIOD = 100;
+    // Letras del texto sobre las que se reordenan las claves
+    private static final int RESCORED_LETTERS = 16384;
+    private static final int LETTERS = LanguageModel.LETTERS;
+
+    /**
+     * Periodo candidato con sus indicios.
+     */
+    public static final class Period {
+        private final int length;
+        private final double indexOfCoincidence;
+        private final double kasiskiSupport;
+        private final double score;
+
+        private Period(int length, double indexOfCoincidence, double kasiskiSupport, double score) {
+            this.length = length;
+            this.indexOfCoincidence = indexOfCoincidence;
+            this.kasiskiSupport = kasiskiSupport;
+            this.score = score;
+        }
+
+        // Obtener la longitud de la clave
+        public int getLength() {
+            return length;
+        }
+
+        // Obtener el índice de coincidencia medio de las columnas
+        public double getIndexOfCoincidence() {
+            return indexOfCoincidence;
+        }
+
+        // Obtener la fracción de distancias de Kasiski que son múltiplos del periodo
+        public double getKasiskiSupport() {
+            return kasiskiSupport;
+        }
+
+        // Obtener la puntuación combinada (suma de los estadísticos z); mayor es mejor
+        public double getScore() {
+            return score;
+        }
+
+        @Override
+        public String toString() {
+            return "Period: " + length + " | IC: " + indexOfCoincidence + " | Kasiski: " + kasiskiSupport;
+        }
+    }
+
+    /**
+     * Clave encontrada con su puntuación.
+     */
+    public static final class Solution {
+        private final int[] shifts;
+        private final double score;
+
+        private Solution(int[] shifts, double score) {
+            this.shifts = shifts;
+            this.score = score;
+        }
+
+        /**
+         * Obtiene el desplazamiento de cada posición del periodo, con el periodo más corto que da el mismo
+         * descifrado.
+         */
+        public int[] getShifts() {
+            return shifts.clone();
+        }
+
+        /**
+         * Obtiene la clave escrita con los símbolos de un alfabeto, el del texto plano para
+         * {@link com.iluncrypt.iluncryptapp.models.keys.VigenereKey}.
+         */
+        public String getKeyword(Alphabet keyAlphabet) {
+            char[] keyword = new char[shifts.length];
+            for (int i = 0; i < shifts.length; i++) {
+                keyword[i] = keyAlphabet.getChar(shifts[i]);
+            }
+            return new String(keyword);
+        }
+
+        // Obtener la log-probabilidad media por cuadrigrama del texto descifrado
+        public double getScore() {
+            return score;
+        }
+
+        @Override
+        public String toString() {
+            return "Shifts: " + Arrays.toString(shifts) + " | Score: " + score;
+        }
+    }
+
+    private VigenereAttack() {
+    }
+
+    /**
+     * Ordena los periodos de un texto cifrado de Vigenère de más a menos probable.
+     *
+     * @param cipherText         El texto cifrado; se ignoran los caracteres fuera del alfabeto cifrado.
+     * @param ciphertextAlphabet El alfabeto del texto cifrado, de 26 símbolos.
+     * @param maxKeyLength       El periodo máximo; se limita además a una columna de
+     *                           {@value #MIN_COLUMN_LETTERS} letras por posición de la clave.
+     * @return Los periodos de 1 al máximo, de mejor a peor, o una lista vacía si el texto no tiene letras.
+     * @throws IllegalArgumentException Si el alfabeto no tiene 26 símbolos o el máximo no es positivo.
+     */
+    public static List<Period> rankPeriods(String cipherText, Alphabet ciphertextAlphabet, int maxKeyLength) {
+        if (ciphertextAlphabet.size() != LETTERS) {
+            throw new IllegalArgumentException("The ciphertext alphabet must have " + LETTERS + " symbols.");
+        }
+        int[] text = SubstitutionAttack.cipherSymbols(cipherText, ciphertextAlphabet);
+        return rankPeriods(text, examine(text), checkMaxKeyLength(maxKeyLength));
+    }
+
+    /**
+     * Igual que {@link #rankPeriods(String, Alphabet, int)}, pero con un examen de Kasiski ya hecho, para
+     * quien también lo muestra y no quiere repetirlo.
+     *
+     * @param kasiski El examen del mismo texto con el mismo alfabeto y
+     *                {@link KasiskiExamination#DEFAULT_MIN_LENGTH}.
+     * @throws IllegalArgumentException Si el alfabeto no tiene 26 símbolos o el máximo no es positivo.
+     */
+    public static List<Period> rankPeriods(String cipherText, Alphabet ciphertextAlphabet, KasiskiExamination kasiski,
+                                           int maxKeyLength) {
+        if (ciphertextAlphabet.size() != LETTERS) {
+            throw new IllegalArgumentException("The ciphertext alphabet must have " + LETTERS + " symbols.");
+        }
+        return rankPeriods(SubstitutionAttack.cipherSymbols(cipherText, ciphertextAlphabet), kasiski,
+                checkMaxKeyLength(maxKeyLength));
+    }
+
+    /**
+     * Busca la clave de un texto cifrado con Vigenère.
+     *
+     * @param cipherText         El texto cifrado; se ignoran los caracteres fuera del alfabeto cifrado.
+     * @param plaintextAlphabet  El alfabeto del texto plano: las 26 letras A–Z en cualquier orden.
+     * @param ciphertextAlphabet El alfabeto del texto cifrado, de 26 símbolos.
+     * @param language           El idioma del texto plano.
+     * @param maxKeyLength       El periodo máximo.
+     * @param maxResults         El número máximo de claves devueltas.
+     * @return Las mejores claves distintas, de la más a la menos probable, o una lista vacía si el texto
+     *         no tiene letras.
+     * @throws IllegalArgumentException Si los alfabetos no son de 26 letras o los máximos no son
+     *                                  positivos.
+     */
+    public static List<Solution> attack(String cipherText, Alphabet plaintextAlphabet, Alphabet ciphertextAlphabet,
+                                        Language language, int maxKeyLength, int maxResults) {
+        int[] plainLetters = SubstitutionAttack.plainLetters(plaintextAlphabet);
+        if (ciphertextAlphabet.size() != LETTERS) {
+            throw new IllegalArgumentException("The ciphertext alphabet must have " + LETTERS + " symbols.");
+        }
+        if (maxResults <= 0) {
+            throw new IllegalArgumentException("The number of results must be positive.");
+        }
+        int[] text = SubstitutionAttack.cipherSymbols(cipherText, ciphertextAlphabet);
+        List<Period> periods = rankPeriods(text, examine(text), checkMaxKeyLength(maxKeyLength));
+        if (periods.isEmpty()) {
+            return List.of();
+        }
+
+        double[][] correlation = correlation(LanguageModel.of(language).getLogProbabilities(), plainLetters);
+        NGramFitness fitness = NGramFitness.of(language);
+        int rescored = Math.min(text.length, RESCORED_LETTERS);
+        int[] plain = new int[rescored];
+        Set<String> seen = new HashSet<>();
+        List<Solution> solutions = new ArrayList<>();
+        for (Period period : periods.subList(0, Math.min(PERIODS_TRIED, periods.size()))) {
+            for (int[] shifts : bestKeys(text, period.getLength(), correlation, KEYS_PER_PERIOD)) {
+                int[] key = shortestPeriod(shifts);
+                if (!seen.add(Arrays.toString(key))) {
+                    continue;
+                }
+                for (int i = 0; i < rescored; i++) {
+                    int x = text[i] - key[i % key.length];
+                    plain[i] = plainLetters[x < 0 ? x + LETTERS : x];
+                }
+                solutions.add(new Solution(key, fitness.averageScore(plain, 0, rescored)));
+            }
+        }
+        solutions.sort(Comparator.comparingDouble(Solution::getScore).reversed());
+
+        // Afinar las mejores, descartar las que acaban en la misma clave y completar con las siguientes
+        seen.clear();
+        List<Solution> refined = new ArrayList<>();
+        for (Solution solution : solutions.subList(0, Math.min(maxResults, solutions.size()))) {
+            int[] key = solution.shifts.clone();
+            double score = refine(text, rescored, key, plainLetters, fitness, plain);
+            key = shortestPeriod(key);
+            if (seen.add(Arrays.toString(key))) {
+                refined.add(new Solution(key, score / Math.max(1, rescored - NGramFitness.QUADGRAMS + 1)));
+            }
+        }
+        for (int i = maxResults; i < solutions.size() && refined.size() < maxResults; i++) {
+            if (seen.add(Arrays.toString(solutions.get(i).shifts))) {
+                refined.add(solutions.get(i));
+            }
+        }
+        refined.sort(Comparator.comparingDouble(Solution::getScore).reversed());
+        return refined;
+    }
+
+    private static int checkMaxKeyLength(int maxKeyLength) {
+        if (maxKeyLength <= 0) {
+            throw new IllegalArgumentException("The maximum key length must be positive.");
+        }
+        return maxKeyLength;
+    }
+
+    // -------------------- PERIODO --------------------
+
+    /**
+     * Puntúa cada periodo con la suma de dos estadísticos z frente a un texto aleatorio: el de los pares
+     * de letras iguales en las columnas y el de las distancias de Kasiski divisibles por el periodo. Con
+     * columnas más cortas ambos crecen más despacio, así que los múltiplos del periodo real puntúan
+     * menos que él y los periodos largos con columnas de pocas letras no ganan por ruido.
+     */
+    static List<Period> rankPeriods(int[] text, KasiskiExamination kasiski, int maxKeyLength) {
+        int n = text.length;
+        if (n == 0) {
+            return List.of();
+        }
+        int maxPeriod = Math.max(1, Math.min(maxKeyLength, n / MIN_COLUMN_LETTERS));
+        double randomIC = 1.0 / LETTERS;
+        long totalSpacings = kasiski.getTotalSpacings();
+
+        int[] counts = new int[maxPeriod * LETTERS];
+        List<Period> periods = new ArrayList<>(maxPeriod);
+        for (int period = 1; period <= maxPeriod; period++) {
+            Arrays.fill(counts, 0, period * LETTERS, 0);
+            // Una pasada: la columna avanza con la posición sin divisiones
+            for (int i = 0, column = 0; i < n; i++) {
+                counts[column + text[i]]++;
+                column += LETTERS;
+                if (column == period * LETTERS) {
+                    column = 0;
+                }
+            }
+            long pairs = 0;
+            long possiblePairs = 0;
+            for (int column = 0; column < period; column++) {
+                long length = n / period + (column < n % period ? 1 : 0);
+                possiblePairs += length * (length - 1);
+                for (int symbol = 0; symbol < LETTERS; symbol++) {
+                    long count = counts[column * LETTERS + symbol];
+                    pairs += count * (count - 1);
+                }
+            }
+            double ic = possiblePairs == 0 ? 0.0 : (double) pairs / possiblePairs;
+            // Los pares ordenados cuentan dos veces cada coincidencia: varianza ~ 2·media
+            double expectedPairs = possiblePairs * randomIC;
+            double icZ = expectedPairs == 0 ? 0.0 : (pairs - expectedPairs) / Math.sqrt(2.0 * expectedPairs);
+
+            double support = 0.0;
+            double kasiskiZ = 0.0;
+            if (totalSpacings > 0) {
+                long divisible = kasiski.countDivisible(period);
+                support = (double) divisible / totalSpacings;
+                // Por azar, una de cada period distancias es múltiplo del periodo
+                if (period > 1) {
+                    double chance = 1.0 / period;
+                    kasiskiZ = (divisible - totalSpacings * chance)
+                            / Math.sqrt(totalSpacings * chance * (1.0 - chance));
+                }
+            }
+            periods.add(new Period(period, ic, support, icZ + kasiskiZ));
+        }
+        periods.sort(Comparator.comparingDouble(Period::getScore).reversed()
+                .thenComparingInt(Period::getLength));
+        return periods;
+    }
+
+    private static KasiskiExamination examine(int[] text) {
+        return KasiskiExamination.examine(text, LETTERS, KasiskiExamination.DEFAULT_MIN_LENGTH, null);
+    }
+
+    // -------------------- CLAVES --------------------
+
+    /**
+     * correlation[k][y] es la log-probabilidad de la letra que se obtiene al descifrar el símbolo y con el
+     * desplazamiento k.
+     */
+    private static double[][] correlation(double[] logProbabilities, int[] plainLetters) {
+        double[][] correlation = new double[LETTERS][LETTERS];
+        for (int k = 0; k < LETTERS; k++) {
+            for (int y = 0; y < LETTERS; y++) {
+                correlation[k][y] = logProbabilities[plainLetters[(y - k + LETTERS) % LETTERS]];
+            }
+        }
+        return correlation;
+    }
+
+    /**
+     * Nodo de la búsqueda best-first: una combinación que se diferencia de su padre en que la columna
+     * column usa el siguiente desplazamiento de su lista ordenada.
+     */
+    private record Node(double cost, Node parent, int column) {
+    }
+
+    /**
+     * Genera las mejores claves de un periodo por suma de log-verosimilitudes de las columnas, de mejor a
+     * peor. Cada columna ordena sus 26 desplazamientos por la pérdida respecto al mejor; una combinación
+     * sólo avanza columnas iguales o posteriores a la última que avanzó, de modo que cada una se genera
+     * una sola vez y el montículo crece a lo sumo period nodos por clave extraída.
+     */
+    private static List<int[]> bestKeys(int[] text, int period, double[][] correlation, int count) {
+        int[] counts = new int[period * LETTERS];
+        for (int i = 0, column = 0; i < text.length; i++) {
+            counts[column + text[i]]++;
+            column += LETTERS;
+            if (column == period * LETTERS) {
+                column = 0;
+            }
+        }
+        // order[c][r]: desplazamiento r-ésimo de la columna c; loss[c][r]: su pérdida
+        int[][] order = new int[period][];
+        double[][] loss = new double[period][LETTERS];
+        for (int c = 0; c < period; c++) {
+            double[] likelihood = new double[LETTERS];
+            for (int k = 0; k < LETTERS; k++) {
+                double sum = 0.0;
+                for (int y = 0; y < LETTERS; y++) {
+                    sum += counts[c * LETTERS + y] * correlation[k][y];
+                }
+                likelihood[k] = sum;
+            }
+            Integer[] shifts = new Integer[LETTERS];
+            for (int k = 0; k < LETTERS; k++) {
+                shifts[k] = k;
+            }
+            Arrays.sort(shifts, (a, b) -> Double.compare(likelihood[b], likelihood[a]));
+            order[c] = new int[LETTERS];
+            for (int r = 0; r < LETTERS; r++) {
+                order[c][r] = shifts[r];
+                loss[c][r] = likelihood[shifts[0]] - likelihood[shifts[r]];
+            }
+        }
+
+        List<int[]> keys = new ArrayList<>(count);
+        PriorityQueue<Node> heap = new PriorityQueue<>(Comparator.comparingDouble(Node::cost));
+        heap.add(new Node(0.0, null, 0));
+        int[] ranks = new int[period];
+        while (!heap.isEmpty() && keys.size() < count) {
+            Node node = heap.poll();
+            Arrays.fill(ranks, 0);
+            for (Node step = node; step.parent() != null; step = step.parent()) {
+                ranks[step.column()]++;
+            }
+            int[] key = new int[period];
+            for (int c = 0; c < period; c++) {
+                key[c] = order[c][ranks[c]];
+            }
+            keys.add(key);
+            for (int c = node.column(); c < period; c++) {
+                if (ranks[c] + 1 < LETTERS) {
+                    double cost = node.cost() + loss[c][ranks[c] + 1] - loss[c][ranks[c]];
+                    heap.add(new Node(cost, node, c));
+                }
+            }
+        }
+        return keys;
+    }
+
+    /**
+     * Hill-climbing por columnas: prueba los 26 desplazamientos de cada columna y se queda con el que da
+     * más aptitud, volviendo a puntuar sólo los cuadrigramas que tocan la columna, hasta que ninguna
+     * columna cambia.
+     *
+     * @param key   La clave, que se modifica.
+     * @param plain Un arreglo de al menos length símbolos para el texto descifrado.
+     * @return La log-verosimilitud de text[0, length) descifrado con la clave final.
+     */
+    private static double refine(int[] text, int length, int[] key, int[] plainLetters, NGramFitness fitness,
+                                 int[] plain) {
+        int period = key.length;
+        for (int i = 0; i < length; i++) {
+            int x = text[i] - key[i % period];
+            plain[i] = plainLetters[x < 0 ? x + LETTERS : x];
+        }
+        boolean improved = true;
+        for (int pass = 0; improved && pass < LETTERS; pass++) {
+            improved = false;
+            for (int c = 0; c < period && c < length; c++) {
+                int original = key[c];
+                int best = original;
+                double bestScore = columnScore(text, length, c, period, original, plainLetters, fitness, plain);
+                for (int shift = 0; shift < LETTERS; shift++) {
+                    if (shift == original) {
+                        continue;
+                    }
+                    double score = columnScore(text, length, c, period, shift, plainLetters, fitness, plain);
+                    if (score > bestScore) {
+                        bestScore = score;
+                        best = shift;
+                    }
+                }
+                columnScore(text, length, c, period, best, plainLetters, fitness, plain);
+                if (best != original) {
+                    key[c] = best;
+                    improved = true;
+                }
+            }
+        }
+        return fitness.score(plain, 0, length);
+    }
+
+    /**
+     * Descifra la columna c con un desplazamiento y suma la puntuación de los cuadrigramas que la tocan,
+     * contando una sola vez los que contienen varias posiciones de la columna.
+     */
+    private static double columnScore(int[] text, int length, int c, int period, int shift, int[] plainLetters,
+                                      NGramFitness fitness, int[] plain) {
+        for (int i = c; i < length; i += period) {
+            int x = text[i] - shift;
+            plain[i] = plainLetters[x < 0 ? x + LETTERS : x];
+        }
+        int n = NGramFitness.QUADGRAMS;
+        double total = 0.0;
+        int next = 0;
+        for (int i = c; i < length; i += period) {
+            int end = Math.min(i, length - n);
+            for (int w = Math.max(next, i - n + 1); w <= end; w++) {
+                total += fitness.score(plain, w, w + n);
+            }
+            next = Math.max(next, end + 1);
+        }
+        return total;
+    }
+
+    /**
+     * Reduce una clave a su periodo más corto, p. ej. "ABAB" a "AB", que descifra igual.
+     */
+    private static int[] shortestPeriod(int[] shifts) {
+        int length = shifts.length;
+        for (int p = 1; p < length; p++) {
+            if (length % p != 0) {
+                continue;
+            }
+            boolean repeats = true;
+            for (int i = p; i < length && repeats; i++) {
+                repeats = shifts[i] == shifts[i - p];
+            }
+            if (repeats) {
+                return Arrays.copyOf(shifts, p);
+            }
+        }
+        return shifts;
+    }
+}
@@ -9,8 +9,9 @@ import com.iluncrypt.iluncryptapp.models.Alphabet;
  * - **b**: The additive key.
  *
  * This class ensures that 'a' is valid by checking its greatest common divisor (GCD) with the alphabet size.
+ * Shift keys (a = 1) and multiplicative keys (b = 0) are special cases.
  */
-public class AffineKey extends Key {
+public class AffineKey extends MonoalphabeticKey {
     private final int a;
     private final int b;
 
@@ -41,6 +42,27 @@ public class AffineKey extends Key {
         }
     }
 
+    /**
+     * Compiles E(x) = (ax + b) mod m for every symbol index x.
+     *
+     * @return The encryption table.
+     */
+    @Override
+    protected int[] buildForwardTable() {
+        int m = keyAlphabet.size();
+        int[] table = new int[m];
+        int step = Math.floorMod(a, m);
+        int value = Math.floorMod(b, m);
+        for (int x = 0; x < m; x++) {
+            table[x] = value;
+            value += step;
+            if (value >= m) {
+                value -= m;
+            }
+        }
+        return table;
+    }
+
     /**
      * Computes the greatest common divisor (GCD) of two numbers using recursion.
      *
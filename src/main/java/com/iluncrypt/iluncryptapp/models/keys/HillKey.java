@@ -0,0 +1,213 @@
+package com.iluncrypt.iluncryptapp.models.keys;
+
+import com.iluncrypt.iluncryptapp.models.Alphabet;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Represents a key for the Hill Cipher: an n×n matrix K that is invertible modulo the alphabet size m.
+ * Encryption computes C = K·P (mod m) for every block P of n symbols and decryption P = K⁻¹·C (mod m).
+ * <p>
+ * Both matrices are reduced modulo m and stored flattened in row-major order, ready for the cipher kernel.
+ * </p>
+ */
+public class HillKey extends Key {
+    private static final Pattern NUMBER = Pattern.compile("-?\\d+");
+
+    private final int size;
+    private final int[] matrix;
+    private final int[] inverse;
+
+    /**
+     * Constructs a HillKey from a square matrix.
+     *
+     * @param matrix      The key matrix (n rows of n values).
+     * @param keyAlphabet The alphabet the matrix works on; its size is the modulus.
+     * @throws IllegalArgumentException If the matrix is not square or not invertible modulo the alphabet size.
+     */
+    public HillKey(int[][] matrix, Alphabet keyAlphabet) {
+        super(keyAlphabet);
+        this.size = matrix.length;
+        this.matrix = new int[size * size];
+        for (int i = 0; i < size; i++) {
+            if (matrix[i].length != size) {
+                throw new IllegalArgumentException("The key matrix must be square.");
+            }
+            for (int j = 0; j < size; j++) {
+                this.matrix[i * size + j] = Math.floorMod(matrix[i][j], keyAlphabet.size());
+            }
+        }
+        validate();
+        this.inverse = invert(this.matrix, size, keyAlphabet.size());
+    }
+
+    /**
+     * Constructs a HillKey from its textual form, e.g. "[[3, 3], [2, 5]]" or "3 3 2 5".
+     * The values are read row by row and their count must be a perfect square.
+     *
+     * @param matrixStr   The matrix as text.
+     * @param keyAlphabet The alphabet the matrix works on; its size is the modulus.
+     * @throws IllegalArgumentException If the text does not describe a valid key matrix.
+     */
+    public HillKey(String matrixStr, Alphabet keyAlphabet) {
+        this(parseMatrix(matrixStr), keyAlphabet);
+    }
+
+    /**
+     * Parses every integer of the text into a square matrix.
+     */
+    private static int[][] parseMatrix(String matrixStr) {
+        Matcher matcher = NUMBER.matcher(matrixStr);
+        int[] values = new int[matrixStr.length()];
+        int count = 0;
+        while (matcher.find()) {
+            try {
+                values[count++] = Integer.parseInt(matcher.group());
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("The key matrix contains a value out of range: " + matcher.group());
+            }
+        }
+        int n = (int) Math.sqrt(count);
+        if (count == 0 || n * n != count) {
+            throw new IllegalArgumentException("The number of values does not form a square matrix.");
+        }
+        int[][] matrix = new int[n][n];
+        for (int i = 0; i < n; i++) {
+            System.arraycopy(values, i * n, matrix[i], 0, n);
+        }
+        return matrix;
+    }
+
+    /**
+     * Validates that the matrix is not empty and is invertible modulo the alphabet size,
+     * i.e. that its determinant is coprime with it.
+     *
+     * @throws IllegalArgumentException If the matrix cannot be used as a key.
+     */
+    @Override
+    public void validate() {
+        if (size == 0) {
+            throw new IllegalArgumentException("The key matrix cannot be empty.");
+        }
+        invert(matrix, size, keyAlphabet.size());
+    }
+
+    /**
+     * Computes the inverse of a matrix modulo m with Gauss–Jordan elimination. Pivots are built with
+     * Euclid's algorithm on rows, so it works for any modulus, prime or not.
+     *
+     * @throws IllegalArgumentException If the matrix is not invertible modulo m.
+     */
+    private static int[] invert(int[] source, int n, int m) {
+        long[][] a = new long[n][2 * n];
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                a[i][j] = source[i * n + j];
+            }
+            a[i][n + i] = 1 % m;
+        }
+
+        for (int col = 0; col < n; col++) {
+            // Reduce the column below the pivot to zeros: the pivot ends up as the gcd of the column.
+            for (int row = col + 1; row < n; row++) {
+                while (a[row][col] != 0) {
+                    long q = a[col][col] / a[row][col];
+                    for (int k = 0; k < 2 * n; k++) {
+                        a[col][k] = Math.floorMod(a[col][k] - q * a[row][k], m);
+                    }
+                    long[] swap = a[col];
+                    a[col] = a[row];
+                    a[row] = swap;
+                }
+            }
+            long pivotInverse = modInverse(a[col][col], m);
+            for (int k = 0; k < 2 * n; k++) {
+                a[col][k] = a[col][k] * pivotInverse % m;
+            }
+            for (int row = 0; row < n; row++) {
+                long factor = a[row][col];
+                if (row != col && factor != 0) {
+                    for (int k = 0; k < 2 * n; k++) {
+                        a[row][k] = Math.floorMod(a[row][k] - factor * a[col][k], m);
+                    }
+                }
+            }
+        }
+
+        int[] result = new int[n * n];
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                result[i * n + j] = (int) a[i][n + j];
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Finds the inverse of a modulo m with the extended Euclidean algorithm.
+     *
+     * @throws IllegalArgumentException If a is not invertible modulo m.
+     */
+    private static long modInverse(long a, long m) {
+        long oldR = a, r = m;
+        long oldS = 1, s = 0;
+        while (r != 0) {
+            long q = oldR / r;
+            long t = oldR - q * r;
+            oldR = r;
+            r = t;
+            t = oldS - q * s;
+            oldS = s;
+            s = t;
+        }
+        if (oldR != 1) {
+            throw new IllegalArgumentException("The key matrix is not invertible modulo " + m + ".");
+        }
+        return Math.floorMod(oldS, m);
+    }
+
+    // Get the dimension n of the key matrix (the block size)
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * Gets K reduced modulo m, flattened row by row. The returned array is shared and must not be modified.
+     *
+     * @return The encryption matrix.
+     */
+    public int[] getMatrix() {
+        return matrix;
+    }
+
+    /**
+     * Gets K⁻¹ modulo m, flattened row by row. The returned array is shared and must not be modified.
+     *
+     * @return The decryption matrix.
+     */
+    public int[] getInverseMatrix() {
+        return inverse;
+    }
+
+    /**
+     * Returns the matrix in the format "[[a, b], [c, d]]".
+     *
+     * @return The formatted key matrix.
+     */
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("[");
+        for (int i = 0; i < size; i++) {
+            sb.append(i == 0 ? "[" : ", [");
+            for (int j = 0; j < size; j++) {
+                if (j > 0) {
+                    sb.append(", ");
+                }
+                sb.append(matrix[i * size + j]);
+            }
+            sb.append(']');
+        }
+        return sb.append(']').toString();
+    }
+}
@@ -0,0 +1,86 @@
+package com.iluncrypt.iluncryptapp.models.keys;
+
+import com.iluncrypt.iluncryptapp.models.Alphabet;
+
+import java.util.Arrays;
+
+/**
+ * Base class for keys of monoalphabetic ciphers (shift, multiplicative, affine, substitution).
+ * <p>
+ * Whatever its parameters, such a key is just a permutation of the symbol indices 0..m-1.
+ * The permutation is compiled once, on first use, into a forward table (encryption) and an
+ * inverse table (decryption) that are cached on the key, so encrypting or decrypting becomes a
+ * table lookup per symbol and no modular arithmetic is repeated across calls.
+ * </p>
+ */
+public abstract class MonoalphabeticKey extends Key {
+    private volatile int[] forwardTable;
+    private volatile int[] inverseTable;
+
+    /**
+     * Constructs a monoalphabetic key associated with a specific alphabet.
+     *
+     * @param keyAlphabet The alphabet used for this key.
+     */
+    protected MonoalphabeticKey(Alphabet keyAlphabet) {
+        super(keyAlphabet);
+    }
+
+    /**
+     * Computes the image of every symbol index, i.e. {@code table[x] = E(x)} for 0 ≤ x &lt; m.
+     *
+     * @return A new array of size m describing the encryption permutation.
+     */
+    protected abstract int[] buildForwardTable();
+
+    /**
+     * Gets the compiled encryption table. The returned array is shared and must not be modified.
+     *
+     * @return The table mapping each plaintext index to its ciphertext index.
+     */
+    public final int[] getForwardTable() {
+        int[] table = forwardTable;
+        if (table == null) {
+            compile();
+            table = forwardTable;
+        }
+        return table;
+    }
+
+    /**
+     * Gets the compiled decryption table. The returned array is shared and must not be modified.
+     *
+     * @return The table mapping each ciphertext index to its plaintext index.
+     */
+    public final int[] getInverseTable() {
+        int[] table = inverseTable;
+        if (table == null) {
+            compile();
+            table = inverseTable;
+        }
+        return table;
+    }
+
+    /**
+     * Builds both tables, checking that the forward table really is a permutation.
+     *
+     * @throws IllegalArgumentException If the key does not define a bijection of the alphabet.
+     */
+    private synchronized void compile() {
+        if (forwardTable != null) {
+            return;
+        }
+        int[] forward = buildForwardTable();
+        int[] inverse = new int[forward.length];
+        Arrays.fill(inverse, -1);
+        for (int x = 0; x < forward.length; x++) {
+            int y = forward[x];
+            if (y < 0 || y >= forward.length || inverse[y] != -1) {
+                throw new IllegalArgumentException("The key does not define a one-to-one mapping of the alphabet.");
+            }
+            inverse[y] = x;
+        }
+        inverseTable = inverse;
+        forwardTable = forward;
+    }
+}
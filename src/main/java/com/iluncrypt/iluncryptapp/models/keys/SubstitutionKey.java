@@ -0,0 +1,73 @@
+package com.iluncrypt.iluncryptapp.models.keys;
+
+import com.iluncrypt.iluncryptapp.models.Alphabet;
+
+/**
+ * Represents a key for the general Substitution Cipher.
+ * The key lists, in plaintext alphabet order, the ciphertext symbol that replaces each plaintext
+ * symbol (e.g. "DQGZTYXWVRSMKNFJBOHELCPIAU" for A–Z). It must therefore be a rearrangement of the
+ * key alphabet, which is the ciphertext alphabet.
+ */
+public class SubstitutionKey extends MonoalphabeticKey {
+    private final String key;
+
+    /**
+     * Constructs a SubstitutionKey from its textual form.
+     *
+     * @param key         The ciphertext symbols, in plaintext alphabet order.
+     * @param keyAlphabet The ciphertext alphabet the symbols belong to.
+     * @throws IllegalArgumentException If the key is not a rearrangement of the alphabet.
+     */
+    public SubstitutionKey(String key, Alphabet keyAlphabet) {
+        super(keyAlphabet);
+        this.key = key;
+        validate();
+    }
+
+    /**
+     * Validates that every symbol of the alphabet appears exactly once in the key.
+     *
+     * @throws IllegalArgumentException If the key is not a rearrangement of the alphabet.
+     */
+    @Override
+    public void validate() {
+        if (key.length() != keyAlphabet.size()) {
+            throw new IllegalArgumentException("The key must contain exactly " + keyAlphabet.size() + " characters.");
+        }
+        boolean[] seen = new boolean[keyAlphabet.size()];
+        for (int i = 0; i < key.length(); i++) {
+            int index = keyAlphabet.getIndex(key.charAt(i));
+            if (index < 0) {
+                throw new IllegalArgumentException("The character '" + key.charAt(i) + "' is not part of the alphabet.");
+            }
+            if (seen[index]) {
+                throw new IllegalArgumentException("The character '" + key.charAt(i) + "' is repeated in the key.");
+            }
+            seen[index] = true;
+        }
+    }
+
+    /**
+     * Compiles the key into the index of the ciphertext symbol of every plaintext index.
+     *
+     * @return The encryption table.
+     */
+    @Override
+    protected int[] buildForwardTable() {
+        int[] table = new int[key.length()];
+        for (int x = 0; x < table.length; x++) {
+            table[x] = keyAlphabet.getIndex(key.charAt(x));
+        }
+        return table;
+    }
+
+    // Get the key as typed by the user
+    public String getKey() {
+        return key;
+    }
+
+    @Override
+    public String toString() {
+        return key;
+    }
+}
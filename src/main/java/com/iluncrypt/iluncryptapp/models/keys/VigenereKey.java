@@ -0,0 +1,70 @@
+package com.iluncrypt.iluncryptapp.models.keys;
+
+import com.iluncrypt.iluncryptapp.models.Alphabet;
+
+/**
+ * Represents a key for the Vigenère Cipher: a keyword whose symbols give, by their index in the
+ * alphabet, the shift applied to each position of the text (e.g. "LEMON" for A–Z).
+ */
+public class VigenereKey extends Key {
+    private final String keyword;
+    private final int[] shifts;
+
+    /**
+     * Constructs a VigenereKey from a keyword.
+     *
+     * @param keyword     The keyword. Every character must belong to the alphabet.
+     * @param keyAlphabet The alphabet of the keyword (the plaintext alphabet).
+     * @throws IllegalArgumentException If the keyword is empty or contains characters outside the alphabet.
+     */
+    public VigenereKey(String keyword, Alphabet keyAlphabet) {
+        super(keyAlphabet);
+        this.keyword = keyword;
+        validate();
+        this.shifts = new int[keyword.length()];
+        for (int i = 0; i < shifts.length; i++) {
+            shifts[i] = keyAlphabet.getIndex(keyword.charAt(i));
+        }
+    }
+
+    /**
+     * Validates that the keyword is not empty and only uses symbols of the alphabet.
+     *
+     * @throws IllegalArgumentException If the keyword is not valid.
+     */
+    @Override
+    public void validate() {
+        if (keyword == null || keyword.isEmpty()) {
+            throw new IllegalArgumentException("The keyword cannot be empty.");
+        }
+        for (int i = 0; i < keyword.length(); i++) {
+            if (!keyAlphabet.isValidChar(keyword.charAt(i))) {
+                throw new IllegalArgumentException("The character '" + keyword.charAt(i) + "' is not part of the alphabet.");
+            }
+        }
+    }
+
+    /**
+     * Gets the shift of every position of the key period. The returned array is shared and must not be modified.
+     *
+     * @return The index of each keyword symbol in the alphabet.
+     */
+    public int[] getShifts() {
+        return shifts;
+    }
+
+    // Get the length of the key period
+    public int getPeriod() {
+        return shifts.length;
+    }
+
+    // Get the keyword
+    public String getKeyword() {
+        return keyword;
+    }
+
+    @Override
+    public String toString() {
+        return keyword;
+    }
+}
@@ -0,0 +1,221 @@
+package com.iluncrypt.iluncryptapp.utils;
+
+import java.lang.ref.Cleaner;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Pool of direct {@link ByteBuffer}s shared by the file, image and hashing code, so that repeated jobs
+ * reuse the same off-heap memory instead of allocating large buffers every time.
+ * <p>
+ * Buffers are grouped in power-of-two size classes from {@link #MIN_CLASS_SIZE} to
+ * {@link #MAX_CLASS_SIZE}; a request is served by the smallest class that fits it. Larger requests get
+ * a heap buffer that is not pooled, as a single direct buffer of that size would only be freed by the
+ * garbage collector. Released buffers are kept for reuse as long as the pool holds less than its
+ * retention limit, and dropped otherwise.
+ * </p>
+ * <p>
+ * Buffers are handed out as {@link Lease}s, to be closed with try-with-resources once the buffer is no
+ * longer used. A lease that becomes unreachable without being closed is counted as a leak and its buffer
+ * is not reused; with the system property {@code iluncrypt.bufferpool.trackLeaks=true}, the stack
+ * trace of the acquisition of every leaked lease is printed to the standard error.
+ * </p>
+ */
+public final class BufferPool {
+    /** Size of the smallest class: 4 KiB. */
+    public static final int MIN_CLASS_SIZE = 1 << 12;
+    /** Size of the largest class: 64 MiB. */
+    public static final int MAX_CLASS_SIZE = 1 << 26;
+    /** Default limit of the memory kept by the shared pool: 256 MiB. */
+    public static final long DEFAULT_MAX_RETAINED = 1L << 28;
+    // Buffers kept per class, whatever the retention limit
+    private static final int MAX_BUFFERS_PER_CLASS = 64;
+    private static final int MIN_CLASS_SHIFT = Integer.numberOfTrailingZeros(MIN_CLASS_SIZE);
+    private static final int CLASS_COUNT = Integer.numberOfTrailingZeros(MAX_CLASS_SIZE) - MIN_CLASS_SHIFT + 1;
+
+    private static final Cleaner CLEANER = Cleaner.create();
+    private static final BufferPool SHARED = new BufferPool(DEFAULT_MAX_RETAINED,
+            Boolean.getBoolean("iluncrypt.bufferpool.trackLeaks"));
+
+    private final List<BlockingQueue<ByteBuffer>> classes;
+    private final long maxRetained;
+    private final boolean trackLeaks;
+
+    private final AtomicLong acquisitions = new AtomicLong();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong allocations = new AtomicLong();
+    private final AtomicLong allocatedBytes = new AtomicLong();
+    private final AtomicLong retainedBytes = new AtomicLong();
+    private final AtomicLong outstanding = new AtomicLong();
+    private final AtomicLong leaks = new AtomicLong();
+
+    /**
+     * Creates a pool.
+     *
+     * @param maxRetained The most memory kept for reuse, in bytes.
+     * @param trackLeaks  Whether to record where every lease is acquired, to report leaks.
+     */
+    public BufferPool(long maxRetained, boolean trackLeaks) {
+        if (maxRetained < 0) {
+            throw new IllegalArgumentException("Retention limit must not be negative.");
+        }
+        this.maxRetained = maxRetained;
+        this.trackLeaks = trackLeaks;
+        this.classes = new ArrayList<>(CLASS_COUNT);
+        for (int i = 0; i < CLASS_COUNT; i++) {
+            long perClass = maxRetained >> (MIN_CLASS_SHIFT + i);
+            classes.add(new ArrayBlockingQueue<>((int) Math.max(1, Math.min(MAX_BUFFERS_PER_CLASS, perClass))));
+        }
+    }
+
+    // Get the pool shared by the whole application
+    public static BufferPool shared() {
+        return SHARED;
+    }
+
+    /**
+     * Acquires a buffer of at least the requested size.
+     *
+     * @param size The number of bytes needed.
+     * @return A lease on a buffer whose position is 0 and whose limit is {@code size}, in big-endian order.
+     * @throws IllegalArgumentException If the size is negative.
+     */
+    public Lease acquire(int size) {
+        if (size < 0) {
+            throw new IllegalArgumentException("Buffer size must not be negative.");
+        }
+        acquisitions.incrementAndGet();
+        int sizeClass = sizeClass(size);
+        ByteBuffer buffer = sizeClass >= 0 ? classes.get(sizeClass).poll() : null;
+        if (buffer != null) {
+            hits.incrementAndGet();
+            retainedBytes.addAndGet(-buffer.capacity());
+        } else {
+            buffer = sizeClass >= 0 ? ByteBuffer.allocateDirect(MIN_CLASS_SIZE << sizeClass) : ByteBuffer.allocate(size);
+            allocations.incrementAndGet();
+            allocatedBytes.addAndGet(buffer.capacity());
+        }
+        outstanding.incrementAndGet();
+        buffer.clear().limit(size);
+        return new Lease(buffer, sizeClass, trackLeaks ? new Throwable("Buffer acquired here") : null);
+    }
+
+    /**
+     * Drops every buffer kept for reuse, e.g. after a large batch. Leases in use are not affected.
+     */
+    public void clear() {
+        for (BlockingQueue<ByteBuffer> buffers : classes) {
+            ByteBuffer buffer;
+            while ((buffer = buffers.poll()) != null) {
+                retainedBytes.addAndGet(-buffer.capacity());
+            }
+        }
+    }
+
+    // Get a snapshot of the usage of the pool
+    public Metrics getMetrics() {
+        return new Metrics(acquisitions.get(), hits.get(), allocations.get(), allocatedBytes.get(),
+                retainedBytes.get(), outstanding.get(), leaks.get());
+    }
+
+    private void release(ByteBuffer buffer, int sizeClass) {
+        outstanding.decrementAndGet();
+        if (sizeClass < 0) {
+            return;
+        }
+        buffer.clear().order(ByteOrder.BIG_ENDIAN);
+        // Over the limit, or the class is full: the buffer is left to the garbage collector
+        if (retainedBytes.addAndGet(buffer.capacity()) > maxRetained || !classes.get(sizeClass).offer(buffer)) {
+            retainedBytes.addAndGet(-buffer.capacity());
+        }
+    }
+
+    private void leaked(Throwable site) {
+        outstanding.decrementAndGet();
+        leaks.incrementAndGet();
+        if (site != null) {
+            System.err.println("Warning: a pooled buffer was not released.");
+            site.printStackTrace();
+        }
+    }
+
+    /**
+     * Gets the size class serving a request, or -1 if it is larger than {@link #MAX_CLASS_SIZE}.
+     */
+    private static int sizeClass(int size) {
+        if (size > MAX_CLASS_SIZE) {
+            return -1;
+        }
+        if (size <= MIN_CLASS_SIZE) {
+            return 0;
+        }
+        return 32 - Integer.numberOfLeadingZeros(size - 1) - MIN_CLASS_SHIFT;
+    }
+
+    /**
+     * A buffer borrowed from the pool, returned to it when closed. The buffer must not be used once the
+     * lease is closed.
+     */
+    public final class Lease implements AutoCloseable {
+        private final ByteBuffer buffer;
+        private final int sizeClass;
+        private final AtomicBoolean released = new AtomicBoolean();
+        private final Cleaner.Cleanable cleanable;
+
+        private Lease(ByteBuffer buffer, int sizeClass, Throwable site) {
+            this.buffer = buffer;
+            this.sizeClass = sizeClass;
+            this.cleanable = CLEANER.register(this, new LeakCheck(BufferPool.this, released, site));
+        }
+
+        // Get the leased buffer
+        public ByteBuffer buffer() {
+            return buffer;
+        }
+
+        @Override
+        public void close() {
+            if (released.compareAndSet(false, true)) {
+                cleanable.clean();
+                release(buffer, sizeClass);
+            }
+        }
+    }
+
+    /**
+     * Runs when a lease becomes unreachable, or when it is closed. It must not refer to the lease.
+     */
+    private record LeakCheck(BufferPool pool, AtomicBoolean released, Throwable site) implements Runnable {
+        @Override
+        public void run() {
+            if (!released.get()) {
+                pool.leaked(site);
+            }
+        }
+    }
+
+    /**
+     * Usage of a pool since its creation.
+     *
+     * @param acquisitions   The number of leases acquired.
+     * @param hits           The number of leases served by a buffer kept for reuse.
+     * @param allocations    The number of buffers allocated.
+     * @param allocatedBytes The total size of the buffers allocated.
+     * @param retainedBytes  The memory currently kept for reuse.
+     * @param outstanding    The number of leases not closed yet, leaks excluded.
+     * @param leaks          The number of leases never closed.
+     */
+    public record Metrics(long acquisitions, long hits, long allocations, long allocatedBytes,
+                          long retainedBytes, long outstanding, long leaks) {
+        // Get the fraction of acquisitions served without allocating
+        public double getHitRate() {
+            return acquisitions > 0 ? (double) hits / acquisitions : 0;
+        }
+    }
+}
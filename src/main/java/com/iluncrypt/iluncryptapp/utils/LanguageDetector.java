@@ -1,10 +1,7 @@
 package com.iluncrypt.iluncryptapp.utils;
 
+import com.iluncrypt.iluncryptapp.models.attacks.LanguageModel;
 import com.iluncrypt.iluncryptapp.models.enums.Language;
-import com.iluncrypt.iluncryptapp.models.enums.EnglishLetterFrequencyZ26;
-import com.iluncrypt.iluncryptapp.models.enums.FrenchLetterFrequencyZ26;
-import com.iluncrypt.iluncryptapp.models.enums.SpanishLetterFrequencyZ26;
-import com.iluncrypt.iluncryptapp.models.enums.PortugueseLetterFrequencyZ26;
 
 import java.util.*;
 import java.util.stream.Collectors;
@@ -20,13 +17,13 @@ public class LanguageDetector {
      * @return Lista de textos ordenada de mayor a menor afinidad al idioma.
      */
     public static List<String> sortByLanguageMatch(List<String> texts, Language language) {
-        // Obtener la distribución esperada según el idioma
-        Map<Character, Double> expectedFrequencies = getExpectedFrequencies(language);
+        // Obtener el modelo compilado del idioma
+        LanguageModel model = LanguageModel.of(language);
 
         // Calcular score para cada texto
         List<ScoredText> scoredTexts = new ArrayList<>();
         for (String text : texts) {
-            double score = computeLanguageScore(text, expectedFrequencies);
+            double score = computeLanguageScore(text, model);
             scoredTexts.add(new ScoredText(text, score));
         }
 
@@ -43,40 +40,27 @@ public class LanguageDetector {
      * Calcula un score de similitud (1/(1+chi-cuadrado)) para un texto, comparando la frecuencia observada
      * de las letras A–Z con la distribución esperada.
      *
-     * @param text                Texto a evaluar.
-     * @param expectedFrequencies Mapa de letra -> frecuencia esperada (en porcentaje).
+     * @param text  Texto a evaluar.
+     * @param model Modelo del idioma esperado.
      * @return Score de similitud; cuanto mayor, mejor se ajusta.
      */
-    private static double computeLanguageScore(String text, Map<Character, Double> expectedFrequencies) {
-        // Filtrar sólo letras A-Z y convertir a mayúsculas
-        String filtered = text.toUpperCase().replaceAll("[^A-Z]", "");
-        if (filtered.isEmpty()) {
+    private static double computeLanguageScore(String text, LanguageModel model) {
+        // Contar las letras A-Z sin distinguir mayúsculas
+        int[] counts = new int[LanguageModel.LETTERS];
+        int n = LanguageModel.countLetters(text, counts);
+        if (n == 0) {
             return 0.0;
         }
 
-        int n = filtered.length();
-        // Contar frecuencias
-        Map<Character, Integer> counts = new HashMap<>();
-        for (char c = 'A'; c <= 'Z'; c++) {
-            counts.put(c, 0);
-        }
-        for (char c : filtered.toCharArray()) {
-            counts.put(c, counts.get(c) + 1);
-        }
-        // Calcular porcentajes observados
-        Map<Character, Double> observed = new HashMap<>();
-        for (char c = 'A'; c <= 'Z'; c++) {
-            observed.put(c, counts.get(c) * 100.0 / n);
-        }
-
-        // Calcular chi-cuadrado
+        // Calcular chi-cuadrado sobre porcentajes
+        double[] expected = model.getProbabilities();
         double chi = 0.0;
-        for (char c = 'A'; c <= 'Z'; c++) {
-            double exp = expectedFrequencies.getOrDefault(c, 0.0);
+        for (int i = 0; i < LanguageModel.LETTERS; i++) {
+            double exp = expected[i] * 100.0;
             // Evitar división por cero; si la frecuencia esperada es 0, saltar esa letra.
             if (exp > 0) {
-                double obs = observed.get(c);
-                chi += Math.pow(obs - exp, 2) / exp;
+                double obs = counts[i] * 100.0 / n;
+                chi += (obs - exp) * (obs - exp) / exp;
             }
         }
 
@@ -84,45 +68,6 @@ public class LanguageDetector {
         return 1.0 / (1.0 + chi);
     }
 
-    /**
-     * Obtiene un mapa con las frecuencias esperadas (en porcentaje) para cada letra A-Z según el idioma.
-     *
-     * @param language Idioma seleccionado.
-     * @return Mapa de letra a frecuencia esperada.
-     */
-    private static Map<Character, Double> getExpectedFrequencies(Language language) {
-        Map<Character, Double> map = new HashMap<>();
-        switch (language) {
-            case ENGLISH:
-                for (EnglishLetterFrequencyZ26 letter : EnglishLetterFrequencyZ26.values()) {
-                    map.put(letter.name().charAt(0), letter.getProbability());
-                }
-                break;
-            case FRENCH:
-                for (FrenchLetterFrequencyZ26 letter : FrenchLetterFrequencyZ26.values()) {
-                    map.put(letter.name().charAt(0), letter.getProbability());
-                }
-                break;
-            case SPANISH:
-                for (SpanishLetterFrequencyZ26 letter : SpanishLetterFrequencyZ26.values()) {
-                    map.put(letter.name().charAt(0), letter.getProbability());
-                }
-                break;
-            case PORTUGUESE:
-                for (PortugueseLetterFrequencyZ26 letter : PortugueseLetterFrequencyZ26.values()) {
-                    map.put(letter.name().charAt(0), letter.getProbability());
-                }
-                break;
-            default:
-                // Por defecto, English
-                for (EnglishLetterFrequencyZ26 letter : EnglishLetterFrequencyZ26.values()) {
-                    map.put(letter.name().charAt(0), letter.getProbability());
-                }
-                break;
-        }
-        return map;
-    }
-
     /**
      * Clase auxiliar para almacenar un texto y su score de similitud.
      */
@@ -0,0 +1,127 @@
+package com.iluncrypt.iluncryptapp.utils.filemanager;
+
+import java.util.Arrays;
+
+/**
+ * Represents the header of a chunked (ILUNCR2) .ilun file.
+ * <p>
+ * The plaintext is cut into chunks of {@link #getChunkSize()} bytes, only the last one being shorter,
+ * and every chunk is stored as an independent record. The header keeps the offset of every record,
+ * so any chunk can be located without reading the others.
+ * </p>
+ */
+public class IlunChunkedMetadata extends IlunFileMetadata {
+    private final int chunkSize;
+    private final long plaintextSize;
+    private final byte[] nonce;
+    private final long[] chunkOffsets;
+    private byte[] headerDigest;
+
+    /**
+     * Constructs the header of a chunked file.
+     *
+     * @param algorithm      The encryption algorithm used.
+     * @param extension      The original file extension.
+     * @param plaintextSize  The size of the original file.
+     * @param storeAlgorithm Whether to store the algorithm name in the file.
+     * @param chunkSize      The size of every chunk but the last one.
+     * @param nonce          The nonce the IV of every chunk is derived from, empty if the mode has no IV.
+     * @param chunkOffsets   The file offset of every chunk record, followed by the offset of the end of the last one.
+     */
+    public IlunChunkedMetadata(String algorithm, String extension, long plaintextSize, boolean storeAlgorithm,
+                               int chunkSize, byte[] nonce, long[] chunkOffsets) {
+        super(algorithm, extension, plaintextSize, new byte[0], storeAlgorithm);
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("Chunk size must be positive.");
+        }
+        if (chunkOffsets.length != chunkCount(plaintextSize, chunkSize) + 1) {
+            throw new IllegalArgumentException("Expected one offset per chunk plus the end of the last chunk.");
+        }
+        this.chunkSize = chunkSize;
+        this.plaintextSize = plaintextSize;
+        this.nonce = nonce;
+        this.chunkOffsets = chunkOffsets;
+    }
+
+    /**
+     * Gets the number of chunks of a plaintext. An empty plaintext still has one, empty, chunk.
+     *
+     * @param plaintextSize The size of the plaintext.
+     * @param chunkSize     The size of the chunks.
+     * @return The number of chunks.
+     */
+    public static int chunkCount(long plaintextSize, int chunkSize) {
+        return Math.toIntExact(Math.max(1, (plaintextSize + chunkSize - 1) / chunkSize));
+    }
+
+    // Get the size of every chunk but the last one
+    public int getChunkSize() {
+        return chunkSize;
+    }
+
+    // Get the size of the original file
+    public long getPlaintextSize() {
+        return plaintextSize;
+    }
+
+    // Get the nonce the chunk IVs are derived from
+    public byte[] getNonce() {
+        return nonce;
+    }
+
+    // Get the number of chunks
+    public int getChunkCount() {
+        return chunkOffsets.length - 1;
+    }
+
+    // Get the file offset of a chunk record
+    public long getChunkOffset(int chunk) {
+        return chunkOffsets[chunk];
+    }
+
+    // Get the size of a chunk record in the file
+    public long getChunkRecordSize(int chunk) {
+        return chunkOffsets[chunk + 1] - chunkOffsets[chunk];
+    }
+
+    // Get the size of the plaintext of a chunk
+    public int getChunkPlaintextSize(int chunk) {
+        return (int) Math.min(chunkSize, plaintextSize - (long) chunk * chunkSize);
+    }
+
+    // Get the offset of the end of the last chunk record, i.e. the expected size of the file
+    public long getEndOffset() {
+        return chunkOffsets[chunkOffsets.length - 1];
+    }
+
+    long[] getChunkOffsets() {
+        return chunkOffsets;
+    }
+
+    /**
+     * Gets the SHA-256 digest of the encoded header, which every chunk authenticates together with
+     * its own data. Available once the header has been written or read by {@link IlunFileManager}.
+     *
+     * @return The digest, or null if the header has not been written or read yet.
+     */
+    public byte[] getHeaderDigest() {
+        return headerDigest;
+    }
+
+    void setHeaderDigest(byte[] headerDigest) {
+        this.headerDigest = headerDigest;
+    }
+
+    @Override
+    public String toString() {
+        return "IlunChunkedMetadata{" +
+                "algorithm='" + getAlgorithm() + '\'' +
+                ", extension='" + getExtension() + '\'' +
+                ", plaintextSize=" + plaintextSize +
+                ", chunkSize=" + chunkSize +
+                ", chunks=" + getChunkCount() +
+                ", nonce=" + Arrays.toString(nonce) +
+                ", storeAlgorithm=" + isStoreAlgorithm() +
+                '}';
+    }
+}
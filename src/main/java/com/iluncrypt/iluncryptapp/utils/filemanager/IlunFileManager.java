@@ -1,15 +1,46 @@
 package com.iluncrypt.iluncryptapp.utils.filemanager;
 
+import com.iluncrypt.iluncryptapp.utils.BufferPool;
+
 import java.io.*;
 import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.Arrays;
+import java.util.function.IntUnaryOperator;
 
 /**
  * Handles reading and writing of .ilun encrypted files.
+ * <p>
+ * Layout: magic "ILUNCR1\0", algorithm flag (1 byte), algorithm name (3 bytes, only if the flag is set),
+ * extension (10 bytes), low 32 bits of the payload size (4 bytes), SHA-256 checksum of the payload
+ * (32 bytes), high 32 bits of the payload size (4 bytes, once reserved and zero in files under 4 GB) and
+ * the payload itself.
+ * </p>
+ * <p>
+ * Chunked files (see {@link IlunChunkedMetadata}) start with "ILUNCR2\0", followed by the same algorithm
+ * and extension fields, chunk size (4 bytes), plaintext size (8 bytes), chunk count (4 bytes), nonce length
+ * (1 byte), nonce, the offset of every chunk record and of the end of the last one (8 bytes each) and
+ * reserved (4 bytes). The chunk records follow the header.
+ * </p>
  */
 public class IlunFileManager {
     private static final byte[] MAGIC_HEADER = "ILUNCR1\0".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] MAGIC_HEADER_CHUNKED = "ILUNCR2\0".getBytes(StandardCharsets.UTF_8);
+    private static final int ALGORITHM_LENGTH = 3;
+    private static final int EXTENSION_LENGTH = 10;
+    private static final int CHECKSUM_LENGTH = 32;
+    // Size, checksum and reserved bytes, at the end of the header
+    private static final int TRAILING_FIELDS_LENGTH = 4 + CHECKSUM_LENGTH + 4;
+    private static final int MAX_HEADER_LENGTH = MAGIC_HEADER.length + 1 + ALGORITHM_LENGTH + EXTENSION_LENGTH + TRAILING_FIELDS_LENGTH;
+    // Chunk size, plaintext size, chunk count and nonce length of a chunked header
+    private static final int CHUNKED_FIELDS_LENGTH = 4 + 8 + 4 + 1;
+    // Size of the pooled direct buffer payloads are copied through, instead of a temporary direct
+    // buffer of the size of the whole payload allocated by the JDK
+    private static final int TRANSFER_SIZE = 1 << 20;
 
     /**
      * Writes an encrypted file with metadata and encrypted content.
@@ -20,20 +51,22 @@ public class IlunFileManager {
      * @throws IOException If an error occurs while writing.
      */
     public static void writeIlunFile(File outputFile, byte[] encryptedData, IlunFileMetadata metadata) throws IOException {
-        try (FileOutputStream fos = new FileOutputStream(outputFile)) {
-            fos.write(MAGIC_HEADER);
-            fos.write(metadata.isStoreAlgorithm() ? 0x01 : 0x00);
-
-            if (metadata.isStoreAlgorithm()) {
-                fos.write(metadata.getAlgorithm().getBytes(StandardCharsets.UTF_8));
+        try (FileChannel channel = FileChannel.open(outputFile.toPath(), StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            writeIlunHeader(channel, metadata);
+            try (BufferPool.Lease lease = BufferPool.shared().acquire(Math.min(encryptedData.length, TRANSFER_SIZE))) {
+                ByteBuffer buffer = lease.buffer();
+                int offset = 0;
+                while (offset < encryptedData.length) {
+                    int length = Math.min(encryptedData.length - offset, TRANSFER_SIZE);
+                    buffer.clear();
+                    buffer.put(encryptedData, offset, length).flip();
+                    while (buffer.hasRemaining()) {
+                        channel.write(buffer);
+                    }
+                    offset += length;
+                }
             }
-
-            fos.write(padString(metadata.getExtension(), 10));
-            fos.write(ByteBuffer.allocate(4).putInt(metadata.getOriginalSize()).array());
-            fos.write(metadata.getChecksum());
-            fos.write(new byte[4]); // Reserved bytes
-
-            fos.write(encryptedData);
         }
     }
 
@@ -45,46 +78,361 @@ public class IlunFileManager {
      * @throws IOException If reading fails or file format is invalid.
      */
     public static IlunFileData readIlunFile(File inputFile) throws IOException {
-        try (FileInputStream fis = new FileInputStream(inputFile)) {
-            byte[] magicHeader = new byte[MAGIC_HEADER.length];
-            fis.read(magicHeader);
+        try (FileChannel channel = FileChannel.open(inputFile.toPath(), StandardOpenOption.READ)) {
+            IlunFileMetadata metadata = readIlunHeader(channel);
 
-            if (!Arrays.equals(magicHeader, MAGIC_HEADER)) {
-                throw new IOException("Invalid .ilun file format");
+            // Leer los datos cifrados completos (incluyendo IV si es necesario)
+            byte[] encryptedData = new byte[Math.toIntExact(channel.size() - channel.position())];
+            try (BufferPool.Lease lease = BufferPool.shared().acquire(Math.min(encryptedData.length, TRANSFER_SIZE))) {
+                ByteBuffer buffer = lease.buffer();
+                int offset = 0;
+                while (offset < encryptedData.length) {
+                    buffer.clear().limit(Math.min(encryptedData.length - offset, TRANSFER_SIZE));
+                    if (channel.read(buffer) < 0) {
+                        throw new IOException("Invalid .ilun file format");
+                    }
+                    int read = buffer.flip().remaining();
+                    buffer.get(encryptedData, offset, read);
+                    offset += read;
+                }
             }
 
-            int flag = fis.read();
-            String algorithm = null;
-            if (flag == 0x01) {
-                byte[] algoBytes = new byte[3];
-                fis.read(algoBytes);
-                algorithm = new String(algoBytes, StandardCharsets.UTF_8);
+            // Devolver los datos
+            return new IlunFileData(metadata, encryptedData);
+        }
+    }
+
+    /**
+     * Reads only the metadata of a .ilun file, without loading its content.
+     *
+     * @param inputFile The .ilun file to read.
+     * @return The metadata stored in the header.
+     * @throws IOException If reading fails or file format is invalid.
+     */
+    public static IlunFileMetadata readIlunMetadata(File inputFile) throws IOException {
+        try (FileChannel channel = FileChannel.open(inputFile.toPath(), StandardOpenOption.READ)) {
+            if (Arrays.equals(readMagic(channel), MAGIC_HEADER_CHUNKED)) {
+                return readChunkedHeader(channel);
             }
+            return readIlunHeader(channel);
+        }
+    }
 
-            byte[] extensionBytes = new byte[10];
-            fis.read(extensionBytes);
-            String extension = new String(extensionBytes, StandardCharsets.UTF_8).trim();
+    /**
+     * Checks whether a file is a chunked (ILUNCR2) .ilun file.
+     *
+     * @param inputFile The file to check.
+     * @return True if the file starts with the chunked magic header.
+     * @throws IOException If reading fails.
+     */
+    public static boolean isChunkedFile(File inputFile) throws IOException {
+        try (FileChannel channel = FileChannel.open(inputFile.toPath(), StandardOpenOption.READ)) {
+            return Arrays.equals(readMagic(channel), MAGIC_HEADER_CHUNKED);
+        }
+    }
 
-            byte[] sizeBytes = new byte[4];
-            fis.read(sizeBytes);
-            int originalSize = ByteBuffer.wrap(sizeBytes).getInt();
+    /**
+     * Reads the header at the start of the channel and leaves the channel positioned at the first
+     * byte of the payload, ready to be streamed.
+     *
+     * @param channel An open channel on a .ilun file.
+     * @return The metadata stored in the header.
+     * @throws IOException If reading fails or file format is invalid.
+     */
+    public static IlunFileMetadata readIlunHeader(FileChannel channel) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(MAX_HEADER_LENGTH);
+        channel.position(0);
+        while (header.hasRemaining() && channel.read(header) >= 0) {
+            // Keep reading until the header is complete or the file ends
+        }
+        header.flip();
+        if (header.remaining() < MAGIC_HEADER.length + 1) {
+            throw new IOException("Invalid .ilun file format");
+        }
 
-            byte[] checksum = new byte[32];
-            fis.read(checksum);
+        byte[] magicHeader = new byte[MAGIC_HEADER.length];
+        header.get(magicHeader);
+        if (Arrays.equals(magicHeader, MAGIC_HEADER_CHUNKED)) {
+            throw new IOException("Chunked .ilun files must be read chunk by chunk");
+        }
+        if (!Arrays.equals(magicHeader, MAGIC_HEADER)) {
+            throw new IOException("Invalid .ilun file format");
+        }
 
-            fis.skip(4); // Reserved bytes
+        int flag = header.get();
+        int length = MAX_HEADER_LENGTH - (flag == 0x01 ? 0 : ALGORITHM_LENGTH);
+        if (header.limit() < length) {
+            throw new IOException("Invalid .ilun file format");
+        }
 
-            // Leer los datos cifrados completos (incluyendo IV si es necesario)
-            byte[] encryptedData = fis.readAllBytes();
+        String algorithm = null;
+        if (flag == 0x01) {
+            byte[] algoBytes = new byte[ALGORITHM_LENGTH];
+            header.get(algoBytes);
+            algorithm = new String(algoBytes, StandardCharsets.UTF_8);
+        }
 
-            // Crear objeto de metadatos
-            IlunFileMetadata metadata = new IlunFileMetadata(algorithm, extension, originalSize, checksum, flag == 0x01);
+        byte[] extensionBytes = new byte[EXTENSION_LENGTH];
+        header.get(extensionBytes);
+        String extension = new String(extensionBytes, StandardCharsets.UTF_8).trim();
 
-            // Devolver los datos
-            return new IlunFileData(metadata, encryptedData);
+        long originalSize = header.getInt() & 0xFFFFFFFFL;
+
+        byte[] checksum = new byte[CHECKSUM_LENGTH];
+        header.get(checksum);
+        originalSize |= (header.getInt() & 0xFFFFFFFFL) << 32;
+
+        channel.position(length);
+        return new IlunFileMetadata(algorithm, extension, originalSize, checksum, flag == 0x01);
+    }
+
+    /**
+     * Writes the header of a .ilun file whose payload is going to be streamed right after it.
+     * The size and checksum of the metadata are placeholders until {@link #completeIlunHeader} is called.
+     *
+     * @param channel  An open, writable channel on the output file.
+     * @param metadata The metadata of the original file.
+     * @return The length of the header, i.e. the position of the payload.
+     * @throws IOException If an error occurs while writing.
+     */
+    public static int writeIlunHeader(FileChannel channel, IlunFileMetadata metadata) throws IOException {
+        ByteBuffer header = ByteBuffer.wrap(encodeHeader(metadata));
+        channel.position(0);
+        while (header.hasRemaining()) {
+            channel.write(header);
+        }
+        return header.capacity();
+    }
+
+    /**
+     * Fills in the size and checksum of a header written by {@link #writeIlunHeader}, once the whole
+     * payload has been streamed.
+     *
+     * @param channel      The channel the header was written to.
+     * @param headerLength The length returned by {@link #writeIlunHeader}.
+     * @param payloadSize  The number of bytes written after the header.
+     * @param checksum     The SHA-256 checksum of the payload.
+     * @throws IOException If an error occurs while writing.
+     */
+    public static void completeIlunHeader(FileChannel channel, int headerLength, long payloadSize, byte[] checksum) throws IOException {
+        ByteBuffer fields = ByteBuffer.allocate(TRAILING_FIELDS_LENGTH);
+        fields.putInt((int) payloadSize);
+        fields.put(checksum, 0, CHECKSUM_LENGTH);
+        fields.putInt((int) (payloadSize >>> 32));
+        fields.flip();
+        long position = headerLength - TRAILING_FIELDS_LENGTH;
+        while (fields.hasRemaining()) {
+            position += channel.write(fields, position);
         }
     }
 
+    /**
+     * Gets the length of a chunked header, i.e. the offset of its first chunk record.
+     *
+     * @param storeAlgorithm Whether the algorithm name is stored.
+     * @param nonceLength    The length of the nonce.
+     * @param chunkCount     The number of chunks.
+     * @return The length of the header in bytes.
+     */
+    public static int chunkedHeaderLength(boolean storeAlgorithm, int nonceLength, int chunkCount) {
+        long length = MAGIC_HEADER_CHUNKED.length + 1 + (storeAlgorithm ? ALGORITHM_LENGTH : 0) + EXTENSION_LENGTH
+                + CHUNKED_FIELDS_LENGTH + nonceLength + 8L * (chunkCount + 1) + 4;
+        return Math.toIntExact(length);
+    }
+
+    /**
+     * Writes the header of a chunked .ilun file at the start of the channel and computes its digest,
+     * available afterwards through {@link IlunChunkedMetadata#getHeaderDigest()}.
+     *
+     * @param channel  An open, writable channel on the output file.
+     * @param metadata The header to write, with the offsets of all the chunk records.
+     * @return The length of the header, i.e. the offset of the first chunk record.
+     * @throws IOException If an error occurs while writing.
+     */
+    public static int writeChunkedHeader(FileChannel channel, IlunChunkedMetadata metadata) throws IOException {
+        int length = chunkedHeaderLength(metadata.isStoreAlgorithm(), metadata.getNonce().length, metadata.getChunkCount());
+        if (metadata.getChunkOffset(0) != length) {
+            throw new IllegalArgumentException("The first chunk must start right after the header.");
+        }
+        ByteBuffer header = ByteBuffer.allocate(length);
+        header.put(MAGIC_HEADER_CHUNKED);
+        header.put((byte) (metadata.isStoreAlgorithm() ? 0x01 : 0x00));
+        if (metadata.isStoreAlgorithm()) {
+            header.put(padString(metadata.getAlgorithm(), ALGORITHM_LENGTH));
+        }
+        header.put(padString(metadata.getExtension(), EXTENSION_LENGTH));
+        header.putInt(metadata.getChunkSize());
+        header.putLong(metadata.getPlaintextSize());
+        header.putInt(metadata.getChunkCount());
+        header.put((byte) metadata.getNonce().length);
+        header.put(metadata.getNonce());
+        for (long offset : metadata.getChunkOffsets()) {
+            header.putLong(offset);
+        }
+        header.putInt(0); // Reserved bytes
+
+        metadata.setHeaderDigest(sha256(header.array()));
+        header.flip();
+        long position = 0;
+        while (header.hasRemaining()) {
+            position += channel.write(header, position);
+        }
+        return length;
+    }
+
+    /**
+     * Reads the header of a chunked .ilun file and leaves the channel positioned at the first chunk record.
+     * Only the layout of the header is checked; use {@link #readChunkedHeader(FileChannel, IntUnaryOperator)}
+     * before reading any record.
+     *
+     * @param channel An open channel on a chunked .ilun file.
+     * @return The header, with its digest.
+     * @throws IOException If reading fails, the file format is invalid or the records do not end with the file.
+     */
+    public static IlunChunkedMetadata readChunkedHeader(FileChannel channel) throws IOException {
+        return readChunkedHeader(channel, null);
+    }
+
+    /**
+     * Reads the header of a chunked .ilun file and checks that every record has the size the configuration
+     * gives to its chunk, so that no record is read or allocated before the header has been validated.
+     *
+     * @param channel    An open channel on a chunked .ilun file.
+     * @param recordSize The size of the record of a chunk from the size of its plaintext, or null to skip
+     *                   this check.
+     * @return The header, with its digest.
+     * @throws IOException If reading fails, the file format is invalid, a record does not have the expected
+     *                     size or the records do not end with the file.
+     */
+    public static IlunChunkedMetadata readChunkedHeader(FileChannel channel, IntUnaryOperator recordSize)
+            throws IOException {
+        ByteBuffer start = readFully(channel, 0, MAGIC_HEADER_CHUNKED.length + 1);
+        byte[] magicHeader = new byte[MAGIC_HEADER_CHUNKED.length];
+        start.get(magicHeader);
+        if (!Arrays.equals(magicHeader, MAGIC_HEADER_CHUNKED)) {
+            throw new IOException("Invalid .ilun file format");
+        }
+        boolean storeAlgorithm = start.get() == 0x01;
+
+        int fixedLength = MAGIC_HEADER_CHUNKED.length + 1 + (storeAlgorithm ? ALGORITHM_LENGTH : 0) + EXTENSION_LENGTH
+                + CHUNKED_FIELDS_LENGTH;
+        ByteBuffer fixed = readFully(channel, 0, fixedLength);
+        fixed.position(MAGIC_HEADER_CHUNKED.length + 1);
+        String algorithm = null;
+        if (storeAlgorithm) {
+            byte[] algoBytes = new byte[ALGORITHM_LENGTH];
+            fixed.get(algoBytes);
+            algorithm = new String(algoBytes, StandardCharsets.UTF_8).trim();
+        }
+        byte[] extensionBytes = new byte[EXTENSION_LENGTH];
+        fixed.get(extensionBytes);
+        String extension = new String(extensionBytes, StandardCharsets.UTF_8).trim();
+        int chunkSize = fixed.getInt();
+        long plaintextSize = fixed.getLong();
+        int chunkCount = fixed.getInt();
+        int nonceLength = fixed.get() & 0xFF;
+        // Every chunk takes at least its plaintext and its offset in the file, which bounds both counts;
+        // the chunk index is also kept under 1 GiB so that the header length fits in an int
+        long fileSize = channel.size();
+        if (chunkSize <= 0 || plaintextSize < 0 || plaintextSize > fileSize
+                || chunkCount != Math.max(1, (plaintextSize + chunkSize - 1) / chunkSize)
+                || chunkCount > Math.min(fileSize, 1 << 30) / Long.BYTES) {
+            throw new IOException("Invalid .ilun file format");
+        }
+
+        // The whole header, including the chunk index, must be in the file before it is allocated
+        int length = chunkedHeaderLength(storeAlgorithm, nonceLength, chunkCount);
+        if (fileSize < length) {
+            throw new IOException("Invalid .ilun file format");
+        }
+        ByteBuffer header = readFully(channel, 0, length);
+        header.position(fixedLength);
+        byte[] nonce = new byte[nonceLength];
+        header.get(nonce);
+        long[] offsets = new long[chunkCount + 1];
+        for (int i = 0; i < offsets.length; i++) {
+            offsets[i] = header.getLong();
+            if (i == 0 ? offsets[i] != length : offsets[i] < offsets[i - 1]) {
+                throw new IOException("Invalid .ilun file format");
+            }
+        }
+
+        IlunChunkedMetadata metadata = new IlunChunkedMetadata(algorithm, extension, plaintextSize, storeAlgorithm,
+                chunkSize, nonce, offsets);
+        if (recordSize != null) {
+            for (int chunk = 0; chunk < chunkCount; chunk++) {
+                int expected = recordSize.applyAsInt(metadata.getChunkPlaintextSize(chunk));
+                if (expected < 0 || metadata.getChunkRecordSize(chunk) != expected) {
+                    throw new IOException("Invalid .ilun file format");
+                }
+            }
+        }
+        if (metadata.getEndOffset() != fileSize) {
+            throw new IOException("The .ilun file has been truncated or extended");
+        }
+        metadata.setHeaderDigest(sha256(header.array()));
+        channel.position(length);
+        return metadata;
+    }
+
+    /**
+     * Reads the magic header, zero-filled if the file is shorter.
+     */
+    private static byte[] readMagic(FileChannel channel) throws IOException {
+        ByteBuffer magic = ByteBuffer.allocate(MAGIC_HEADER.length);
+        long position = 0;
+        int read;
+        while (magic.hasRemaining() && (read = channel.read(magic, position)) >= 0) {
+            position += read;
+        }
+        return magic.array();
+    }
+
+    /**
+     * Reads exactly {@code length} bytes at {@code position}.
+     *
+     * @return The bytes read, ready to be consumed.
+     * @throws IOException If the file ends before.
+     */
+    private static ByteBuffer readFully(FileChannel channel, long position, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position + buffer.position());
+            if (read < 0) {
+                throw new IOException("Invalid .ilun file format");
+            }
+        }
+        buffer.flip();
+        return buffer;
+    }
+
+    private static byte[] sha256(byte[] data) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(data);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    /**
+     * Encodes the header fields that precede the payload.
+     */
+    private static byte[] encodeHeader(IlunFileMetadata metadata) {
+        ByteArrayOutputStream header = new ByteArrayOutputStream(MAX_HEADER_LENGTH);
+        header.writeBytes(MAGIC_HEADER);
+        header.write(metadata.isStoreAlgorithm() ? 0x01 : 0x00);
+
+        if (metadata.isStoreAlgorithm()) {
+            header.writeBytes(metadata.getAlgorithm().getBytes(StandardCharsets.UTF_8));
+        }
+
+        header.writeBytes(padString(metadata.getExtension(), EXTENSION_LENGTH));
+        header.writeBytes(ByteBuffer.allocate(4).putInt((int) metadata.getOriginalSize()).array());
+        header.writeBytes(metadata.getChecksum());
+        header.writeBytes(ByteBuffer.allocate(4).putInt((int) (metadata.getOriginalSize() >>> 32)).array());
+        return header.toByteArray();
+    }
+
     /**
      * Pads a string to a fixed length with null bytes.
      *
@@ -8,7 +8,7 @@ import java.util.Arrays;
 public class IlunFileMetadata {
     private final String algorithm;
     private final String extension;
-    private final int originalSize;
+    private final long originalSize;
     private final byte[] checksum;
     private final boolean storeAlgorithm;
 
@@ -21,7 +21,7 @@ public class IlunFileMetadata {
      * @param checksum       The checksum of the original file.
      * @param storeAlgorithm Whether to store the algorithm name in the file.
      */
-    public IlunFileMetadata(String algorithm, String extension, int originalSize, byte[] checksum, boolean storeAlgorithm) {
+    public IlunFileMetadata(String algorithm, String extension, long originalSize, byte[] checksum, boolean storeAlgorithm) {
         this.algorithm = algorithm;
         this.extension = extension;
         this.originalSize = originalSize;
@@ -37,7 +37,7 @@ public class IlunFileMetadata {
         return extension;
     }
 
-    public int getOriginalSize() {
+    public long getOriginalSize() {
         return originalSize;
     }
 
@@ -0,0 +1,136 @@
+package com.iluncrypt.iluncryptapp.utils.filemanager;
+
+import com.iluncrypt.iluncryptapp.utils.BufferPool;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * Reads a range of a file as consecutive parts of a fixed size, through memory mappings instead of
+ * copies into heap arrays.
+ * <p>
+ * The parts are read-only views of the page cache, which can be passed as they are to
+ * {@link javax.crypto.Cipher#update(ByteBuffer, ByteBuffer)}, {@link javax.crypto.Mac#update(ByteBuffer)}
+ * and {@link MessageDigest#update(ByteBuffer)}. A single mapping cannot exceed 2 GB, so the range is
+ * mapped {@link #WINDOW_SIZE} bytes at a time, each window holding a whole number of parts. Mappings are
+ * released by the garbage collector once their buffers are unreachable; on Windows a mapped file cannot
+ * be deleted or truncated until then, so only source files are mapped, never the files being written.
+ * </p>
+ */
+public class MappedFileReader {
+    /** Size of the windows large files are mapped in: 256 MiB. */
+    public static final int WINDOW_SIZE = 1 << 28;
+
+    /** Largest file the byte array methods of the managers process whole: one window, 256 MiB. */
+    public static final int IN_MEMORY_LIMIT = WINDOW_SIZE;
+    // Files up to this size are read into a pooled buffer rather than mapped, as every mapping is only
+    // released once the garbage collector finds it unreachable
+    private static final int POOLED_READ_SIZE = 1 << 20;
+
+    private final FileChannel channel;
+    private final int partSize;
+    private final long windowSize;
+    private final long end;
+    private long position;
+    private MappedByteBuffer window;
+    private long windowStart;
+
+    /**
+     * Creates a reader over a range of a file. The position of the channel is not used nor changed.
+     *
+     * @param channel  An open channel on the file.
+     * @param position The offset of the range.
+     * @param length   The length of the range.
+     * @param partSize The size of the parts returned by {@link #next()}.
+     */
+    public MappedFileReader(FileChannel channel, long position, long length, int partSize) {
+        if (partSize <= 0) {
+            throw new IllegalArgumentException("Part size must be positive.");
+        }
+        this.channel = channel;
+        this.partSize = partSize;
+        this.windowSize = partSize >= WINDOW_SIZE ? partSize : WINDOW_SIZE - WINDOW_SIZE % partSize;
+        this.position = position;
+        this.end = position + length;
+    }
+
+    /**
+     * Gets the next part of the range: {@code partSize} bytes, fewer only for the last part.
+     *
+     * @return A read-only buffer over the part, or null once the whole range has been returned. Its pages
+     *         are read from disk on first access, or ahead of time by {@link MappedByteBuffer#load()}.
+     * @throws IOException If mapping fails.
+     */
+    public MappedByteBuffer next() throws IOException {
+        if (position >= end) {
+            return null;
+        }
+        if (window == null || position == windowStart + window.capacity()) {
+            windowStart = position;
+            window = channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(windowSize, end - position));
+        }
+        int offset = (int) (position - windowStart);
+        int size = Math.min(partSize, window.capacity() - offset);
+        position += size;
+        return window.slice(offset, size);
+    }
+
+    // Get the number of bytes not returned yet; 0 once the last part has been returned
+    public long remaining() {
+        return end - position;
+    }
+
+    /**
+     * Maps a range of a file as a single buffer.
+     *
+     * @param channel  An open channel on the file.
+     * @param position The offset of the range.
+     * @param length   The length of the range, at most {@link Integer#MAX_VALUE}.
+     * @return A read-only buffer over the range.
+     * @throws IOException If the range is too large or mapping fails.
+     */
+    public static ByteBuffer map(FileChannel channel, long position, long length) throws IOException {
+        if (length > Integer.MAX_VALUE) {
+            throw new IOException("File too large to be processed in memory: " + length + " bytes");
+        }
+        return channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+    }
+
+    /**
+     * Computes the digest of a file: mapped if it is large, read into a pooled buffer otherwise.
+     *
+     * @param file      The file to hash.
+     * @param algorithm The digest algorithm, e.g. "SHA-256".
+     * @return The digest of the whole file.
+     * @throws NoSuchAlgorithmException If the algorithm is not available.
+     * @throws IOException              If reading fails.
+     */
+    public static byte[] digest(File file, String algorithm) throws NoSuchAlgorithmException, IOException {
+        MessageDigest digest = MessageDigest.getInstance(algorithm);
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size <= POOLED_READ_SIZE) {
+                try (BufferPool.Lease lease = BufferPool.shared().acquire((int) size)) {
+                    ByteBuffer buffer = lease.buffer();
+                    while (buffer.hasRemaining() && channel.read(buffer) >= 0) {
+                        // Keep reading until the buffer is full or the file ends
+                    }
+                    digest.update(buffer.flip());
+                }
+            } else {
+                MappedFileReader reader = new MappedFileReader(channel, 0, size, WINDOW_SIZE);
+                ByteBuffer part;
+                while ((part = reader.next()) != null) {
+                    digest.update(part);
+                }
+            }
+        }
+        return digest.digest();
+    }
+}
@@ -0,0 +1,63 @@
+#!/usr/bin/env python3
+"""Cuenta los cuadrigramas de un corpus y escribe el recurso ngrams/quadgrams-<código>.txt.
+
+Los textos de tools/ngrams/corpus/<código>/*.txt se pasan a letras A-Z como hace NGramFitness: se quitan
+los acentos (normalización NFD), se pasan a mayúsculas y se descartan los demás caracteres. Los
+cuadrigramas se cuentan sobre la secuencia de letras de cada archivo, atravesando los límites de las
+palabras, porque así se puntúa el texto cifrado. El recurso lleva el total de cuadrigramas contados y
+los que aparecen al menos --min-count veces, de más a menos frecuente.
+
+Uso: python3 tools/ngrams/count_quadgrams.py es > src/main/resources/.../ngrams/quadgrams-es.txt
+"""
+
+import argparse
+import pathlib
+import sys
+import unicodedata
+from collections import Counter
+
+CORPUS = pathlib.Path(__file__).resolve().parent / "corpus"
+
+
+def letters(text):
+    """Devuelve las letras A-Z del texto, sin acentos y en mayúsculas."""
+    folded = unicodedata.normalize("NFD", text).upper()
+    return "".join(c for c in folded if "A" <= c <= "Z")
+
+
+def count(files):
+    counts = Counter()
+    for path in files:
+        stream = letters(path.read_text(encoding="utf-8"))
+        counts.update(stream[i:i + 4] for i in range(len(stream) - 3))
+    return counts
+
+
+def main():
+    parser = argparse.ArgumentParser(description=__doc__.splitlines()[0])
+    parser.add_argument("code", help="código del idioma: en, es, fr o pt")
+    parser.add_argument("--min-count", type=int, default=3,
+                        help="cuenta mínima de los cuadrigramas que se escriben (por defecto 3)")
+    args = parser.parse_args()
+
+    files = sorted((CORPUS / args.code).glob("*.txt"))
+    if not files:
+        sys.exit("No hay textos en " + str(CORPUS / args.code))
+    counts = count(files)
+    total = sum(counts.values())
+
+    out = sys.stdout
+    out.write("# Cuadrigramas más frecuentes, contados sobre %d cuadrigramas de prosa general (narrativa,\n"
+              % total)
+    out.write("# historia, divulgación, cartas, ensayo) de tools/ngrams/corpus/%s, sin acentos y sólo con las\n"
+              % args.code)
+    out.write("# letras A-Z. Se omiten los que aparecen menos de %d veces.\n" % args.min_count)
+    out.write("# total %d\n" % total)
+    for quadgram, n in sorted(counts.items(), key=lambda item: (-item[1], item[0])):
+        if n < args.min_count:
+            break
+        out.write("%s %d\n" % (quadgram, n))
+
+
+if __name__ == "__main__":
+    main()